@@ -0,0 +1,11 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+/** Seeds shared by the benchmarks, so that all of them work on the same synthetic ontologies */
+final class BenchmarkSeeds {
+
+    static final long DEFAULT_SEED = 20240901L;
+
+    static final long CHURN_SEED = 1L;
+
+    private BenchmarkSeeds() {}
+}
@@ -0,0 +1,215 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.stanford.protege.commitnavigator.GitHubRepository;
+import edu.stanford.protege.commitnavigator.config.RepositoryConfig;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
+import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
+import edu.stanford.protege.github.cloneservice.service.ChangeCommitToRevisionConverter;
+import edu.stanford.protege.github.cloneservice.service.ProjectHistoryConverter;
+import edu.stanford.protege.github.cloneservice.service.ProjectHistoryStorer;
+import edu.stanford.protege.github.cloneservice.service.RevisionSerializationExecutor;
+import edu.stanford.protege.github.cloneservice.service.RevisionSerializationProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitChangeSpillProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitChangeSpiller;
+import edu.stanford.protege.github.cloneservice.utils.CommitHistoryProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitPrefetchProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitPrefetcher;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDiffExecutor;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDiffProperties;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDifferenceCalculator;
+import edu.stanford.protege.github.cloneservice.utils.OntologyHistoryAnalyzer;
+import edu.stanford.protege.github.cloneservice.utils.OntologyLoader;
+import edu.stanford.protege.github.cloneservice.utils.OntologyManagerProvider;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jgit.api.Git;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Measures the throughput of the whole import pipeline on a synthetic repository.
+ *
+ * <p>The repository is generated once by {@link SyntheticRepositoryGenerator}. Each run clones it,
+ * extracts the history with {@link OntologyHistoryAnalyzer} and stores it with {@link
+ * ProjectHistoryStorer}, writing the history document to a local directory instead of MinIO. Each run
+ * reports the commits per second, the peak heap usage and the number of bytes written.
+ *
+ * <p>Options, all optional, are given as {@code --name=value}: {@code commits}, {@code classes},
+ * {@code churn}, {@code imports}, {@code formats} (a comma separated list of {@link
+ * SyntheticOntologyFormat} names), {@code seed} and {@code runs}. Run it with:
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec@end-to-end -De2e.args="--commits=500 --imports=4"
+ * </pre>
+ */
+public class EndToEndImportBenchmark {
+
+    private static final Map<String, String> DEFAULT_OPTIONS = Map.of(
+            "commits", "100",
+            "classes", "5000",
+            "churn", "0.01",
+            "imports", "2",
+            "formats", "RDF_XML,OBO,FUNCTIONAL",
+            "seed", String.valueOf(BenchmarkSeeds.DEFAULT_SEED),
+            "runs", "3");
+
+    public static void main(String[] args) throws Exception {
+        var options = parseOptions(args);
+        var spec = new SyntheticRepositorySpec(
+                Integer.parseInt(options.get("commits")),
+                Integer.parseInt(options.get("classes")),
+                Double.parseDouble(options.get("churn")),
+                Integer.parseInt(options.get("imports")),
+                Arrays.stream(options.get("formats").split(","))
+                        .map(String::trim)
+                        .map(SyntheticOntologyFormat::valueOf)
+                        .toList(),
+                Long.parseLong(options.get("seed")));
+        var runs = Integer.parseInt(options.get("runs"));
+
+        var workingDirectory = Files.createTempDirectory("end-to-end-import-benchmark-");
+        try {
+            var generationStart = System.nanoTime();
+            var repository = new SyntheticRepositoryGenerator().generate(spec, workingDirectory.resolve("origin"));
+            System.out.printf(
+                    "Generated %s in %.1f s%n", spec, (System.nanoTime() - generationStart) / 1_000_000_000.0);
+
+            System.out.printf(
+                    "%-4s %8s %10s %10s %10s %10s %12s %14s%n",
+                    "Run", "Commits", "Changes", "Extract s", "Store s", "Commits/s", "Peak heap MB", "Bytes written");
+            for (int run = 1; run <= runs; run++) {
+                var result = runImport(repository, workingDirectory.resolve("run-" + run));
+                System.out.printf(
+                        "%-4d %8d %10d %10.2f %10.2f %10.1f %12.1f %14d%n",
+                        run,
+                        result.commits(),
+                        result.axiomChanges(),
+                        result.extractNanos() / 1_000_000_000.0,
+                        result.storeNanos() / 1_000_000_000.0,
+                        result.commitsPerSecond(),
+                        result.peakHeapBytes() / (1024.0 * 1024.0),
+                        result.bytesWritten());
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(workingDirectory);
+        }
+    }
+
+    private static RunResult runImport(SyntheticRepository origin, Path runDirectory) throws Exception {
+        var cloneDirectory = runDirectory.resolve("clone");
+        Git.cloneRepository()
+                .setURI(origin.directory().toUri().toString())
+                .setDirectory(cloneDirectory.toFile())
+                .call()
+                .close();
+
+        var pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+        var diffExecutor = new OntologyDiffExecutor(new OntologyDiffProperties());
+        var serializationExecutor = new RevisionSerializationExecutor(new RevisionSerializationProperties());
+        var commitPrefetcher =
+                new CommitPrefetcher(new CommitPrefetchProperties(), new CommitHistoryProperties(), pipelineMetrics);
+        var analyzer = new OntologyHistoryAnalyzer(
+                new OntologyLoader(new OntologyManagerProvider()),
+                new OntologyDifferenceCalculator(),
+                pipelineMetrics,
+                diffExecutor,
+                commitPrefetcher,
+                new CommitChangeSpiller(new CommitChangeSpillProperties()));
+        var documentStorer = new LocalProjectHistoryDocumentStorer(runDirectory.resolve("storage"));
+        var storer = new ProjectHistoryStorer(
+                new ProjectHistoryConverter(new ChangeCommitToRevisionConverter()),
+                documentStorer,
+                pipelineMetrics,
+                serializationExecutor);
+
+        resetPeakHeapUsage();
+        var extractStart = System.nanoTime();
+        var storeStart = 0L;
+        var storeEnd = 0L;
+        List<OntologyCommitChange> history;
+        try {
+            history = analyzer.getCommitHistory(origin.rootOntologyFile(), createRepository(cloneDirectory));
+            storeStart = System.nanoTime();
+            storer.storeProjectHistory(ProjectId.generate(), history);
+            storeEnd = System.nanoTime();
+        } finally {
+            diffExecutor.shutdown();
+            serializationExecutor.shutdown();
+            commitPrefetcher.shutdown();
+        }
+
+        var axiomChanges = history.stream()
+                .mapToLong(commitChange -> commitChange.axiomChanges().size())
+                .sum();
+        var result = new RunResult(
+                history.size(),
+                axiomChanges,
+                storeStart - extractStart,
+                storeEnd - storeStart,
+                getPeakHeapUsage(),
+                documentStorer.getBytesWritten());
+        FileSystemUtils.deleteRecursively(runDirectory);
+        return result;
+    }
+
+    // The analyzer only reads the working directory and URL of the repository
+    private static GitHubRepository createRepository(Path cloneDirectory) {
+        var repositoryConfig = mock(RepositoryConfig.class);
+        when(repositoryConfig.getRepositoryUrl()).thenReturn("https://github.com/example/synthetic");
+        var repository = mock(GitHubRepository.class);
+        when(repository.getWorkingDirectory()).thenReturn(cloneDirectory);
+        when(repository.getConfig()).thenReturn(repositoryConfig);
+        return repository;
+    }
+
+    private static void resetPeakHeapUsage() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /** Sums the peaks of the heap pools, which is an upper bound of the peak heap usage */
+    private static long getPeakHeapUsage() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        var options = new HashMap<>(DEFAULT_OPTIONS);
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Options must be given as --name=value: " + arg);
+            }
+            var name = arg.substring(2, separator);
+            if (!DEFAULT_OPTIONS.containsKey(name)) {
+                throw new IllegalArgumentException(
+                        "Unknown option " + name + ", expected one of " + DEFAULT_OPTIONS.keySet());
+            }
+            options.put(name, arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private record RunResult(
+            int commits, long axiomChanges, long extractNanos, long storeNanos, long peakHeapBytes, long bytesWritten) {
+
+        double commitsPerSecond() {
+            return commits / ((extractNanos + storeNanos) / 1_000_000_000.0);
+        }
+    }
+}
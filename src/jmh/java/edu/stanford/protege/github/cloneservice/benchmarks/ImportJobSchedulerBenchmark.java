@@ -0,0 +1,89 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.github.cloneservice.job.ImportSchedulerProperties;
+import edu.stanford.protege.github.cloneservice.job.ImportStage;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of {@link ImportJobScheduler} for imports whose clone and upload stages
+ * block on I/O, with the I/O-bound stages on platform or virtual threads. Virtual threads fall back
+ * to platform threads on Java versions before 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportJobSchedulerBenchmark {
+
+    private static final long BLOCKING_IO_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"false", "true"})
+    public boolean virtualThreadsForIo;
+
+    @Param({"64"})
+    public int concurrentImports;
+
+    private ImportJobScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void createScheduler() {
+        var properties = new ImportSchedulerProperties();
+        properties.setVirtualThreadsForIo(virtualThreadsForIo);
+        properties.setQueueDepthWarningThreshold(Integer.MAX_VALUE);
+        scheduler = new ImportJobScheduler(properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownScheduler() {
+        scheduler.shutdown();
+    }
+
+    /** Runs a batch of concurrent imports through the clone, extract, store and upload stages */
+    @Benchmark
+    public void runImports() {
+        var imports = new ArrayList<CompletableFuture<?>>(concurrentImports);
+        for (int i = 0; i < concurrentImports; i++) {
+            var job = new ImportJob(
+                    CreateProjectHistoryFromGitHubRepoOperationId.generate(),
+                    ProjectId.generate(),
+                    UserId.valueOf("tenant-" + (i % 8)));
+            scheduler.begin(job);
+            imports.add(scheduler
+                    .submit(job, ImportStage.CLONE, ImportJobSchedulerBenchmark::blockOnIo)
+                    .thenCompose(ignored -> scheduler.submit(job, ImportStage.EXTRACT, () -> job))
+                    .thenCompose(ignored -> scheduler.submit(job, ImportStage.STORE, () -> job))
+                    .thenCompose(ignored ->
+                            scheduler.submit(job, ImportStage.UPLOAD, ImportJobSchedulerBenchmark::blockOnIo))
+                    .whenComplete((ignored, error) -> scheduler.finish(job)));
+        }
+        CompletableFuture.allOf(imports.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static Object blockOnIo() {
+        LockSupport.parkNanos(BLOCKING_IO_NANOS);
+        return null;
+    }
+}
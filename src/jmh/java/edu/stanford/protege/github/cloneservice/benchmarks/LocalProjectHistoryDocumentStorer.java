@@ -0,0 +1,63 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.exception.StorageException;
+import edu.stanford.protege.github.cloneservice.service.MinioProjectHistoryDocumentStorer;
+import edu.stanford.protege.github.cloneservice.service.MinioProperties;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import io.minio.MinioClient;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+/**
+ * Stands in for MinIO in benchmarks by copying the history documents into a local directory, laid
+ * out as {@code <bucket>/<object>}
+ */
+public class LocalProjectHistoryDocumentStorer extends MinioProjectHistoryDocumentStorer {
+
+    private static final String BUCKET_NAME = "webprotege-project-history-documents";
+
+    private final Path storageDirectory;
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    public LocalProjectHistoryDocumentStorer(@Nonnull Path storageDirectory) {
+        // The client is never used, creating it does not connect to the end point
+        super(
+                MinioClient.builder()
+                        .endpoint("http://localhost:9000")
+                        .credentials("local", "local")
+                        .build(),
+                createProperties());
+        this.storageDirectory = Objects.requireNonNull(storageDirectory, "storageDirectory cannot be null");
+    }
+
+    private static MinioProperties createProperties() {
+        var properties = new MinioProperties();
+        properties.setProjectHistoryDocumentsBucketName(BUCKET_NAME);
+        return properties;
+    }
+
+    @Override
+    public BlobLocation storeDocument(Path documentPath) {
+        var location = new BlobLocation(BUCKET_NAME, "project-history-" + UUID.randomUUID() + ".bin");
+        try {
+            var target = storageDirectory.resolve(location.bucket()).resolve(location.name());
+            Files.createDirectories(target.getParent());
+            Files.copy(documentPath, target);
+            bytesWritten.addAndGet(Files.size(target));
+            return location;
+        } catch (IOException e) {
+            throw new StorageException("Problem writing revision history document to storage " + documentPath, e);
+        }
+    }
+
+    /** Returns the total number of bytes of all stored documents */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+}
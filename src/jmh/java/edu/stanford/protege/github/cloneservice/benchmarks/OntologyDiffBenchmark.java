@@ -0,0 +1,60 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.model.AxiomChange;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDifferenceCalculator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/**
+ * Measures how long {@link OntologyDifferenceCalculator} takes to diff two versions of an ontology
+ * that differ by a controlled fraction of their axioms
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OntologyDiffBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int classCount;
+
+    @Param({"0.001", "0.01", "0.1"})
+    public double churnRatio;
+
+    private final OntologyDifferenceCalculator differenceCalculator = new OntologyDifferenceCalculator();
+
+    private OWLOntology parentOntology;
+
+    private OWLOntology childOntology;
+
+    @Setup(Level.Trial)
+    public void createOntologies() {
+        var generator = new SyntheticOntologyGenerator(BenchmarkSeeds.DEFAULT_SEED);
+        var parentAxioms = generator.generateAxioms(classCount);
+        var childAxioms = generator.applyChurn(parentAxioms, churnRatio, classCount, BenchmarkSeeds.CHURN_SEED);
+        // Both versions need their own manager because they share the same ontology IRI
+        parentOntology = generator.createOntology(OWLManager.createOWLOntologyManager(), parentAxioms);
+        childOntology = generator.createOntology(OWLManager.createOWLOntologyManager(), childAxioms);
+    }
+
+    @Benchmark
+    public List<AxiomChange> calculateAxiomChanges() {
+        return differenceCalculator.calculateAxiomChanges(childOntology, parentOntology, childOntology.getOntologyID());
+    }
+}
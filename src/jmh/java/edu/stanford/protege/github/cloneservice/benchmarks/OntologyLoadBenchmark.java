@@ -0,0 +1,69 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.utils.OntologyLoader;
+import edu.stanford.protege.github.cloneservice.utils.OntologyManagerProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.springframework.util.FileSystemUtils;
+
+/** Measures how long {@link OntologyLoader} takes to parse each supported format */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OntologyLoadBenchmark {
+
+    @Param({"RDF_XML", "TURTLE", "OWL_XML", "FUNCTIONAL", "OBO"})
+    public SyntheticOntologyFormat format;
+
+    @Param({"1000", "10000", "50000"})
+    public int classCount;
+
+    private final OntologyLoader ontologyLoader = new OntologyLoader(new OntologyManagerProvider());
+
+    private Path workingDirectory;
+
+    private Path ontologyFile;
+
+    @Setup(Level.Trial)
+    public void writeOntology() throws IOException {
+        workingDirectory = Files.createTempDirectory("ontology-load-benchmark-");
+        ontologyFile = workingDirectory.resolve("synthetic" + format.getFileExtension());
+        var generator = new SyntheticOntologyGenerator(BenchmarkSeeds.DEFAULT_SEED);
+        generator.writeOntology(generator.generateAxioms(classCount), format, ontologyFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteOntology() throws IOException {
+        FileSystemUtils.deleteRecursively(workingDirectory);
+    }
+
+    @Benchmark
+    public List<OWLOntology> loadWithImports() throws Exception {
+        return ontologyLoader.loadOntologyWithImports(ontologyFile);
+    }
+
+    @Benchmark
+    public List<OWLOntology> loadWithoutImports() throws Exception {
+        return ontologyLoader.loadOntologyWithoutImports(ontologyFile);
+    }
+}
@@ -0,0 +1,45 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
+import edu.stanford.protege.github.cloneservice.service.ChangeCommitToRevisionConverter;
+import edu.stanford.protege.webprotege.revision.Revision;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures how long {@link ChangeCommitToRevisionConverter} takes to convert a commit change */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RevisionConversionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int axiomChangeCount;
+
+    private final ChangeCommitToRevisionConverter converter = new ChangeCommitToRevisionConverter();
+
+    private OntologyCommitChange commitChange;
+
+    @Setup(Level.Trial)
+    public void createCommitChange() {
+        commitChange = SyntheticCommitChanges.create(axiomChangeCount);
+    }
+
+    @Benchmark
+    public Revision convert() {
+        return converter.convert(commitChange, 1);
+    }
+}
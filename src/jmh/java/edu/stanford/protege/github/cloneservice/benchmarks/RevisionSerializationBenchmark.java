@@ -0,0 +1,63 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.service.ChangeCommitToRevisionConverter;
+import edu.stanford.protege.webprotege.revision.Revision;
+import edu.stanford.protege.webprotege.revision.RevisionSerializationTask;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long a {@link RevisionSerializationTask} takes to append a revision to the history
+ * document, as done by {@code ProjectHistoryStorer}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RevisionSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int axiomChangeCount;
+
+    private Revision revision;
+
+    private Path historyDocument;
+
+    @Setup(Level.Trial)
+    public void createRevision() {
+        revision = new ChangeCommitToRevisionConverter().convert(SyntheticCommitChanges.create(axiomChangeCount), 1);
+    }
+
+    // The document grows with every invocation, so start each iteration with an empty one
+    @Setup(Level.Iteration)
+    public void createHistoryDocument() throws IOException {
+        historyDocument = Files.createTempFile("revision-serialization-benchmark-", ".bin");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteHistoryDocument() throws IOException {
+        Files.deleteIfExists(historyDocument);
+    }
+
+    @Benchmark
+    public Integer serialize() throws Exception {
+        return new RevisionSerializationTask(historyDocument.toFile(), revision).call();
+    }
+}
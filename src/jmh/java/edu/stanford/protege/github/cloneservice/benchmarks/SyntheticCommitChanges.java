@@ -0,0 +1,49 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import edu.stanford.protege.github.cloneservice.model.AxiomChange;
+import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
+import java.time.Instant;
+import java.util.ArrayList;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+/** Creates commit changes with a given number of synthetic axiom changes */
+final class SyntheticCommitChanges {
+
+    private static final String REPOSITORY_URL = "https://github.com/example/synthetic";
+
+    private SyntheticCommitChanges() {}
+
+    /**
+     * Creates a commit change in which half of the axiom changes are additions and half are removals
+     *
+     * @param axiomChangeCount the number of axiom changes
+     * @return the commit change
+     */
+    static OntologyCommitChange create(int axiomChangeCount) {
+        var generator = new SyntheticOntologyGenerator(BenchmarkSeeds.DEFAULT_SEED);
+        var ontologyId = new OWLOntologyID(IRI.create(SyntheticOntologyGenerator.ONTOLOGY_IRI));
+        var axioms = generator.generateAxioms(axiomChangeCount / 3 + 1);
+        var axiomChanges = new ArrayList<AxiomChange>(axiomChangeCount);
+        for (int i = 0; i < axiomChangeCount; i++) {
+            var axiom = axioms.get(i % axioms.size());
+            axiomChanges.add(
+                    i % 2 == 0 ? AxiomChange.addAxiom(axiom, ontologyId) : AxiomChange.removeAxiom(axiom, ontologyId));
+        }
+        return new OntologyCommitChange(axiomChanges, createCommitMetadata(), REPOSITORY_URL);
+    }
+
+    // The commit navigator only creates commit metadata from real repositories
+    private static CommitMetadata createCommitMetadata() {
+        var commitMetadata = mock(CommitMetadata.class);
+        when(commitMetadata.commitHash()).thenReturn("0123456789abcdef0123456789abcdef01234567");
+        when(commitMetadata.committerUsername()).thenReturn("synthetic-committer");
+        when(commitMetadata.commitDate()).thenReturn(Instant.parse("2024-09-01T00:00:00Z"));
+        when(commitMetadata.commitMessage()).thenReturn("Synthetic commit");
+        return commitMetadata;
+    }
+}
@@ -0,0 +1,35 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import java.util.function.Supplier;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.formats.OBODocumentFormat;
+import org.semanticweb.owlapi.formats.OWLXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.RDFXMLDocumentFormat;
+import org.semanticweb.owlapi.formats.TurtleDocumentFormat;
+import org.semanticweb.owlapi.model.OWLDocumentFormat;
+
+/** The ontology document formats that synthetic ontologies can be written in */
+public enum SyntheticOntologyFormat {
+    RDF_XML(".owl", RDFXMLDocumentFormat::new),
+    TURTLE(".ttl", TurtleDocumentFormat::new),
+    OWL_XML(".owx", OWLXMLDocumentFormat::new),
+    FUNCTIONAL(".ofn", FunctionalSyntaxDocumentFormat::new),
+    OBO(".obo", OBODocumentFormat::new);
+
+    private final String fileExtension;
+
+    private final Supplier<OWLDocumentFormat> documentFormat;
+
+    SyntheticOntologyFormat(String fileExtension, Supplier<OWLDocumentFormat> documentFormat) {
+        this.fileExtension = fileExtension;
+        this.documentFormat = documentFormat;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public OWLDocumentFormat newDocumentFormat() {
+        return documentFormat.get();
+    }
+}
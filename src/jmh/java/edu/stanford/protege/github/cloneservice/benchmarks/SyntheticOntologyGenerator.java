@@ -0,0 +1,219 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+/**
+ * Generates synthetic ontologies for benchmarks.
+ *
+ * <p>The generated ontologies are fully determined by the seed and the requested size, so benchmark
+ * results can be reproduced offline. Each class gets a declaration, an {@code rdfs:label}, a
+ * subclass axiom to an earlier class and, for every fifth class, an existential restriction over a
+ * {@code part_of} property. Class IRIs follow the OBO Foundry convention so that every supported
+ * format, including OBO, can represent the ontologies.
+ *
+ * <p>Each generator numbers its classes from a first class index, so generators with disjoint
+ * ranges produce ontologies without shared classes, such as the modules of an imports closure.
+ */
+public class SyntheticOntologyGenerator {
+
+    public static final String ONTOLOGY_IRI = "http://purl.obolibrary.org/obo/syn.owl";
+
+    private static final String CLASS_IRI_PREFIX = "http://purl.obolibrary.org/obo/SYN_";
+
+    private static final String PART_OF_IRI = "http://purl.obolibrary.org/obo/BFO_0000050";
+
+    private final OWLDataFactory dataFactory = OWLManager.getOWLDataFactory();
+
+    private final OWLObjectProperty partOf = dataFactory.getOWLObjectProperty(IRI.create(PART_OF_IRI));
+
+    private final long seed;
+
+    private final int firstClassIndex;
+
+    public SyntheticOntologyGenerator(long seed) {
+        this(seed, 0);
+    }
+
+    public SyntheticOntologyGenerator(long seed, int firstClassIndex) {
+        if (firstClassIndex < 0) {
+            throw new IllegalArgumentException("firstClassIndex cannot be negative");
+        }
+        this.seed = seed;
+        this.firstClassIndex = firstClassIndex;
+    }
+
+    /**
+     * Generates the axioms of an ontology with the given number of classes
+     *
+     * @param classCount the number of classes
+     * @return the axioms, in generation order
+     */
+    @Nonnull
+    public List<OWLAxiom> generateAxioms(int classCount) {
+        var random = new Random(seed);
+        var axioms = new ArrayList<OWLAxiom>(classCount * 4);
+        axioms.add(dataFactory.getOWLDeclarationAxiom(partOf));
+        for (int i = 0; i < classCount; i++) {
+            addClassAxioms(axioms, firstClassIndex + i, random);
+        }
+        return axioms;
+    }
+
+    /**
+     * Applies churn to a list of axioms. A fraction {@code churnRatio} of the axioms is removed and
+     * the same number of axioms describing new classes is added, so the size of the ontology stays
+     * about the same.
+     *
+     * @param axioms the axioms to change
+     * @param churnRatio the fraction of axioms to replace, between 0 and 1
+     * @param firstNewClassIndex the index of the first class that is created by this churn, relative
+     *     to the first class index of this generator
+     * @param churnSeed the seed that selects the removed axioms
+     * @return the changed axioms
+     */
+    @Nonnull
+    public List<OWLAxiom> applyChurn(
+            @Nonnull List<OWLAxiom> axioms, double churnRatio, int firstNewClassIndex, long churnSeed) {
+        Objects.requireNonNull(axioms, "axioms cannot be null");
+        if (churnRatio < 0 || churnRatio > 1) {
+            throw new IllegalArgumentException("churnRatio must be between 0 and 1");
+        }
+        var random = new Random(seed ^ churnSeed);
+        var changeCount = (int) Math.round(axioms.size() * churnRatio);
+
+        var removedIndexes = new HashSet<Integer>();
+        while (removedIndexes.size() < changeCount) {
+            removedIndexes.add(random.nextInt(axioms.size()));
+        }
+        var changed = new ArrayList<OWLAxiom>(axioms.size() + changeCount);
+        for (int i = 0; i < axioms.size(); i++) {
+            if (!removedIndexes.contains(i)) {
+                changed.add(axioms.get(i));
+            }
+        }
+        var added = new ArrayList<OWLAxiom>();
+        for (int classIndex = firstClassIndex + firstNewClassIndex; added.size() < changeCount; classIndex++) {
+            addClassAxioms(added, classIndex, random);
+        }
+        changed.addAll(added.subList(0, changeCount));
+        return changed;
+    }
+
+    /**
+     * Creates an ontology with the given axioms in the given manager
+     *
+     * @param manager the manager that owns the ontology
+     * @param axioms the axioms of the ontology
+     * @return the ontology
+     */
+    @Nonnull
+    public OWLOntology createOntology(@Nonnull OWLOntologyManager manager, @Nonnull List<OWLAxiom> axioms) {
+        return createOntology(manager, IRI.create(ONTOLOGY_IRI), List.of(), axioms);
+    }
+
+    /**
+     * Creates an ontology with the given IRI, imports and axioms in the given manager
+     *
+     * @param manager the manager that owns the ontology
+     * @param ontologyIri the IRI of the ontology
+     * @param imports the IRIs of the imported ontologies
+     * @param axioms the axioms of the ontology
+     * @return the ontology
+     */
+    @Nonnull
+    public OWLOntology createOntology(
+            @Nonnull OWLOntologyManager manager,
+            @Nonnull IRI ontologyIri,
+            @Nonnull List<IRI> imports,
+            @Nonnull List<OWLAxiom> axioms) {
+        try {
+            var ontology = manager.createOntology(ontologyIri);
+            imports.forEach(importedIri ->
+                    manager.applyChange(new AddImport(ontology, dataFactory.getOWLImportsDeclaration(importedIri))));
+            manager.addAxioms(ontology, new HashSet<>(axioms));
+            return ontology;
+        } catch (OWLOntologyCreationException e) {
+            throw new IllegalStateException("Failed to create synthetic ontology", e);
+        }
+    }
+
+    /**
+     * Writes an ontology with the given axioms to a file
+     *
+     * @param axioms the axioms of the ontology
+     * @param format the document format
+     * @param file the file to write
+     */
+    public void writeOntology(
+            @Nonnull List<OWLAxiom> axioms, @Nonnull SyntheticOntologyFormat format, @Nonnull Path file)
+            throws IOException {
+        writeOntology(IRI.create(ONTOLOGY_IRI), List.of(), axioms, format, file);
+    }
+
+    /**
+     * Writes an ontology with the given IRI, imports and axioms to a file
+     *
+     * @param ontologyIri the IRI of the ontology
+     * @param imports the IRIs of the imported ontologies
+     * @param axioms the axioms of the ontology
+     * @param format the document format
+     * @param file the file to write
+     */
+    public void writeOntology(
+            @Nonnull IRI ontologyIri,
+            @Nonnull List<IRI> imports,
+            @Nonnull List<OWLAxiom> axioms,
+            @Nonnull SyntheticOntologyFormat format,
+            @Nonnull Path file)
+            throws IOException {
+        var manager = OWLManager.createOWLOntologyManager();
+        var ontology = createOntology(manager, ontologyIri, imports, axioms);
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            manager.saveOntology(ontology, format.newDocumentFormat(), outputStream);
+        } catch (OWLOntologyStorageException e) {
+            throw new IOException("Failed to write synthetic ontology to " + file, e);
+        }
+    }
+
+    private void addClassAxioms(List<OWLAxiom> axioms, int classIndex, Random random) {
+        var owlClass = getOWLClass(classIndex);
+        axioms.add(dataFactory.getOWLDeclarationAxiom(owlClass));
+        axioms.add(dataFactory.getOWLAnnotationAssertionAxiom(
+                dataFactory.getRDFSLabel(),
+                owlClass.getIRI(),
+                dataFactory.getOWLLiteral("synthetic class " + classIndex)));
+        if (classIndex > firstClassIndex) {
+            var superClass = getOWLClass(firstClassIndex + random.nextInt(classIndex - firstClassIndex));
+            axioms.add(dataFactory.getOWLSubClassOfAxiom(owlClass, superClass));
+            if (classIndex % 5 == 0) {
+                var whole = getOWLClass(firstClassIndex + random.nextInt(classIndex - firstClassIndex));
+                axioms.add(dataFactory.getOWLSubClassOfAxiom(
+                        owlClass, dataFactory.getOWLObjectSomeValuesFrom(partOf, whole)));
+            }
+        }
+    }
+
+    private OWLClass getOWLClass(int classIndex) {
+        return dataFactory.getOWLClass(IRI.create(CLASS_IRI_PREFIX + String.format("%07d", classIndex)));
+    }
+}
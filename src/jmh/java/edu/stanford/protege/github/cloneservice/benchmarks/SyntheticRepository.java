@@ -0,0 +1,23 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import java.nio.file.Path;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * A synthetic git repository created by {@link SyntheticRepositoryGenerator}
+ *
+ * @param directory the working directory of the repository
+ * @param rootOntologyFile the path of the root ontology, relative to the working directory
+ * @param spec the description the repository was generated from
+ */
+public record SyntheticRepository(
+        @Nonnull Path directory, @Nonnull RelativeFilePath rootOntologyFile, @Nonnull SyntheticRepositorySpec spec) {
+
+    public SyntheticRepository {
+        Objects.requireNonNull(directory, "directory cannot be null");
+        Objects.requireNonNull(rootOntologyFile, "rootOntologyFile cannot be null");
+        Objects.requireNonNull(spec, "spec cannot be null");
+    }
+}
@@ -0,0 +1,168 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+/**
+ * Builds local git repositories with a synthetic ontology history, so that the whole import
+ * pipeline can be measured without network access.
+ *
+ * <p>The root ontology imports {@link SyntheticRepositorySpec#importFanOut()} module documents,
+ * which are resolved through an XML catalog. The first commit adds all documents. Each following
+ * commit changes a single document, taking the root ontology and the modules in turn, by replacing
+ * {@link SyntheticRepositorySpec#churnPerCommit()} of its axioms. Commit authors and dates are fixed,
+ * so the same spec always produces the same commit hashes.
+ */
+public class SyntheticRepositoryGenerator {
+
+    public static final String ROOT_ONTOLOGY_NAME = "root";
+
+    private static final String MODULE_IRI_PREFIX = "http://purl.obolibrary.org/obo/syn/module-";
+
+    private static final String CATALOG_FILE_NAME = "catalog-v001.xml";
+
+    /** Size of the class index range of each document, so that documents do not share classes */
+    private static final int CLASS_INDEX_RANGE = 1_000_000;
+
+    private static final Instant FIRST_COMMIT_TIME = Instant.parse("2024-01-01T00:00:00Z");
+
+    /**
+     * Generates a repository in the given directory
+     *
+     * @param spec the description of the repository
+     * @param directory the directory to create the repository in. It must not exist or be empty.
+     * @return the generated repository
+     * @throws IOException if the documents cannot be written or the repository cannot be created
+     */
+    @Nonnull
+    public SyntheticRepository generate(@Nonnull SyntheticRepositorySpec spec, @Nonnull Path directory)
+            throws IOException {
+        Objects.requireNonNull(spec, "spec cannot be null");
+        Objects.requireNonNull(directory, "directory cannot be null");
+
+        var documents = new ArrayList<SyntheticDocument>();
+        for (int i = 0; i <= spec.importFanOut(); i++) {
+            documents.add(new SyntheticDocument(spec, i));
+        }
+        var moduleIris = documents.subList(1, documents.size()).stream()
+                .map(SyntheticDocument::ontologyIri)
+                .toList();
+
+        try (var git = Git.init()
+                .setDirectory(directory.toFile())
+                .setInitialBranch("main")
+                .call()) {
+            if (!moduleIris.isEmpty()) {
+                writeCatalog(directory, documents.subList(1, documents.size()));
+            }
+            for (var document : documents) {
+                document.write(directory, document.index == 0 ? moduleIris : List.of());
+            }
+            commit(git, 0, "Add synthetic ontology");
+
+            for (int commitIndex = 1; commitIndex < spec.commitCount(); commitIndex++) {
+                var document = documents.get(commitIndex % documents.size());
+                document.applyChurn(commitIndex);
+                document.write(directory, document.index == 0 ? moduleIris : List.of());
+                commit(git, commitIndex, "Change " + document.fileName + " (" + commitIndex + ")");
+            }
+        } catch (GitAPIException e) {
+            throw new IOException("Failed to create synthetic repository in " + directory, e);
+        }
+        return new SyntheticRepository(directory, new RelativeFilePath(documents.get(0).fileName), spec);
+    }
+
+    private static void commit(Git git, int commitIndex, String message) throws GitAPIException {
+        var ident = new PersonIdent(
+                "Synthetic Committer",
+                "synthetic-committer@example.org",
+                FIRST_COMMIT_TIME.plus(Duration.ofMinutes(commitIndex)),
+                ZoneOffset.UTC);
+        git.add().addFilepattern(".").call();
+        git.commit()
+                .setMessage(message)
+                .setAuthor(ident)
+                .setCommitter(ident)
+                .setSign(false)
+                .call();
+    }
+
+    private static void writeCatalog(Path directory, List<SyntheticDocument> modules) throws IOException {
+        var catalog = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n")
+                .append("<catalog prefer=\"public\" xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">\n");
+        for (var module : modules) {
+            catalog.append("    <uri name=\"")
+                    .append(module.ontologyIri)
+                    .append("\" uri=\"")
+                    .append(module.fileName)
+                    .append("\"/>\n");
+        }
+        catalog.append("</catalog>\n");
+        Files.writeString(directory.resolve(CATALOG_FILE_NAME), catalog);
+    }
+
+    /** The current state of one ontology document of the repository */
+    private static final class SyntheticDocument {
+
+        private final int index;
+
+        private final IRI ontologyIri;
+
+        private final String fileName;
+
+        private final SyntheticOntologyFormat format;
+
+        private final SyntheticOntologyGenerator generator;
+
+        private final double churnRatio;
+
+        private List<OWLAxiom> axioms;
+
+        private int nextClassIndex;
+
+        private SyntheticDocument(SyntheticRepositorySpec spec, int index) {
+            this.index = index;
+            this.format = spec.formatOf(index);
+            if (index == 0) {
+                this.ontologyIri = IRI.create(SyntheticOntologyGenerator.ONTOLOGY_IRI);
+                this.fileName = ROOT_ONTOLOGY_NAME + format.getFileExtension();
+            } else {
+                this.ontologyIri = IRI.create(MODULE_IRI_PREFIX + index + ".owl");
+                this.fileName = "module-" + index + format.getFileExtension();
+            }
+            this.generator = new SyntheticOntologyGenerator(spec.seed() + index, index * CLASS_INDEX_RANGE);
+            this.churnRatio = spec.churnPerCommit();
+            this.axioms = generator.generateAxioms(spec.classCount());
+            this.nextClassIndex = spec.classCount();
+        }
+
+        private IRI ontologyIri() {
+            return ontologyIri;
+        }
+
+        private void applyChurn(int commitIndex) {
+            axioms = generator.applyChurn(axioms, churnRatio, nextClassIndex, commitIndex);
+            // Each replaced axiom adds at most one new class
+            nextClassIndex += (int) Math.round(axioms.size() * churnRatio) + 1;
+        }
+
+        private void write(Path directory, List<IRI> imports) throws IOException {
+            generator.writeOntology(ontologyIri, imports, axioms, format, directory.resolve(fileName));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package edu.stanford.protege.github.cloneservice.benchmarks;
+
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Describes a synthetic git repository with the history of an ontology
+ *
+ * @param commitCount the number of commits, including the initial one
+ * @param classCount the number of classes in each ontology document
+ * @param churnPerCommit the fraction of the axioms of a document that each commit replaces
+ * @param importFanOut the number of module documents imported by the root ontology
+ * @param formats the document formats, assigned in turn to the root ontology and the modules
+ * @param seed the seed from which the whole repository is generated
+ */
+public record SyntheticRepositorySpec(
+        int commitCount,
+        int classCount,
+        double churnPerCommit,
+        int importFanOut,
+        @Nonnull List<SyntheticOntologyFormat> formats,
+        long seed) {
+
+    public SyntheticRepositorySpec {
+        Objects.requireNonNull(formats, "formats cannot be null");
+        if (commitCount < 1) {
+            throw new IllegalArgumentException("commitCount must be at least 1");
+        }
+        if (classCount < 1) {
+            throw new IllegalArgumentException("classCount must be at least 1");
+        }
+        if (churnPerCommit < 0 || churnPerCommit > 1) {
+            throw new IllegalArgumentException("churnPerCommit must be between 0 and 1");
+        }
+        if (importFanOut < 0) {
+            throw new IllegalArgumentException("importFanOut cannot be negative");
+        }
+        if (formats.isEmpty()) {
+            throw new IllegalArgumentException("formats cannot be empty");
+        }
+        formats = List.copyOf(formats);
+    }
+
+    /** Returns the format of the document with the given index, where the root ontology is 0 */
+    @Nonnull
+    public SyntheticOntologyFormat formatOf(int documentIndex) {
+        return formats.get(documentIndex % formats.size());
+    }
+}
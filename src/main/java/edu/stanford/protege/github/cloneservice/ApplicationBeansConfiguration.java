@@ -1,17 +1,37 @@
 package edu.stanford.protege.github.cloneservice;
 
+import edu.stanford.protege.github.cloneservice.job.ImportCoalescingProperties;
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.github.cloneservice.job.ImportProgressProperties;
+import edu.stanford.protege.github.cloneservice.job.ImportRequestCoalescer;
+import edu.stanford.protege.github.cloneservice.job.ImportSchedulerProperties;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfileRegistry;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfilingProperties;
+import edu.stanford.protege.github.cloneservice.service.CancelProjectHistoryImportCommandHandler;
 import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoCommandHandler;
+import edu.stanford.protege.github.cloneservice.service.DumpProjectHistoryImportReportCommandHandler;
+import edu.stanford.protege.github.cloneservice.service.ImportPreflight;
+import edu.stanford.protege.github.cloneservice.service.ImportPreflightProperties;
+import edu.stanford.protege.github.cloneservice.service.MinioProjectHistoryDocumentStorer;
 import edu.stanford.protege.github.cloneservice.service.ProjectHistoryStorer;
+import edu.stanford.protege.github.cloneservice.service.RevisionSerializationExecutor;
+import edu.stanford.protege.github.cloneservice.service.RevisionSerializationProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitChangeSpillProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitChangeSpiller;
+import edu.stanford.protege.github.cloneservice.utils.CommitHistoryProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitPrefetchProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitPrefetcher;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDiffExecutor;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDiffProperties;
 import edu.stanford.protege.github.cloneservice.utils.OntologyHistoryAnalyzer;
 import edu.stanford.protege.webprotege.ipc.EventDispatcher;
 import edu.stanford.protege.webprotege.ipc.WebProtegeIpcApplication;
-import java.util.concurrent.Executor;
-import org.springframework.beans.factory.annotation.Qualifier;
+import java.time.Clock;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @EnableAsync
@@ -23,19 +43,82 @@ public class ApplicationBeansConfiguration {
             OntologyHistoryAnalyzer ontologyHistoryAnalyzer,
             ProjectHistoryStorer projectHistoryStorer,
             EventDispatcher eventDispatcher,
-            @Qualifier("projectHistoryImportExecutor") Executor projectHistoryImportExecutor) {
+            ImportJobScheduler importJobScheduler,
+            ImportRequestCoalescer importRequestCoalescer,
+            ImportProgressProperties importProgressProperties,
+            PipelineMetrics pipelineMetrics,
+            ImportProfileRegistry importProfileRegistry,
+            ImportPreflight importPreflight) {
         return new CreateProjectHistoryFromGitHubRepoCommandHandler(
-                ontologyHistoryAnalyzer, projectHistoryStorer, eventDispatcher, projectHistoryImportExecutor);
-    }
-
-    @Bean(name = "projectHistoryImportExecutor")
-    Executor projectHistoryImportExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("project-history-import-");
-        executor.initialize();
-        return executor;
+                ontologyHistoryAnalyzer,
+                projectHistoryStorer,
+                eventDispatcher,
+                importJobScheduler,
+                importRequestCoalescer,
+                importProgressProperties,
+                pipelineMetrics,
+                importProfileRegistry,
+                importPreflight);
+    }
+
+    @Bean
+    CancelProjectHistoryImportCommandHandler cancelProjectHistoryImportCommandHandler(
+            ImportJobScheduler importJobScheduler) {
+        return new CancelProjectHistoryImportCommandHandler(importJobScheduler);
+    }
+
+    @Bean
+    DumpProjectHistoryImportReportCommandHandler dumpProjectHistoryImportReportCommandHandler(
+            ImportProfileRegistry importProfileRegistry,
+            MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer) {
+        return new DumpProjectHistoryImportReportCommandHandler(
+                importProfileRegistry, minioProjectHistoryDocumentStorer);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    ImportJobScheduler importJobScheduler(
+            ImportSchedulerProperties importSchedulerProperties, PipelineMetrics pipelineMetrics) {
+        var importJobScheduler = new ImportJobScheduler(importSchedulerProperties);
+        pipelineMetrics.bindTo(importJobScheduler);
+        return importJobScheduler;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    RevisionSerializationExecutor revisionSerializationExecutor(
+            RevisionSerializationProperties revisionSerializationProperties) {
+        return new RevisionSerializationExecutor(revisionSerializationProperties);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    CommitPrefetcher commitPrefetcher(
+            CommitPrefetchProperties commitPrefetchProperties,
+            CommitHistoryProperties commitHistoryProperties,
+            PipelineMetrics pipelineMetrics) {
+        return new CommitPrefetcher(commitPrefetchProperties, commitHistoryProperties, pipelineMetrics);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    OntologyDiffExecutor ontologyDiffExecutor(OntologyDiffProperties ontologyDiffProperties) {
+        return new OntologyDiffExecutor(ontologyDiffProperties);
+    }
+
+    @Bean
+    ImportPreflight importPreflight(ImportPreflightProperties importPreflightProperties) {
+        return new ImportPreflight(importPreflightProperties);
+    }
+
+    @Bean
+    CommitChangeSpiller commitChangeSpiller(CommitChangeSpillProperties commitChangeSpillProperties) {
+        return new CommitChangeSpiller(commitChangeSpillProperties);
+    }
+
+    @Bean
+    ImportRequestCoalescer importRequestCoalescer(ImportCoalescingProperties importCoalescingProperties) {
+        return new ImportRequestCoalescer(importCoalescingProperties, Clock.systemUTC());
+    }
+
+    @Bean
+    ImportProfileRegistry importProfileRegistry(ImportProfilingProperties importProfilingProperties) {
+        return new ImportProfileRegistry(importProfilingProperties);
     }
 }
@@ -0,0 +1,33 @@
+package edu.stanford.protege.github.cloneservice.event;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.EventId;
+import edu.stanford.protege.webprotege.common.ProjectEvent;
+import edu.stanford.protege.webprotege.common.ProjectId;
+
+/**
+ * Event dispatched when importing project history from a GitHub repository is cancelled, either
+ * explicitly or because the import exceeded its deadline.
+ *
+ * @param projectId The project for which the history import was cancelled
+ * @param operationId The correlated operation ID for tracking the operation
+ * @param eventId The correlation event ID for tracking the operation
+ * @param repositoryCoordinates The coordinates of the repository from which import was cancelled
+ * @param reason The reason for the cancellation
+ */
+public record GitHubProjectHistoryImportCancelledEvent(
+        ProjectId projectId,
+        CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        EventId eventId,
+        RepositoryCoordinates repositoryCoordinates,
+        String reason)
+        implements ProjectEvent {
+
+    private static final String CHANNEL = "webprotege.events.projects.GitHubProjectHistoryImportCancelled";
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+}
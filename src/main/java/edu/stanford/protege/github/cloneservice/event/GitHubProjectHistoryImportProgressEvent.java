@@ -0,0 +1,42 @@
+package edu.stanford.protege.github.cloneservice.event;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.EventId;
+import edu.stanford.protege.webprotege.common.ProjectEvent;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import javax.annotation.Nullable;
+
+/**
+ * Event dispatched periodically while the project history of a GitHub repository is extracted and
+ * stored.
+ *
+ * @param projectId The project for which the history is imported
+ * @param operationId The correlated operation ID for tracking the operation
+ * @param eventId The correlation event ID for tracking the operation
+ * @param repositoryCoordinates The coordinates of the repository being imported
+ * @param commitsProcessed The number of commits whose ontology changes have been extracted
+ * @param totalCommits The estimated number of commits that are processed, or -1 if unknown
+ * @param axiomChanges The number of axiom changes extracted so far
+ * @param currentCommitHash The hash of the commit that was processed last, if any
+ * @param bytesSerialized The number of bytes of the project history document written so far
+ */
+public record GitHubProjectHistoryImportProgressEvent(
+        ProjectId projectId,
+        CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        EventId eventId,
+        RepositoryCoordinates repositoryCoordinates,
+        int commitsProcessed,
+        int totalCommits,
+        long axiomChanges,
+        @Nullable String currentCommitHash,
+        long bytesSerialized)
+        implements ProjectEvent {
+
+    private static final String CHANNEL = "webprotege.events.projects.GitHubProjectHistoryImportProgress";
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+}
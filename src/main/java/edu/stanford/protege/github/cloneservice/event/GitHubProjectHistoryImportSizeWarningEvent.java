@@ -0,0 +1,37 @@
+package edu.stanford.protege.github.cloneservice.event;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.EventId;
+import edu.stanford.protege.webprotege.common.ProjectEvent;
+import edu.stanford.protege.webprotege.common.ProjectId;
+
+/**
+ * Event dispatched before a GitHub repository is cloned when the estimated size of the import is
+ * close to the limits of the service. The import still runs, but may fail for lack of memory.
+ *
+ * @param projectId The project for which the history is imported
+ * @param operationId The correlated operation ID for tracking the operation
+ * @param eventId The correlation event ID for tracking the operation
+ * @param repositoryCoordinates The coordinates of the repository being imported
+ * @param warning The description of the limit that the import is close to
+ * @param ontologyFileSize The size of the ontology file at HEAD in bytes
+ * @param commitCount The number of commits that modify the ontology file, or -1 if it is unknown
+ */
+public record GitHubProjectHistoryImportSizeWarningEvent(
+        ProjectId projectId,
+        CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        EventId eventId,
+        RepositoryCoordinates repositoryCoordinates,
+        String warning,
+        long ontologyFileSize,
+        int commitCount)
+        implements ProjectEvent {
+
+    private static final String CHANNEL = "webprotege.events.projects.GitHubProjectHistoryImportSizeWarning";
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+}
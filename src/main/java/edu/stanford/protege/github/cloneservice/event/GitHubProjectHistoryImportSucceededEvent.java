@@ -1,10 +1,12 @@
 package edu.stanford.protege.github.cloneservice.event;
 
 import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.job.SkippedCommit;
 import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
 import edu.stanford.protege.webprotege.common.EventId;
 import edu.stanford.protege.webprotege.common.ProjectEvent;
 import edu.stanford.protege.webprotege.common.ProjectId;
+import java.util.List;
 
 /**
  * Event dispatched when project history is successfully imported from a GitHub repository.
@@ -13,12 +15,15 @@ import edu.stanford.protege.webprotege.common.ProjectId;
  * @param operationId The correlated operation ID for tracking the operation
  * @param eventId The correlation event ID for tracking the operation
  * @param repositoryCoordinates The coordinates of the repository from which history was imported
+ * @param skippedCommits The commits that were left out of the history because their ontologies could
+ *     not be loaded, with the reasons
  */
 public record GitHubProjectHistoryImportSucceededEvent(
         ProjectId projectId,
         CreateProjectHistoryFromGitHubRepoOperationId operationId,
         EventId eventId,
-        RepositoryCoordinates repositoryCoordinates)
+        RepositoryCoordinates repositoryCoordinates,
+        List<SkippedCommit> skippedCommits)
         implements ProjectEvent {
 
     private static final String CHANNEL = "webprotege.events.projects.GitHubProjectHistoryImportSucceeded";
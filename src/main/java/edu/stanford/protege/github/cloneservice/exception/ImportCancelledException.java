@@ -0,0 +1,9 @@
+package edu.stanford.protege.github.cloneservice.exception;
+
+/** Thrown when a project history import is cancelled or exceeds its deadline */
+public class ImportCancelledException extends RuntimeException {
+
+    public ImportCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package edu.stanford.protege.github.cloneservice.exception;
+
+/** Thrown when the preflight rejects a project history import before the repository is cloned */
+public class ImportRejectedException extends RuntimeException {
+
+    public ImportRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.coalescing")
+public class ImportCoalescingProperties {
+
+    private Duration resultReuseWindow = Duration.ofMinutes(10);
+
+    public Duration getResultReuseWindow() {
+        return resultReuseWindow;
+    }
+
+    public void setResultReuseWindow(Duration resultReuseWindow) {
+        this.resultReuseWindow = resultReuseWindow;
+    }
+}
@@ -0,0 +1,390 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfiler;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Runtime state of a single project history import operation.
+ *
+ * <p>The requesting user acts as the tenant for fair scheduling, and the estimated repository size
+ * is used to give small imports priority over large ones.
+ *
+ * <p>A job can be cancelled, either explicitly or when its deadline passes. Cancelling a job
+ * interrupts the threads that are currently running its stages, and makes every later {@link
+ * #checkpoint()} fail with an {@link ImportCancelledException}. The cancellation listeners of the
+ * job are then called, so that a request that waits for the result of another job can fail on its
+ * own. While other requests are attached to the job, cancelling the request that started it only
+ * calls the listeners, and the job keeps running for the attached requests.
+ *
+ * <p>The job also records the progress reported by the stages, and passes a snapshot of it to the
+ * progress listener at most once per reporting interval, and once more when the job completes. If
+ * profiling is enabled, the stages also report their durations and allocations to the profiler of
+ * the job. The commits that the extraction skips are recorded for the summary of the import.
+ */
+public class ImportJob implements ImportMonitor {
+
+    /** Marker value for a repository whose size has not been estimated yet */
+    public static final long UNKNOWN_SIZE = Long.MAX_VALUE;
+
+    private final CreateProjectHistoryFromGitHubRepoOperationId operationId;
+    private final ProjectId projectId;
+    private final UserId tenantId;
+
+    private volatile long estimatedRepositorySize = UNKNOWN_SIZE;
+
+    @Nullable private volatile String headCommit;
+
+    @Nullable private final Instant deadline;
+
+    @Nullable private volatile String cancellationReason;
+
+    private final Set<Thread> workerThreads = new HashSet<>();
+
+    private final List<Consumer<ImportCancelledException>> cancellationListeners = new ArrayList<>();
+
+    /** The number of other requests that wait for the result of this job */
+    private int attachedRequests;
+
+    private boolean requestCancelled;
+
+    // The commits are processed on several threads when the ontologies are diffed in parallel
+    private final AtomicInteger commitsProcessed = new AtomicInteger();
+    private volatile int totalCommits = ImportProgress.UNKNOWN_TOTAL;
+    private final LongAdder axiomChanges = new LongAdder();
+
+    @Nullable private volatile String currentCommitHash;
+
+    private volatile long bytesSerialized;
+
+    private final List<SkippedCommit> skippedCommits = new ArrayList<>();
+
+    @Nullable private Consumer<ImportProgress> progressListener;
+
+    private volatile ImportProfiler profiler = ImportProfiler.NONE;
+
+    private long progressInterval;
+
+    private long lastProgressReport;
+
+    public ImportJob(
+            @Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            @Nonnull ProjectId projectId,
+            @Nonnull UserId tenantId) {
+        this(operationId, projectId, tenantId, null);
+    }
+
+    public ImportJob(
+            @Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            @Nonnull ProjectId projectId,
+            @Nonnull UserId tenantId,
+            @Nullable Instant deadline) {
+        this.operationId = Objects.requireNonNull(operationId, "operationId cannot be null");
+        this.projectId = Objects.requireNonNull(projectId, "projectId cannot be null");
+        this.tenantId = Objects.requireNonNull(tenantId, "tenantId cannot be null");
+        this.deadline = deadline;
+        // The first progress report is due right away, whatever the origin of System.nanoTime()
+        this.lastProgressReport = System.nanoTime() - progressInterval;
+    }
+
+    @Nonnull
+    public CreateProjectHistoryFromGitHubRepoOperationId operationId() {
+        return operationId;
+    }
+
+    @Nonnull
+    public ProjectId projectId() {
+        return projectId;
+    }
+
+    @Nonnull
+    public UserId tenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Returns the estimated size of the repository in bytes, or {@link #UNKNOWN_SIZE} if it has not
+     * been estimated yet. Before the clone, this is the size of the ontology history estimated by the
+     * preflight, if any, and after the clone, the size of the working directory.
+     */
+    public long estimatedRepositorySize() {
+        return estimatedRepositorySize;
+    }
+
+    public void setEstimatedRepositorySize(long estimatedRepositorySize) {
+        this.estimatedRepositorySize = estimatedRepositorySize;
+    }
+
+    /**
+     * Returns the HEAD commit of the requested branch, once it has been resolved. Before the clone,
+     * this is the commit advertised by the remote repository, and after the clone, the commit that
+     * was checked out.
+     */
+    @Nonnull
+    public Optional<String> headCommit() {
+        return Optional.ofNullable(headCommit);
+    }
+
+    public void setHeadCommit(@Nullable String headCommit) {
+        this.headCommit = headCommit;
+    }
+
+    /** Returns the instant after which the job is cancelled, if the request specified a timeout */
+    @Nonnull
+    public Optional<Instant> deadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    /**
+     * Cancels the job and interrupts the threads that are running its stages.
+     *
+     * @param reason a description of why the job was cancelled
+     * @return {@code true} if the job was cancelled by this call, {@code false} if it had already
+     *     been cancelled
+     */
+    public boolean cancel(@Nonnull String reason) {
+        Objects.requireNonNull(reason, "reason cannot be null");
+        List<Consumer<ImportCancelledException>> listeners;
+        synchronized (this) {
+            if (cancellationReason != null) {
+                return false;
+            }
+            cancellationReason = reason;
+            workerThreads.forEach(Thread::interrupt);
+            listeners = List.copyOf(cancellationListeners);
+            cancellationListeners.clear();
+        }
+        var exception = cancellationException(reason);
+        listeners.forEach(listener -> listener.accept(exception));
+        return true;
+    }
+
+    /**
+     * Cancels the request that started the job. The job itself is cancelled, as by {@link
+     * #cancel(String)}, unless other requests are attached to it. In that case it keeps running for
+     * them and only the cancellation listeners are called.
+     *
+     * @param reason a description of why the request was cancelled
+     * @return {@code true} if the request was cancelled by this call, {@code false} if it had already
+     *     been cancelled
+     */
+    public boolean cancelRequest(@Nonnull String reason) {
+        Objects.requireNonNull(reason, "reason cannot be null");
+        List<Consumer<ImportCancelledException>> listeners;
+        synchronized (this) {
+            if (attachedRequests == 0) {
+                listeners = null;
+            } else if (cancellationReason != null || requestCancelled) {
+                return false;
+            } else {
+                requestCancelled = true;
+                listeners = List.copyOf(cancellationListeners);
+                cancellationListeners.clear();
+            }
+        }
+        if (listeners == null) {
+            return cancel(reason);
+        }
+        var exception = cancellationException(reason);
+        listeners.forEach(listener -> listener.accept(exception));
+        return true;
+    }
+
+    /**
+     * Registers another request that waits for the result of this job, so that cancelling the
+     * request that started the job no longer cancels the job.
+     */
+    public synchronized void attachRequest() {
+        attachedRequests++;
+    }
+
+    /**
+     * Unregisters a request that no longer waits for the result of this job. The job is cancelled
+     * once no request waits for it any more.
+     */
+    public void detachRequest() {
+        synchronized (this) {
+            attachedRequests = Math.max(0, attachedRequests - 1);
+            if (attachedRequests > 0 || !requestCancelled) {
+                return;
+            }
+        }
+        cancel("Every request of the import was cancelled");
+    }
+
+    /**
+     * Registers a listener that is called with the cancellation exception of the job when it is
+     * cancelled, or right away if it has already been cancelled.
+     *
+     * @param listener the listener
+     */
+    public void onCancel(@Nonnull Consumer<ImportCancelledException> listener) {
+        Objects.requireNonNull(listener, "listener cannot be null");
+        String reason;
+        synchronized (this) {
+            reason = cancellationReason;
+            if (reason == null) {
+                cancellationListeners.add(listener);
+                return;
+            }
+        }
+        listener.accept(cancellationException(reason));
+    }
+
+    public boolean isCancelled() {
+        return cancellationReason != null;
+    }
+
+    @Override
+    public void checkpoint() {
+        var reason = cancellationReason;
+        if (reason == null && deadline != null && Instant.now().isAfter(deadline)) {
+            cancel("Deadline " + deadline + " exceeded");
+            reason = cancellationReason;
+        }
+        if (reason != null) {
+            throw cancellationException(reason);
+        }
+    }
+
+    private ImportCancelledException cancellationException(String reason) {
+        return new ImportCancelledException("Import " + operationId.operationId() + " cancelled: " + reason);
+    }
+
+    /**
+     * Sets the listener that receives snapshots of the progress of this job.
+     *
+     * @param progressListener the listener
+     * @param interval the minimum time between two snapshots
+     */
+    public synchronized void reportProgressTo(
+            @Nonnull Consumer<ImportProgress> progressListener, @Nonnull Duration interval) {
+        this.progressListener = Objects.requireNonNull(progressListener, "progressListener cannot be null");
+        this.progressInterval =
+                Objects.requireNonNull(interval, "interval cannot be null").toNanos();
+        this.lastProgressReport = System.nanoTime() - progressInterval;
+    }
+
+    /**
+     * Sets the profiler that records the duration and allocations of the stages of this job.
+     *
+     * @param profiler the profiler
+     */
+    public void profileWith(@Nonnull ImportProfiler profiler) {
+        this.profiler = Objects.requireNonNull(profiler, "profiler cannot be null");
+    }
+
+    @Nonnull
+    @Override
+    public ImportProfiler profiler() {
+        return profiler;
+    }
+
+    /** Returns a snapshot of the progress of this job */
+    @Nonnull
+    public ImportProgress progress() {
+        return new ImportProgress(
+                commitsProcessed.get(), totalCommits, axiomChanges.sum(), currentCommitHash, bytesSerialized);
+    }
+
+    @Override
+    public boolean isTrackingProgress() {
+        return true;
+    }
+
+    @Override
+    public void extractionStarted(int totalCommits) {
+        this.totalCommits = totalCommits;
+        reportProgress(true);
+    }
+
+    @Override
+    public void commitProcessed(String commitHash, int axiomChanges) {
+        this.commitsProcessed.incrementAndGet();
+        this.axiomChanges.add(axiomChanges);
+        this.currentCommitHash = commitHash;
+        reportProgress(false);
+    }
+
+    @Override
+    public synchronized void commitSkipped(String commitHash, String reason) {
+        skippedCommits.add(new SkippedCommit(commitHash, reason));
+    }
+
+    /** Returns the commits that were skipped so far, in the order in which they were skipped */
+    @Nonnull
+    public synchronized List<SkippedCommit> skippedCommits() {
+        return List.copyOf(skippedCommits);
+    }
+
+    @Override
+    public void bytesSerialized(long totalBytesSerialized) {
+        this.bytesSerialized = totalBytesSerialized;
+        reportProgress(false);
+    }
+
+    @Override
+    public synchronized boolean isProgressReportDue() {
+        return progressListener != null && System.nanoTime() - lastProgressReport >= progressInterval;
+    }
+
+    /**
+     * Reports the progress of a job that has completed, whether or not a report is due. The total
+     * number of commits reported at the start of the extraction is an upper bound, so it is replaced
+     * by the number of commits that were processed, and the last report shows the whole import as
+     * done.
+     */
+    public void reportCompletion() {
+        totalCommits = commitsProcessed.get();
+        reportProgress(true);
+    }
+
+    private void reportProgress(boolean force) {
+        Consumer<ImportProgress> listener;
+        synchronized (this) {
+            listener = progressListener;
+            var now = System.nanoTime();
+            if (listener == null || (!force && now - lastProgressReport < progressInterval)) {
+                return;
+            }
+            lastProgressReport = now;
+        }
+        listener.accept(progress());
+    }
+
+    /**
+     * Registers the current thread as running a stage of this job, so that it is interrupted if the
+     * job is cancelled.
+     */
+    synchronized void attachWorker(@Nonnull Thread thread) {
+        workerThreads.add(thread);
+    }
+
+    /**
+     * Unregisters a thread that has finished running a stage of this job. Once this method returns,
+     * cancelling the job no longer interrupts the thread.
+     */
+    synchronized void detachWorker(@Nonnull Thread thread) {
+        workerThreads.remove(thread);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportJob[" + operationId.operationId() + "]";
+    }
+}
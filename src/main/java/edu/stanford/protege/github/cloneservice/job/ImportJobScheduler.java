@@ -0,0 +1,303 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Schedules the stages of project history imports onto one bounded pool per {@link ImportStage}.
+ *
+ * <p>Queued tasks are not executed in submission order. Instead, each stage queue is ordered by:
+ *
+ * <ol>
+ *   <li>the number of active jobs of the tenant that submitted the task (fewer first), so that a
+ *       single user cannot monopolize a stage;
+ *   <li>the estimated repository size of the job (smaller first), so that small imports are not
+ *       stuck behind large ones;
+ *   <li>the submission order.
+ * </ol>
+ *
+ * <p>Stage queues are unbounded; a task is never rejected because a stage is busy. The queue depth
+ * of each stage is exposed instead, and a warning is logged when it exceeds the configured
+ * threshold.
+ *
+ * <p>When {@link ImportSchedulerProperties#isVirtualThreadsForIo()} is enabled and the runtime
+ * supports virtual threads (Java 21+), the I/O-bound stages run each task on its own virtual thread
+ * instead. These stages then have no queue, and hence no priority ordering, because blocked virtual
+ * threads do not hold on to platform threads. The CPU-bound {@link ImportStage#EXTRACT} stage always
+ * stays on its bounded platform pool.
+ *
+ * <p>The scheduler also keeps track of the active jobs, so that they can be looked up by operation
+ * id and cancelled, and cancels jobs whose deadline passes before they finish.
+ */
+public class ImportJobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobScheduler.class);
+
+    private final ImportSchedulerProperties properties;
+
+    private final Map<ImportStage, ExecutorService> executors = new EnumMap<>(ImportStage.class);
+
+    private final Map<ImportStage, AtomicInteger> activeTaskCounts = new EnumMap<>(ImportStage.class);
+
+    private final Map<CreateProjectHistoryFromGitHubRepoOperationId, ImportJob> activeJobs = new ConcurrentHashMap<>();
+
+    private final Map<ImportJob, ScheduledFuture<?>> deadlineTimers = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService deadlineTimer;
+
+    private final Map<UserId, Integer> activeJobsPerTenant = new ConcurrentHashMap<>();
+
+    private final AtomicLong submissionSequence = new AtomicLong();
+
+    public ImportJobScheduler(@Nonnull ImportSchedulerProperties properties) {
+        this.properties = Objects.requireNonNull(properties, "properties cannot be null");
+        var virtualThreadExecutorFactory = properties.isVirtualThreadsForIo()
+                ? findVirtualThreadExecutorFactory()
+                : Optional.<MethodHandle>empty();
+        for (var stage : ImportStage.values()) {
+            var executor = stage.isIoBound() && virtualThreadExecutorFactory.isPresent()
+                    ? createVirtualThreadExecutor(virtualThreadExecutorFactory.get())
+                    : createPlatformThreadExecutor(stage, properties.getPoolSize(stage));
+            executors.put(stage, executor);
+            activeTaskCounts.put(stage, new AtomicInteger());
+        }
+        var deadlineTimerExecutor =
+                new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("project-history-deadline-"));
+        deadlineTimerExecutor.setRemoveOnCancelPolicy(true);
+        this.deadlineTimer = deadlineTimerExecutor;
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively so that the service
+     * can still be built and run on Java 17, where virtual threads are not available.
+     */
+    private static Optional<MethodHandle> findVirtualThreadExecutorFactory() {
+        try {
+            var factory = MethodHandles.publicLookup()
+                    .findStatic(
+                            Executors.class,
+                            "newVirtualThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class));
+            logger.info("Running I/O-bound import stages on virtual threads");
+            return Optional.of(factory);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            logger.warn(
+                    "Virtual threads are not supported by Java {}. Running I/O-bound import stages on platform threads",
+                    Runtime.version().feature());
+            return Optional.empty();
+        }
+    }
+
+    private static ExecutorService createVirtualThreadExecutor(MethodHandle factory) {
+        try {
+            return (ExecutorService) factory.invokeExact();
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to create virtual thread executor", t);
+        }
+    }
+
+    private static ThreadPoolExecutor createPlatformThreadExecutor(ImportStage stage, int poolSize) {
+        var threadFactory =
+                new CustomizableThreadFactory("project-history-" + stage.name().toLowerCase() + "-");
+        return new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), threadFactory);
+    }
+
+    /**
+     * Registers a job as active. Active jobs count towards the fairness share of their tenant. If the
+     * job has a deadline, it is cancelled when the deadline passes.
+     *
+     * @param job the job that is about to be started
+     */
+    public void begin(@Nonnull ImportJob job) {
+        Objects.requireNonNull(job, "job cannot be null");
+        if (activeJobs.putIfAbsent(job.operationId(), job) == null) {
+            activeJobsPerTenant.merge(job.tenantId(), 1, Integer::sum);
+            job.deadline().ifPresent(deadline -> scheduleDeadline(job, deadline));
+        }
+    }
+
+    private void scheduleDeadline(ImportJob job, Instant deadline) {
+        var delay = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+        try {
+            deadlineTimers.put(
+                    job,
+                    deadlineTimer.schedule(
+                            () -> {
+                                if (job.cancel("Deadline " + deadline + " exceeded")) {
+                                    logger.warn("{} {} exceeded its deadline and was cancelled", job.projectId(), job);
+                                }
+                            },
+                            delay,
+                            TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            logger.warn("{} Unable to schedule deadline of {}", job.projectId(), job, e);
+        }
+    }
+
+    /**
+     * Unregisters a job that has completed, failed or been abandoned.
+     *
+     * @param job the job that has finished
+     */
+    public void finish(@Nonnull ImportJob job) {
+        Objects.requireNonNull(job, "job cannot be null");
+        if (activeJobs.remove(job.operationId(), job)) {
+            activeJobsPerTenant.computeIfPresent(job.tenantId(), (tenantId, count) -> count > 1 ? count - 1 : null);
+        }
+        var timer = deadlineTimers.remove(job);
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Returns the active job with the given operation id.
+     *
+     * @param operationId the operation id of the job
+     * @return the job, or empty if no job with this operation id has begun or it has already finished
+     */
+    @Nonnull
+    public Optional<ImportJob> findActiveJob(@Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId) {
+        Objects.requireNonNull(operationId, "operationId cannot be null");
+        return Optional.ofNullable(activeJobs.get(operationId));
+    }
+
+    /**
+     * Submits a task of the given job to the pool of the given stage.
+     *
+     * @param job the job the task belongs to
+     * @param stage the stage the task implements
+     * @param task the task to run
+     * @return a future that is completed with the result of the task, or exceptionally if the task
+     *     fails, the job is cancelled before the task starts, or the scheduler has been shut down
+     */
+    @Nonnull
+    public <T> CompletableFuture<T> submit(
+            @Nonnull ImportJob job, @Nonnull ImportStage stage, @Nonnull Supplier<T> task) {
+        Objects.requireNonNull(job, "job cannot be null");
+        Objects.requireNonNull(stage, "stage cannot be null");
+        Objects.requireNonNull(task, "task cannot be null");
+
+        var future = new CompletableFuture<T>();
+        var priority = new TaskPriority(
+                activeJobsPerTenant.getOrDefault(job.tenantId(), 0),
+                job.estimatedRepositorySize(),
+                submissionSequence.getAndIncrement());
+        var executor = executors.get(stage);
+        var activeTaskCount = activeTaskCounts.get(stage);
+        try {
+            executor.execute(new PrioritizedTask(priority, () -> {
+                var workerThread = Thread.currentThread();
+                activeTaskCount.incrementAndGet();
+                job.attachWorker(workerThread);
+                try {
+                    job.checkpoint();
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    job.detachWorker(workerThread);
+                    // Do not leak an interrupt of a cancelled job into the next task of this thread
+                    Thread.interrupted();
+                    activeTaskCount.decrementAndGet();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        var queueDepth = getQueueDepth(stage);
+        if (queueDepth >= properties.getQueueDepthWarningThreshold()) {
+            logger.warn("{} {} stage queue depth is {} after submitting {}", job.projectId(), stage, queueDepth, job);
+        }
+        return future;
+    }
+
+    /** Returns the number of tasks waiting to run in the given stage */
+    public int getQueueDepth(@Nonnull ImportStage stage) {
+        if (executors.get(stage) instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return threadPoolExecutor.getQueue().size();
+        }
+        return 0;
+    }
+
+    /** Returns the number of tasks currently running in the given stage */
+    public int getActiveTaskCount(@Nonnull ImportStage stage) {
+        return activeTaskCounts.get(stage).get();
+    }
+
+    /** Returns {@code true} if the tasks of the given stage run on virtual threads */
+    public boolean isRunningOnVirtualThreads(@Nonnull ImportStage stage) {
+        return !(executors.get(stage) instanceof ThreadPoolExecutor);
+    }
+
+    /** Returns the number of jobs that have begun but not yet finished */
+    public int getActiveJobCount() {
+        return activeJobs.size();
+    }
+
+    /** Stops accepting new tasks and interrupts the running ones */
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdownNow);
+        deadlineTimer.shutdownNow();
+    }
+
+    /** Ordering key of a queued task. Lower values run first. */
+    private record TaskPriority(int tenantActiveJobs, long estimatedRepositorySize, long sequence)
+            implements Comparable<TaskPriority> {
+
+        private static final Comparator<TaskPriority> ORDER = Comparator.comparingInt(TaskPriority::tenantActiveJobs)
+                .thenComparingLong(TaskPriority::estimatedRepositorySize)
+                .thenComparingLong(TaskPriority::sequence);
+
+        @Override
+        public int compareTo(TaskPriority other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /** A runnable that can be ordered in a {@link PriorityBlockingQueue} */
+    private record PrioritizedTask(TaskPriority priority, Runnable delegate)
+            implements Runnable, Comparable<PrioritizedTask> {
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            return priority.compareTo(other.priority);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfiler;
+import javax.annotation.Nonnull;
+
+/**
+ * Observes the long-running parts of a project history import. The commit walk, ontology parsing and
+ * project history storage call {@link #checkpoint()} between units of work so that a cancelled
+ * import stops at the next opportunity, and report their progress through the remaining methods.
+ */
+public interface ImportMonitor {
+
+    /** A monitor for imports that cannot be cancelled */
+    ImportMonitor NONE = () -> {};
+
+    /**
+     * Checks whether the import should stop.
+     *
+     * @throws ImportCancelledException if the import has been cancelled or its deadline has passed
+     */
+    void checkpoint();
+
+    /**
+     * Returns {@code true} if the monitor records progress. Progress that is costly to compute, such
+     * as the total number of commits, is only computed for such monitors.
+     */
+    default boolean isTrackingProgress() {
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the next progress update would be reported. Progress that is costly to
+     * sample, such as the size of a file, is only sampled when a report is due.
+     */
+    default boolean isProgressReportDue() {
+        return false;
+    }
+
+    /**
+     * Called when the commit walk starts.
+     *
+     * @param totalCommits the estimated number of commits of the walk, or {@link
+     *     ImportProgress#UNKNOWN_TOTAL}
+     */
+    default void extractionStarted(int totalCommits) {}
+
+    /**
+     * Called when the ontology changes of a commit have been extracted.
+     *
+     * @param commitHash the hash of the commit
+     * @param axiomChanges the number of axiom changes of the commit
+     */
+    default void commitProcessed(String commitHash, int axiomChanges) {}
+
+    /**
+     * Called when a commit is left out of the project history because its ontologies could not be
+     * loaded.
+     *
+     * @param commitHash the hash of the commit
+     * @param reason a description of why the ontologies could not be loaded
+     */
+    default void commitSkipped(String commitHash, String reason) {}
+
+    /**
+     * Called when a revision has been serialized to the project history document.
+     *
+     * @param totalBytesSerialized the size of the document written so far
+     */
+    default void bytesSerialized(long totalBytesSerialized) {}
+
+    /** Returns the profiler that the stages report their durations and allocations to */
+    @Nonnull
+    default ImportProfiler profiler() {
+        return ImportProfiler.NONE;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import javax.annotation.Nullable;
+
+/**
+ * A snapshot of the progress of a project history import.
+ *
+ * @param commitsProcessed the number of commits whose ontology changes have been extracted
+ * @param totalCommits the estimated number of commits that are processed, counted from the commits
+ *     that modify the ontology files, or {@code -1} if it is not known
+ * @param axiomChanges the number of axiom changes extracted so far
+ * @param currentCommitHash the hash of the commit that was processed last, or {@code null} if no
+ *     commit has been processed yet
+ * @param bytesSerialized the number of bytes of the project history document written so far
+ */
+public record ImportProgress(
+        int commitsProcessed,
+        int totalCommits,
+        long axiomChanges,
+        @Nullable String currentCommitHash,
+        long bytesSerialized) {
+
+    /** Marker value for an unknown number of commits */
+    public static final int UNKNOWN_TOTAL = -1;
+}
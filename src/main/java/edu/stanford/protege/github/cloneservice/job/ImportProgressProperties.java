@@ -0,0 +1,20 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.progress")
+public class ImportProgressProperties {
+
+    private Duration eventInterval = Duration.ofSeconds(5);
+
+    public Duration getEventInterval() {
+        return eventInterval;
+    }
+
+    public void setEventInterval(Duration eventInterval) {
+        this.eventInterval = eventInterval;
+    }
+}
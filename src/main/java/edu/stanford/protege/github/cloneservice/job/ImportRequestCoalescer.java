@@ -0,0 +1,121 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+
+/**
+ * Coalesces identical import requests of a project so that each repository, branch, target ontology
+ * file and HEAD commit is cloned, analyzed and uploaded only once.
+ *
+ * <p>The HEAD commit of a request is resolved before the repository is cloned, so that a request
+ * whose {@link ImportRequestKey} matches an import that is still running attaches to that import
+ * and completes with the same document location, and a request that matches a completed import
+ * reuses its document location without cloning the repository at all. Completed imports are kept
+ * for the configured reuse window, and the expired ones are removed whenever an import is looked
+ * up or recorded.
+ */
+public class ImportRequestCoalescer {
+
+    private final ImportCoalescingProperties properties;
+
+    private final Clock clock;
+
+    private final Map<ImportRequestKey, RunningImport> runningImports = new ConcurrentHashMap<>();
+
+    private final Map<ImportRequestKey, CompletedImport> completedImports = new ConcurrentHashMap<>();
+
+    public ImportRequestCoalescer(@Nonnull ImportCoalescingProperties properties, @Nonnull Clock clock) {
+        this.properties = Objects.requireNonNull(properties, "properties cannot be null");
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+    }
+
+    /**
+     * Either attaches to the running import of the given request or registers the caller as the
+     * import that will produce the result for it.
+     *
+     * @param requestKey the contents of the request
+     * @param job the job of the caller, which runs the import if the caller is registered
+     * @param result the future that the caller will complete if it becomes the running import. The
+     *     registration is removed when this future completes.
+     * @return the running import to attach to, or empty if the caller has been registered as the
+     *     running import
+     */
+    @Nonnull
+    public Optional<RunningImport> attachOrRegister(
+            @Nonnull ImportRequestKey requestKey,
+            @Nonnull ImportJob job,
+            @Nonnull CompletableFuture<BlobLocation> result) {
+        Objects.requireNonNull(requestKey, "requestKey cannot be null");
+        Objects.requireNonNull(job, "job cannot be null");
+        Objects.requireNonNull(result, "result cannot be null");
+        var registration = new RunningImport(job, result);
+        var runningImport = runningImports.putIfAbsent(requestKey, registration);
+        if (runningImport != null) {
+            return Optional.of(runningImport);
+        }
+        result.whenComplete((documentLocation, t) -> runningImports.remove(requestKey, registration));
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the document location of a completed import of the same request, if it completed
+     * within the reuse window.
+     *
+     * @param requestKey the contents of the request, including its HEAD commit
+     * @return the document location to reuse, or empty if the import has to run
+     */
+    @Nonnull
+    public Optional<BlobLocation> findCompletedImport(@Nonnull ImportRequestKey requestKey) {
+        Objects.requireNonNull(requestKey, "requestKey cannot be null");
+        removeExpiredImports();
+        return Optional.ofNullable(completedImports.get(requestKey)).map(CompletedImport::documentLocation);
+    }
+
+    /**
+     * Records the document location produced by an import so that it can be reused by later imports
+     * of the same request.
+     *
+     * @param requestKey the contents of the request, including the HEAD commit that was imported
+     * @param documentLocation the location of the project history document
+     */
+    public void recordCompletedImport(@Nonnull ImportRequestKey requestKey, @Nonnull BlobLocation documentLocation) {
+        Objects.requireNonNull(requestKey, "requestKey cannot be null");
+        Objects.requireNonNull(documentLocation, "documentLocation cannot be null");
+        removeExpiredImports();
+        completedImports.put(requestKey, new CompletedImport(documentLocation, clock.instant()));
+    }
+
+    /** Returns the number of completed imports that are kept for reuse */
+    public int getCompletedImportCount() {
+        return completedImports.size();
+    }
+
+    private void removeExpiredImports() {
+        var now = clock.instant();
+        completedImports.values().removeIf(completedImport -> isExpired(completedImport, now));
+    }
+
+    private boolean isExpired(CompletedImport completedImport, Instant now) {
+        return completedImport
+                .completedAt()
+                .plus(properties.getResultReuseWindow())
+                .isBefore(now);
+    }
+
+    /**
+     * An import that is running for the request that registered it
+     *
+     * @param job the job that runs the import
+     * @param result the future that is completed with the location of the imported document
+     */
+    public record RunningImport(ImportJob job, CompletableFuture<BlobLocation> result) {}
+
+    private record CompletedImport(BlobLocation documentLocation, Instant completedAt) {}
+}
@@ -0,0 +1,38 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Identifies the contents of an import request within a project, independently of the user and
+ * operation that submitted it. Two requests with equal keys produce the same project history
+ * document.
+ *
+ * @param projectId the project whose history is imported. The document of an import is stored for
+ *     its project, so it is never handed out to the requests of other projects.
+ * @param repositoryCoordinates the repository and branch to import from
+ * @param targetOntologyFile the ontology file to import
+ * @param headCommit the HEAD commit of the branch, resolved before the repository is cloned
+ */
+public record ImportRequestKey(
+        @Nonnull ProjectId projectId,
+        @Nonnull RepositoryCoordinates repositoryCoordinates,
+        @Nonnull RelativeFilePath targetOntologyFile,
+        @Nonnull String headCommit) {
+
+    public ImportRequestKey {
+        Objects.requireNonNull(projectId, "projectId cannot be null");
+        Objects.requireNonNull(repositoryCoordinates, "repositoryCoordinates cannot be null");
+        Objects.requireNonNull(targetOntologyFile, "targetOntologyFile cannot be null");
+        Objects.requireNonNull(headCommit, "headCommit cannot be null");
+    }
+
+    /** Returns the key of the same request at another HEAD commit */
+    @Nonnull
+    public ImportRequestKey withHeadCommit(@Nonnull String headCommit) {
+        return new ImportRequestKey(projectId, repositoryCoordinates, targetOntologyFile, headCommit);
+    }
+}
@@ -0,0 +1,89 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.scheduler")
+public class ImportSchedulerProperties {
+
+    private int preflightPoolSize = 4;
+
+    private int clonePoolSize = 4;
+
+    private int extractPoolSize = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private int storePoolSize = 4;
+
+    private int uploadPoolSize = 4;
+
+    private int queueDepthWarningThreshold = 100;
+
+    private boolean virtualThreadsForIo = false;
+
+    public int getPreflightPoolSize() {
+        return preflightPoolSize;
+    }
+
+    public void setPreflightPoolSize(int preflightPoolSize) {
+        this.preflightPoolSize = preflightPoolSize;
+    }
+
+    public int getClonePoolSize() {
+        return clonePoolSize;
+    }
+
+    public void setClonePoolSize(int clonePoolSize) {
+        this.clonePoolSize = clonePoolSize;
+    }
+
+    public int getExtractPoolSize() {
+        return extractPoolSize;
+    }
+
+    public void setExtractPoolSize(int extractPoolSize) {
+        this.extractPoolSize = extractPoolSize;
+    }
+
+    public int getStorePoolSize() {
+        return storePoolSize;
+    }
+
+    public void setStorePoolSize(int storePoolSize) {
+        this.storePoolSize = storePoolSize;
+    }
+
+    public int getUploadPoolSize() {
+        return uploadPoolSize;
+    }
+
+    public void setUploadPoolSize(int uploadPoolSize) {
+        this.uploadPoolSize = uploadPoolSize;
+    }
+
+    public int getQueueDepthWarningThreshold() {
+        return queueDepthWarningThreshold;
+    }
+
+    public void setQueueDepthWarningThreshold(int queueDepthWarningThreshold) {
+        this.queueDepthWarningThreshold = queueDepthWarningThreshold;
+    }
+
+    public boolean isVirtualThreadsForIo() {
+        return virtualThreadsForIo;
+    }
+
+    public void setVirtualThreadsForIo(boolean virtualThreadsForIo) {
+        this.virtualThreadsForIo = virtualThreadsForIo;
+    }
+
+    public int getPoolSize(ImportStage stage) {
+        return switch (stage) {
+            case PREFLIGHT -> preflightPoolSize;
+            case CLONE -> clonePoolSize;
+            case EXTRACT -> extractPoolSize;
+            case STORE -> storePoolSize;
+            case UPLOAD -> uploadPoolSize;
+        };
+    }
+}
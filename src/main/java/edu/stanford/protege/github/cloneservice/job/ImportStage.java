@@ -0,0 +1,34 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+/**
+ * The stages of a project history import. Each stage runs on its own bounded pool so that a
+ * long-running stage of one job cannot starve the other stages of other jobs.
+ */
+public enum ImportStage {
+
+    /** Network-bound inspection of the GitHub repository, to estimate the size of the import */
+    PREFLIGHT(true),
+
+    /** Network-bound cloning of the GitHub repository */
+    CLONE(true),
+
+    /** CPU-bound parsing and diffing of the ontology versions */
+    EXTRACT(false),
+
+    /** CPU-bound conversion and serialization of the project history document */
+    STORE(false),
+
+    /** Network-bound upload of the project history document */
+    UPLOAD(true);
+
+    private final boolean ioBound;
+
+    ImportStage(boolean ioBound) {
+        this.ioBound = ioBound;
+    }
+
+    /** Returns {@code true} if the stage spends most of its time blocked on network or disk */
+    public boolean isIoBound() {
+        return ioBound;
+    }
+}
@@ -0,0 +1,18 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * A commit that was left out of the project history because its ontologies could not be loaded.
+ *
+ * @param commitHash the hash of the commit
+ * @param reason a description of why the ontologies of the commit could not be loaded
+ */
+public record SkippedCommit(@Nonnull String commitHash, @Nonnull String reason) {
+
+    public SkippedCommit {
+        Objects.requireNonNull(commitHash, "commitHash cannot be null");
+        Objects.requireNonNull(reason, "reason cannot be null");
+    }
+}
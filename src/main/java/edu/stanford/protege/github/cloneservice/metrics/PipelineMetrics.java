@@ -0,0 +1,194 @@
+package edu.stanford.protege.github.cloneservice.metrics;
+
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.github.cloneservice.job.ImportStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer instrumentation of the project history import pipeline.
+ *
+ * <p>Every stage is recorded as a timer with a percentile histogram, tagged with the {@code outcome}
+ * of the operation ({@code success} or {@code failure}). The meters are exposed through the
+ * Prometheus actuator endpoint.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String CLONE_TIMER = "webprotege.import.clone";
+    public static final String PREFETCH_TIMER = "webprotege.import.prefetch";
+    public static final String PREFETCH_STALL_TIMER = "webprotege.import.prefetch.stall";
+    public static final String ONTOLOGY_LOAD_TIMER = "webprotege.import.ontology.load";
+    public static final String DIFF_TIMER = "webprotege.import.ontology.diff";
+    public static final String DIFF_AXIOM_CHANGES = "webprotege.import.ontology.diff.axiom.changes";
+    public static final String CONVERSION_TIMER = "webprotege.import.conversion";
+    public static final String SERIALIZATION_TIMER = "webprotege.import.serialization";
+    public static final String SERIALIZED_BYTES = "webprotege.import.serialization.bytes";
+    public static final String UPLOAD_TIMER = "webprotege.import.upload";
+    public static final String SKIPPED_COMMITS = "webprotege.import.commits.skipped";
+    public static final String QUEUE_DEPTH = "webprotege.import.stage.queue.depth";
+    public static final String ACTIVE_TASKS = "webprotege.import.stage.active.tasks";
+    public static final String ACTIVE_JOBS = "webprotege.import.jobs.active";
+
+    /** The format tag of ontology loads that failed before the format was known */
+    public static final String UNKNOWN_FORMAT = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter skippedCommits;
+
+    private final DistributionSummary diffAxiomChanges;
+
+    private final DistributionSummary serializedBytes;
+
+    public PipelineMetrics(@Nonnull MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry cannot be null");
+        this.skippedCommits = Counter.builder(SKIPPED_COMMITS)
+                .description("Commits skipped because their ontology could not be loaded")
+                .register(meterRegistry);
+        this.diffAxiomChanges = DistributionSummary.builder(DIFF_AXIOM_CHANGES)
+                .description("Axiom changes found by a single ontology diff")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.serializedBytes = DistributionSummary.builder(SERIALIZED_BYTES)
+                .description("Size of serialized project history documents")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /** Registers gauges for the queue depth and active tasks of every stage, and the active jobs */
+    public void bindTo(@Nonnull ImportJobScheduler scheduler) {
+        Objects.requireNonNull(scheduler, "scheduler cannot be null");
+        for (var stage : ImportStage.values()) {
+            var stageTag = Tags.of("stage", stage.name().toLowerCase());
+            Gauge.builder(QUEUE_DEPTH, scheduler, s -> s.getQueueDepth(stage))
+                    .description("Tasks waiting to run in an import stage")
+                    .tags(stageTag)
+                    .register(meterRegistry);
+            Gauge.builder(ACTIVE_TASKS, scheduler, s -> s.getActiveTaskCount(stage))
+                    .description("Tasks running in an import stage")
+                    .tags(stageTag)
+                    .register(meterRegistry);
+        }
+        Gauge.builder(ACTIVE_JOBS, scheduler, ImportJobScheduler::getActiveJobCount)
+                .description("Imports that have begun but not finished")
+                .register(meterRegistry);
+    }
+
+    /** Starts timing a repository clone, which is recorded by {@link #stopClone(Timer.Sample, boolean)} */
+    @Nonnull
+    public Timer.Sample startClone() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stopClone(@Nonnull Timer.Sample sample, boolean success) {
+        sample.stop(timer(CLONE_TIMER, Tags.of("outcome", outcome(success))));
+    }
+
+    /**
+     * Starts timing the prefetch of a commit, which is recorded by {@link #stopPrefetch(Timer.Sample,
+     * boolean)}
+     */
+    @Nonnull
+    public Timer.Sample startPrefetch() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stopPrefetch(@Nonnull Timer.Sample sample, boolean success) {
+        sample.stop(timer(PREFETCH_TIMER, Tags.of("outcome", outcome(success))));
+    }
+
+    /** Records the time the commit prefetcher waited for the commit walk to make room in its queue */
+    public void recordProducerStall(long nanos) {
+        timer(PREFETCH_STALL_TIMER, Tags.of("side", "producer")).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Records the time the commit walk waited for the commit prefetcher to deliver a commit */
+    public void recordConsumerStall(long nanos) {
+        timer(PREFETCH_STALL_TIMER, Tags.of("side", "consumer")).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts timing an ontology load. The format is only known once the load has completed, so the
+     * sample is stopped with {@link #stopOntologyLoad(Timer.Sample, String, boolean, boolean)}.
+     */
+    @Nonnull
+    public Timer.Sample startOntologyLoad() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Records an ontology load.
+     *
+     * @param sample the sample returned by {@link #startOntologyLoad()}
+     * @param format the name of the document format, or {@link #UNKNOWN_FORMAT}
+     * @param withImports whether the imports closure was parsed, rather than reused from another commit
+     * @param success whether the load succeeded
+     */
+    public void stopOntologyLoad(
+            @Nonnull Timer.Sample sample, @Nonnull String format, boolean withImports, boolean success) {
+        sample.stop(timer(
+                ONTOLOGY_LOAD_TIMER,
+                Tags.of("format", format, "imports", withImports ? "with" : "without", "outcome", outcome(success))));
+    }
+
+    public <T extends Collection<?>> T timeDiff(@Nonnull Supplier<T> diff) {
+        var axiomChanges = time(DIFF_TIMER, Tags.empty(), diff);
+        diffAxiomChanges.record(axiomChanges.size());
+        return axiomChanges;
+    }
+
+    public <T> T timeConversion(@Nonnull Supplier<T> conversion) {
+        return time(CONVERSION_TIMER, Tags.empty(), conversion);
+    }
+
+    public void timeSerialization(@Nonnull Runnable serialization) {
+        time(SERIALIZATION_TIMER, Tags.empty(), () -> {
+            serialization.run();
+            return null;
+        });
+    }
+
+    public <T> T timeUpload(@Nonnull Supplier<T> upload) {
+        return time(UPLOAD_TIMER, Tags.empty(), upload);
+    }
+
+    public void recordSerializedBytes(long bytes) {
+        serializedBytes.record(bytes);
+    }
+
+    public void countSkippedCommit() {
+        skippedCommits.increment();
+    }
+
+    private <T> T time(String name, Tags tags, Supplier<T> operation) {
+        var sample = Timer.start(meterRegistry);
+        var success = false;
+        try {
+            var result = operation.get();
+            success = true;
+            return result;
+        } finally {
+            sample.stop(timer(name, tags.and("outcome", outcome(success))));
+        }
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name).tags(tags).publishPercentileHistogram().register(meterRegistry);
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "failure";
+    }
+}
@@ -19,7 +19,10 @@ public record OntologyCommitChange(
         Objects.requireNonNull(axiomChanges, "axiomChanges cannot be null");
         Objects.requireNonNull(commitMetadata, "commitMetadata cannot be null");
         Objects.requireNonNull(repositoryUrl, "repositoryUrl cannot be null");
-        // Create defensive copy to prevent external mutation
-        axiomChanges = ImmutableList.copyOf(axiomChanges);
+        // Create defensive copy to prevent external mutation. Spilled changes are immutable and are
+        // not copied back onto the heap.
+        if (!(axiomChanges instanceof SpilledAxiomChanges)) {
+            axiomChanges = ImmutableList.copyOf(axiomChanges);
+        }
     }
 }
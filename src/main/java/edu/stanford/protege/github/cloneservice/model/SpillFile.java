@@ -0,0 +1,86 @@
+package edu.stanford.protege.github.cloneservice.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A scratch file that {@link SpilledAxiomChanges} are appended to.
+ *
+ * <p>The file is mapped into memory one region at a time, and each region is twice as large as the
+ * previous one, so that a spill takes a few mappings however many chunks of changes it writes. The
+ * chunks are read-only slices of the regions.
+ *
+ * <p>The regions remain mapped after the file is closed and deleted, until the spilled changes that
+ * read them are garbage collected. Appending is not thread-safe.
+ */
+public final class SpillFile implements Closeable {
+
+    /** The size of the first mapped region */
+    static final int INITIAL_REGION_SIZE = 1024 * 1024;
+
+    /** The size above which mapped regions stop growing */
+    static final int MAX_REGION_SIZE = 1024 * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    /** The region that chunks are appended to, or null until the first chunk is appended */
+    @Nullable private MappedByteBuffer region;
+
+    /** The position of the region in the file */
+    private long regionStart;
+
+    private int mappedRegions;
+
+    /**
+     * @param channel the channel of the scratch file, opened for reading and writing. It is closed
+     *     with the spill file.
+     */
+    public SpillFile(@Nonnull FileChannel channel) {
+        this.channel = Objects.requireNonNull(channel, "channel cannot be null");
+    }
+
+    /**
+     * Appends bytes to the file and returns a read-only view of them
+     *
+     * @throws IOException if a new region of the file cannot be mapped
+     */
+    @Nonnull
+    ByteBuffer append(@Nonnull byte[] bytes) throws IOException {
+        if (region == null || region.remaining() < bytes.length) {
+            mapNextRegion(bytes.length);
+        }
+        var chunk = region.slice(region.position(), bytes.length).asReadOnlyBuffer();
+        region.put(bytes);
+        return chunk;
+    }
+
+    private void mapNextRegion(int minSize) throws IOException {
+        long size;
+        if (region == null) {
+            size = INITIAL_REGION_SIZE;
+        } else {
+            // The unused end of the previous region is mapped again by the next one
+            regionStart += region.position();
+            size = Math.min((long) region.capacity() * 2, MAX_REGION_SIZE);
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(size, minSize));
+        mappedRegions++;
+    }
+
+    /** Returns the number of regions of the file that have been mapped */
+    int mappedRegions() {
+        return mappedRegions;
+    }
+
+    /** Closes the scratch file. The appended changes remain readable. */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,140 @@
+package edu.stanford.protege.github.cloneservice.model;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+/**
+ * An immutable list of axiom changes that is stored in a scratch file rather than on the heap.
+ *
+ * <p>The changes are serialized in chunks of {@link #CHUNK_SIZE} changes, which are appended to the
+ * memory-mapped regions of a {@link SpillFile}. Iterating the list decodes one chunk at a time, so
+ * that only the chunk being read is held on the heap. Random access decodes the whole chunk of the
+ * element and is meant for occasional use only. The list can be read by several threads at the same
+ * time.
+ *
+ * <p>The chunks remain readable after the spill file is closed and deleted, until the list is
+ * garbage collected.
+ */
+public final class SpilledAxiomChanges extends AbstractList<AxiomChange> {
+
+    /** The number of changes that are serialized together */
+    static final int CHUNK_SIZE = 8192;
+
+    private static final AxiomChange.OperationType[] OPERATION_TYPES = AxiomChange.OperationType.values();
+
+    private final ImmutableList<ByteBuffer> chunks;
+
+    private final int size;
+
+    private SpilledAxiomChanges(@Nonnull ImmutableList<ByteBuffer> chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Appends axiom changes to a scratch file and returns a view of them
+     *
+     * @param spillFile the scratch file to append the changes to
+     * @param axiomChanges the axiom changes to write
+     * @return the list of the written changes
+     * @throws IOException if the changes cannot be written
+     */
+    @Nonnull
+    public static SpilledAxiomChanges write(@Nonnull SpillFile spillFile, @Nonnull List<AxiomChange> axiomChanges)
+            throws IOException {
+        Objects.requireNonNull(spillFile, "spillFile cannot be null");
+        Objects.requireNonNull(axiomChanges, "axiomChanges cannot be null");
+        var chunks = ImmutableList.<ByteBuffer>builder();
+        for (int start = 0; start < axiomChanges.size(); start += CHUNK_SIZE) {
+            chunks.add(spillFile.append(
+                    encode(axiomChanges.subList(start, Math.min(start + CHUNK_SIZE, axiomChanges.size())))));
+        }
+        return new SpilledAxiomChanges(chunks.build(), axiomChanges.size());
+    }
+
+    private static byte[] encode(@Nonnull List<AxiomChange> axiomChanges) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)) {
+            output.writeInt(axiomChanges.size());
+            for (var axiomChange : axiomChanges) {
+                output.writeByte(axiomChange.operationType().ordinal());
+                output.writeObject(axiomChange.axiom());
+                output.writeObject(axiomChange.ontologyID());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<AxiomChange> decode(int chunkIndex) {
+        var buffer = chunks.get(chunkIndex).duplicate();
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            var count = input.readInt();
+            var axiomChanges = new AxiomChange[count];
+            for (int i = 0; i < count; i++) {
+                var operationType = OPERATION_TYPES[input.readByte()];
+                var axiom = (OWLAxiom) input.readObject();
+                var ontologyId = (OWLOntologyID) input.readObject();
+                axiomChanges[i] = new AxiomChange(operationType, axiom, ontologyId);
+            }
+            return List.of(axiomChanges);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem reading spilled axiom changes", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Problem reading spilled axiom changes", e);
+        }
+    }
+
+    @Override
+    public AxiomChange get(int index) {
+        Objects.checkIndex(index, size);
+        return decode(index / CHUNK_SIZE).get(index % CHUNK_SIZE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<AxiomChange> iterator() {
+        return new Iterator<>() {
+
+            private int chunkIndex = 0;
+
+            private Iterator<AxiomChange> chunk = List.<AxiomChange>of().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!chunk.hasNext() && chunkIndex < chunks.size()) {
+                    chunk = decode(chunkIndex++).iterator();
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public AxiomChange next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder events emitted by profiled imports. The events are only recorded while a JFR
+ * recording with these events enabled is running, for example one started with {@code jcmd <pid>
+ * JFR.start}.
+ */
+public final class ImportJfrEvents {
+
+    private ImportJfrEvents() {}
+
+    /** Fields shared by all import events */
+    @Category({"WebProtege", "Project History Import"})
+    @StackTrace(false)
+    public abstract static class ImportProfilingEvent extends Event {
+
+        @Label("Operation Id")
+        String operationId;
+
+        @Label("Project Id")
+        String projectId;
+
+        @Label("Commit Hash")
+        String commitHash;
+
+        @Label("Axiom Count")
+        @Description("The number of axioms loaded, or the number of axiom changes diffed or serialized")
+        long axiomCount;
+
+        @Label("Allocated")
+        @Description("Bytes allocated by the thread while running the stage")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    @Name("webprotege.import.OntologyLoad")
+    @Label("Ontology Load")
+    @Description("Parsing of the ontology documents of a commit")
+    public static final class OntologyLoadEvent extends ImportProfilingEvent {}
+
+    @Name("webprotege.import.OntologyDiff")
+    @Label("Ontology Diff")
+    @Description("Diffing of the ontologies of a commit against those of its parent")
+    public static final class OntologyDiffEvent extends ImportProfilingEvent {}
+
+    @Name("webprotege.import.RevisionSerialization")
+    @Label("Revision Serialization")
+    @Description("Serialization of the revision of a commit to the project history document")
+    public static final class RevisionSerializationEvent extends ImportProfilingEvent {}
+
+    @Name("webprotege.import.Stage")
+    @Label("Import Stage")
+    @Description("A stage of an import that is not tied to a single commit")
+    public static final class ImportStageEvent extends ImportProfilingEvent {
+
+        @Label("Stage")
+        String stage;
+
+        ImportStageEvent(String stage) {
+            this.stage = stage;
+        }
+    }
+}
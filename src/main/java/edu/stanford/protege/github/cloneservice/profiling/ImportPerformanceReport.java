@@ -0,0 +1,92 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A snapshot of the profile of an import
+ *
+ * @param operationId the operation id of the import
+ * @param projectId the project the import is for
+ * @param finished {@code true} if the import has finished
+ * @param elapsed the time since the import started, up to when it finished
+ * @param stages the statistics of each stage that has run at least once
+ * @param garbageCollections the number of garbage collections in the JVM while the import ran
+ * @param garbageCollectionTime the time spent in garbage collection in the JVM while the import ran
+ */
+public record ImportPerformanceReport(
+        @Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        @Nonnull ProjectId projectId,
+        boolean finished,
+        @Nonnull Duration elapsed,
+        @Nonnull List<StageStatistics> stages,
+        long garbageCollections,
+        @Nonnull Duration garbageCollectionTime) {
+
+    public ImportPerformanceReport {
+        Objects.requireNonNull(operationId, "operationId cannot be null");
+        Objects.requireNonNull(projectId, "projectId cannot be null");
+        Objects.requireNonNull(elapsed, "elapsed cannot be null");
+        Objects.requireNonNull(garbageCollectionTime, "garbageCollectionTime cannot be null");
+        stages = List.copyOf(stages);
+    }
+
+    /**
+     * Statistics of one stage
+     *
+     * @param stage the stage
+     * @param count the number of times the stage ran
+     * @param totalTime the total duration of the stage
+     * @param maxTime the longest single run of the stage
+     * @param slowestCommitHash the commit of the longest run, or {@code null} if it was not tied to a
+     *     commit
+     * @param allocatedBytes the bytes allocated by the stage, or a negative value if allocations
+     *     cannot be measured on this JVM
+     * @param axiomCount the number of axioms loaded, or of axiom changes diffed or serialized
+     */
+    public record StageStatistics(
+            @Nonnull ProfiledStage stage,
+            long count,
+            @Nonnull Duration totalTime,
+            @Nonnull Duration maxTime,
+            @Nullable String slowestCommitHash,
+            long allocatedBytes,
+            long axiomCount) {}
+
+    /** Formats the report as a table for logs and sidecar documents */
+    @Nonnull
+    public String format() {
+        var report = new StringBuilder();
+        report.append(String.format(
+                "Performance report of import %s of project %s (%s, %.1f s)%n",
+                operationId.operationId(),
+                projectId.value(),
+                finished ? "finished" : "running",
+                elapsed.toMillis() / 1000.0));
+        report.append(String.format(
+                "%-10s %8s %12s %10s %14s %12s  %s%n",
+                "Stage", "Count", "Total ms", "Max ms", "Allocated MB", "Axioms", "Slowest commit"));
+        for (var statistics : stages) {
+            report.append(String.format(
+                    "%-10s %8d %12d %10d %14s %12d  %s%n",
+                    statistics.stage(),
+                    statistics.count(),
+                    statistics.totalTime().toMillis(),
+                    statistics.maxTime().toMillis(),
+                    statistics.allocatedBytes() < 0
+                            ? "n/a"
+                            : String.format("%.1f", statistics.allocatedBytes() / (1024.0 * 1024.0)),
+                    statistics.axiomCount(),
+                    Objects.requireNonNullElse(statistics.slowestCommitHash(), "-")));
+        }
+        report.append(String.format(
+                "GC (whole JVM while the import ran): %d collections, %d ms%n",
+                garbageCollections, garbageCollectionTime.toMillis()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps the profilers of running and recently finished imports, so that their performance reports
+ * can be requested by operation id. Only the profilers of the most recently started imports are
+ * kept, up to {@link ImportProfilingProperties#getRetainedReports()}.
+ */
+public class ImportProfileRegistry {
+
+    private final ImportProfilingProperties properties;
+
+    private final Map<CreateProjectHistoryFromGitHubRepoOperationId, JobProfiler> profilers;
+
+    public ImportProfileRegistry(@Nonnull ImportProfilingProperties properties) {
+        this.properties = Objects.requireNonNull(properties, "properties cannot be null");
+        this.profilers = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<CreateProjectHistoryFromGitHubRepoOperationId, JobProfiler> eldest) {
+                return size() > properties.getRetainedReports();
+            }
+        };
+    }
+
+    /**
+     * Creates the profiler of an import that is about to start
+     *
+     * @param operationId the operation id of the import
+     * @param projectId the project the import is for
+     * @param userId the user who requested the import
+     * @return the profiler, or {@link ImportProfiler#NONE} if profiling is disabled
+     */
+    @Nonnull
+    public ImportProfiler startProfiling(
+            @Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            @Nonnull ProjectId projectId,
+            @Nonnull UserId userId) {
+        if (!properties.isEnabled()) {
+            return ImportProfiler.NONE;
+        }
+        var profiler = new JobProfiler(operationId, projectId, userId);
+        synchronized (profilers) {
+            profilers.put(operationId, profiler);
+        }
+        return profiler;
+    }
+
+    /**
+     * Returns the profiler of an import
+     *
+     * @param operationId the operation id of the import
+     * @return the profiler, or empty if the import was not profiled or its profile is no longer kept
+     */
+    @Nonnull
+    public Optional<JobProfiler> findProfiler(@Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId) {
+        Objects.requireNonNull(operationId, "operationId cannot be null");
+        synchronized (profilers) {
+            return Optional.ofNullable(profilers.get(operationId));
+        }
+    }
+}
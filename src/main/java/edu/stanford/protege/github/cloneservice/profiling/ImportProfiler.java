@@ -0,0 +1,40 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Profiles the stages of a project history import. A stage is started on the thread that runs it
+ * and must be stopped on the same thread, so that its allocations can be attributed to it.
+ */
+public interface ImportProfiler {
+
+    /** A profiler that records nothing */
+    ImportProfiler NONE = (stage, commitHash) -> StageSample.NONE;
+
+    /**
+     * Starts profiling a stage on the current thread
+     *
+     * @param stage the stage that starts
+     * @param commitHash the hash of the commit the stage works on, or {@code null} if the stage is
+     *     not tied to a single commit
+     * @return the sample to stop when the stage ends
+     */
+    @Nonnull
+    StageSample start(@Nonnull ProfiledStage stage, @Nullable String commitHash);
+
+    /** A running stage */
+    interface StageSample {
+
+        /** A sample that records nothing */
+        StageSample NONE = axiomCount -> {};
+
+        /**
+         * Stops the stage. Must be called on the thread that started it.
+         *
+         * @param axiomCount the number of axioms loaded, or the number of axiom changes diffed or
+         *     serialized by the stage
+         */
+        void stop(long axiomCount);
+    }
+}
@@ -0,0 +1,29 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.profiling")
+public class ImportProfilingProperties {
+
+    private boolean enabled = false;
+
+    private int retainedReports = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRetainedReports() {
+        return retainedReports;
+    }
+
+    public void setRetainedReports(int retainedReports) {
+        this.retainedReports = retainedReports;
+    }
+}
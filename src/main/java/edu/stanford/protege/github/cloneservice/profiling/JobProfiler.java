@@ -0,0 +1,210 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Profiles the stages of a single import.
+ *
+ * <p>Each stage run is emitted as a JFR event and aggregated per stage. Allocated bytes are measured
+ * with the per-thread allocation counter of the HotSpot {@code ThreadMXBean}. Garbage collection is
+ * not attributable to a single import, so the report contains the collections of the whole JVM
+ * while the import ran.
+ */
+public class JobProfiler implements ImportProfiler {
+
+    private static final com.sun.management.ThreadMXBean threadMXBean = findThreadMXBean();
+
+    private final CreateProjectHistoryFromGitHubRepoOperationId operationId;
+
+    private final ProjectId projectId;
+
+    private final UserId userId;
+
+    private final long startNanos = System.nanoTime();
+
+    private final GcSnapshot startGc = GcSnapshot.take();
+
+    private final Map<ProfiledStage, StageAccumulator> stages = new EnumMap<>(ProfiledStage.class);
+
+    private long finishNanos;
+
+    @Nullable private GcSnapshot finishGc;
+
+    @Nullable private BlobLocation historyDocumentLocation;
+
+    public JobProfiler(
+            @Nonnull CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            @Nonnull ProjectId projectId,
+            @Nonnull UserId userId) {
+        this.operationId = Objects.requireNonNull(operationId, "operationId cannot be null");
+        this.projectId = Objects.requireNonNull(projectId, "projectId cannot be null");
+        this.userId = Objects.requireNonNull(userId, "userId cannot be null");
+    }
+
+    @Nullable private static com.sun.management.ThreadMXBean findThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return threadMXBean != null ? threadMXBean.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    @Nonnull
+    @Override
+    public StageSample start(@Nonnull ProfiledStage stage, @Nullable String commitHash) {
+        Objects.requireNonNull(stage, "stage cannot be null");
+        var event = stage.newEvent();
+        event.begin();
+        var stageStartNanos = System.nanoTime();
+        var stageStartAllocatedBytes = currentThreadAllocatedBytes();
+        return axiomCount -> {
+            var elapsedNanos = System.nanoTime() - stageStartNanos;
+            var allocatedBytes =
+                    stageStartAllocatedBytes < 0 ? -1 : currentThreadAllocatedBytes() - stageStartAllocatedBytes;
+            event.end();
+            if (event.shouldCommit()) {
+                event.operationId = operationId.operationId();
+                event.projectId = projectId.value();
+                event.commitHash = commitHash;
+                event.axiomCount = axiomCount;
+                event.allocatedBytes = allocatedBytes;
+                event.commit();
+            }
+            synchronized (this) {
+                stages.computeIfAbsent(stage, StageAccumulator::new)
+                        .add(elapsedNanos, allocatedBytes, axiomCount, commitHash);
+            }
+        };
+    }
+
+    /**
+     * Marks the import as finished, freezing its elapsed time and garbage collection statistics
+     *
+     * @param historyDocumentLocation the location of the stored project history document, or {@code
+     *     null} if the import failed
+     */
+    public synchronized void finish(@Nullable BlobLocation historyDocumentLocation) {
+        if (finishGc == null) {
+            finishNanos = System.nanoTime();
+            finishGc = GcSnapshot.take();
+            this.historyDocumentLocation = historyDocumentLocation;
+        }
+    }
+
+    /** Returns the location of the project history document, if the import has stored it */
+    @Nonnull
+    public synchronized Optional<BlobLocation> historyDocumentLocation() {
+        return Optional.ofNullable(historyDocumentLocation);
+    }
+
+    @Nonnull
+    public CreateProjectHistoryFromGitHubRepoOperationId operationId() {
+        return operationId;
+    }
+
+    @Nonnull
+    public ProjectId projectId() {
+        return projectId;
+    }
+
+    /** Returns the user who requested the import */
+    @Nonnull
+    public UserId userId() {
+        return userId;
+    }
+
+    /** Returns a snapshot of the profile */
+    @Nonnull
+    public synchronized ImportPerformanceReport report() {
+        var finished = finishGc != null;
+        var endNanos = finished ? finishNanos : System.nanoTime();
+        var endGc = finished ? finishGc : GcSnapshot.take();
+        return new ImportPerformanceReport(
+                operationId,
+                projectId,
+                finished,
+                Duration.ofNanos(endNanos - startNanos),
+                stages.values().stream().map(StageAccumulator::toStatistics).toList(),
+                endGc.collections() - startGc.collections(),
+                Duration.ofMillis(endGc.timeMillis() - startGc.timeMillis()));
+    }
+
+    /** Aggregates the runs of one stage. Guarded by the lock of the profiler. */
+    private static final class StageAccumulator {
+
+        private final ProfiledStage stage;
+
+        private long count;
+
+        private long totalNanos;
+
+        private long maxNanos = -1;
+
+        @Nullable private String slowestCommitHash;
+
+        private long allocatedBytes;
+
+        private long axiomCount;
+
+        private StageAccumulator(ProfiledStage stage) {
+            this.stage = stage;
+        }
+
+        private void add(long elapsedNanos, long allocatedBytes, long axiomCount, @Nullable String commitHash) {
+            count++;
+            totalNanos += elapsedNanos;
+            if (elapsedNanos > maxNanos) {
+                maxNanos = elapsedNanos;
+                slowestCommitHash = commitHash;
+            }
+            // A single unmeasurable run makes the total unknown
+            this.allocatedBytes =
+                    allocatedBytes < 0 || this.allocatedBytes < 0 ? -1 : this.allocatedBytes + allocatedBytes;
+            this.axiomCount += axiomCount;
+        }
+
+        private ImportPerformanceReport.StageStatistics toStatistics() {
+            return new ImportPerformanceReport.StageStatistics(
+                    stage,
+                    count,
+                    Duration.ofNanos(totalNanos),
+                    Duration.ofNanos(maxNanos),
+                    slowestCommitHash,
+                    allocatedBytes,
+                    axiomCount);
+        }
+    }
+
+    /** Cumulative garbage collection statistics of all collectors of the JVM */
+    private record GcSnapshot(long collections, long timeMillis) {
+
+        private static GcSnapshot take() {
+            long collections = 0;
+            long timeMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                collections += Math.max(0, collector.getCollectionCount());
+                timeMillis += Math.max(0, collector.getCollectionTime());
+            }
+            return new GcSnapshot(collections, timeMillis);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import java.util.function.Supplier;
+
+/** The parts of a project history import whose duration and allocations are profiled */
+public enum ProfiledStage {
+    /** Cloning the repository */
+    CLONE(() -> new ImportJfrEvents.ImportStageEvent("clone")),
+
+    /** Parsing the ontology documents of one commit */
+    LOAD(ImportJfrEvents.OntologyLoadEvent::new),
+
+    /** Diffing the ontologies of one commit against those of its parent */
+    DIFF(ImportJfrEvents.OntologyDiffEvent::new),
+
+    /** Converting the commit changes into revisions */
+    CONVERT(() -> new ImportJfrEvents.ImportStageEvent("convert")),
+
+    /** Serializing one revision to the project history document */
+    SERIALIZE(ImportJfrEvents.RevisionSerializationEvent::new),
+
+    /** Uploading the project history document */
+    UPLOAD(() -> new ImportJfrEvents.ImportStageEvent("upload"));
+
+    private final Supplier<ImportJfrEvents.ImportProfilingEvent> eventFactory;
+
+    ProfiledStage(Supplier<ImportJfrEvents.ImportProfilingEvent> eventFactory) {
+        this.eventFactory = eventFactory;
+    }
+
+    ImportJfrEvents.ImportProfilingEvent newEvent() {
+        return eventFactory.get();
+    }
+}
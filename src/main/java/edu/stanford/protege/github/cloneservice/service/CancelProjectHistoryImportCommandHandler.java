@@ -0,0 +1,73 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import edu.stanford.protege.webprotege.ipc.CommandExecutionException;
+import edu.stanford.protege.webprotege.ipc.CommandHandler;
+import edu.stanford.protege.webprotege.ipc.ExecutionContext;
+import edu.stanford.protege.webprotege.ipc.WebProtegeHandler;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cancels a running project history import. The import stops at its next checkpoint, releases its
+ * clone directory and dispatches a cancelled event followed by a failed completion event.
+ *
+ * <p>An import can only be cancelled by the user who requested it, within its project. Other
+ * callers are rejected with a forbidden status. The requests that are attached to the import of an
+ * identical request have no running import of their own, see {@link
+ * CancelProjectHistoryImportRequest}.
+ */
+@WebProtegeHandler
+public class CancelProjectHistoryImportCommandHandler
+        implements CommandHandler<CancelProjectHistoryImportRequest, CancelProjectHistoryImportResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CancelProjectHistoryImportCommandHandler.class);
+
+    private final ImportJobScheduler importJobScheduler;
+
+    public CancelProjectHistoryImportCommandHandler(@Nonnull ImportJobScheduler importJobScheduler) {
+        this.importJobScheduler = Objects.requireNonNull(importJobScheduler, "importJobScheduler cannot be null");
+    }
+
+    @NotNull @Override
+    public String getChannelName() {
+        return CancelProjectHistoryImportRequest.CHANNEL;
+    }
+
+    @Override
+    public Class<CancelProjectHistoryImportRequest> getRequestClass() {
+        return CancelProjectHistoryImportRequest.class;
+    }
+
+    @Override
+    public Mono<CancelProjectHistoryImportResponse> handleRequest(
+            CancelProjectHistoryImportRequest request, ExecutionContext executionContext) {
+        var operationId = request.operationId();
+        var userId = executionContext.userId();
+        var job = importJobScheduler.findActiveJob(operationId);
+        if (job.isPresent() && !isRequestedBy(job.get(), request.projectId(), userId)) {
+            logger.warn("{} {} is not allowed to cancel the import", operationId, userId);
+            return Mono.error(new CommandExecutionException(HttpStatus.FORBIDDEN));
+        }
+        var cancelled = job.map(activeJob -> activeJob.cancelRequest("Cancelled by " + userId.value()))
+                .orElse(false);
+        if (cancelled) {
+            logger.info("{} Import cancelled by {}", operationId, userId);
+        } else {
+            logger.info("{} No running import to cancel", operationId);
+        }
+        return Mono.just(new CancelProjectHistoryImportResponse(operationId, cancelled));
+    }
+
+    private static boolean isRequestedBy(ImportJob job, ProjectId projectId, UserId userId) {
+        return job.projectId().equals(projectId) && job.tenantId().equals(userId);
+    }
+}
@@ -0,0 +1,35 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static edu.stanford.protege.github.cloneservice.service.CancelProjectHistoryImportRequest.CHANNEL;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.Request;
+
+/**
+ * Requests the cancellation of a running project history import. Only the user who requested the
+ * import can cancel it.
+ *
+ * <p>Identical requests share a single import. Cancelling one of them fails that request with a
+ * cancellation, whether it started the import or was attached to it. The shared import itself is
+ * only cancelled once no other request waits for it, and otherwise keeps running for the other
+ * requests.
+ *
+ * @param projectId The project that the import belongs to
+ * @param operationId The operation id returned in the {@link
+ *     CreateProjectHistoryFromGitHubRepoResponse} of the import to cancel
+ */
+@JsonTypeName(CHANNEL)
+public record CancelProjectHistoryImportRequest(
+        @JsonProperty("projectId") ProjectId projectId,
+        @JsonProperty("operationId") CreateProjectHistoryFromGitHubRepoOperationId operationId)
+        implements Request<CancelProjectHistoryImportResponse> {
+
+    public static final String CHANNEL = "webprotege.github.CancelProjectHistoryImport";
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+}
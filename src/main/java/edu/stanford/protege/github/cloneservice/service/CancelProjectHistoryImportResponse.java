@@ -0,0 +1,19 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static edu.stanford.protege.github.cloneservice.service.CancelProjectHistoryImportRequest.CHANNEL;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.stanford.protege.webprotege.common.Response;
+
+/**
+ * @param operationId The operation id of the import
+ * @param cancelled {@code true} if a running import was cancelled by the request, {@code false} if
+ *     no such import is running, it had already been cancelled, or the request was attached to the
+ *     import of an identical request
+ */
+@JsonTypeName(CHANNEL)
+public record CancelProjectHistoryImportResponse(
+        @JsonProperty("operationId") CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        @JsonProperty("cancelled") boolean cancelled)
+        implements Response {}
@@ -10,36 +10,37 @@ import edu.stanford.protege.webprotege.change.RemoveAxiomChange;
 import edu.stanford.protege.webprotege.common.UserId;
 import edu.stanford.protege.webprotege.revision.Revision;
 import edu.stanford.protege.webprotege.revision.RevisionNumber;
-import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ChangeCommitToRevisionConverter {
 
-    private final AtomicLong orderNumber = new AtomicLong(1);
-
     /**
      * Converts an ontology commit change from a GitHub repository into a WebProtege revision.
      *
      * <p>This method transforms git commit information including metadata and axiom changes into a
-     * format suitable for WebProtege's revision system. Each commit is assigned an incrementing
-     * revision number to maintain chronological ordering.
+     * format suitable for WebProtege's revision system. The revision number is derived by the caller
+     * from the position of the commit in the history of its import, so the converter holds no state:
+     * concurrent imports do not share a numbering, and the commits of one import can be converted in
+     * any order or in parallel.
      *
      * @param ontologyCommitChange the commit change containing git metadata and axiom modifications
+     * @param revisionNumber the revision number of the commit, starting from 1 for the oldest commit
+     *     of the history
      * @return a {@link Revision} representing the commit as a WebProtege revision with user ID,
      *     revision number, ontology changes, timestamp, and commit message
      */
-    public Revision convert(OntologyCommitChange ontologyCommitChange) {
+    public Revision convert(OntologyCommitChange ontologyCommitChange, long revisionNumber) {
         var commitMetadata = ontologyCommitChange.commitMetadata();
         var repositoryUrl = ontologyCommitChange.repositoryUrl();
         var userId = UserId.valueOf(commitMetadata.committerUsername());
-        var revisionNumber = RevisionNumber.getRevisionNumber(orderNumber.getAndIncrement());
+        var revision = RevisionNumber.getRevisionNumber(revisionNumber);
         var ontologyChanges = ontologyCommitChange.axiomChanges().stream()
                 .map(this::convertToOntologyChange)
                 .collect(ImmutableList.toImmutableList());
         var commitTimestamp = commitMetadata.commitDate().toEpochMilli();
         var commitMessage = generateCommitMessage(commitMetadata, repositoryUrl);
-        return new Revision(userId, revisionNumber, ontologyChanges, commitTimestamp, commitMessage);
+        return new Revision(userId, revision, ontologyChanges, commitTimestamp, commitMessage);
     }
 
     private OntologyChange convertToOntologyChange(AxiomChange axiomChange) {
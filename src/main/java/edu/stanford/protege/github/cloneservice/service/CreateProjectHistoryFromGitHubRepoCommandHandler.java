@@ -1,13 +1,27 @@
 package edu.stanford.protege.github.cloneservice.service;
 
+import edu.stanford.protege.commitnavigator.CommitNavigatorBuilder;
 import edu.stanford.protege.commitnavigator.GitHubRepository;
 import edu.stanford.protege.commitnavigator.GitHubRepositoryBuilderFactory;
 import edu.stanford.protege.commitnavigator.exceptions.GitHubNavigatorException;
 import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
 import edu.stanford.protege.github.cloneservice.event.*;
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.exception.ImportRejectedException;
 import edu.stanford.protege.github.cloneservice.exception.OntologyComparisonException;
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.github.cloneservice.job.ImportProgress;
+import edu.stanford.protege.github.cloneservice.job.ImportProgressProperties;
+import edu.stanford.protege.github.cloneservice.job.ImportRequestCoalescer;
+import edu.stanford.protege.github.cloneservice.job.ImportRequestKey;
+import edu.stanford.protege.github.cloneservice.job.ImportStage;
+import edu.stanford.protege.github.cloneservice.job.SkippedCommit;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
 import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
 import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfileRegistry;
+import edu.stanford.protege.github.cloneservice.profiling.ProfiledStage;
 import edu.stanford.protege.github.cloneservice.utils.OntologyHistoryAnalyzer;
 import edu.stanford.protege.webprotege.common.*;
 import edu.stanford.protege.webprotege.ipc.CommandHandler;
@@ -15,16 +29,24 @@ import edu.stanford.protege.webprotege.ipc.EventDispatcher;
 import edu.stanford.protege.webprotege.ipc.ExecutionContext;
 import edu.stanford.protege.webprotege.ipc.WebProtegeHandler;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
+import org.eclipse.jgit.lib.Constants;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.util.FileSystemUtils;
 import reactor.core.publisher.Mono;
 
 @WebProtegeHandler
@@ -38,17 +60,32 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
     private final OntologyHistoryAnalyzer ontologyHistoryAnalyzer;
     private final ProjectHistoryStorer projectHistoryStorer;
     private final EventDispatcher eventDispatcher;
-    private final Executor projectHistoryImportExecutor;
+    private final ImportJobScheduler importJobScheduler;
+    private final ImportRequestCoalescer importRequestCoalescer;
+    private final ImportProgressProperties importProgressProperties;
+    private final PipelineMetrics pipelineMetrics;
+    private final ImportProfileRegistry importProfileRegistry;
+    private final ImportPreflight importPreflight;
 
     public CreateProjectHistoryFromGitHubRepoCommandHandler(
             @Nonnull OntologyHistoryAnalyzer ontologyHistoryAnalyzer,
             @Nonnull ProjectHistoryStorer projectHistoryStorer,
             @Nonnull EventDispatcher eventDispatcher,
-            @Qualifier("projectHistoryImportExecutor") @Nonnull Executor projectHistoryImportExecutor) {
+            @Nonnull ImportJobScheduler importJobScheduler,
+            @Nonnull ImportRequestCoalescer importRequestCoalescer,
+            @Nonnull ImportProgressProperties importProgressProperties,
+            @Nonnull PipelineMetrics pipelineMetrics,
+            @Nonnull ImportProfileRegistry importProfileRegistry,
+            @Nonnull ImportPreflight importPreflight) {
         this.ontologyHistoryAnalyzer = ontologyHistoryAnalyzer;
         this.projectHistoryStorer = projectHistoryStorer;
         this.eventDispatcher = eventDispatcher;
-        this.projectHistoryImportExecutor = projectHistoryImportExecutor;
+        this.importJobScheduler = importJobScheduler;
+        this.importRequestCoalescer = importRequestCoalescer;
+        this.importProgressProperties = importProgressProperties;
+        this.pipelineMetrics = pipelineMetrics;
+        this.importProfileRegistry = importProfileRegistry;
+        this.importPreflight = importPreflight;
     }
 
     @NotNull @Override
@@ -73,21 +110,176 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
         var repositoryCoordinates = request.repositoryCoordinates();
         var targetOntologyFile = request.targetOntologyFile();
 
-        startAsyncProcessing(userId, projectId, operationId, repositoryCoordinates, targetOntologyFile);
+        var deadline =
+                request.timeout().map(timeout -> Instant.now().plus(timeout)).orElse(null);
+        var job = new ImportJob(operationId, projectId, userId, deadline);
+        job.reportProgressTo(
+                progress -> fireImportProgress(projectId, operationId, repositoryCoordinates, progress),
+                importProgressProperties.getEventInterval());
+        job.profileWith(importProfileRegistry.startProfiling(operationId, projectId, userId));
+        startAsyncProcessing(job, userId, repositoryCoordinates, targetOntologyFile);
 
         return Mono.just(new CreateProjectHistoryFromGitHubRepoResponse(projectId, operationId, repositoryCoordinates));
     }
 
+    /**
+     * Resolves the HEAD commit of the requested branch, and then either reuses the document of a
+     * completed identical import, attaches to a running identical import, or runs the import. A
+     * request whose HEAD commit cannot be resolved is never coalesced with other requests.
+     */
     private void startAsyncProcessing(
+            ImportJob job,
             UserId userId,
-            ProjectId projectId,
-            CreateProjectHistoryFromGitHubRepoOperationId operationId,
             RepositoryCoordinates repositoryCoordinates,
             RelativeFilePath targetOntologyFile) {
 
-        cloneRepositoryAsync(userId, projectId, operationId, repositoryCoordinates)
+        var projectId = job.projectId();
+        var operationId = job.operationId();
+        importJobScheduler.begin(job);
+        resolveHeadCommitAsync(job, repositoryCoordinates)
+                .thenCompose(headCommit -> {
+                    if (headCommit.isEmpty()) {
+                        return runImport(job, userId, repositoryCoordinates, targetOntologyFile);
+                    }
+                    job.setHeadCommit(headCommit.get());
+                    var requestKey = new ImportRequestKey(
+                            projectId, repositoryCoordinates, targetOntologyFile, headCommit.get());
+                    var completedImport = importRequestCoalescer.findCompletedImport(requestKey);
+                    if (completedImport.isPresent()) {
+                        logger.info(
+                                "{} {} Reusing project history at location {} stored for commit {}",
+                                projectId,
+                                operationId,
+                                completedImport.get(),
+                                headCommit.get());
+                        return CompletableFuture.completedFuture(completedImport.get());
+                    }
+                    var importResult = new CompletableFuture<BlobLocation>();
+                    return importRequestCoalescer
+                            .attachOrRegister(requestKey, job, importResult)
+                            .map(runningImport -> attachToRunningImport(job, requestKey, runningImport))
+                            .orElseGet(() -> {
+                                runImport(job, userId, repositoryCoordinates, targetOntologyFile)
+                                        .whenComplete((documentLocation, t) -> {
+                                            if (t != null) {
+                                                importResult.completeExceptionally(t);
+                                            } else {
+                                                // The clone may have resolved a later HEAD commit if the branch moved
+                                                var importedCommit =
+                                                        job.headCommit().orElse(requestKey.headCommit());
+                                                importRequestCoalescer.recordCompletedImport(
+                                                        requestKey.withHeadCommit(importedCommit), documentLocation);
+                                                importResult.complete(documentLocation);
+                                            }
+                                        });
+                                return awaitImport(job, importResult);
+                            });
+                })
+                .whenComplete((documentLocation, t) -> {
+                    var cancellation = findCause(t, ImportCancelledException.class);
+                    var rejection = findCause(t, ImportRejectedException.class);
+                    if (cancellation.isPresent()) {
+                        var eventId = EventId.generate();
+                        logger.info(
+                                "{} {} {} {}",
+                                projectId,
+                                operationId,
+                                eventId,
+                                cancellation.get().getMessage());
+                        fireImportCancelled(projectId, operationId, eventId, repositoryCoordinates, cancellation.get());
+                        fireCreateProjectHistoryFromGitHubRepoFailed(operationId, projectId, cancellation.get());
+                    } else if (rejection.isPresent()) {
+                        var eventId = EventId.generate();
+                        logger.warn(
+                                "{} {} {} Rejected import of file {} from repository {}: {}",
+                                projectId,
+                                operationId,
+                                eventId,
+                                targetOntologyFile,
+                                repositoryCoordinates.repositoryUrl(),
+                                rejection.get().getMessage());
+                        fireImportRejected(projectId, operationId, eventId, repositoryCoordinates, rejection.get());
+                        fireCreateProjectHistoryFromGitHubRepoFailed(operationId, projectId, rejection.get());
+                    } else if (t != null) {
+                        fireCreateProjectHistoryFromGitHubRepoFailed(operationId, projectId, t);
+                    } else {
+                        fireCreateProjectHistoryFromGitHubRepoSucceeded(operationId, projectId, documentLocation);
+                    }
+                })
+                .whenComplete((documentLocation, t) -> {
+                    importJobScheduler.finish(job);
+                    importProfileRegistry
+                            .findProfiler(operationId)
+                            .ifPresent(profiler -> profiler.finish(t == null ? documentLocation : null));
+                });
+    }
+
+    /**
+     * Resolves the HEAD commit of the requested branch before the repository is cloned, so that
+     * identical requests can be coalesced.
+     */
+    private CompletableFuture<Optional<String>> resolveHeadCommitAsync(
+            ImportJob job, RepositoryCoordinates repositoryCoordinates) {
+        if (!importPreflight.isEnabled()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return importJobScheduler.submit(
+                job, ImportStage.PREFLIGHT, () -> importPreflight.resolveHeadCommit(repositoryCoordinates));
+    }
+
+    /**
+     * Completes a request with the result of a running import of an identical request, instead of
+     * cloning, analyzing and uploading the same repository again. The job of the attached request
+     * runs no stage, but stays active until the running import completes so that it can still be
+     * cancelled, explicitly or by its deadline. Cancelling it only fails the attached request, and
+     * the running import carries on for the other requests.
+     */
+    private CompletableFuture<BlobLocation> attachToRunningImport(
+            ImportJob job, ImportRequestKey requestKey, ImportRequestCoalescer.RunningImport runningImport) {
+        logger.info(
+                "{} {} Attaching to running import of file {} from repository {} at commit {}",
+                job.projectId(),
+                job.operationId(),
+                requestKey.targetOntologyFile(),
+                requestKey.repositoryCoordinates().repositoryUrl(),
+                requestKey.headCommit());
+        var runningJob = runningImport.job();
+        runningJob.attachRequest();
+        return awaitImport(job, runningImport.result())
+                .whenComplete((documentLocation, t) -> runningJob.detachRequest());
+    }
+
+    /**
+     * Returns the result of an import for one of the requests that wait for it. The result fails on
+     * its own with an {@link ImportCancelledException} when the request is cancelled.
+     */
+    private static CompletableFuture<BlobLocation> awaitImport(
+            ImportJob job, CompletableFuture<BlobLocation> runningImport) {
+        var requestResult = new CompletableFuture<BlobLocation>();
+        job.onCancel(requestResult::completeExceptionally);
+        runningImport.whenComplete((documentLocation, t) -> {
+            if (t != null) {
+                requestResult.completeExceptionally(t);
+            } else {
+                requestResult.complete(documentLocation);
+            }
+        });
+        return requestResult;
+    }
+
+    /** Runs the stages of an import, and dispatches the events of each stage */
+    private CompletableFuture<BlobLocation> runImport(
+            ImportJob job,
+            UserId userId,
+            RepositoryCoordinates repositoryCoordinates,
+            RelativeFilePath targetOntologyFile) {
+
+        var projectId = job.projectId();
+        var operationId = job.operationId();
+        return preflightAsync(job, repositoryCoordinates, targetOntologyFile)
+                .thenCompose(estimate -> cloneRepositoryAsync(job, userId, repositoryCoordinates))
                 .whenComplete((repository, t) -> {
-                    if (t != null) {
+                    if (t != null && !isReportedOnCompletion(t)) {
                         var eventId = EventId.generate();
                         logger.error(
                                 "{} {} {} Failed to clone GitHub repository {}",
@@ -97,7 +289,7 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
                                 repositoryCoordinates.repositoryUrl(),
                                 t);
                         fireCloneFailed(projectId, operationId, eventId, repositoryCoordinates, t);
-                    } else {
+                    } else if (t == null) {
                         var eventId = EventId.generate();
                         logger.info(
                                 "{} {} {} Successfully cloned repository {}",
@@ -108,11 +300,10 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
                         fireCloneSucceeded(projectId, operationId, eventId, repositoryCoordinates, repository);
                     }
                 })
-                .thenApplyAsync(
-                        repository -> extractOntologyChanges(projectId, operationId, targetOntologyFile, repository),
-                        projectHistoryImportExecutor)
+                .thenCompose(repository -> importJobScheduler.submit(
+                        job, ImportStage.EXTRACT, () -> extractOntologyChanges(job, targetOntologyFile, repository)))
                 .whenComplete((projectHistory, t) -> {
-                    if (t != null) {
+                    if (t != null && !isReportedOnCompletion(t)) {
                         var eventId = EventId.generate();
                         logger.error(
                                 "{} {} {} Failed to extract ontology changes from file {}",
@@ -122,22 +313,32 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
                                 targetOntologyFile,
                                 t);
                         fireImportFailed(projectId, operationId, eventId, repositoryCoordinates, t);
-                    } else {
+                    } else if (t == null) {
                         var eventId = EventId.generate();
+                        var skippedCommits = job.skippedCommits();
                         logger.info(
-                                "{} {} {} Successfully extracted ontology changes from file {}",
+                                "{} {} {} Successfully extracted ontology changes from file {} ({} commits skipped)",
                                 projectId,
                                 operationId,
                                 eventId,
-                                targetOntologyFile);
-                        fireImportSucceeded(projectId, operationId, eventId, repositoryCoordinates);
+                                targetOntologyFile,
+                                skippedCommits.size());
+                        skippedCommits.forEach(skippedCommit -> logger.info(
+                                "{} {} Skipped commit {}: {}",
+                                projectId,
+                                operationId,
+                                skippedCommit.commitHash(),
+                                skippedCommit.reason()));
+                        fireImportSucceeded(projectId, operationId, eventId, repositoryCoordinates, skippedCommits);
                     }
                 })
-                .thenApplyAsync(
-                        projectHistory -> storeProjectHistory(projectId, operationId, projectHistory),
-                        projectHistoryImportExecutor)
+                .thenCompose(projectHistory -> importJobScheduler.submit(
+                        job, ImportStage.STORE, () -> serializeProjectHistory(job, projectHistory)))
+                .thenCompose(document -> uploadProjectHistoryAsync(job, document))
                 .whenComplete((documentLocation, t) -> {
-                    if (t != null) {
+                    if (findCause(t, ImportCancelledException.class).isPresent()) {
+                        deleteWorkingDirectory(projectId, operationId, getLocalWorkingDirectory(userId, projectId));
+                    } else if (t != null && !isReportedOnCompletion(t)) {
                         var eventId = EventId.generate();
                         logger.error(
                                 "{} {} {} Failed to store project history at location {}",
@@ -147,8 +348,8 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
                                 documentLocation,
                                 t);
                         fireStoreFailed(projectId, operationId, eventId, repositoryCoordinates, t);
-                        fireCreateProjectHistoryFromGitHubRepoFailed(operationId, projectId, t);
-                    } else {
+                    } else if (t == null) {
+                        job.reportCompletion();
                         var eventId = EventId.generate();
                         logger.info(
                                 "{} {} {} Successfully stored project history at location {}",
@@ -157,58 +358,117 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
                                 eventId,
                                 documentLocation);
                         fireStoreSucceeded(projectId, operationId, eventId, repositoryCoordinates);
-                        fireCreateProjectHistoryFromGitHubRepoSucceeded(operationId, projectId, documentLocation);
                     }
                 });
     }
 
+    /**
+     * Estimates the size of the import before the repository is cloned. The estimate gives priority
+     * to the clones of the smaller imports, and the imports that are not expected to succeed are
+     * rejected. An import whose size cannot be estimated is accepted.
+     */
+    private CompletableFuture<Void> preflightAsync(
+            ImportJob job, RepositoryCoordinates repositoryCoordinates, RelativeFilePath targetOntologyFile) {
+        if (!importPreflight.isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return importJobScheduler.submit(job, ImportStage.PREFLIGHT, () -> {
+            importPreflight
+                    .estimate(repositoryCoordinates, job.headCommit(), targetOntologyFile, job)
+                    .ifPresent(estimate -> {
+                        job.setEstimatedRepositorySize(estimate.historySize());
+                        var assessment = importPreflight.assess(estimate);
+                        switch (assessment.verdict()) {
+                            case REJECT -> throw new ImportRejectedException(assessment.reason());
+                            case WARN -> {
+                                var eventId = EventId.generate();
+                                logger.warn(
+                                        "{} {} {} Import of file {} may run out of memory: {}",
+                                        job.projectId(),
+                                        job.operationId(),
+                                        eventId,
+                                        targetOntologyFile,
+                                        assessment.reason());
+                                fireImportSizeWarning(job, eventId, repositoryCoordinates, estimate, assessment);
+                            }
+                            case ACCEPT -> {}
+                        }
+                    });
+            return null;
+        });
+    }
+
     private CompletableFuture<GitHubRepository> cloneRepositoryAsync(
-            UserId userId,
-            ProjectId projectId,
-            CreateProjectHistoryFromGitHubRepoOperationId operationId,
-            RepositoryCoordinates repositoryCoordinates) {
+            ImportJob job, UserId userId, RepositoryCoordinates repositoryCoordinates) {
 
-        return CompletableFuture.supplyAsync(
-                () -> {
-                    try {
-                        logger.info(
-                                "{} {} Starting repository clone {}",
-                                projectId,
-                                operationId,
-                                repositoryCoordinates.repositoryUrl());
-                        var workingDirectory = getLocalWorkingDirectory(userId, projectId);
-                        return cloneGitHubRepository(repositoryCoordinates, workingDirectory);
-                    } catch (GitHubNavigatorException e) {
-                        throw new RuntimeException("Failed to clone repository", e);
-                    }
-                },
-                projectHistoryImportExecutor);
+        var projectId = job.projectId();
+        var operationId = job.operationId();
+        return importJobScheduler.submit(job, ImportStage.CLONE, () -> {
+            try {
+                logger.info(
+                        "{} {} Starting repository clone {}",
+                        projectId,
+                        operationId,
+                        repositoryCoordinates.repositoryUrl());
+                var workingDirectory = getLocalWorkingDirectory(userId, projectId);
+                var cloneSample = job.profiler().start(ProfiledStage.CLONE, null);
+                var repository = cloneGitHubRepository(repositoryCoordinates, workingDirectory);
+                cloneSample.stop(0);
+                job.checkpoint();
+                job.setEstimatedRepositorySize(estimateRepositorySize(projectId, operationId, workingDirectory));
+                resolveHeadCommit(projectId, operationId, workingDirectory).ifPresent(job::setHeadCommit);
+                return repository;
+            } catch (GitHubNavigatorException e) {
+                throw new RuntimeException("Failed to clone repository", e);
+            }
+        });
     }
 
     private List<OntologyCommitChange> extractOntologyChanges(
-            ProjectId projectId,
-            CreateProjectHistoryFromGitHubRepoOperationId operationId,
-            RelativeFilePath targetOntologyFile,
-            GitHubRepository repository) {
+            ImportJob job, RelativeFilePath targetOntologyFile, GitHubRepository repository) {
         try {
             logger.info(
                     "{} {} Starting ontology change extraction from file {}",
-                    projectId,
-                    operationId,
+                    job.projectId(),
+                    job.operationId(),
                     targetOntologyFile);
-            return ontologyHistoryAnalyzer.getCommitHistory(targetOntologyFile, repository);
+            return ontologyHistoryAnalyzer.getCommitHistory(targetOntologyFile, repository, job);
         } catch (OntologyComparisonException e) {
             throw new RuntimeException("Failed to extract ontology change", e);
         }
     }
 
-    private BlobLocation storeProjectHistory(
-            ProjectId projectId,
-            CreateProjectHistoryFromGitHubRepoOperationId operationId,
-            List<OntologyCommitChange> projectHistory) {
+    private Path serializeProjectHistory(ImportJob job, List<OntologyCommitChange> projectHistory) {
         try {
-            logger.info("{} {} Starting project history store", projectId, operationId);
-            return projectHistoryStorer.storeProjectHistory(projectId, projectHistory);
+            logger.info("{} {} Starting project history store", job.projectId(), job.operationId());
+            return projectHistoryStorer.serializeProjectHistory(job.projectId(), projectHistory, job);
+        } catch (ImportCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store project history", e);
+        }
+    }
+
+    /**
+     * Uploads the serialized project history document on the upload pool, apart from its CPU-bound
+     * serialization, so that only the upload runs on a virtual thread. The document is deleted if the
+     * upload never starts because the import was cancelled while it was queued.
+     */
+    private CompletableFuture<BlobLocation> uploadProjectHistoryAsync(ImportJob job, Path document) {
+        return importJobScheduler
+                .submit(job, ImportStage.UPLOAD, () -> uploadProjectHistory(job, document))
+                .whenComplete((documentLocation, t) -> {
+                    if (t != null) {
+                        projectHistoryStorer.deleteProjectHistory(job.projectId(), document);
+                    }
+                });
+    }
+
+    private BlobLocation uploadProjectHistory(ImportJob job, Path document) {
+        try {
+            return projectHistoryStorer.uploadProjectHistory(job.projectId(), document, job);
+        } catch (ImportCancelledException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to store project history", e);
         }
@@ -219,13 +479,97 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
         return tempDir.resolve("github-repos" + File.separator + userId.value() + File.separator + projectId.value());
     }
 
+    /**
+     * Estimates the size of a cloned repository from the total size of the files in its working
+     * directory, excluding the git directory. The estimate is used to give priority to the later
+     * stages of small imports.
+     */
+    private long estimateRepositorySize(
+            ProjectId projectId, CreateProjectHistoryFromGitHubRepoOperationId operationId, Path workingDirectory) {
+        var gitDirectory = workingDirectory.resolve(Constants.DOT_GIT);
+        var size = new AtomicLong();
+        try {
+            Files.walkFileTree(workingDirectory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    return directory.equals(gitDirectory) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        size.addAndGet(attributes.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            logger.info("{} {} Estimated repository size is {} bytes", projectId, operationId, size.get());
+            return size.get();
+        } catch (IOException e) {
+            logger.warn("{} {} Unable to estimate repository size", projectId, operationId, e);
+            return ImportJob.UNKNOWN_SIZE;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given stage failure was caused by the cancellation or the rejection
+     * of the import. Cancellations and rejections are only reported once the whole stage chain has
+     * completed.
+     */
+    private static boolean isReportedOnCompletion(Throwable t) {
+        return findCause(t, ImportCancelledException.class).isPresent()
+                || findCause(t, ImportRejectedException.class).isPresent();
+    }
+
+    private static <T extends Throwable> Optional<T> findCause(Throwable t, Class<T> type) {
+        for (var cause = t; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return Optional.of(type.cast(cause));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Releases the clone directory of a cancelled import */
+    private void deleteWorkingDirectory(
+            ProjectId projectId, CreateProjectHistoryFromGitHubRepoOperationId operationId, Path workingDirectory) {
+        try {
+            FileSystemUtils.deleteRecursively(workingDirectory);
+        } catch (IOException e) {
+            logger.warn("{} {} Unable to delete working directory {}", projectId, operationId, workingDirectory, e);
+        }
+    }
+
+    /**
+     * Resolves the HEAD commit of a cloned repository, which is the commit that the import records
+     * its result for.
+     */
+    private Optional<String> resolveHeadCommit(
+            ProjectId projectId, CreateProjectHistoryFromGitHubRepoOperationId operationId, Path workingDirectory) {
+        try {
+            var commitNavigator =
+                    CommitNavigatorBuilder.forWorkingDirectory(workingDirectory).build();
+            return Optional.of(commitNavigator.getCurrentCommit().commitHash());
+        } catch (Exception e) {
+            logger.warn("{} {} Unable to resolve HEAD commit", projectId, operationId, e);
+            return Optional.empty();
+        }
+    }
+
     private GitHubRepository cloneGitHubRepository(RepositoryCoordinates repositoryCoordinates, Path workingDirectory)
             throws GitHubNavigatorException {
-        var repository = GitHubRepositoryBuilderFactory.create(repositoryCoordinates)
-                .localWorkingDirectory(workingDirectory)
-                .build();
-        repository.initialize();
-        return repository;
+        var sample = pipelineMetrics.startClone();
+        var success = false;
+        try {
+            var repository = GitHubRepositoryBuilderFactory.create(repositoryCoordinates)
+                    .localWorkingDirectory(workingDirectory)
+                    .build();
+            repository.initialize();
+            success = true;
+            return repository;
+        } finally {
+            pipelineMetrics.stopClone(sample, success);
+        }
     }
 
     private void fireCloneFailed(
@@ -258,13 +602,67 @@ public class CreateProjectHistoryFromGitHubRepoCommandHandler
                 projectId, operationId, eventId, repositoryCoordinates, t.getMessage()));
     }
 
+    private void fireImportCancelled(
+            ProjectId projectId,
+            CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            EventId eventId,
+            RepositoryCoordinates repositoryCoordinates,
+            Throwable t) {
+        eventDispatcher.dispatchEvent(new GitHubProjectHistoryImportCancelledEvent(
+                projectId, operationId, eventId, repositoryCoordinates, t.getMessage()));
+    }
+
+    private void fireImportRejected(
+            ProjectId projectId,
+            CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            EventId eventId,
+            RepositoryCoordinates repositoryCoordinates,
+            Throwable t) {
+        eventDispatcher.dispatchEvent(new GitHubProjectHistoryImportRejectedEvent(
+                projectId, operationId, eventId, repositoryCoordinates, t.getMessage()));
+    }
+
+    private void fireImportSizeWarning(
+            ImportJob job,
+            EventId eventId,
+            RepositoryCoordinates repositoryCoordinates,
+            ImportEstimate estimate,
+            ImportPreflight.Assessment assessment) {
+        eventDispatcher.dispatchEvent(new GitHubProjectHistoryImportSizeWarningEvent(
+                job.projectId(),
+                job.operationId(),
+                eventId,
+                repositoryCoordinates,
+                assessment.reason(),
+                estimate.ontologyFileSize(),
+                estimate.commitCount()));
+    }
+
+    private void fireImportProgress(
+            ProjectId projectId,
+            CreateProjectHistoryFromGitHubRepoOperationId operationId,
+            RepositoryCoordinates repositoryCoordinates,
+            ImportProgress progress) {
+        eventDispatcher.dispatchEvent(new GitHubProjectHistoryImportProgressEvent(
+                projectId,
+                operationId,
+                EventId.generate(),
+                repositoryCoordinates,
+                progress.commitsProcessed(),
+                progress.totalCommits(),
+                progress.axiomChanges(),
+                progress.currentCommitHash(),
+                progress.bytesSerialized()));
+    }
+
     private void fireImportSucceeded(
             ProjectId projectId,
             CreateProjectHistoryFromGitHubRepoOperationId operationId,
             EventId eventId,
-            RepositoryCoordinates repositoryCoordinates) {
-        eventDispatcher.dispatchEvent(
-                new GitHubProjectHistoryImportSucceededEvent(projectId, operationId, eventId, repositoryCoordinates));
+            RepositoryCoordinates repositoryCoordinates,
+            List<SkippedCommit> skippedCommits) {
+        eventDispatcher.dispatchEvent(new GitHubProjectHistoryImportSucceededEvent(
+                projectId, operationId, eventId, repositoryCoordinates, skippedCommits));
     }
 
     private void fireStoreFailed(
@@ -2,22 +2,51 @@ package edu.stanford.protege.github.cloneservice.service;
 
 import static edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoRequest.CHANNEL;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
 import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
 import edu.stanford.protege.webprotege.common.ProjectId;
 import edu.stanford.protege.webprotege.common.Request;
+import java.time.Duration;
+import java.util.Optional;
+import javax.annotation.Nullable;
 
+/**
+ * Requests the creation of a project history from the commits of an ontology file in a GitHub
+ * repository.
+ *
+ * @param timeoutSeconds optional number of seconds after which the import is cancelled if it has
+ *     not completed
+ */
 @JsonTypeName(CHANNEL)
 public record CreateProjectHistoryFromGitHubRepoRequest(
         @JsonProperty("projectId") ProjectId projectId,
         @JsonProperty("repositoryCoordinates") RepositoryCoordinates repositoryCoordinates,
-        @JsonProperty("targetOntologyFile") RelativeFilePath targetOntologyFile)
+        @JsonProperty("targetOntologyFile") RelativeFilePath targetOntologyFile,
+        @JsonProperty("timeoutSeconds") @Nullable Long timeoutSeconds)
         implements Request<CreateProjectHistoryFromGitHubRepoResponse> {
 
     public static final String CHANNEL = "webprotege.github.CreateProjectHistoryFromGitHubRepo";
 
+    @JsonCreator
+    public CreateProjectHistoryFromGitHubRepoRequest {
+        if (timeoutSeconds != null && timeoutSeconds <= 0) {
+            throw new IllegalArgumentException("timeoutSeconds must be positive");
+        }
+    }
+
+    public CreateProjectHistoryFromGitHubRepoRequest(
+            ProjectId projectId, RepositoryCoordinates repositoryCoordinates, RelativeFilePath targetOntologyFile) {
+        this(projectId, repositoryCoordinates, targetOntologyFile, null);
+    }
+
+    /** Returns the time after which the import is cancelled, if the request specified one */
+    public Optional<Duration> timeout() {
+        return Optional.ofNullable(timeoutSeconds).map(Duration::ofSeconds);
+    }
+
     @Override
     public String getChannel() {
         return CHANNEL;
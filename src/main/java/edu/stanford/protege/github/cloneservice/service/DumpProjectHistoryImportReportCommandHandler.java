@@ -0,0 +1,102 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import edu.stanford.protege.github.cloneservice.exception.StorageException;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfileRegistry;
+import edu.stanford.protege.github.cloneservice.profiling.JobProfiler;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import edu.stanford.protege.webprotege.ipc.CommandExecutionException;
+import edu.stanford.protege.webprotege.ipc.CommandHandler;
+import edu.stanford.protege.webprotege.ipc.ExecutionContext;
+import edu.stanford.protege.webprotege.ipc.WebProtegeHandler;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * Dumps the performance report of a running or recently finished import, either into the logs of
+ * the operation or into a sidecar object next to its project history document. Only the user who
+ * requested the import can dump its report.
+ */
+@WebProtegeHandler
+public class DumpProjectHistoryImportReportCommandHandler
+        implements CommandHandler<DumpProjectHistoryImportReportRequest, DumpProjectHistoryImportReportResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DumpProjectHistoryImportReportCommandHandler.class);
+
+    static final String REPORT_SUFFIX = ".performance-report.txt";
+
+    private final ImportProfileRegistry importProfileRegistry;
+
+    private final MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer;
+
+    public DumpProjectHistoryImportReportCommandHandler(
+            @Nonnull ImportProfileRegistry importProfileRegistry,
+            @Nonnull MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer) {
+        this.importProfileRegistry =
+                Objects.requireNonNull(importProfileRegistry, "importProfileRegistry cannot be null");
+        this.minioProjectHistoryDocumentStorer = Objects.requireNonNull(
+                minioProjectHistoryDocumentStorer, "minioProjectHistoryDocumentStorer cannot be null");
+    }
+
+    @NotNull @Override
+    public String getChannelName() {
+        return DumpProjectHistoryImportReportRequest.CHANNEL;
+    }
+
+    @Override
+    public Class<DumpProjectHistoryImportReportRequest> getRequestClass() {
+        return DumpProjectHistoryImportReportRequest.class;
+    }
+
+    @Override
+    public Mono<DumpProjectHistoryImportReportResponse> handleRequest(
+            DumpProjectHistoryImportReportRequest request, ExecutionContext executionContext) {
+        var operationId = request.operationId();
+        var userId = executionContext.userId();
+        var profiler = importProfileRegistry.findProfiler(operationId);
+        if (profiler.isPresent() && !isRequestedBy(profiler.get(), request.projectId(), userId)) {
+            logger.warn("{} {} is not allowed to dump the performance report of the import", operationId, userId);
+            return Mono.error(new CommandExecutionException(HttpStatus.FORBIDDEN));
+        }
+        if (profiler.isEmpty()) {
+            logger.info("{} No performance profile of the import is available", operationId);
+            return Mono.just(new DumpProjectHistoryImportReportResponse(operationId, false, null));
+        }
+        var reportLocation = dumpReport(profiler.get(), request.destination());
+        return Mono.just(new DumpProjectHistoryImportReportResponse(operationId, true, reportLocation));
+    }
+
+    private static boolean isRequestedBy(JobProfiler profiler, ProjectId projectId, UserId userId) {
+        return profiler.projectId().equals(projectId) && profiler.userId().equals(userId);
+    }
+
+    @Nullable private BlobLocation dumpReport(
+            JobProfiler profiler, DumpProjectHistoryImportReportRequest.Destination destination) {
+        var operationId = profiler.operationId();
+        var report = profiler.report();
+        if (destination == DumpProjectHistoryImportReportRequest.Destination.SIDECAR) {
+            var historyDocumentLocation = profiler.historyDocumentLocation();
+            if (historyDocumentLocation.isPresent()) {
+                try {
+                    var reportLocation = minioProjectHistoryDocumentStorer.storeSidecarDocument(
+                            historyDocumentLocation.get(), REPORT_SUFFIX, report.format());
+                    logger.info("{} Stored performance report at location {}", operationId, reportLocation);
+                    return reportLocation;
+                } catch (StorageException e) {
+                    logger.warn("{} Unable to store performance report, writing it to the log instead", operationId, e);
+                }
+            } else {
+                logger.info("{} The import has not stored a project history document", operationId);
+            }
+        }
+        logger.info("{} {} {}", report.projectId(), operationId, report.format());
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static edu.stanford.protege.github.cloneservice.service.DumpProjectHistoryImportReportRequest.CHANNEL;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.Request;
+import java.util.Objects;
+
+/**
+ * Requests the performance report of a profiled project history import. Imports are only profiled
+ * when {@code webprotege.import.profiling.enabled} is set. Only the user who requested the import
+ * can request its report.
+ *
+ * @param projectId The project that the import belongs to
+ * @param operationId The operation id returned in the {@link
+ *     CreateProjectHistoryFromGitHubRepoResponse} of the import
+ * @param destination Where the report is written to
+ */
+@JsonTypeName(CHANNEL)
+public record DumpProjectHistoryImportReportRequest(
+        @JsonProperty("projectId") ProjectId projectId,
+        @JsonProperty("operationId") CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        @JsonProperty("destination") Destination destination)
+        implements Request<DumpProjectHistoryImportReportResponse> {
+
+    public static final String CHANNEL = "webprotege.github.DumpProjectHistoryImportReport";
+
+    public DumpProjectHistoryImportReportRequest {
+        Objects.requireNonNull(projectId, "projectId cannot be null");
+        Objects.requireNonNull(operationId, "operationId cannot be null");
+        Objects.requireNonNull(destination, "destination cannot be null");
+    }
+
+    @Override
+    public String getChannel() {
+        return CHANNEL;
+    }
+
+    /** Where a performance report is written to */
+    public enum Destination {
+        /** The logs of the operation */
+        LOG,
+
+        /**
+         * A sidecar object next to the project history document. The report is written to the logs
+         * instead if the import has not stored its document.
+         */
+        SIDECAR
+    }
+}
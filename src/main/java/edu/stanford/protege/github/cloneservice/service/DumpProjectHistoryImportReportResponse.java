@@ -0,0 +1,23 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static edu.stanford.protege.github.cloneservice.service.DumpProjectHistoryImportReportRequest.CHANNEL;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import edu.stanford.protege.webprotege.common.Response;
+import javax.annotation.Nullable;
+
+/**
+ * @param operationId The operation id of the import
+ * @param found {@code true} if a profile of the import was found and dumped, {@code false} if the
+ *     import was not profiled or its profile is no longer kept
+ * @param reportLocation The location of the sidecar report, or {@code null} if the report was written
+ *     to the logs
+ */
+@JsonTypeName(CHANNEL)
+public record DumpProjectHistoryImportReportResponse(
+        @JsonProperty("operationId") CreateProjectHistoryFromGitHubRepoOperationId operationId,
+        @JsonProperty("found") boolean found,
+        @JsonProperty("reportLocation") @Nullable BlobLocation reportLocation)
+        implements Response {}
@@ -0,0 +1,118 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the commits that modify a file of a GitHub repository with the commits endpoint of the
+ * GitHub REST API, without fetching the history of the repository. A page of one commit is
+ * requested, so that the number of the last page in the Link header of the response is the number of
+ * commits.
+ */
+class GitHubCommitCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitHubCommitCounter.class);
+
+    /** The owner and name of a repository in the HTTPS or SSH URL of a GitHub repository */
+    private static final Pattern GITHUB_URL = Pattern.compile(
+            "^(?:https://github\\.com/|git@github\\.com:|ssh://git@github\\.com/)([^/]+)/([^/]+?)(?:\\.git)?/?$");
+
+    /** The number of the last page in a Link header */
+    private static final Pattern LAST_PAGE = Pattern.compile("[?&]page=(\\d+)[^>]*>;\\s*rel=\"last\"");
+
+    private final HttpClient httpClient;
+
+    private final String apiUrl;
+
+    private final String token;
+
+    private final Duration timeout;
+
+    GitHubCommitCounter(@Nonnull ImportPreflightProperties properties) {
+        Objects.requireNonNull(properties, "properties cannot be null");
+        this.timeout = properties.getTimeout();
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.apiUrl = properties.getGithubApiUrl().replaceAll("/+$", "");
+        this.token = properties.getGithubToken();
+    }
+
+    /**
+     * Counts the commits that modify a file in the history of a commit
+     *
+     * @param repositoryUrl the URL of the repository
+     * @param headCommit the hash of the commit whose history is counted
+     * @param path the path of the file, relative to the root of the repository
+     * @return the number of commits, or an empty optional if the repository is not hosted on GitHub or
+     *     the API does not answer
+     * @throws InterruptedException if the thread is interrupted while waiting for the API
+     */
+    @Nonnull
+    OptionalInt countCommits(@Nonnull String repositoryUrl, @Nonnull String headCommit, @Nonnull String path)
+            throws InterruptedException {
+        var matcher = GITHUB_URL.matcher(repositoryUrl);
+        if (!matcher.matches()) {
+            logger.debug("Not counting the commits of {}, which is not hosted on GitHub", repositoryUrl);
+            return OptionalInt.empty();
+        }
+        var uri = URI.create(apiUrl + "/repos/" + matcher.group(1) + "/" + matcher.group(2) + "/commits?sha="
+                + headCommit + "&path=" + URLEncoder.encode(path, StandardCharsets.UTF_8) + "&per_page=1");
+        var request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/vnd.github+json")
+                .header("X-GitHub-Api-Version", "2022-11-28");
+        if (!token.isBlank()) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            var response = httpClient.send(request.GET().build(), HttpResponse.BodyHandlers.ofString());
+            return switch (response.statusCode()) {
+                case 200 -> OptionalInt.of(countCommits(response));
+                case 401, 403, 404 -> {
+                    // GitHub answers 404 for the private repositories that the token cannot read
+                    logger.warn(
+                            "GitHub API refused to count the commits of {} (status {}){}",
+                            repositoryUrl,
+                            response.statusCode(),
+                            token.isBlank() ? ", it may be private and no token is configured" : "");
+                    yield OptionalInt.empty();
+                }
+                default -> {
+                    logger.warn(
+                            "Unable to count the commits of {}: GitHub API answered with status {}",
+                            repositoryUrl,
+                            response.statusCode());
+                    yield OptionalInt.empty();
+                }
+            };
+        } catch (IOException e) {
+            logger.warn("Unable to count the commits of {}: {}", repositoryUrl, e.getMessage());
+            return OptionalInt.empty();
+        }
+    }
+
+    private static int countCommits(HttpResponse<String> response) {
+        var lastPage = response.headers()
+                .firstValue("Link")
+                .map(LAST_PAGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Integer.parseInt(matcher.group(1)));
+        if (lastPage.isPresent()) {
+            return lastPage.get();
+        }
+        // A single page holds the only commit, if any
+        return response.body().strip().equals("[]") ? 0 : 1;
+    }
+}
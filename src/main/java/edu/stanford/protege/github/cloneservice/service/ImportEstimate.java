@@ -0,0 +1,38 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import com.google.common.math.LongMath;
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * The size of an import, estimated by the {@link ImportPreflight} before the repository is cloned
+ *
+ * @param headCommit the hash of the head commit of the requested branch
+ * @param ontologyFileSize the size of the target ontology file in the head commit, in bytes
+ * @param commitCount the number of commits that modify the target ontology file, or {@link
+ *     #UNKNOWN_COMMIT_COUNT} if they cannot be counted without fetching the history
+ */
+public record ImportEstimate(@Nonnull String headCommit, long ontologyFileSize, int commitCount) {
+
+    /** Marker value for a history whose commits have not been counted */
+    public static final int UNKNOWN_COMMIT_COUNT = -1;
+
+    public ImportEstimate {
+        Objects.requireNonNull(headCommit, "headCommit cannot be null");
+    }
+
+    /** Returns {@code true} if the commits that modify the target ontology file have been counted */
+    public boolean hasCommitCount() {
+        return commitCount != UNKNOWN_COMMIT_COUNT;
+    }
+
+    /**
+     * Returns the number of bytes of ontology documents that the extraction parses, assuming that
+     * every version of the ontology file is as large as the one in the head commit, or {@link
+     * ImportJob#UNKNOWN_SIZE} if the commits have not been counted
+     */
+    public long historySize() {
+        return hasCommitCount() ? LongMath.saturatedMultiply(ontologyFileSize, commitCount) : ImportJob.UNKNOWN_SIZE;
+    }
+}
@@ -0,0 +1,364 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.JGitText;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.FilterSpec;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.Transport;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Estimates the size of an import before the repository is cloned, so that the imports that cannot
+ * succeed are rejected before they take up the slots of the clone and extraction stages.
+ *
+ * <p>The remote repository is inspected with a shallow, partial fetch into a scratch repository:
+ * the head commit of the requested branch and its trees are fetched without their blobs or any
+ * older commit, and then only the blob of the ontology file in that commit is fetched to get its
+ * size. When the head commit has already been resolved to coalesce the request, exactly that commit
+ * is fetched, so that the estimate is made for the commit that is imported. The commits that modify
+ * the ontology file are counted with the GitHub API, which does not fetch the history either, and
+ * are left unknown for the repositories that are not hosted on GitHub. Servers that do not support
+ * shallow or partial fetches yield no estimate, and their imports are accepted as before.
+ *
+ * <p>The fetches and API requests use the configured GitHub token, if any, so that private
+ * repositories can be inspected. Without a token, they are logged as not inspected and accepted.
+ *
+ * <p>The estimate is then assessed against the configured limits, and against the heap that is
+ * needed to hold two versions of the ontology at the same time during the extraction. An import
+ * that needs more than the maximum heap is only rejected if {@link
+ * ImportPreflightProperties#isRejectAboveMaxHeap()} is set, since the heap needed per byte of
+ * ontology varies widely between ontologies.
+ *
+ * <p>The preflight also resolves the head commit of the requested branch from the refs advertised by
+ * the remote repository, so that identical requests can be coalesced before anything is cloned.
+ */
+public class ImportPreflight {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportPreflight.class);
+
+    /** The ref under which the head commit of the requested branch is fetched */
+    private static final String HEAD_REF = "refs/preflight/head";
+
+    /** The ref under which the blob of the target ontology file is fetched */
+    private static final String ONTOLOGY_REF = "refs/preflight/ontology";
+
+    /** The outcome of the assessment of an estimate */
+    public enum Verdict {
+        /** The import is expected to succeed */
+        ACCEPT,
+        /** The import may run out of resources */
+        WARN,
+        /** The import is not expected to succeed, and is not started */
+        REJECT
+    }
+
+    /**
+     * The assessment of an estimate
+     *
+     * @param verdict the outcome of the assessment
+     * @param reason the reason of a warning or a rejection, empty if the import is accepted
+     */
+    public record Assessment(@Nonnull Verdict verdict, @Nonnull String reason) {
+
+        private static final Assessment ACCEPTED = new Assessment(Verdict.ACCEPT, "");
+    }
+
+    private final ImportPreflightProperties properties;
+
+    private final GitHubCommitCounter commitCounter;
+
+    public ImportPreflight(@Nonnull ImportPreflightProperties properties) {
+        this.properties = Objects.requireNonNull(properties, "properties cannot be null");
+        this.commitCounter = new GitHubCommitCounter(properties);
+    }
+
+    /** Creates a preflight that does not inspect repositories */
+    @Nonnull
+    public static ImportPreflight disabled() {
+        var properties = new ImportPreflightProperties();
+        properties.setEnabled(false);
+        return new ImportPreflight(properties);
+    }
+
+    /** Returns {@code true} if the repositories are inspected before they are cloned */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Resolves the commit at the head of the branch of a remote repository, without fetching any of
+     * its objects
+     *
+     * @param repositoryCoordinates the repository and branch
+     * @return the hash of the commit, or an empty optional if the preflight is disabled or the
+     *     repository cannot be inspected
+     */
+    @Nonnull
+    public Optional<String> resolveHeadCommit(@Nonnull RepositoryCoordinates repositoryCoordinates) {
+        Objects.requireNonNull(repositoryCoordinates, "repositoryCoordinates cannot be null");
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        var refName = getRefName(repositoryCoordinates);
+        try {
+            var refs = Git.lsRemoteRepository()
+                    .setRemote(repositoryCoordinates.repositoryUrl())
+                    .setTimeout(getTimeoutSeconds())
+                    .setCredentialsProvider(getCredentialsProvider())
+                    .callAsMap();
+            var headCommit =
+                    Optional.ofNullable(refs.get(refName)).map(Ref::getObjectId).map(ObjectId::name);
+            if (headCommit.isEmpty()) {
+                logger.warn("Ref {} not found in {}", refName, repositoryCoordinates.repositoryUrl());
+            }
+            return headCommit;
+        } catch (Exception e) {
+            logger.warn(
+                    "Unable to resolve {} of {}: {}{}",
+                    refName,
+                    repositoryCoordinates.repositoryUrl(),
+                    e.getMessage(),
+                    getAuthenticationHint(e));
+            return Optional.empty();
+        }
+    }
+
+    /** Returns the name of the ref of the requested branch, or HEAD if no branch is requested */
+    private static String getRefName(RepositoryCoordinates repositoryCoordinates) {
+        var branchName = repositoryCoordinates.branchName();
+        return branchName == null || branchName.isBlank() ? Constants.HEAD : Constants.R_HEADS + branchName;
+    }
+
+    /**
+     * Estimates the size of the import of an ontology file from the requested branch of a remote
+     * repository
+     *
+     * @param repositoryCoordinates the repository and branch
+     * @param headCommit the head commit of the branch that {@link #resolveHeadCommit} resolved, if
+     *     any, so that the estimate is made for the same commit that the request is coalesced on.
+     *     Otherwise the head of the branch is fetched.
+     * @param targetOntologyFile the ontology file to import
+     * @param monitor the monitor of the import, checked between fetches
+     * @return the estimate, or an empty optional if the repository cannot be inspected or does not
+     *     contain the ontology file at the head of the branch
+     * @throws ImportCancelledException if the import is cancelled
+     */
+    @Nonnull
+    public Optional<ImportEstimate> estimate(
+            @Nonnull RepositoryCoordinates repositoryCoordinates,
+            @Nonnull Optional<String> headCommit,
+            @Nonnull RelativeFilePath targetOntologyFile,
+            @Nonnull ImportMonitor monitor) {
+        Objects.requireNonNull(repositoryCoordinates, "repositoryCoordinates cannot be null");
+        Objects.requireNonNull(headCommit, "headCommit cannot be null");
+        Objects.requireNonNull(targetOntologyFile, "targetOntologyFile cannot be null");
+        Objects.requireNonNull(monitor, "monitor cannot be null");
+        var repositoryUrl = repositoryCoordinates.repositoryUrl();
+        // The resolved commit, or else the head of the branch
+        var wantedRef = headCommit.orElseGet(() -> getRefName(repositoryCoordinates));
+        try {
+            var scratchDirectory = Files.createTempDirectory("import-preflight-");
+            try (var git = Git.init()
+                    .setBare(true)
+                    .setDirectory(scratchDirectory.toFile())
+                    .call()) {
+                // The scratch repository is deleted right away, so it is not worth collecting garbage
+                // in the background after the fetches
+                var config = git.getRepository().getConfig();
+                config.setInt(ConfigConstants.CONFIG_GC_SECTION, null, ConfigConstants.CONFIG_KEY_AUTO, 0);
+                config.save();
+                return estimate(git.getRepository(), repositoryUrl, wantedRef, targetOntologyFile.asString(), monitor);
+            } finally {
+                deleteScratchDirectory(scratchDirectory);
+            }
+        } catch (ImportCancelledException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while estimating the size of the import");
+        } catch (Exception e) {
+            // A fetch may have been interrupted because the import was cancelled
+            monitor.checkpoint();
+            logger.warn(
+                    "Unable to estimate the size of {} in {}: {}{}",
+                    targetOntologyFile,
+                    repositoryUrl,
+                    e.getMessage(),
+                    getAuthenticationHint(e));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a hint to configure a token if a request failed for lack of credentials, since private
+     * repositories are then accepted without being inspected
+     */
+    private String getAuthenticationHint(Exception e) {
+        var message = String.valueOf(e.getMessage());
+        var authenticationFailed = message.contains(JGitText.get().noCredentialsProvider)
+                || message.contains(JGitText.get().notAuthorized);
+        if (!authenticationFailed) {
+            return "";
+        }
+        return properties.getGithubToken().isBlank()
+                ? " (the repository may be private, and no token is configured)"
+                : " (the configured token is not authorized)";
+    }
+
+    private int getTimeoutSeconds() {
+        return (int) Math.max(1, properties.getTimeout().toSeconds());
+    }
+
+    @Nullable private CredentialsProvider getCredentialsProvider() {
+        var token = properties.getGithubToken();
+        // GitHub takes a token as the password of any user name
+        return token.isBlank() ? null : new UsernamePasswordCredentialsProvider("x-access-token", token);
+    }
+
+    private static void deleteScratchDirectory(Path scratchDirectory) {
+        try {
+            FileSystemUtils.deleteRecursively(scratchDirectory);
+        } catch (IOException e) {
+            logger.warn("Unable to delete preflight scratch directory {}", scratchDirectory, e);
+        }
+    }
+
+    private Optional<ImportEstimate> estimate(
+            Repository repository, String repositoryUrl, String wantedRef, String ontologyPath, ImportMonitor monitor)
+            throws IOException, URISyntaxException, InterruptedException {
+        // The head commit and its trees, without any older commit
+        try (var transport = openTransport(repository, repositoryUrl)) {
+            transport.setDepth(1);
+            transport.setFilterSpec(FilterSpec.fromFilterLine("blob:none"));
+            transport.fetch(NullProgressMonitor.INSTANCE, List.of(new RefSpec("+" + wantedRef + ":" + HEAD_REF)));
+        }
+        monitor.checkpoint();
+        // A commit fetched by its hash is not stored under the destination ref
+        var headCommitId = ObjectId.isId(wantedRef) ? ObjectId.fromString(wantedRef) : repository.resolve(HEAD_REF);
+        if (headCommitId == null || !repository.getObjectDatabase().has(headCommitId)) {
+            logger.warn("Unable to fetch {} of {}", wantedRef, repositoryUrl);
+            return Optional.empty();
+        }
+
+        ObjectId ontologyBlobId;
+        try (var revWalk = new RevWalk(repository);
+                var treeWalk = TreeWalk.forPath(
+                        repository,
+                        ontologyPath,
+                        revWalk.parseCommit(headCommitId).getTree())) {
+            if (treeWalk == null) {
+                logger.warn("Ontology file {} not found at {} of {}", ontologyPath, wantedRef, repositoryUrl);
+                return Optional.empty();
+            }
+            ontologyBlobId = treeWalk.getObjectId(0);
+        }
+
+        // The blob of the ontology file in the head commit only
+        try (var transport = openTransport(repository, repositoryUrl)) {
+            transport.fetch(
+                    NullProgressMonitor.INSTANCE, List.of(new RefSpec(ontologyBlobId.name() + ":" + ONTOLOGY_REF)));
+        }
+        monitor.checkpoint();
+
+        var commitCount = commitCounter
+                .countCommits(repositoryUrl, headCommitId.name(), ontologyPath)
+                .orElse(ImportEstimate.UNKNOWN_COMMIT_COUNT);
+        monitor.checkpoint();
+        try (var reader = repository.newObjectReader()) {
+            var ontologyFileSize = reader.getObjectSize(ontologyBlobId, Constants.OBJ_BLOB);
+            var estimate = new ImportEstimate(headCommitId.name(), ontologyFileSize, commitCount);
+            logger.info(
+                    "Estimated import of {} from {} at {}: {} bytes, {} commits",
+                    ontologyPath,
+                    repositoryUrl,
+                    headCommitId.name(),
+                    ontologyFileSize,
+                    estimate.hasCommitCount() ? commitCount : "unknown");
+            return Optional.of(estimate);
+        }
+    }
+
+    private Transport openTransport(Repository repository, String repositoryUrl)
+            throws IOException, URISyntaxException {
+        var transport = Transport.open(repository, new URIish(repositoryUrl));
+        transport.setTimeout(getTimeoutSeconds());
+        transport.setCredentialsProvider(getCredentialsProvider());
+        return transport;
+    }
+
+    /**
+     * Assesses an estimate against the configured limits and the maximum heap of the service
+     *
+     * @param estimate the estimate of the import
+     * @return the assessment of the estimate
+     */
+    @Nonnull
+    public Assessment assess(@Nonnull ImportEstimate estimate) {
+        return assess(estimate, Runtime.getRuntime().maxMemory());
+    }
+
+    @Nonnull
+    Assessment assess(@Nonnull ImportEstimate estimate, long maxHeap) {
+        Objects.requireNonNull(estimate, "estimate cannot be null");
+        var maxCommits = properties.getMaxCommits();
+        if (maxCommits > 0 && estimate.commitCount() > maxCommits) {
+            return new Assessment(
+                    Verdict.REJECT,
+                    "The ontology file is modified by " + estimate.commitCount() + " commits, more than the limit of "
+                            + maxCommits);
+        }
+        var maxOntologyFileSize = properties.getMaxOntologyFileSize().toBytes();
+        if (maxOntologyFileSize > 0 && estimate.ontologyFileSize() > maxOntologyFileSize) {
+            return new Assessment(
+                    Verdict.REJECT,
+                    "The ontology file has " + estimate.ontologyFileSize() + " bytes, more than the limit of "
+                            + maxOntologyFileSize);
+        }
+        // Two versions of the ontology are loaded at the same time to be diffed
+        var estimatedHeap = 2 * estimate.ontologyFileSize() * Math.max(1, properties.getHeapBytesPerOntologyByte());
+        if (estimatedHeap > maxHeap) {
+            return new Assessment(
+                    properties.isRejectAboveMaxHeap() ? Verdict.REJECT : Verdict.WARN,
+                    "The extraction needs an estimated " + toMegabytes(estimatedHeap)
+                            + " MB of heap, more than the maximum heap of " + toMegabytes(maxHeap) + " MB");
+        }
+        if (estimatedHeap > properties.getHeapWarningThreshold() * maxHeap) {
+            return new Assessment(
+                    Verdict.WARN,
+                    "The extraction needs an estimated " + toMegabytes(estimatedHeap) + " MB of the maximum heap of "
+                            + toMegabytes(maxHeap) + " MB");
+        }
+        return Assessment.ACCEPTED;
+    }
+
+    private static long toMegabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,101 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.preflight")
+public class ImportPreflightProperties {
+
+    private boolean enabled = true;
+
+    private Duration timeout = Duration.ofMinutes(1);
+
+    private int maxCommits = 0;
+
+    private DataSize maxOntologyFileSize = DataSize.ofBytes(0);
+
+    private int heapBytesPerOntologyByte = 20;
+
+    private double heapWarningThreshold = 0.5;
+
+    private boolean rejectAboveMaxHeap = false;
+
+    private String githubToken = "";
+
+    private String githubApiUrl = "https://api.github.com";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxCommits() {
+        return maxCommits;
+    }
+
+    public void setMaxCommits(int maxCommits) {
+        this.maxCommits = maxCommits;
+    }
+
+    public DataSize getMaxOntologyFileSize() {
+        return maxOntologyFileSize;
+    }
+
+    public void setMaxOntologyFileSize(DataSize maxOntologyFileSize) {
+        this.maxOntologyFileSize = maxOntologyFileSize;
+    }
+
+    public int getHeapBytesPerOntologyByte() {
+        return heapBytesPerOntologyByte;
+    }
+
+    public void setHeapBytesPerOntologyByte(int heapBytesPerOntologyByte) {
+        this.heapBytesPerOntologyByte = heapBytesPerOntologyByte;
+    }
+
+    public double getHeapWarningThreshold() {
+        return heapWarningThreshold;
+    }
+
+    public void setHeapWarningThreshold(double heapWarningThreshold) {
+        this.heapWarningThreshold = heapWarningThreshold;
+    }
+
+    public boolean isRejectAboveMaxHeap() {
+        return rejectAboveMaxHeap;
+    }
+
+    public void setRejectAboveMaxHeap(boolean rejectAboveMaxHeap) {
+        this.rejectAboveMaxHeap = rejectAboveMaxHeap;
+    }
+
+    public String getGithubToken() {
+        return githubToken;
+    }
+
+    public void setGithubToken(String githubToken) {
+        this.githubToken = githubToken;
+    }
+
+    public String getGithubApiUrl() {
+        return githubApiUrl;
+    }
+
+    public void setGithubApiUrl(String githubApiUrl) {
+        this.githubApiUrl = githubApiUrl;
+    }
+}
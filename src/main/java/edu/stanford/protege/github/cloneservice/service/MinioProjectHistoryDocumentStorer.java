@@ -5,9 +5,12 @@ import edu.stanford.protege.webprotege.common.BlobLocation;
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
 import io.minio.UploadObjectArgs;
 import io.minio.errors.*;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
@@ -68,6 +71,38 @@ public class MinioProjectHistoryDocumentStorer {
         }
     }
 
+    /**
+     * Stores a small text document next to a stored document, in the same bucket and under the name
+     * of that document followed by the given suffix.
+     *
+     * @param documentLocation the location of the stored document
+     * @param suffix the suffix of the name of the sidecar document
+     * @param content the text of the sidecar document
+     * @return the location of the sidecar document
+     * @throws StorageException if any error occurs during the upload
+     */
+    public BlobLocation storeSidecarDocument(BlobLocation documentLocation, String suffix, String content) {
+        var location = new BlobLocation(documentLocation.bucket(), documentLocation.name() + suffix);
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        try {
+            minioClient.putObject(PutObjectArgs.builder().bucket(location.bucket()).object(location.name()).stream(
+                            new ByteArrayInputStream(bytes), bytes.length, -1)
+                    .contentType("text/plain; charset=utf-8")
+                    .build());
+            return location;
+        } catch (ErrorResponseException
+                | XmlParserException
+                | ServerException
+                | NoSuchAlgorithmException
+                | IOException
+                | InvalidResponseException
+                | InvalidKeyException
+                | InternalException
+                | InsufficientDataException e) {
+            throw new StorageException("Problem writing sidecar document to storage " + location, e);
+        }
+    }
+
     private void createBucketIfNecessary(BlobLocation location)
             throws ErrorResponseException, InsufficientDataException, InternalException, InvalidKeyException,
                     InvalidResponseException, IOException, NoSuchAlgorithmException, ServerException,
@@ -1,11 +1,12 @@
 package edu.stanford.protege.github.cloneservice.service;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
 import edu.stanford.protege.webprotege.revision.Revision;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import org.springframework.stereotype.Component;
@@ -49,12 +50,64 @@ public class ProjectHistoryConverter {
      */
     @Nonnull
     public List<Revision> convertProjectHistoryToRevisions(@Nonnull List<OntologyCommitChange> projectHistory) {
+        return ImmutableList.copyOf(iterateRevisions(projectHistory));
+    }
+
+    /**
+     * Lazily converts a list of OntologyCommitChange to Revisions, in the same order and with the
+     * same revision numbers as {@link #convertProjectHistoryToRevisions(List)}.
+     *
+     * <p>Each commit change is converted when {@link Iterator#next()} is called, so that only the
+     * revision being consumed is held in memory alongside the project history, rather than the
+     * revisions of the whole history. The project history is traversed in reverse order in place,
+     * without being copied. The axiom changes that were spilled to disk during the analysis (see
+     * {@link edu.stanford.protege.github.cloneservice.model.SpilledAxiomChanges}) are read back
+     * sequentially as their revision is converted.
+     *
+     * @param projectHistory list of ontology commit changes (newest to oldest)
+     * @return an iterator over the revisions (oldest to newest with sequential revision numbers)
+     * @throws NullPointerException if projectHistory is null
+     */
+    @Nonnull
+    public Iterator<Revision> iterateRevisions(@Nonnull List<OntologyCommitChange> projectHistory) {
+        Objects.requireNonNull(projectHistory, "projectHistory cannot be null");
+
+        var revisionHistory = Lists.reverse(projectHistory);
+        return new Iterator<>() {
+
+            private int revisionIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                return revisionIndex < revisionHistory.size();
+            }
+
+            @Override
+            public Revision next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                var commitChange = revisionHistory.get(revisionIndex++);
+                return changeCommitToRevisionConverter.convert(commitChange, revisionIndex);
+            }
+        };
+    }
+
+    /**
+     * Converts a single OntologyCommitChange of a project history to the Revision at the given index
+     * of {@link #convertProjectHistoryToRevisions(List)}, so that the revisions of a history can be
+     * converted independently of each other.
+     *
+     * @param projectHistory list of ontology commit changes (newest to oldest)
+     * @param revisionIndex the index of the revision (0 for the oldest commit)
+     * @return the revision, numbered {@code revisionIndex + 1}
+     * @throws IndexOutOfBoundsException if there is no revision at the given index
+     */
+    @Nonnull
+    public Revision convertRevision(@Nonnull List<OntologyCommitChange> projectHistory, int revisionIndex) {
         Objects.requireNonNull(projectHistory, "projectHistory cannot be null");
 
-        var reversedHistory = new ArrayList<>(projectHistory);
-        Collections.reverse(reversedHistory);
-        return reversedHistory.stream()
-                .map(changeCommitToRevisionConverter::convert)
-                .collect(ImmutableList.toImmutableList());
+        var commitChange = projectHistory.get(projectHistory.size() - 1 - revisionIndex);
+        return changeCommitToRevisionConverter.convert(commitChange, revisionIndex + 1L);
     }
 }
@@ -1,7 +1,12 @@
 package edu.stanford.protege.github.cloneservice.service;
 
+import com.google.common.collect.Lists;
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
 import edu.stanford.protege.github.cloneservice.exception.StorageException;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
 import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
+import edu.stanford.protege.github.cloneservice.profiling.ProfiledStage;
 import edu.stanford.protege.webprotege.common.BlobLocation;
 import edu.stanford.protege.webprotege.common.ProjectId;
 import edu.stanford.protege.webprotege.revision.Revision;
@@ -12,6 +17,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,14 +30,21 @@ public class ProjectHistoryStorer {
 
     private final ProjectHistoryConverter projectHistoryConverter;
     private final MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer;
+    private final PipelineMetrics pipelineMetrics;
+    private final RevisionSerializationExecutor serializationExecutor;
 
     public ProjectHistoryStorer(
             @Nonnull ProjectHistoryConverter projectHistoryConverter,
-            @Nonnull MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer) {
+            @Nonnull MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer,
+            @Nonnull PipelineMetrics pipelineMetrics,
+            @Nonnull RevisionSerializationExecutor serializationExecutor) {
         this.projectHistoryConverter =
                 Objects.requireNonNull(projectHistoryConverter, "projectHistoryConverter cannot be null");
         this.minioProjectHistoryDocumentStorer = Objects.requireNonNull(
                 minioProjectHistoryDocumentStorer, "minioProjectHistoryDocumentStorer cannot be null");
+        this.pipelineMetrics = Objects.requireNonNull(pipelineMetrics, "pipelineMetrics cannot be null");
+        this.serializationExecutor =
+                Objects.requireNonNull(serializationExecutor, "serializationExecutor cannot be null");
     }
 
     /**
@@ -49,32 +62,212 @@ public class ProjectHistoryStorer {
      *     storage, or cleanup operations
      */
     public BlobLocation storeProjectHistory(ProjectId projectId, List<OntologyCommitChange> projectHistory) {
+        return storeProjectHistory(projectId, projectHistory, ImportMonitor.NONE);
+    }
+
+    /**
+     * Stores a project's commit history as a serialized document in blob storage, checking the given
+     * monitor before each revision is serialized and before the document is uploaded. An upload that
+     * is interrupted because the import was cancelled fails with an {@link ImportCancelledException}.
+     *
+     * @param projectHistory a list of ontology commit changes representing the project's history
+     * @param monitor the monitor of the import that requested the storage
+     * @return a {@link BlobLocation} indicating where the serialized project history document has
+     *     been stored in blob storage
+     * @throws ImportCancelledException if the import is cancelled before the document is stored
+     * @see #storeProjectHistory(ProjectId, List)
+     */
+    public BlobLocation storeProjectHistory(
+            ProjectId projectId, List<OntologyCommitChange> projectHistory, ImportMonitor monitor) {
+        Objects.requireNonNull(monitor, "monitor cannot be null");
+        var document = serializeProjectHistory(projectId, projectHistory, monitor);
+        return uploadProjectHistory(projectId, document, monitor);
+    }
+
+    /**
+     * Converts a project's commit history to WebProtege revisions and serializes them to a temporary
+     * document, checking the given monitor before each revision is serialized. This is the CPU-bound
+     * half of {@link #storeProjectHistory(ProjectId, List, ImportMonitor)}; the document is uploaded
+     * and deleted by {@link #uploadProjectHistory(ProjectId, Path, ImportMonitor)}, or deleted by
+     * {@link #deleteProjectHistory(ProjectId, Path)} if it is not uploaded.
+     *
+     * @param projectHistory a list of ontology commit changes representing the project's history
+     * @param monitor the monitor of the import that requested the storage
+     * @return the path of the temporary document
+     * @throws UncheckedIOException if the document cannot be created or written
+     * @throws ImportCancelledException if the import is cancelled before the document is serialized
+     */
+    @Nonnull
+    public Path serializeProjectHistory(
+            ProjectId projectId, List<OntologyCommitChange> projectHistory, ImportMonitor monitor) {
+        Objects.requireNonNull(monitor, "monitor cannot be null");
+        var tempFilePath = createTempFile(projectId);
+        var serialized = false;
+        try {
+            if (serializationExecutor.isParallel() && projectHistory.size() > 1) {
+                serializeRevisionsInParallel(projectId, projectHistory, tempFilePath, monitor);
+            } else {
+                serializeRevisions(projectId, projectHistory, tempFilePath, monitor);
+            }
+            monitor.checkpoint();
+            pipelineMetrics.recordSerializedBytes(Files.size(tempFilePath));
+            serialized = true;
+            return tempFilePath;
+        } catch (IOException e) {
+            logger.error("{} Problem storing project history", projectId, e);
+            throw new UncheckedIOException("Problem storing project history", e);
+        } catch (UncheckedIOException | CancellationException e) {
+            monitor.checkpoint();
+            logger.error("{} Problem serializing project history", projectId, e);
+            throw e;
+        } finally {
+            if (!serialized) {
+                deleteProjectHistory(projectId, tempFilePath);
+            }
+        }
+    }
+
+    private Path createTempFile(ProjectId projectId) {
         try {
-            var revisions = projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory);
-            return serializeAndStoreRevisions(projectId, revisions);
+            return Files.createTempFile("webprotege-", "-clone-project-history.bin");
         } catch (IOException e) {
             logger.error("{} Problem storing project history", projectId, e);
             throw new UncheckedIOException("Problem storing project history", e);
         }
     }
 
-    private BlobLocation serializeAndStoreRevisions(ProjectId projectId, List<Revision> revisions) throws IOException {
-        var tempFilePath = Files.createTempFile("webprotege-", "-clone-project-history.bin");
+    /**
+     * Uploads a document that was serialized by {@link #serializeProjectHistory(ProjectId, List,
+     * ImportMonitor)} to blob storage and deletes it. The upload only waits on the network, so it may
+     * run on a virtual thread. An upload that is interrupted because the import was cancelled fails
+     * with an {@link ImportCancelledException}.
+     *
+     * @param document the path of the serialized document
+     * @param monitor the monitor of the import that requested the storage
+     * @return a {@link BlobLocation} indicating where the document has been stored in blob storage
+     * @throws ImportCancelledException if the import is cancelled before the document is stored
+     */
+    @Nonnull
+    public BlobLocation uploadProjectHistory(ProjectId projectId, @Nonnull Path document, ImportMonitor monitor) {
+        Objects.requireNonNull(document, "document cannot be null");
+        Objects.requireNonNull(monitor, "monitor cannot be null");
         try {
-            revisions.forEach(revision -> serialize(projectId, revision, tempFilePath));
-            return minioProjectHistoryDocumentStorer.storeDocument(tempFilePath);
-        } catch (StorageException | UncheckedIOException e) {
-            logger.error("{} Problem serializing project history", projectId, e);
+            monitor.checkpoint();
+            var uploadSample = monitor.profiler().start(ProfiledStage.UPLOAD, null);
+            var location = pipelineMetrics.timeUpload(() -> minioProjectHistoryDocumentStorer.storeDocument(document));
+            uploadSample.stop(0);
+            return location;
+        } catch (StorageException | UncheckedIOException | CancellationException e) {
+            // The upload fails with an I/O error when the thread of a cancelled import is interrupted
+            monitor.checkpoint();
+            logger.error("{} Problem uploading project history", projectId, e);
             throw e;
         } finally {
+            deleteProjectHistory(projectId, document);
+        }
+    }
+
+    /** Deletes a serialized document, if it still exists */
+    public void deleteProjectHistory(ProjectId projectId, @Nonnull Path document) {
+        try {
+            Files.deleteIfExists(document);
+        } catch (IOException e) {
+            logger.error("{} Error deleting temp file {}", projectId, document, e);
+        }
+    }
+
+    /**
+     * Returns the commit hashes of the project history in revision order, which is the reverse of the
+     * order of the project history
+     */
+    private static List<String> getCommitHashes(List<OntologyCommitChange> projectHistory) {
+        return Lists.reverse(projectHistory).stream()
+                .map(commitChange -> commitChange.commitMetadata().commitHash())
+                .toList();
+    }
+
+    /**
+     * Converts the revisions one at a time and appends each one to the document as soon as it is
+     * converted, so that the changes of the project history are not held in memory twice
+     */
+    private void serializeRevisions(
+            ProjectId projectId, List<OntologyCommitChange> projectHistory, Path tempFilePath, ImportMonitor monitor)
+            throws IOException {
+        var revisions = projectHistoryConverter.iterateRevisions(projectHistory);
+        var commitHashes = getCommitHashes(projectHistory);
+        for (int i = 0; revisions.hasNext(); i++) {
+            monitor.checkpoint();
+            var commitHash = i < commitHashes.size() ? commitHashes.get(i) : null;
+            var conversionSample = monitor.profiler().start(ProfiledStage.CONVERT, commitHash);
+            var revision = pipelineMetrics.timeConversion(revisions::next);
+            conversionSample.stop(revision.getChanges().size());
+            appendRevision(projectId, revision, commitHash, tempFilePath, monitor);
+        }
+        reportSerializedBytes(tempFilePath, monitor);
+    }
+
+    /**
+     * Converts the revisions on the serialization threads, and appends them to the document in
+     * revision order on the calling thread. The revisions are appended exactly as in {@link
+     * #serializeRevisions}, so the document is identical.
+     */
+    private void serializeRevisionsInParallel(
+            ProjectId projectId, List<OntologyCommitChange> projectHistory, Path tempFilePath, ImportMonitor monitor)
+            throws IOException {
+        var commitHashes = getCommitHashes(projectHistory);
+        serializationExecutor.runOrdered(
+                projectHistory.size(),
+                revisionIndex -> convert(projectHistory, commitHashes.get(revisionIndex), revisionIndex, monitor),
+                convertedRevision -> {
+                    monitor.checkpoint();
+                    appendRevision(
+                            projectId,
+                            convertedRevision.revision(),
+                            convertedRevision.commitHash(),
+                            tempFilePath,
+                            monitor);
+                });
+        reportSerializedBytes(tempFilePath, monitor);
+    }
+
+    /** A revision that has been converted on a serialization thread, with the hash of its commit */
+    private record ConvertedRevision(String commitHash, Revision revision) {}
+
+    /** Converts the revision at the given index */
+    private ConvertedRevision convert(
+            List<OntologyCommitChange> projectHistory, String commitHash, int revisionIndex, ImportMonitor monitor) {
+        monitor.checkpoint();
+        var conversionSample = monitor.profiler().start(ProfiledStage.CONVERT, commitHash);
+        var revision = pipelineMetrics.timeConversion(
+                () -> projectHistoryConverter.convertRevision(projectHistory, revisionIndex));
+        conversionSample.stop(revision.getChanges().size());
+        return new ConvertedRevision(commitHash, revision);
+    }
+
+    /**
+     * Appends a revision to the document. The size of the document is only sampled when a progress
+     * event is due.
+     */
+    private void appendRevision(
+            ProjectId projectId, Revision revision, String commitHash, Path tempFilePath, ImportMonitor monitor) {
+        var serializationSample = monitor.profiler().start(ProfiledStage.SERIALIZE, commitHash);
+        pipelineMetrics.timeSerialization(() -> serialize(projectId, revision, tempFilePath));
+        serializationSample.stop(revision.getChanges().size());
+        if (monitor.isProgressReportDue()) {
             try {
-                Files.delete(tempFilePath);
+                monitor.bytesSerialized(Files.size(tempFilePath));
             } catch (IOException e) {
-                logger.error("{} Error deleting temp file {}", projectId, tempFilePath, e);
+                throw new UncheckedIOException("Problem reading the size of the project history", e);
             }
         }
     }
 
+    private static void reportSerializedBytes(Path tempFilePath, ImportMonitor monitor) throws IOException {
+        if (monitor.isTrackingProgress()) {
+            monitor.bytesSerialized(Files.size(tempFilePath));
+        }
+    }
+
     private void serialize(ProjectId projectId, Revision revision, Path tempFile) {
         try {
             var revisionSerializationTask = new RevisionSerializationTask(tempFile.toFile(), revision);
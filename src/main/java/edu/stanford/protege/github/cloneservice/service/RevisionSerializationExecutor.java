@@ -0,0 +1,99 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import edu.stanford.protege.github.cloneservice.utils.OrderedFutures;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Converts the revisions of a project history on a pool of {@link
+ * RevisionSerializationProperties#getParallelism()} threads that is shared by all imports, while a
+ * single writer serializes the converted revisions in revision order.
+ *
+ * <p>Revisions are submitted in order, and at most {@link
+ * RevisionSerializationProperties#getReorderWindow()} of them are in flight at once. When the window
+ * is full, the writer waits for the oldest revision before submitting the next one, which caps the
+ * memory held by converted revisions that wait for an earlier, larger revision to complete.
+ */
+public class RevisionSerializationExecutor {
+
+    private static final String REVISION_CONVERSION = "Revision conversion";
+
+    private final int reorderWindow;
+
+    @Nullable private final ExecutorService executor;
+
+    public RevisionSerializationExecutor(@Nonnull RevisionSerializationProperties properties) {
+        Objects.requireNonNull(properties, "properties cannot be null");
+        this.reorderWindow = Math.max(1, properties.getReorderWindow());
+        this.executor = properties.getParallelism() > 1
+                ? Executors.newFixedThreadPool(
+                        properties.getParallelism(), new CustomizableThreadFactory("revision-serialization-"))
+                : null;
+    }
+
+    /** Creates an executor that converts the revisions on the calling thread */
+    @Nonnull
+    public static RevisionSerializationExecutor sequential() {
+        var properties = new RevisionSerializationProperties();
+        properties.setParallelism(1);
+        return new RevisionSerializationExecutor(properties);
+    }
+
+    /** Returns {@code true} if the revisions are converted on the serialization threads */
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Runs the task of each revision and passes the results to the writer in revision order. The
+     * writer runs on the calling thread.
+     *
+     * @param revisionCount the number of revisions
+     * @param task the task that converts the revision at a given index
+     * @param writer the writer of the results of the tasks
+     * @throws RuntimeException the first failure of a task or of the writer, in revision order
+     * @throws CancellationException if the calling thread is interrupted while waiting for a task.
+     *     The interrupt status of the thread is restored.
+     */
+    public <T> void runOrdered(int revisionCount, @Nonnull IntFunction<T> task, @Nonnull Consumer<T> writer) {
+        Objects.requireNonNull(task, "task cannot be null");
+        Objects.requireNonNull(writer, "writer cannot be null");
+        if (executor == null) {
+            for (var i = 0; i < revisionCount; i++) {
+                writer.accept(task.apply(i));
+            }
+            return;
+        }
+        var window = new ArrayDeque<Future<T>>(reorderWindow);
+        try {
+            for (var i = 0; i < revisionCount; i++) {
+                if (window.size() == reorderWindow) {
+                    writer.accept(OrderedFutures.await(window.poll(), REVISION_CONVERSION));
+                }
+                var revisionIndex = i;
+                window.add(executor.submit(() -> task.apply(revisionIndex)));
+            }
+            while (!window.isEmpty()) {
+                writer.accept(OrderedFutures.await(window.poll(), REVISION_CONVERSION));
+            }
+        } finally {
+            OrderedFutures.cancelAll(window);
+        }
+    }
+
+    /** Stops the serialization threads */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
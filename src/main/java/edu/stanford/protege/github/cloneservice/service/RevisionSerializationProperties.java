@@ -0,0 +1,29 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.serialization")
+public class RevisionSerializationProperties {
+
+    private int parallelism = 4;
+
+    private int reorderWindow = 16;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getReorderWindow() {
+        return reorderWindow;
+    }
+
+    public void setReorderWindow(int reorderWindow) {
+        this.reorderWindow = reorderWindow;
+    }
+}
@@ -0,0 +1,39 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.spill")
+public class CommitChangeSpillProperties {
+
+    private double heapThreshold = 0.75;
+
+    private int minAxiomChanges = 10_000;
+
+    private String directory = "";
+
+    public double getHeapThreshold() {
+        return heapThreshold;
+    }
+
+    public void setHeapThreshold(double heapThreshold) {
+        this.heapThreshold = heapThreshold;
+    }
+
+    public int getMinAxiomChanges() {
+        return minAxiomChanges;
+    }
+
+    public void setMinAxiomChanges(int minAxiomChanges) {
+        this.minAxiomChanges = minAxiomChanges;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+}
@@ -0,0 +1,192 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.management.GcInfo;
+import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
+import edu.stanford.protege.github.cloneservice.model.SpillFile;
+import edu.stanford.protege.github.cloneservice.model.SpilledAxiomChanges;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the changes of the commits of an analysis off the heap once the heap fills up. When the heap
+ * in use after the last garbage collection exceeds {@link
+ * CommitChangeSpillProperties#getHeapThreshold()} of the maximum heap, the axiom changes of the
+ * completed commits with at least {@link CommitChangeSpillProperties#getMinAxiomChanges()} changes
+ * are written to a memory-mapped scratch file, and replaced by {@link SpilledAxiomChanges} views
+ * that are read back when the revisions are converted. Histories larger than the heap can then be
+ * imported, at the cost of serializing the spilled changes once more.
+ *
+ * <p>The scratch file of an analysis is deleted as soon as it is created, so that it is reclaimed
+ * when the spilled changes are garbage collected, even if the service stops.
+ */
+public class CommitChangeSpiller {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommitChangeSpiller.class);
+
+    private final double heapThreshold;
+
+    private final int minAxiomChanges;
+
+    @Nullable private final Path directory;
+
+    public CommitChangeSpiller(@Nonnull CommitChangeSpillProperties properties) {
+        Objects.requireNonNull(properties, "properties cannot be null");
+        this.heapThreshold = properties.getHeapThreshold();
+        this.minAxiomChanges = Math.max(1, properties.getMinAxiomChanges());
+        var directory = properties.getDirectory();
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+    }
+
+    /** Creates a spiller that keeps all commit changes on the heap */
+    @Nonnull
+    public static CommitChangeSpiller onHeap() {
+        var properties = new CommitChangeSpillProperties();
+        properties.setHeapThreshold(Double.POSITIVE_INFINITY);
+        return new CommitChangeSpiller(properties);
+    }
+
+    /** Starts collecting the changes of the commits of an analysis */
+    @Nonnull
+    public CommitChanges open() {
+        return new CommitChanges();
+    }
+
+    private boolean isHeapAboveThreshold() {
+        return getUsedHeapAfterLastCollection()
+                > heapThreshold * Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Returns the heap that was in use at the end of the last garbage collection. Unlike the heap in
+     * use right now, it does not count the garbage that has not been collected yet, which would make
+     * the changes spill as soon as the heap fills up with short-lived objects. Before the first
+     * collection, or if the JVM does not report its collections, the heap in use right now is
+     * returned instead.
+     */
+    static long getUsedHeapAfterLastCollection() {
+        GcInfo lastGcInfo = null;
+        for (var collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof com.sun.management.GarbageCollectorMXBean collectorWithGcInfo) {
+                var gcInfo = collectorWithGcInfo.getLastGcInfo();
+                if (gcInfo != null && (lastGcInfo == null || gcInfo.getEndTime() > lastGcInfo.getEndTime())) {
+                    lastGcInfo = gcInfo;
+                }
+            }
+        }
+        if (lastGcInfo == null) {
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+        var usageAfterGc = lastGcInfo.getMemoryUsageAfterGc();
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(pool -> usageAfterGc.get(pool.getName()))
+                .filter(Objects::nonNull)
+                .mapToLong(MemoryUsage::getUsed)
+                .sum();
+    }
+
+    /**
+     * The changes of the commits of an analysis, by their position in the walk. The changes of a
+     * commit may be completed in any order, once its position is reserved.
+     */
+    public final class CommitChanges implements AutoCloseable {
+
+        /** The changes of the commits, or null while a commit waits for its changes */
+        private final List<OntologyCommitChange> changes = new ArrayList<>();
+
+        /** The positions of the completed changes that are on the heap and large enough to spill */
+        private final ArrayDeque<Integer> spillablePositions = new ArrayDeque<>();
+
+        @Nullable private SpillFile scratchFile;
+
+        private CommitChanges() {}
+
+        /** Reserves the position of the next commit of the walk and returns it */
+        public int reserve() {
+            changes.add(null);
+            return changes.size() - 1;
+        }
+
+        /**
+         * Sets the changes of the commit at the given position, and spills the completed changes if
+         * the heap is above the threshold
+         *
+         * @throws IOException if the changes cannot be written to the scratch file
+         */
+        public void set(int position, @Nonnull OntologyCommitChange commitChange) throws IOException {
+            Objects.requireNonNull(commitChange, "commitChange cannot be null");
+            changes.set(position, commitChange);
+            if (commitChange.axiomChanges().size() >= minAxiomChanges
+                    && !(commitChange.axiomChanges() instanceof SpilledAxiomChanges)) {
+                spillablePositions.add(position);
+            }
+            if (!spillablePositions.isEmpty() && isHeapAboveThreshold()) {
+                spill();
+            }
+        }
+
+        private void spill() throws IOException {
+            if (scratchFile == null) {
+                scratchFile = openScratchFile();
+            }
+            while (!spillablePositions.isEmpty()) {
+                var position = spillablePositions.poll();
+                var commitChange = changes.get(position);
+                changes.set(
+                        position,
+                        new OntologyCommitChange(
+                                SpilledAxiomChanges.write(scratchFile, commitChange.axiomChanges()),
+                                commitChange.commitMetadata(),
+                                commitChange.repositoryUrl()));
+                logger.debug(
+                        "Spilled the {} axiom changes of commit {}",
+                        commitChange.axiomChanges().size(),
+                        commitChange.commitMetadata().commitHash());
+            }
+        }
+
+        private SpillFile openScratchFile() throws IOException {
+            var file = directory == null
+                    ? Files.createTempFile("commit-changes-", ".spill")
+                    : Files.createTempFile(Files.createDirectories(directory), "commit-changes-", ".spill");
+            var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                // Some file systems do not delete open files
+                file.toFile().deleteOnExit();
+            }
+            logger.info("Heap usage above {} of the maximum heap, spilling commit changes to disk", heapThreshold);
+            return new SpillFile(channel);
+        }
+
+        /** Returns the changes of the commits in walk order */
+        @Nonnull
+        public ImmutableList<OntologyCommitChange> toList() {
+            return ImmutableList.copyOf(changes);
+        }
+
+        /** Closes the scratch file. The spilled changes remain readable. */
+        @Override
+        public void close() throws IOException {
+            if (scratchFile != null) {
+                scratchFile.close();
+            }
+        }
+    }
+}
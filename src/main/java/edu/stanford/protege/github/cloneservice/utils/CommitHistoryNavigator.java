@@ -0,0 +1,374 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import edu.stanford.protege.commitnavigator.CommitNavigator;
+import edu.stanford.protege.commitnavigator.exceptions.GitHubNavigatorException;
+import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks out the commits of a commit walk from HEAD backwards, in the order given by a {@link
+ * HistoryMode}, and determines the commit that the diff of each commit is based on.
+ *
+ * <p>Only the commits that modify the {@link TrackedFiles} are walked. All other commits have the
+ * same ontologies as the next walked commit before them, so the walk jumps straight from one
+ * modifying commit to the next with a detached checkout. Whether a commit modifies the tracked files
+ * is decided from its tree alone, without checking it out. When a tracked file was added by a rename,
+ * the walk follows the file to its previous path. The walk ends at the commit that created the
+ * ontology file, so that no commit without an ontology file is checked out.
+ *
+ * <p>The commit navigator only follows first parents. In {@link HistoryMode#TOPOLOGICAL} mode, the
+ * modifying commits that a merge commit brings in from a merged branch are walked right after the
+ * merge commit, and the walk then resumes along the first parents of the merge commit.
+ *
+ * <p>Each walked commit is diffed against the commit that is walked after it, its predecessor in the
+ * linearized history, rather than against one of its git parents. Replaying the diffs from the last
+ * walked commit onwards then rebuilds the ontologies of every walked commit, and ends with those of
+ * HEAD, even when the sides of a merge diverge. In first-parent mode the predecessor is the next
+ * modifying commit along the first parents.
+ */
+final class CommitHistoryNavigator implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommitHistoryNavigator.class);
+
+    private final HistoryMode mode;
+
+    private final CommitPrefetcher.CommitNavigatorFactory commitNavigatorFactory;
+
+    private final Git git;
+
+    private final RevWalk revWalk;
+
+    /** The walks of the merged branches that are being walked, on top of the walk from HEAD */
+    private final Deque<BranchWalk> branchWalks = new ArrayDeque<>();
+
+    private final Set<ObjectId> walkedCommits = new HashSet<>();
+
+    /** The navigator that checked out the last walked commit, if any */
+    @Nullable private CommitNavigator commitNavigator;
+
+    @Nullable private RevCommit checkedOutCommit;
+
+    CommitHistoryNavigator(
+            @Nonnull HistoryMode mode,
+            @Nonnull CommitPrefetcher.CommitNavigatorFactory commitNavigatorFactory,
+            @Nonnull Path workingDirectory,
+            @Nonnull TrackedFiles trackedFiles)
+            throws IOException {
+        this.mode = mode;
+        this.commitNavigatorFactory = commitNavigatorFactory;
+        this.git = Git.open(workingDirectory.toFile());
+        this.revWalk = new RevWalk(git.getRepository());
+        var head = git.getRepository().resolve(Constants.HEAD);
+        if (head != null) {
+            checkedOutCommit = revWalk.parseCommit(head);
+            branchWalks.push(new BranchWalk(checkedOutCommit, trackedFiles, null));
+        }
+    }
+
+    /**
+     * A commit that has been checked out
+     *
+     * @param commitMetadata the metadata of the commit
+     * @param baseCommitHash the hash of the commit that the diff of this commit is based on, which is
+     *     the next commit of the walk, or empty if this is the last commit of the walk and is diffed
+     *     against an empty ontology
+     * @param trackedFiles the tracked files as they are named in the commit
+     */
+    record NavigatedCommit(
+            @Nonnull CommitMetadata commitMetadata,
+            @Nonnull Optional<String> baseCommitHash,
+            @Nonnull TrackedFiles trackedFiles) {}
+
+    /**
+     * Checks out the next commit of the walk
+     *
+     * @param monitor the monitor of the import, checked before each commit is inspected or checked out
+     * @return the commit, or empty if all commits have been walked
+     */
+    @Nonnull
+    Optional<NavigatedCommit> next(@Nonnull ImportMonitor monitor) throws GitHubNavigatorException, IOException {
+        while (!branchWalks.isEmpty()) {
+            var branchWalk = branchWalks.peek();
+            resolveStartCommit(branchWalk, monitor);
+            var commit = branchWalk.nextCommit;
+            if (commit == null) {
+                branchWalks.pop();
+                continue;
+            }
+            monitor.checkpoint();
+            var commitMetadata = checkout(commit);
+            walkedCommits.add(commit.copy());
+            var trackedFiles = branchWalk.trackedFiles;
+            advance(branchWalk, commit, monitor);
+            var baseCommit = findNextCommit(monitor);
+            return Optional.of(new NavigatedCommit(commitMetadata, baseCommit.map(ObjectId::name), trackedFiles));
+        }
+        return Optional.empty();
+    }
+
+    /** Looks for the first commit of the walk of HEAD, if it has not done so yet */
+    private void resolveStartCommit(BranchWalk branchWalk, ImportMonitor monitor) throws IOException {
+        if (branchWalk.nextCommit == null && branchWalk.startCommit != null) {
+            branchWalk.nextCommit = findModifyingCommit(branchWalk.startCommit, branchWalk.trackedFiles, monitor)
+                    .filter(branchWalk::contains)
+                    .orElse(null);
+            branchWalk.startCommit = null;
+        }
+    }
+
+    /**
+     * Returns the commit that the walk returns next, without checking it out: the next commit of the
+     * innermost branch walk that has one left
+     */
+    private Optional<RevCommit> findNextCommit(ImportMonitor monitor) throws IOException {
+        for (var branchWalk : branchWalks) {
+            resolveStartCommit(branchWalk, monitor);
+            if (branchWalk.nextCommit != null) {
+                return Optional.of(branchWalk.nextCommit);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks out the given commit with the parent of the current navigator if the walk has not skipped
+     * any commit, or with a detached checkout and a new navigator otherwise
+     */
+    private CommitMetadata checkout(RevCommit commit) throws GitHubNavigatorException, IOException {
+        if (commitNavigator != null
+                && checkedOutCommit != null
+                && checkedOutCommit.getParentCount() > 0
+                && checkedOutCommit.getParent(0).equals(commit)) {
+            checkedOutCommit = commit;
+            return commitNavigator.checkoutParent();
+        }
+        if (!commit.equals(checkedOutCommit)) {
+            try {
+                git.checkout().setName(commit.name()).setForced(true).call();
+            } catch (GitAPIException e) {
+                throw new IOException("Unable to check out commit " + commit.name(), e);
+            }
+        }
+        checkedOutCommit = commit;
+        // The previous navigator holds a handle on the repository, and must not be closed twice if the
+        // new one cannot be created
+        closeCommitNavigator(commitNavigator);
+        commitNavigator = null;
+        commitNavigator = commitNavigatorFactory.create();
+        return commitNavigator.getCurrentCommit();
+    }
+
+    /** Closes a commit navigator, if it holds resources that can be closed */
+    static void closeCommitNavigator(@Nullable CommitNavigator commitNavigator) {
+        if (commitNavigator instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.warn("Unable to close commit navigator: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the given branch walk past the given commit. The walk ends when the ontology file does not
+     * exist in the parent, even under a previous name, since older commits cannot be loaded. In
+     * topological mode, this queues the walks of the branches merged by a merge commit.
+     */
+    private void advance(BranchWalk branchWalk, RevCommit commit, ImportMonitor monitor) throws IOException {
+        branchWalk.nextCommit = null;
+        if (commit.getParentCount() == 0) {
+            return;
+        }
+        var trackedFiles = branchWalk.trackedFiles;
+        var firstParent = revWalk.parseCommit(commit.getParent(0));
+        branchWalk.trackedFiles = followRenames(firstParent, commit, trackedFiles);
+        var modifyingParent = containsFile(firstParent, branchWalk.trackedFiles.ontologyPath())
+                ? findModifyingCommit(firstParent, branchWalk.trackedFiles, monitor)
+                : Optional.<RevCommit>empty();
+        branchWalk.nextCommit = modifyingParent.filter(branchWalk::contains).orElse(null);
+        if (mode != HistoryMode.TOPOLOGICAL || commit.getParentCount() == 1) {
+            return;
+        }
+        // Push the merged branches in parent order, so that the last one is walked first and is
+        // walked right after the merge commit
+        for (int i = 1; i < commit.getParentCount(); i++) {
+            var mergedParent = revWalk.parseCommit(commit.getParent(i));
+            var mergedCommits = findMergedCommits(firstParent, mergedParent);
+            if (mergedCommits.isEmpty()) {
+                continue;
+            }
+            var mergedTrackedFiles = followRenames(mergedParent, commit, trackedFiles);
+            if (!containsFile(mergedParent, mergedTrackedFiles.ontologyPath())) {
+                continue;
+            }
+            var mergedModifyingCommit = findModifyingCommit(mergedParent, mergedTrackedFiles, monitor);
+            var mergedBranchWalk = new BranchWalk(null, mergedTrackedFiles, mergedCommits);
+            mergedBranchWalk.nextCommit =
+                    mergedModifyingCommit.filter(mergedBranchWalk::contains).orElse(null);
+            branchWalks.push(mergedBranchWalk);
+        }
+    }
+
+    /**
+     * Returns the first commit along the first parents of the given commit, starting with the commit
+     * itself, that modifies the tracked files, or empty if no commit does
+     */
+    private Optional<RevCommit> findModifyingCommit(RevCommit start, TrackedFiles trackedFiles, ImportMonitor monitor)
+            throws IOException {
+        for (var commit = start; ; commit = revWalk.parseCommit(commit.getParent(0))) {
+            monitor.checkpoint();
+            if (modifiesTrackedFiles(commit, trackedFiles)) {
+                return Optional.of(commit);
+            }
+            if (commit.getParentCount() == 0) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the tree of the given commit differs from the tree of its first parent
+     * in any tracked file. Only the subtrees that hold tracked files are compared.
+     */
+    private boolean modifiesTrackedFiles(RevCommit commit, TrackedFiles trackedFiles) throws IOException {
+        try (var treeWalk = createTreeWalk(commit)) {
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            while (treeWalk.next()) {
+                var path = treeWalk.getPathString();
+                if (treeWalk.isSubtree()) {
+                    if (trackedFiles.containsTrackedFiles(path)) {
+                        treeWalk.enterSubtree();
+                    }
+                } else if (trackedFiles.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the tracked files as they are named in the given parent of a commit. The whole trees are
+     * only compared, to detect renames, if a tracked file does not exist in the parent.
+     */
+    private TrackedFiles followRenames(RevCommit parent, RevCommit commit, TrackedFiles trackedFiles)
+            throws IOException {
+        var addedPaths = new HashSet<String>();
+        for (var path : trackedFiles.paths()) {
+            if (!containsFile(parent, path) && containsFile(commit, path)) {
+                addedPaths.add(path);
+            }
+        }
+        if (addedPaths.isEmpty()) {
+            return trackedFiles;
+        }
+        var renames = new HashMap<String, String>();
+        try (var treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            treeWalk.addTree(parent.getTree());
+            treeWalk.addTree(commit.getTree());
+            var renameDetector = new RenameDetector(git.getRepository());
+            renameDetector.addAll(DiffEntry.scan(treeWalk));
+            for (var entry : renameDetector.compute()) {
+                if (entry.getChangeType() == DiffEntry.ChangeType.RENAME && addedPaths.contains(entry.getNewPath())) {
+                    renames.put(entry.getNewPath(), entry.getOldPath());
+                }
+            }
+        }
+        return trackedFiles.renamed(renames);
+    }
+
+    private boolean containsFile(RevCommit commit, String path) throws IOException {
+        try (var treeWalk = TreeWalk.forPath(git.getRepository(), path, commit.getTree())) {
+            return treeWalk != null;
+        }
+    }
+
+    /** Creates a tree walk over the first parent of the given commit and the commit itself */
+    private TreeWalk createTreeWalk(RevCommit commit) throws IOException {
+        var treeWalk = new TreeWalk(git.getRepository());
+        if (commit.getParentCount() == 0) {
+            treeWalk.addTree(new EmptyTreeIterator());
+        } else {
+            treeWalk.addTree(revWalk.parseCommit(commit.getParent(0)).getTree());
+        }
+        treeWalk.addTree(commit.getTree());
+        return treeWalk;
+    }
+
+    /**
+     * Returns the commits that are reachable from the merged parent of a merge commit but neither
+     * from its first parent nor walked already
+     */
+    private Set<ObjectId> findMergedCommits(RevCommit firstParent, RevCommit mergedParent) throws IOException {
+        var mergedCommits = new HashSet<ObjectId>();
+        try (var mergedCommitWalk = new RevWalk(git.getRepository())) {
+            mergedCommitWalk.markStart(mergedCommitWalk.parseCommit(mergedParent));
+            mergedCommitWalk.markUninteresting(mergedCommitWalk.parseCommit(firstParent));
+            for (var mergedCommit : mergedCommitWalk) {
+                if (!walkedCommits.contains(mergedCommit)) {
+                    mergedCommits.add(mergedCommit.copy());
+                }
+            }
+        }
+        return mergedCommits;
+    }
+
+    @Override
+    public void close() {
+        closeCommitNavigator(commitNavigator);
+        commitNavigator = null;
+        revWalk.close();
+        git.close();
+    }
+
+    /** The first-parent walk of HEAD or of a merged branch */
+    private static class BranchWalk {
+
+        /** The commit from which the walk of HEAD looks for its first commit, until it has done so */
+        @Nullable private RevCommit startCommit;
+
+        /** The tracked files as they are named in the next commit of the walk */
+        private TrackedFiles trackedFiles;
+
+        /** The commits of the merged branch, or {@code null} for the walk from HEAD */
+        @Nullable private final Set<ObjectId> branchCommits;
+
+        @Nullable private RevCommit nextCommit;
+
+        private BranchWalk(
+                @Nullable RevCommit startCommit, TrackedFiles trackedFiles, @Nullable Set<ObjectId> branchCommits) {
+            this.startCommit = startCommit;
+            this.trackedFiles = trackedFiles;
+            this.branchCommits = branchCommits;
+        }
+
+        private boolean contains(RevCommit commit) {
+            return branchCommits == null || branchCommits.contains(commit);
+        }
+    }
+}
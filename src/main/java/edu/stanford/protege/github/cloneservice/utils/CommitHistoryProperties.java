@@ -0,0 +1,19 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.history")
+public class CommitHistoryProperties {
+
+    private HistoryMode mode = HistoryMode.FIRST_PARENT;
+
+    public HistoryMode getMode() {
+        return mode;
+    }
+
+    public void setMode(HistoryMode mode) {
+        this.mode = mode;
+    }
+}
@@ -0,0 +1,19 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "webprotege.import.prefetch")
+public class CommitPrefetchProperties {
+
+    private int lookAhead = 2;
+
+    public int getLookAhead() {
+        return lookAhead;
+    }
+
+    public void setLookAhead(int lookAhead) {
+        this.lookAhead = lookAhead;
+    }
+}
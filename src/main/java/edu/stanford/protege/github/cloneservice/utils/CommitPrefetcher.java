@@ -0,0 +1,478 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import edu.stanford.protege.commitnavigator.CommitNavigator;
+import edu.stanford.protege.commitnavigator.exceptions.GitHubNavigatorException;
+import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Enumerates the commits of a commit walk from HEAD backwards, in the order given by the configured
+ * {@link HistoryMode}, checking out each commit ahead of the analysis so that git I/O overlaps with
+ * ontology parsing and diffing. Only the commits that modify the {@link TrackedFiles} are walked.
+ *
+ * <p>A producer thread checks out the commits one after the other and copies the tracked files and
+ * catalogs of each checkout into a snapshot directory of its own, since the working directory is
+ * overwritten by the next checkout. Documents outside the tracked files, such as imports that only
+ * exist in older commits, are not copied and cannot be loaded from the snapshots. Up to {@link
+ * CommitPrefetchProperties#getLookAhead()} snapshots wait in a bounded queue for the analysis. The
+ * time the producer spends checking out and copying commits, and the time either side waits for the
+ * other, are recorded in the {@link PipelineMetrics}.
+ *
+ * <p>With a look-ahead of 0, the commits are checked out on the calling thread when they are
+ * requested and parsed straight from the working directory.
+ */
+public class CommitPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommitPrefetcher.class);
+
+    private final int lookAhead;
+
+    private final HistoryMode historyMode;
+
+    private final PipelineMetrics pipelineMetrics;
+
+    @Nullable private final ExecutorService executor;
+
+    public CommitPrefetcher(
+            @Nonnull CommitPrefetchProperties properties,
+            @Nonnull CommitHistoryProperties historyProperties,
+            @Nonnull PipelineMetrics pipelineMetrics) {
+        Objects.requireNonNull(properties, "properties cannot be null");
+        Objects.requireNonNull(historyProperties, "historyProperties cannot be null");
+        this.historyMode = Objects.requireNonNull(historyProperties.getMode(), "history mode cannot be null");
+        this.pipelineMetrics = Objects.requireNonNull(pipelineMetrics, "pipelineMetrics cannot be null");
+        this.lookAhead = Math.max(0, properties.getLookAhead());
+        this.executor =
+                lookAhead > 0 ? Executors.newCachedThreadPool(new CustomizableThreadFactory("commit-prefetch-")) : null;
+    }
+
+    /**
+     * Creates a prefetcher that walks the first parents and checks out each commit on the calling
+     * thread when it is requested
+     */
+    @Nonnull
+    public static CommitPrefetcher inPlace(@Nonnull PipelineMetrics pipelineMetrics) {
+        var properties = new CommitPrefetchProperties();
+        properties.setLookAhead(0);
+        return new CommitPrefetcher(properties, new CommitHistoryProperties(), pipelineMetrics);
+    }
+
+    /**
+     * Starts a commit walk from the commit that is currently checked out, over the commits that
+     * modify the given tracked files
+     *
+     * @param commitNavigatorFactory creates navigators positioned at the commit that is currently
+     *     checked out, to walk from the commits that the walk jumps to
+     * @param workingDirectory the working directory of the repository
+     * @param trackedFiles the ontology file to analyze and the files that its ontologies are loaded
+     *     from, as of the commit that is currently checked out
+     * @param monitor the monitor of the import, checked before each commit is checked out
+     * @return the commit walk, which must be closed to release the snapshots
+     * @throws IOException if the repository cannot be opened
+     */
+    @Nonnull
+    public CommitWalk open(
+            @Nonnull CommitNavigatorFactory commitNavigatorFactory,
+            @Nonnull Path workingDirectory,
+            @Nonnull TrackedFiles trackedFiles,
+            @Nonnull ImportMonitor monitor)
+            throws IOException {
+        Objects.requireNonNull(commitNavigatorFactory, "commitNavigatorFactory cannot be null");
+        Objects.requireNonNull(workingDirectory, "workingDirectory cannot be null");
+        Objects.requireNonNull(trackedFiles, "trackedFiles cannot be null");
+        Objects.requireNonNull(monitor, "monitor cannot be null");
+        var historyNavigator =
+                new CommitHistoryNavigator(historyMode, commitNavigatorFactory, workingDirectory, trackedFiles);
+        if (executor == null) {
+            return new InPlaceCommitWalk(historyNavigator, workingDirectory, monitor);
+        }
+        try {
+            return new PrefetchingCommitWalk(historyNavigator, workingDirectory, monitor);
+        } catch (RuntimeException e) {
+            historyNavigator.close();
+            throw e;
+        }
+    }
+
+    /** Returns the order in which the commits are walked */
+    @Nonnull
+    public HistoryMode getHistoryMode() {
+        return historyMode;
+    }
+
+    /** Stops the producer threads */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Creates commit navigators for the working directory of a repository */
+    @FunctionalInterface
+    public interface CommitNavigatorFactory {
+
+        /** Creates a navigator positioned at the commit that is currently checked out */
+        @Nonnull
+        CommitNavigator create() throws GitHubNavigatorException;
+    }
+
+    /**
+     * A commit of a commit walk
+     *
+     * @param commitMetadata the metadata of the commit
+     * @param baseCommitHash the hash of the commit that the diff of this commit is based on, which is
+     *     the next commit of the walk, or empty if the commit is diffed against an empty ontology
+     * @param trackedFiles the ontology file to analyze and the files its ontologies are loaded from,
+     *     as they are named in this commit
+     * @param documentDirectory the directory that holds the ontology documents of this commit, which
+     *     is either the working directory or a snapshot of it
+     * @param workingDirectory the working directory of the repository
+     */
+    public record WalkedCommit(
+            @Nonnull CommitMetadata commitMetadata,
+            @Nonnull Optional<String> baseCommitHash,
+            @Nonnull TrackedFiles trackedFiles,
+            @Nonnull Path documentDirectory,
+            @Nonnull Path workingDirectory) {
+
+        /** Returns the ontology file to analyze, as of this commit */
+        @Nonnull
+        public Path ontologyFile() {
+            return documentDirectory.resolve(trackedFiles.ontologyPath());
+        }
+
+        /**
+         * Sets the document IRIs of ontologies that were loaded from a snapshot, or from files that
+         * have been renamed since, to the locations of their documents in the working directory at
+         * HEAD, so that the documents of all commits can be matched by location
+         */
+        public void relocateDocuments(@Nonnull List<OWLOntology> ontologies) {
+            if (documentDirectory.equals(workingDirectory)
+                    && trackedFiles.headPaths().isEmpty()) {
+                return;
+            }
+            for (var ontology : ontologies) {
+                var ontologyManager = ontology.getOWLOntologyManager();
+                var documentIri = ontologyManager.getOntologyDocumentIRI(ontology);
+                if (!"file".equals(documentIri.getScheme())) {
+                    continue;
+                }
+                var documentPath = Path.of(documentIri.toURI());
+                if (!documentPath.startsWith(documentDirectory)) {
+                    continue;
+                }
+                var path = TrackedFiles.toRepositoryPath(documentDirectory.relativize(documentPath));
+                var headPath = trackedFiles.headPath(path);
+                if (!documentDirectory.equals(workingDirectory) || !headPath.equals(path)) {
+                    var workingPath = workingDirectory.resolve(headPath);
+                    ontologyManager.setOntologyDocumentIRI(ontology, IRI.create(workingPath.toFile()));
+                }
+            }
+        }
+    }
+
+    /** The commits of a walk from HEAD backwards, up to and including the initial commit */
+    public interface CommitWalk extends AutoCloseable {
+
+        /**
+         * Returns the next commit of the walk. The ontology documents of the returned commit are only
+         * available until this method is called again or the walk is closed.
+         *
+         * @return the next commit, or empty if the initial commit has already been returned
+         * @throws GitHubNavigatorException if the commit cannot be checked out
+         * @throws IOException if the ontology documents of the commit cannot be copied
+         * @throws CancellationException if the calling thread is interrupted while waiting for the
+         *     commit. The interrupt status of the thread is restored.
+         */
+        @Nonnull
+        Optional<WalkedCommit> next() throws GitHubNavigatorException, IOException;
+
+        @Override
+        void close();
+    }
+
+    /** Checks out each commit when it is requested and leaves the ontology file in place */
+    private static class InPlaceCommitWalk implements CommitWalk {
+
+        private final CommitHistoryNavigator historyNavigator;
+
+        private final Path workingDirectory;
+
+        private final ImportMonitor monitor;
+
+        private InPlaceCommitWalk(
+                CommitHistoryNavigator historyNavigator, Path workingDirectory, ImportMonitor monitor) {
+            this.historyNavigator = historyNavigator;
+            this.workingDirectory = workingDirectory;
+            this.monitor = monitor;
+        }
+
+        @Nonnull
+        @Override
+        public Optional<WalkedCommit> next() throws GitHubNavigatorException, IOException {
+            return historyNavigator
+                    .next(monitor)
+                    .map(commit -> new WalkedCommit(
+                            commit.commitMetadata(),
+                            commit.baseCommitHash(),
+                            commit.trackedFiles(),
+                            workingDirectory,
+                            workingDirectory));
+        }
+
+        @Override
+        public void close() {
+            historyNavigator.close();
+        }
+    }
+
+    /** An element of the prefetch queue: a snapshot, the end of the walk, or the failure of the producer */
+    private record PrefetchedCommit(
+            @Nullable WalkedCommit commit, @Nullable Path snapshotDirectory, @Nullable Throwable failure) {
+
+        private static final PrefetchedCommit END = new PrefetchedCommit(null, null, null);
+    }
+
+    /** Checks out the commits on a producer thread and hands snapshots of them to the caller */
+    private class PrefetchingCommitWalk implements CommitWalk {
+
+        private final CommitHistoryNavigator historyNavigator;
+
+        private final Path workingDirectory;
+
+        private final ImportMonitor monitor;
+
+        private final BlockingQueue<PrefetchedCommit> queue;
+
+        private final CountDownLatch producerFinished = new CountDownLatch(1);
+
+        private final Future<?> producer;
+
+        @Nullable private Path currentSnapshotDirectory;
+
+        private boolean ended;
+
+        private PrefetchingCommitWalk(
+                CommitHistoryNavigator historyNavigator, Path workingDirectory, ImportMonitor monitor) {
+            this.historyNavigator = historyNavigator;
+            this.workingDirectory = workingDirectory;
+            this.monitor = monitor;
+            this.queue = new ArrayBlockingQueue<>(lookAhead);
+            this.producer = Objects.requireNonNull(executor).submit(this::produce);
+        }
+
+        private void produce() {
+            try {
+                for (var prefetchedCommit = prefetch(); prefetchedCommit.isPresent(); prefetchedCommit = prefetch()) {
+                    put(prefetchedCommit.get());
+                }
+                put(PrefetchedCommit.END);
+            } catch (InterruptedException e) {
+                // The walk has been closed
+            } catch (Throwable t) {
+                try {
+                    put(new PrefetchedCommit(null, null, t));
+                } catch (InterruptedException e) {
+                    // The walk has been closed
+                }
+            } finally {
+                historyNavigator.close();
+                producerFinished.countDown();
+            }
+        }
+
+        /** Checks out the next commit and copies its ontology documents */
+        private Optional<PrefetchedCommit> prefetch() throws GitHubNavigatorException, IOException {
+            var sample = pipelineMetrics.startPrefetch();
+            var success = false;
+            var walked = false;
+            try {
+                var commit = historyNavigator.next(monitor);
+                if (commit.isEmpty()) {
+                    // The end of the walk is not a prefetch
+                    walked = true;
+                    return Optional.empty();
+                }
+                var snapshotDirectory = createSnapshot(commit.get().trackedFiles());
+                success = true;
+                return Optional.of(new PrefetchedCommit(
+                        new WalkedCommit(
+                                commit.get().commitMetadata(),
+                                commit.get().baseCommitHash(),
+                                commit.get().trackedFiles(),
+                                snapshotDirectory,
+                                workingDirectory),
+                        snapshotDirectory,
+                        null));
+            } finally {
+                if (!walked) {
+                    pipelineMetrics.stopPrefetch(sample, success);
+                }
+            }
+        }
+
+        /**
+         * Copies the tracked files of a commit, and the catalogs next to its ontology file, from the
+         * working directory into a new snapshot directory. Tracked files that do not exist in the
+         * commit are left out.
+         */
+        private Path createSnapshot(TrackedFiles trackedFiles) throws IOException {
+            var snapshotDirectory = Files.createTempDirectory("webprotege-commit-snapshot-");
+            try {
+                for (var path : trackedFiles.paths()) {
+                    copyIntoSnapshot(workingDirectory.resolve(path), snapshotDirectory);
+                }
+                var ontologyDirectory = workingDirectory.resolve(trackedFiles.ontologyDirectory());
+                if (Files.isDirectory(ontologyDirectory)) {
+                    try (var catalogFiles =
+                            Files.newDirectoryStream(ontologyDirectory, OntologyLoader.CATALOG_FILE_PATTERN)) {
+                        for (var catalogFile : catalogFiles) {
+                            copyIntoSnapshot(catalogFile, snapshotDirectory);
+                        }
+                    }
+                }
+                return snapshotDirectory;
+            } catch (IOException | RuntimeException e) {
+                deleteSnapshot(snapshotDirectory);
+                throw e;
+            }
+        }
+
+        private void copyIntoSnapshot(Path file, Path snapshotDirectory) throws IOException {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+            var target = snapshotDirectory.resolve(workingDirectory.relativize(file));
+            Files.createDirectories(target.getParent());
+            Files.copy(file, target);
+        }
+
+        private void put(PrefetchedCommit prefetchedCommit) throws InterruptedException {
+            var startTime = System.nanoTime();
+            try {
+                queue.put(prefetchedCommit);
+            } catch (InterruptedException e) {
+                deleteSnapshot(prefetchedCommit.snapshotDirectory());
+                throw e;
+            } finally {
+                pipelineMetrics.recordProducerStall(System.nanoTime() - startTime);
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Optional<WalkedCommit> next() throws GitHubNavigatorException, IOException {
+            releaseCurrentSnapshot();
+            if (ended) {
+                return Optional.empty();
+            }
+            var prefetchedCommit = take();
+            if (prefetchedCommit.failure() != null) {
+                ended = true;
+                throw rethrow(prefetchedCommit.failure());
+            }
+            if (prefetchedCommit == PrefetchedCommit.END) {
+                ended = true;
+                return Optional.empty();
+            }
+            currentSnapshotDirectory = prefetchedCommit.snapshotDirectory();
+            return Optional.ofNullable(prefetchedCommit.commit());
+        }
+
+        private PrefetchedCommit take() {
+            var startTime = System.nanoTime();
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the next commit");
+            } finally {
+                pipelineMetrics.recordConsumerStall(System.nanoTime() - startTime);
+            }
+        }
+
+        private RuntimeException rethrow(Throwable failure) throws GitHubNavigatorException, IOException {
+            if (failure instanceof GitHubNavigatorException navigatorException) {
+                throw navigatorException;
+            }
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException("Commit prefetch failed", failure);
+        }
+
+        /**
+         * Stops the producer and deletes the snapshots. This waits for the producer to finish its
+         * current checkout, so that the working directory is no longer modified once the walk is
+         * closed.
+         */
+        @Override
+        public void close() {
+            producer.cancel(true);
+            releaseCurrentSnapshot();
+            drainQueue();
+            Uninterruptibles.awaitUninterruptibly(producerFinished);
+            drainQueue();
+        }
+
+        private void releaseCurrentSnapshot() {
+            deleteSnapshot(currentSnapshotDirectory);
+            currentSnapshotDirectory = null;
+        }
+
+        private void drainQueue() {
+            var prefetchedCommits = new ArrayList<PrefetchedCommit>();
+            queue.drainTo(prefetchedCommits);
+            prefetchedCommits.forEach(prefetchedCommit -> deleteSnapshot(prefetchedCommit.snapshotDirectory()));
+        }
+    }
+
+    private static void deleteSnapshot(@Nullable Path snapshotDirectory) {
+        if (snapshotDirectory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(snapshotDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Error deleting commit snapshot {}: {}", snapshotDirectory, e.getMessage());
+        }
+    }
+}
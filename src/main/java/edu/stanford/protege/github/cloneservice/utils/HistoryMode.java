@@ -0,0 +1,19 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+/** How the commit graph of a repository is linearized into the revisions of a project history */
+public enum HistoryMode {
+
+    /**
+     * Walk the first parents from HEAD and diff each commit against its first parent. The commits of
+     * merged branches are not visited, so the changes of a merged branch appear squashed into the
+     * merge commit.
+     */
+    FIRST_PARENT,
+
+    /**
+     * Walk every commit reachable from HEAD. The commits of a merged branch are visited right after
+     * the merge commit, and each commit is diffed against the commit visited after it, so that the
+     * revisions replay the history one commit at a time and end with the ontologies of HEAD.
+     */
+    TOPOLOGICAL
+}
@@ -0,0 +1,75 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs the independent per-ontology diffs of an import closure.
+ *
+ * <p>Closures with fewer diffs than {@link OntologyDiffProperties#getParallelThreshold()} are diffed
+ * on the calling thread. Larger closures are diffed on a pool of {@link
+ * OntologyDiffProperties#getParallelism()} threads that is shared by all imports, so that the number
+ * of diff threads stays bounded however many imports run. Either way, the results are returned in the
+ * order of the diffs, so the output is identical to the sequential one.
+ */
+public class OntologyDiffExecutor {
+
+    private final int parallelThreshold;
+
+    @Nullable private final ExecutorService executor;
+
+    public OntologyDiffExecutor(@Nonnull OntologyDiffProperties properties) {
+        Objects.requireNonNull(properties, "properties cannot be null");
+        this.parallelThreshold = Math.max(2, properties.getParallelThreshold());
+        this.executor = properties.getParallelism() > 1
+                ? Executors.newFixedThreadPool(
+                        properties.getParallelism(), new CustomizableThreadFactory("ontology-diff-"))
+                : null;
+    }
+
+    /** Creates an executor that runs all diffs on the calling thread */
+    @Nonnull
+    public static OntologyDiffExecutor sequential() {
+        var properties = new OntologyDiffProperties();
+        properties.setParallelism(1);
+        return new OntologyDiffExecutor(properties);
+    }
+
+    /**
+     * Runs the given diffs and returns their results
+     *
+     * @param diffs the diffs to run
+     * @return the results of the diffs, in the order of the diffs
+     * @throws RuntimeException the first failure of a diff, in the order of the diffs
+     * @throws CancellationException if the calling thread is interrupted while waiting for the diffs.
+     *     The interrupt status of the thread is restored.
+     */
+    @Nonnull
+    public <T> List<T> runAll(@Nonnull List<Supplier<T>> diffs) {
+        Objects.requireNonNull(diffs, "diffs cannot be null");
+        if (executor == null || diffs.size() < parallelThreshold) {
+            return diffs.stream().map(Supplier::get).toList();
+        }
+        var futures = new ArrayList<Future<T>>(diffs.size());
+        for (var diff : diffs) {
+            futures.add(executor.submit(diff::get));
+        }
+        return OrderedFutures.awaitAll(futures, "Ontology diff");
+    }
+
+    /** Stops the diff threads */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
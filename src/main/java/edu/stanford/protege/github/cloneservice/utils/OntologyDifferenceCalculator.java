@@ -5,6 +5,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import edu.stanford.protege.github.cloneservice.model.AxiomChange;
 import java.util.*;
+import java.util.function.BiFunction;
 import javax.annotation.Nonnull;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -20,7 +21,9 @@ public class OntologyDifferenceCalculator {
     private static final Logger logger = LoggerFactory.getLogger(OntologyDifferenceCalculator.class);
 
     /**
-     * Calculates differences between child and parent commit ontologies
+     * Calculates differences between child and parent commit ontologies. If either ontology is empty,
+     * as for the initial commit and for added or removed ontologies, the axioms of the other ontology
+     * are converted directly, without computing set differences.
      *
      * @param childCommitOntology The ontology from a child commit
      * @param parentCommitOntology The ontology from a parent commit
@@ -35,17 +38,32 @@ public class OntologyDifferenceCalculator {
         Objects.requireNonNull(childCommitOntology, "childCommitOntology cannot be null");
         Objects.requireNonNull(parentCommitOntology, "parentCommitOntology cannot be null");
 
+        var childCommitAxioms = childCommitOntology.getAxioms();
+        var parentCommitAxioms = parentCommitOntology.getAxioms();
+
+        // Every axiom of a new ontology is added
+        if (parentCommitAxioms.isEmpty()) {
+            logger.info("Found {} added axioms for new ontology {}", childCommitAxioms.size(), ontologyId);
+            return toAxiomChanges(childCommitAxioms, ontologyId, AxiomChange::addAxiom);
+        }
+
+        // Every axiom of a removed ontology is removed
+        if (childCommitAxioms.isEmpty()) {
+            logger.info("Found {} removed axioms for removed ontology {}", parentCommitAxioms.size(), ontologyId);
+            return toAxiomChanges(parentCommitAxioms, ontologyId, AxiomChange::removeAxiom);
+        }
+
         var axiomChanges = Lists.<AxiomChange>newArrayList();
 
-        var childCommitAxioms = Sets.newHashSet(childCommitOntology.getAxioms());
-        var parentCommitAxioms = Sets.newHashSet(parentCommitOntology.getAxioms());
+        var childCommitAxiomSet = Sets.newHashSet(childCommitAxioms);
+        var parentCommitAxiomSet = Sets.newHashSet(parentCommitAxioms);
 
         // Find added axioms (present in current but not in previous)
-        var addedAxioms = findAddedAxioms(childCommitAxioms, parentCommitAxioms);
+        var addedAxioms = findAddedAxioms(childCommitAxiomSet, parentCommitAxiomSet);
         addedAxioms.forEach(axiom -> axiomChanges.add(AxiomChange.addAxiom(axiom, ontologyId)));
 
         // Find removed axioms (present in previous but not in current)
-        var removedAxioms = findRemovedAxioms(childCommitAxioms, parentCommitAxioms);
+        var removedAxioms = findRemovedAxioms(childCommitAxiomSet, parentCommitAxiomSet);
         removedAxioms.forEach(axiom -> axiomChanges.add(AxiomChange.removeAxiom(axiom, ontologyId)));
 
         logger.info(
@@ -57,6 +75,19 @@ public class OntologyDifferenceCalculator {
         return ImmutableList.copyOf(axiomChanges);
     }
 
+    /** Converts all given axioms into changes of the same operation */
+    @Nonnull
+    private static List<AxiomChange> toAxiomChanges(
+            @Nonnull Collection<OWLAxiom> axioms,
+            @Nonnull OWLOntologyID ontologyId,
+            @Nonnull BiFunction<OWLAxiom, OWLOntologyID, AxiomChange> operation) {
+        var axiomChanges = ImmutableList.<AxiomChange>builderWithExpectedSize(axioms.size());
+        for (var axiom : axioms) {
+            axiomChanges.add(operation.apply(axiom, ontologyId));
+        }
+        return axiomChanges.build();
+    }
+
     /** Finds axioms that were added (present in current but not in previous) */
     private Set<OWLAxiom> findAddedAxioms(Set<OWLAxiom> currentAxioms, Set<OWLAxiom> previousAxioms) {
         var addedAxioms = new HashSet<>(currentAxioms);
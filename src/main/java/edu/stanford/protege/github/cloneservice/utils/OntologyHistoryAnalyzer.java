@@ -2,18 +2,36 @@ package edu.stanford.protege.github.cloneservice.utils;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import edu.stanford.protege.commitnavigator.CommitNavigator;
 import edu.stanford.protege.commitnavigator.CommitNavigatorBuilder;
 import edu.stanford.protege.commitnavigator.GitHubRepository;
+import edu.stanford.protege.commitnavigator.exceptions.GitHubNavigatorException;
 import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
 import edu.stanford.protege.github.cloneservice.exception.OntologyComparisonException;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.job.ImportProgress;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
 import edu.stanford.protege.github.cloneservice.model.AxiomChange;
 import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
 import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import edu.stanford.protege.github.cloneservice.profiling.ProfiledStage;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.slf4j.Logger;
@@ -26,13 +44,30 @@ public class OntologyHistoryAnalyzer {
 
     private static final Logger logger = LoggerFactory.getLogger(OntologyHistoryAnalyzer.class);
 
+    /** The file filters of the navigator that resolves the ontology file at HEAD */
+    private static final List<String> DEFAULT_FILE_FILTERS = List.of("*.owl", "*.obo", "*.ofn", "*.ttl");
+
     private final OntologyLoader ontologyLoader;
     private final OntologyDifferenceCalculator differenceCalculator;
-
-    public OntologyHistoryAnalyzer(OntologyLoader ontologyLoader, OntologyDifferenceCalculator differenceCalculator) {
+    private final PipelineMetrics pipelineMetrics;
+    private final OntologyDiffExecutor diffExecutor;
+    private final CommitPrefetcher commitPrefetcher;
+    private final CommitChangeSpiller commitChangeSpiller;
+
+    public OntologyHistoryAnalyzer(
+            OntologyLoader ontologyLoader,
+            OntologyDifferenceCalculator differenceCalculator,
+            PipelineMetrics pipelineMetrics,
+            OntologyDiffExecutor diffExecutor,
+            CommitPrefetcher commitPrefetcher,
+            CommitChangeSpiller commitChangeSpiller) {
         this.ontologyLoader = Objects.requireNonNull(ontologyLoader, "OntologyLoader cannot be null");
         this.differenceCalculator =
                 Objects.requireNonNull(differenceCalculator, "OntologyDifferenceCalculator cannot be null");
+        this.pipelineMetrics = Objects.requireNonNull(pipelineMetrics, "PipelineMetrics cannot be null");
+        this.diffExecutor = Objects.requireNonNull(diffExecutor, "OntologyDiffExecutor cannot be null");
+        this.commitPrefetcher = Objects.requireNonNull(commitPrefetcher, "CommitPrefetcher cannot be null");
+        this.commitChangeSpiller = Objects.requireNonNull(commitChangeSpiller, "CommitChangeSpiller cannot be null");
     }
 
     /**
@@ -47,128 +82,454 @@ public class OntologyHistoryAnalyzer {
     public List<OntologyCommitChange> getCommitHistory(
             @Nonnull RelativeFilePath ontologyFilePath, @Nonnull GitHubRepository gitHubRepository)
             throws OntologyComparisonException {
+        return getCommitHistory(ontologyFilePath, gitHubRepository, ImportMonitor.NONE);
+    }
+
+    /**
+     * Analyzes ontology history across all consecutive commits from HEAD backwards, checking the
+     * given monitor before each commit is checked out and before each ontology document is parsed.
+     * The commits are checked out ahead of the analysis by the {@link CommitPrefetcher}.
+     *
+     * @param ontologyFilePath The name of the ontology file to analyze
+     * @param gitHubRepository The GitHub repository where all commits are stored
+     * @param monitor The monitor of the import that requested the analysis
+     * @return List of all ontology changes across commit history
+     * @throws OntologyComparisonException if analysis fails
+     * @throws ImportCancelledException if the import is cancelled during the analysis
+     */
+    @Nonnull
+    public List<OntologyCommitChange> getCommitHistory(
+            @Nonnull RelativeFilePath ontologyFilePath,
+            @Nonnull GitHubRepository gitHubRepository,
+            @Nonnull ImportMonitor monitor)
+            throws OntologyComparisonException {
 
         Objects.requireNonNull(ontologyFilePath, "ontologyFilePath cannot be null");
         Objects.requireNonNull(gitHubRepository, "gitHubRepository cannot be null");
+        Objects.requireNonNull(monitor, "monitor cannot be null");
 
         logger.info("Starting ontology commit history analysis for ontology file: {}", ontologyFilePath);
 
         var repositoryUrl = gitHubRepository.getConfig().getRepositoryUrl();
-        var allCommitChanges = Lists.<OntologyCommitChange>newArrayList();
 
-        try {
+        // The root ontology documents that fail to parse, so that they are only parsed once
+        try (var unparsableDocuments = UnparsableDocumentCache.open(gitHubRepository.getWorkingDirectory());
+                var reusableImports = ReusableImports.open(gitHubRepository.getWorkingDirectory())) {
             // Get the working directory from the repository
             var workingDirectory = gitHubRepository.getWorkingDirectory();
 
-            // Configure commit navigator to focus on the target ontology file
             var targetOntologyFile = ontologyFilePath.asString();
-            var commitNavigator = CommitNavigatorBuilder.forWorkingDirectory(workingDirectory)
-                    .fileFilters("*.owl", "*.obo", "*.ofn", "*.ttl")
-                    .build();
+            var commitNavigator = createCommitNavigator(workingDirectory, DEFAULT_FILE_FILTERS);
 
             // Resolve the absolute path to the ontology file in the local clone
             var ontologyFile = commitNavigator.resolveFilePath(targetOntologyFile);
+            var headCommitMetadata = commitNavigator.getCurrentCommit();
+            // The commit walk creates navigators of its own
+            CommitHistoryNavigator.closeCommitNavigator(commitNavigator);
+
+            // Load the ontologies at HEAD to find the files of the imports closure, so that the walk
+            // only visits the commits that modify them. The first commit of the walk has the same
+            // ontologies as HEAD, so they are not loaded again.
+            var headCommit = new CommitPrefetcher.WalkedCommit(
+                    headCommitMetadata,
+                    Optional.empty(),
+                    TrackedFiles.of(workingDirectory, ontologyFile, List.of()),
+                    workingDirectory,
+                    workingDirectory);
+            var headOntologies =
+                    loadOntologiesWithErrorHandling(headCommit, Optional.empty(), unparsableDocuments, monitor);
+            var trackedFiles = TrackedFiles.of(
+                    workingDirectory,
+                    ontologyFile,
+                    headOntologies
+                            .map(OntologyHistoryAnalyzer::getDocumentFiles)
+                            .orElse(List.of()));
+            logger.info("Walking the commits that modify {}", trackedFiles.filePatterns());
+
+            if (monitor.isTrackingProgress()) {
+                monitor.extractionStarted(countCommits(workingDirectory, trackedFiles));
+            }
 
-            // Get the current commit metadata
-            var childCommitMetadata = commitNavigator.getCurrentCommit();
-            var childCommitOntologies = loadOntologiesWithErrorHandling(ontologyFile, childCommitMetadata);
-
-            while (commitNavigator.hasParent()) {
-                // Get the parent commit metadata
-                var parentCommitMetadata = commitNavigator.checkoutParent();
+            // Configure the commit navigators to focus on the tracked files
+            CommitPrefetcher.CommitNavigatorFactory commitNavigatorFactory =
+                    () -> createCommitNavigator(workingDirectory, trackedFiles.filePatterns());
+            // The changes of the loaded commits in walk order
+            try (var commitWalk =
+                            commitPrefetcher.open(commitNavigatorFactory, workingDirectory, trackedFiles, monitor);
+                    var allCommitChanges = commitChangeSpiller.open()) {
+                return analyzeCommitWalk(
+                        commitWalk,
+                        headOntologies,
+                        unparsableDocuments,
+                        reusableImports,
+                        repositoryUrl,
+                        allCommitChanges,
+                        monitor);
+            }
+        } catch (ImportCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            // A diff may have been interrupted because the import was cancelled
+            monitor.checkpoint();
+            throw new OntologyComparisonException("Failed to analyze ontology commit history", e);
+        }
+    }
 
-                // Load ontologies at the previous commit
-                var parentCommitOntologies = loadOntologiesWithErrorHandling(ontologyFile, parentCommitMetadata);
+    /**
+     * Diffs each commit of the walk against its base commit, which is the next commit of the walk, so
+     * each loaded commit is kept until the next commit has been loaded and no commit is parsed twice.
+     * A commit whose ontologies cannot be loaded is skipped, and the commits based on it are diffed
+     * against its own base commit instead. The first commit of the walk is not loaded, because it has
+     * the ontologies that were loaded at HEAD. A commit whose imports closure is the same as that of
+     * a loaded commit based on it reuses the imported ontologies of that commit. The changes of the
+     * completed commits are spilled to disk by the {@link CommitChangeSpiller} if the heap fills up.
+     */
+    private List<OntologyCommitChange> analyzeCommitWalk(
+            @Nonnull CommitPrefetcher.CommitWalk commitWalk,
+            @Nonnull Optional<List<OWLOntology>> headOntologies,
+            @Nonnull UnparsableDocumentCache unparsableDocuments,
+            @Nonnull ReusableImports reusableImports,
+            @Nonnull String repositoryUrl,
+            @Nonnull CommitChangeSpiller.CommitChanges allCommitChanges,
+            @Nonnull ImportMonitor monitor)
+            throws GitHubNavigatorException, IOException {
+
+        // The loaded commits that wait for their base commit, by the hash of the base commit
+        var waitingCommits = new HashMap<String, List<LoadedCommit>>();
+
+        // The loaded commits that are diffed against an empty ontology
+        var initialCommits = Lists.<LoadedCommit>newArrayList();
+
+        // The first commit of the walk has the ontologies that were loaded at HEAD
+        var firstCommit = true;
+
+        for (var walkedCommit = commitWalk.next(); walkedCommit.isPresent(); walkedCommit = commitWalk.next()) {
+            monitor.checkpoint();
+            var commit = walkedCommit.get();
+            var childCommits = waitingCommits.remove(commit.commitMetadata().commitHash());
+            Optional<List<OWLOntology>> ontologies;
+            if (firstCommit) {
+                ontologies = headOntologies;
+            } else {
+                var importedOntologies = Optional.ofNullable(childCommits)
+                        .flatMap(commits -> commits.stream().findFirst())
+                        .flatMap(childCommit -> reusableImports.find(
+                                commit.commitMetadata().commitHash(),
+                                commit.trackedFiles(),
+                                childCommit.commitHash(),
+                                childCommit.trackedFiles(),
+                                childCommit.ontologies()));
+                ontologies = loadOntologiesWithErrorHandling(commit, importedOntologies, unparsableDocuments, monitor);
+            }
+            firstCommit = false;
+            if (ontologies.isEmpty()) {
+                if (childCommits != null) {
+                    waitForBaseCommit(commit.baseCommitHash(), childCommits, waitingCommits, initialCommits);
+                }
+                continue;
+            }
 
-                if (childCommitOntologies.isPresent() && parentCommitOntologies.isPresent()) {
+            // The IDs under which the changes of the ontologies of this commit are recorded, if they
+            // differ from their own IDs (see calculateAxiomChangesBetweenOntologies)
+            var recordedOntologyIds = new IdentityHashMap<OWLOntology, OWLOntologyID>();
+            if (childCommits != null) {
+                for (var childCommit : childCommits) {
+                    var diffSample = monitor.profiler().start(ProfiledStage.DIFF, childCommit.commitHash());
                     var axiomChanges = calculateAxiomChangesBetweenOntologies(
-                            childCommitOntologies.get(), parentCommitOntologies.get());
-                    allCommitChanges.add(new OntologyCommitChange(axiomChanges, childCommitMetadata, repositoryUrl));
-
-                    // Swap the metadata and ontologies from parent commit to be the child commit
-                    childCommitOntologies = parentCommitOntologies;
-                    childCommitMetadata = parentCommitMetadata;
+                            childCommit.ontologies(),
+                            ontologies.get(),
+                            childCommit.recordedOntologyIds(),
+                            recordedOntologyIds);
+                    diffSample.stop(axiomChanges.size());
+                    allCommitChanges.set(
+                            childCommit.position(),
+                            new OntologyCommitChange(axiomChanges, childCommit.commitMetadata(), repositoryUrl));
+                    monitor.commitProcessed(childCommit.commitHash(), axiomChanges.size());
                 }
             }
 
-            // Handle the initial commit
-            if (childCommitOntologies.isPresent()) {
-                var axiomChanges = calculateInitialOntologyChanges(childCommitOntologies.get());
-                allCommitChanges.add(new OntologyCommitChange(axiomChanges, childCommitMetadata, repositoryUrl));
-            }
+            var loadedCommit = new LoadedCommit(
+                    allCommitChanges.reserve(),
+                    commit.commitMetadata(),
+                    commit.trackedFiles(),
+                    ontologies.get(),
+                    recordedOntologyIds);
+            waitForBaseCommit(commit.baseCommitHash(), List.of(loadedCommit), waitingCommits, initialCommits);
+        }
+
+        // Handle the initial commits, and the commits whose base commit was not walked
+        waitingCommits.values().forEach(initialCommits::addAll);
+        for (var initialCommit : initialCommits) {
+            var diffSample = monitor.profiler().start(ProfiledStage.DIFF, initialCommit.commitHash());
+            var axiomChanges =
+                    calculateInitialOntologyChanges(initialCommit.ontologies(), initialCommit.recordedOntologyIds());
+            diffSample.stop(axiomChanges.size());
+            allCommitChanges.set(
+                    initialCommit.position(),
+                    new OntologyCommitChange(axiomChanges, initialCommit.commitMetadata(), repositoryUrl));
+            monitor.commitProcessed(initialCommit.commitHash(), axiomChanges.size());
+        }
 
-            return ImmutableList.copyOf(allCommitChanges);
+        return allCommitChanges.toList();
+    }
+
+    private static void waitForBaseCommit(
+            @Nonnull Optional<String> baseCommitHash,
+            @Nonnull List<LoadedCommit> commits,
+            @Nonnull Map<String, List<LoadedCommit>> waitingCommits,
+            @Nonnull List<LoadedCommit> initialCommits) {
+        if (baseCommitHash.isPresent()) {
+            waitingCommits
+                    .computeIfAbsent(baseCommitHash.get(), hash -> Lists.newArrayList())
+                    .addAll(commits);
+        } else {
+            initialCommits.addAll(commits);
+        }
+    }
+
+    /**
+     * A commit whose ontologies have been loaded
+     *
+     * @param position the position of the changes of the commit in the project history
+     * @param commitMetadata the metadata of the commit
+     * @param trackedFiles the tracked files of the commit
+     * @param ontologies the ontologies of the commit, root ontology first
+     * @param recordedOntologyIds the IDs under which the changes of the ontologies are recorded, if
+     *     they differ from their own IDs
+     */
+    private record LoadedCommit(
+            int position,
+            @Nonnull CommitMetadata commitMetadata,
+            @Nonnull TrackedFiles trackedFiles,
+            @Nonnull List<OWLOntology> ontologies,
+            @Nonnull Map<OWLOntology, OWLOntologyID> recordedOntologyIds) {
+
+        String commitHash() {
+            return commitMetadata.commitHash();
+        }
+    }
+
+    private static CommitNavigator createCommitNavigator(
+            @Nonnull Path workingDirectory, @Nonnull List<String> fileFilters) throws GitHubNavigatorException {
+        return CommitNavigatorBuilder.forWorkingDirectory(workingDirectory)
+                .fileFilters(fileFilters.toArray(String[]::new))
+                .build();
+    }
+
+    /** Returns the files that the given ontologies were loaded from */
+    private static List<Path> getDocumentFiles(@Nonnull List<OWLOntology> ontologies) {
+        return ontologies.stream()
+                .map(ontology -> ontology.getOWLOntologyManager().getOntologyDocumentIRI(ontology))
+                .filter(documentIri -> "file".equals(documentIri.getScheme()))
+                .map(documentIri -> Path.of(documentIri.toURI()))
+                .toList();
+    }
+
+    /**
+     * Estimates the number of commits that the commit walk visits, by counting the commits in the
+     * history of HEAD that modify the tracked files at their current paths: along the first parents,
+     * or among all reachable commits in topological mode. Commits that modify catalogs or renamed files
+     * are not counted. Only commit headers and trees are read, so this is cheap compared to the walk
+     * itself.
+     *
+     * @param workingDirectory the working directory of the cloned repository
+     * @param trackedFiles the files whose modifications are walked
+     * @return the number of commits, or {@link ImportProgress#UNKNOWN_TOTAL} if they cannot be counted
+     */
+    private int countCommits(@Nonnull Path workingDirectory, @Nonnull TrackedFiles trackedFiles) {
+        try (var git = Git.open(workingDirectory.toFile());
+                var revWalk = new RevWalk(git.getRepository())) {
+            var head = git.getRepository().resolve(Constants.HEAD);
+            if (head == null) {
+                return 0;
+            }
+            revWalk.setFirstParent(commitPrefetcher.getHistoryMode() == HistoryMode.FIRST_PARENT);
+            revWalk.setTreeFilter(
+                    AndTreeFilter.create(PathFilterGroup.createFromStrings(trackedFiles.paths()), TreeFilter.ANY_DIFF));
+            revWalk.markStart(revWalk.parseCommit(head));
+            var count = 0;
+            while (revWalk.next() != null) {
+                count++;
+            }
+            return count;
         } catch (Exception e) {
-            throw new OntologyComparisonException("Failed to analyze ontology commit history", e);
+            logger.warn("Unable to count commits in {}: {}", workingDirectory, e.getMessage());
+            return ImportProgress.UNKNOWN_TOTAL;
         }
     }
 
     /**
-     * Loads ontologies with centralized error handling and logging
+     * Loads ontologies with centralized error handling and logging. A commit whose root ontology
+     * document has the same blob as a document that failed to parse before is skipped without being
+     * parsed again. If the imported ontologies of another commit can be reused, only the root ontology
+     * document is parsed.
      *
-     * @param rootOntology the root ontology file to load
-     * @param commitMetadata metadata of the current commit for logging
+     * @param commit the commit whose root ontology file is loaded
+     * @param importedOntologies the imported ontologies of another commit that have the same
+     *     documents as in this commit, if any
+     * @param unparsableDocuments the root ontology documents that failed to parse so far
+     * @param monitor the monitor of the import, checked before each ontology document is parsed
      * @return loaded ontologies or null if loading failed
      */
     private Optional<List<OWLOntology>> loadOntologiesWithErrorHandling(
-            @Nonnull Path rootOntology, @Nonnull CommitMetadata commitMetadata) {
+            @Nonnull CommitPrefetcher.WalkedCommit commit,
+            @Nonnull Optional<List<OWLOntology>> importedOntologies,
+            @Nonnull UnparsableDocumentCache unparsableDocuments,
+            @Nonnull ImportMonitor monitor) {
+        var rootOntology = commit.ontologyFile();
+        var commitMetadata = commit.commitMetadata();
+        var commitHash = commitMetadata.commitHash();
+        var ontologyPath = commit.trackedFiles().ontologyPath();
+        var ontologyBlob = unparsableDocuments.findOntologyBlob(commitHash, commit.trackedFiles());
+        var knownFailure = ontologyBlob.flatMap(unparsableDocuments::findFailure);
+        if (knownFailure.isPresent()) {
+            pipelineMetrics.countSkippedCommit();
+            monitor.commitSkipped(commitHash, knownFailure.get());
+            logger.info(
+                    "Skipping commit {} whose ontology document {} failed to parse in an earlier commit",
+                    commitHash,
+                    ontologyPath);
+            return Optional.empty();
+        }
+        var sample = pipelineMetrics.startOntologyLoad();
+        var profilerSample = monitor.profiler().start(ProfiledStage.LOAD, commitHash);
+        var withImports = true;
         try {
-            if (rootOntology.endsWith(".obo") || rootOntology.endsWith(".ofn")) {
-                var changedFiles = commitMetadata.getChangedFiles();
-                if (changedFiles.size() == 1) {
-                    var changedFile = changedFiles.get(0);
-                    if (rootOntology.endsWith(changedFile)) {
-                        var ontologies = ontologyLoader.loadOntologyWithoutImports(rootOntology);
-                        return Optional.of(ontologies);
-                    }
+            if (importedOntologies.isPresent()) {
+                var ontologies =
+                        ontologyLoader.loadOntologyReusingImports(rootOntology, importedOntologies.get(), monitor);
+                if (ontologies.isPresent()) {
+                    // Only the root ontology was parsed, the imported ontologies are already located
+                    withImports = false;
+                    var parsedOntologies = ontologies.get().subList(0, 1);
+                    commit.relocateDocuments(parsedOntologies);
+                    pipelineMetrics.stopOntologyLoad(sample, getFormatName(ontologies.get()), withImports, true);
+                    profilerSample.stop(countAxioms(parsedOntologies));
+                    return ontologies;
                 }
+                logger.debug("Loading the imports of commit {}, whose root ontology has new imports", commitHash);
             }
             // Fallback call to load the root ontology along with its imports
-            var ontologies = ontologyLoader.loadOntologyWithImports(rootOntology);
+            var ontologies = ontologyLoader.loadOntologyWithImports(rootOntology, monitor);
+            commit.relocateDocuments(ontologies);
+            pipelineMetrics.stopOntologyLoad(sample, getFormatName(ontologies), withImports, true);
+            profilerSample.stop(countAxioms(ontologies));
             return Optional.of(ontologies);
+        } catch (ImportCancelledException e) {
+            throw e;
         } catch (Exception e) {
-            logger.info(
-                    "Skipping commit {} due to ontology load error: {}", commitMetadata.commitHash(), e.getMessage());
+            pipelineMetrics.stopOntologyLoad(sample, PipelineMetrics.UNKNOWN_FORMAT, withImports, false);
+            profilerSample.stop(0);
+            // A load error may have been caused by the interruption of a cancelled import
+            monitor.checkpoint();
+            pipelineMetrics.countSkippedCommit();
+            var unparsable = UnparsableDocumentCache.isUnparsable(rootOntology, e);
+            var reason = unparsable ? "Unable to parse ontology document " + ontologyPath : describeLoadFailure(e);
+            if (unparsable) {
+                ontologyBlob.ifPresent(blobId -> unparsableDocuments.recordFailure(blobId, reason));
+            }
+            monitor.commitSkipped(commitHash, reason);
+            logger.info("Skipping commit {} due to ontology load error: {}", commitHash, e.getMessage());
             return Optional.empty();
         }
     }
 
+    /** Returns the first line of the message of the innermost cause of a load failure */
+    @Nonnull
+    private static String describeLoadFailure(@Nonnull Exception e) {
+        Throwable rootCause = e;
+        while (rootCause.getCause() != null) {
+            rootCause = rootCause.getCause();
+        }
+        var message = rootCause.getMessage();
+        if (message == null || message.isBlank()) {
+            return rootCause.getClass().getSimpleName();
+        }
+        return message.strip().lines().findFirst().orElse(message);
+    }
+
+    private static long countAxioms(@Nonnull List<OWLOntology> ontologies) {
+        return ontologies.stream().mapToLong(OWLOntology::getAxiomCount).sum();
+    }
+
+    /** Returns the name of the document format from which the root ontology was parsed */
+    @Nonnull
+    private static String getFormatName(@Nonnull List<OWLOntology> ontologies) {
+        if (ontologies.isEmpty()) {
+            return PipelineMetrics.UNKNOWN_FORMAT;
+        }
+        var rootOntology = ontologies.get(0);
+        var format = rootOntology.getOWLOntologyManager().getOntologyFormat(rootOntology);
+        return format != null ? format.getKey() : PipelineMetrics.UNKNOWN_FORMAT;
+    }
+
+    /** Calculates the axiom changes between two ontologies, recording the diff in the pipeline metrics */
+    @Nonnull
+    private List<AxiomChange> calculateAxiomChanges(
+            @Nonnull OWLOntology childOntology,
+            @Nonnull OWLOntology parentOntology,
+            @Nonnull OWLOntologyID ontologyId) {
+        return pipelineMetrics.timeDiff(
+                () -> differenceCalculator.calculateAxiomChanges(childOntology, parentOntology, ontologyId));
+    }
+
     /**
-     * Calculates axiom changes between current and previous commit ontologies
+     * Calculates axiom changes between current and previous commit ontologies. The ontologies of
+     * the import closure are diffed independently, in parallel for wide closures, and their changes
+     * are concatenated in closure order.
+     *
+     * <p>An ontology whose version IRI changed between the commits is diffed against its previous
+     * version (see {@link OntologyMatcher}). Since a change of the ontology ID cannot be expressed as
+     * an axiom change, all versions of an ontology are recorded under the ID of its latest version,
+     * so that the history of the ontology is not split across several ontologies. The recorded IDs of
+     * the previous versions are passed on through {@code parentRecordedOntologyIds}.
      *
      * @param childCommitOntologies ontologies from the child commit
      * @param parentCommitOntologies ontologies from the parent commit
+     * @param childRecordedOntologyIds the IDs under which the changes of the child commit ontologies
+     *     are recorded, if they differ from their own IDs
+     * @param parentRecordedOntologyIds receives the IDs under which the changes of the parent commit
+     *     ontologies are to be recorded, if they differ from their own IDs
      * @return list of axiom changes between commits
      */
     @Nonnull
     private List<AxiomChange> calculateAxiomChangesBetweenOntologies(
-            @Nonnull List<OWLOntology> childCommitOntologies, @Nonnull List<OWLOntology> parentCommitOntologies) {
-
-        var allAxiomChanges = Lists.<AxiomChange>newArrayList();
-
-        // Process current ontologies one by one and find their previous versions
-        var results = childCommitOntologies.stream()
-                .map(current -> processMatchingOntology(current, parentCommitOntologies))
-                .toList();
-
-        var processedOntologyIds = Lists.<OWLOntologyID>newArrayList();
-        for (var result : results) {
-            allAxiomChanges.addAll(result.axiomChanges());
-            processedOntologyIds.add(result.ontologyID());
+            @Nonnull List<OWLOntology> childCommitOntologies,
+            @Nonnull List<OWLOntology> parentCommitOntologies,
+            @Nonnull Map<OWLOntology, OWLOntologyID> childRecordedOntologyIds,
+            @Nonnull Map<OWLOntology, OWLOntologyID> parentRecordedOntologyIds) {
+
+        var matching = OntologyMatcher.match(childCommitOntologies, parentCommitOntologies);
+        var emptyOntology = ontologyLoader.getEmptyOntology();
+        var diffs = Lists.<Supplier<List<AxiomChange>>>newArrayList();
+
+        // Diff the child ontologies against their previous versions, or against an empty ontology if
+        // they are new
+        for (var match : matching.matches()) {
+            var childCommitOntology = match.childCommitOntology();
+            var recordedOntologyId = getRecordedOntologyId(childCommitOntology, childRecordedOntologyIds);
+            match.parentCommitOntology().ifPresent(parentCommitOntology -> {
+                if (!parentCommitOntology.getOntologyID().equals(recordedOntologyId)) {
+                    parentRecordedOntologyIds.put(parentCommitOntology, recordedOntologyId);
+                }
+                logVersionChange(childCommitOntology, parentCommitOntology);
+            });
+            var parentCommitOntology = match.parentCommitOntology().orElse(emptyOntology);
+            if (parentCommitOntology == childCommitOntology) {
+                // An imported ontology that the parent commit reused from the child commit
+                continue;
+            }
+            diffs.add(() -> calculateAxiomChanges(childCommitOntology, parentCommitOntology, recordedOntologyId));
         }
 
-        // Process removed ontologies (exist in the parent commit but not in the child commit)
-        var emptyOntology = ontologyLoader.createEmptyOntology();
-        var removedOntologyChanges = parentCommitOntologies.stream()
-                .filter(ontology -> !processedOntologyIds.contains(ontology.getOntologyID()))
-                .flatMap(ontology ->
-                        differenceCalculator
-                                .calculateAxiomChanges(emptyOntology, ontology, ontology.getOntologyID())
-                                .stream())
-                .toList();
+        // Diff the removed ontologies (exist in the parent commit but not in the child commit)
+        for (var removedOntology : matching.removedOntologies()) {
+            diffs.add(() -> calculateAxiomChanges(emptyOntology, removedOntology, removedOntology.getOntologyID()));
+        }
 
-        allAxiomChanges.addAll(removedOntologyChanges);
-        return ImmutableList.copyOf(allAxiomChanges);
+        var allAxiomChanges = ImmutableList.<AxiomChange>builder();
+        diffExecutor.runAll(diffs).forEach(allAxiomChanges::addAll);
+        return allAxiomChanges.build();
     }
 
     /**
@@ -178,66 +539,34 @@ public class OntologyHistoryAnalyzer {
      * @return list of axiom changes for initial commit
      */
     @Nonnull
-    private List<AxiomChange> calculateInitialOntologyChanges(@Nonnull List<OWLOntology> ontologies) {
+    private List<AxiomChange> calculateInitialOntologyChanges(
+            @Nonnull List<OWLOntology> ontologies, @Nonnull Map<OWLOntology, OWLOntologyID> recordedOntologyIds) {
 
-        var emptyOntology = ontologyLoader.createEmptyOntology();
+        var emptyOntology = ontologyLoader.getEmptyOntology();
         return ontologies.stream()
                 .flatMap(ontology ->
-                        differenceCalculator
-                                .calculateAxiomChanges(ontology, emptyOntology, ontology.getOntologyID())
+                        calculateAxiomChanges(
+                                ontology, emptyOntology, getRecordedOntologyId(ontology, recordedOntologyIds))
                                 .stream())
                 .collect(ImmutableList.toImmutableList());
     }
 
-    /**
-     * Processes an ontology from a child commit by finding first its match from the parent commit and
-     * then calculating changes. If no match is found, compares it to an empty ontology.
-     *
-     * @param childCommitOntology the ontology to process from a child commit.
-     * @param parentCommitOntologies list of ontologies to match against, coming from the parent
-     *     commit.
-     * @return processing result containing axiom changes and ontology ID
-     */
     @Nonnull
-    private OntologyProcessingResult processMatchingOntology(
-            @Nonnull OWLOntology childCommitOntology, @Nonnull List<OWLOntology> parentCommitOntologies) {
-
-        var emptyOntology = ontologyLoader.createEmptyOntology();
-
-        var ontologyId = childCommitOntology.getOntologyID();
-        var matchedOntology = findMatchingOntology(childCommitOntology, parentCommitOntologies);
-
-        var axiomChanges = matchedOntology
-                .map(parentCommitOntology -> differenceCalculator.calculateAxiomChanges(
-                        childCommitOntology, parentCommitOntology, ontologyId))
-                .orElseGet(() ->
-                        differenceCalculator.calculateAxiomChanges(childCommitOntology, emptyOntology, ontologyId));
-
-        return new OntologyProcessingResult(axiomChanges, ontologyId);
-    }
-
-    /**
-     * Finds matching ontology in the given ontologies list
-     *
-     * @param targetOntology the ontology to find a match for
-     * @param ontologiesToSearch list of ontologies to search in
-     * @return Optional containing the matching ontology, or empty if not found
-     */
-    @Nonnull
-    private Optional<OWLOntology> findMatchingOntology(
-            @Nonnull OWLOntology targetOntology, @Nonnull List<OWLOntology> ontologiesToSearch) {
-
-        return ontologiesToSearch.stream()
-                .filter(ontology -> ontology.getOntologyID().equals(targetOntology.getOntologyID()))
-                .findFirst();
+    private static OWLOntologyID getRecordedOntologyId(
+            @Nonnull OWLOntology ontology, @Nonnull Map<OWLOntology, OWLOntologyID> recordedOntologyIds) {
+        return recordedOntologyIds.getOrDefault(ontology, ontology.getOntologyID());
     }
 
-    /** Internal record for holding ontology processing results */
-    private record OntologyProcessingResult(
-            @Nonnull List<AxiomChange> axiomChanges, @Nonnull OWLOntologyID ontologyID) {
-        private OntologyProcessingResult {
-            Objects.requireNonNull(axiomChanges, "axiomChanges cannot be null");
-            Objects.requireNonNull(ontologyID, "ontologyID cannot be null");
+    private static void logVersionChange(
+            @Nonnull OWLOntology childCommitOntology, @Nonnull OWLOntology parentCommitOntology) {
+        var childVersionIri = childCommitOntology.getOntologyID().getVersionIRI();
+        var parentVersionIri = parentCommitOntology.getOntologyID().getVersionIRI();
+        if (!childVersionIri.equals(parentVersionIri)) {
+            logger.info(
+                    "Version of ontology {} changed from {} to {}",
+                    childCommitOntology.getOntologyID().getOntologyIRI().orNull(),
+                    parentVersionIri.orNull(),
+                    childVersionIri.orNull());
         }
     }
 }
@@ -1,8 +1,11 @@
 package edu.stanford.protege.github.cloneservice.utils;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import edu.stanford.protege.github.cloneservice.exception.OntologyLoadException;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -25,8 +28,13 @@ import org.springframework.stereotype.Component;
 @Component
 public class OntologyLoader {
 
+    /** The glob pattern of the names of the catalog files that are looked up next to an ontology */
+    static final String CATALOG_FILE_PATTERN = "catalog-*.xml";
+
     private final OntologyManagerProvider ontologyManagerProvider;
 
+    private final Supplier<OWLOntology> emptyOntology = Suppliers.memoize(this::createEmptyOntology);
+
     public OntologyLoader(@Nonnull OntologyManagerProvider ontologyManagerProvider) {
         this.ontologyManagerProvider =
                 Objects.requireNonNull(ontologyManagerProvider, "ontologyManagerProvider cannot be null");
@@ -49,6 +57,18 @@ public class OntologyLoader {
         }
     }
 
+    /**
+     * Returns a shared empty OWL ontology, to diff against the ontologies that have no previous or no
+     * next version. Unlike {@link #createEmptyOntology()}, this creates an ontology manager only once
+     * rather than on every commit. The returned ontology must not be modified.
+     *
+     * @return The shared empty OWL ontology
+     */
+    @Nonnull
+    public OWLOntology getEmptyOntology() {
+        return emptyOntology.get();
+    }
+
     /**
      * Loads an OWL ontology from the specified file path along with all its imported ontologies.
      *
@@ -71,10 +91,30 @@ public class OntologyLoader {
      */
     @Nonnull
     public List<OWLOntology> loadOntologyWithImports(@Nonnull Path rootOntology) throws OntologyLoadException {
+        return loadOntologyWithImports(rootOntology, ImportMonitor.NONE);
+    }
+
+    /**
+     * Loads an OWL ontology along with all its imported ontologies, checking the given monitor before
+     * each ontology document of the imports closure is parsed.
+     *
+     * @param rootOntology the path to the root ontology file to load.
+     * @param monitor the monitor of the import that requested the ontology
+     * @return a list containing the root ontology and all its imported ontologies. The root ontology
+     *     is always the first element.
+     * @throws OntologyLoadException if {@code rootOntology} is {@code null} or doesn't exist, The
+     *     catalog file is invalid, or ontology failed to load.
+     * @see #loadOntologyWithImports(Path)
+     */
+    @Nonnull
+    public List<OWLOntology> loadOntologyWithImports(@Nonnull Path rootOntology, @Nonnull ImportMonitor monitor)
+            throws OntologyLoadException {
         Objects.requireNonNull(rootOntology, "rootOntology cannot be null");
+        Objects.requireNonNull(monitor, "monitor cannot be null");
         try {
             var ontologyFile = getOntologyFile(rootOntology);
             var ontologyManager = ontologyManagerProvider.getOntologyManagerWithLoadImports();
+            addCheckpointListener(ontologyManager, monitor);
 
             // Add IRI mapper for local imports in the same directory
             ontologyManager.getIRIMappers().clear();
@@ -122,10 +162,29 @@ public class OntologyLoader {
      */
     @Nonnull
     public List<OWLOntology> loadOntologyWithoutImports(@Nonnull Path targetOntology) throws OntologyLoadException {
+        return loadOntologyWithoutImports(targetOntology, ImportMonitor.NONE);
+    }
+
+    /**
+     * Loads an OWL ontology without its imported ontologies, checking the given monitor before the
+     * ontology document is parsed.
+     *
+     * @param targetOntology the path to the ontology file to load.
+     * @param monitor the monitor of the import that requested the ontology
+     * @return a list containing only the target ontology.
+     * @throws OntologyLoadException if {@code targetOntology} is {@code null} or doesn't exist, The
+     *     catalog file is invalid, or ontology failed to load.
+     * @see #loadOntologyWithoutImports(Path)
+     */
+    @Nonnull
+    public List<OWLOntology> loadOntologyWithoutImports(@Nonnull Path targetOntology, @Nonnull ImportMonitor monitor)
+            throws OntologyLoadException {
         Objects.requireNonNull(targetOntology, "targetOntology cannot be null");
+        Objects.requireNonNull(monitor, "monitor cannot be null");
         try {
             var ontologyFile = getOntologyFile(targetOntology);
             var ontologyManager = ontologyManagerProvider.getOntologyManagerWithIgnoredImports();
+            addCheckpointListener(ontologyManager, monitor);
 
             logger.info("Loading ontology from: {}", targetOntology);
             var ontology = ontologyManager.loadOntologyFromOntologyDocument(ontologyFile);
@@ -137,6 +196,57 @@ public class OntologyLoader {
         }
     }
 
+    /**
+     * Loads an OWL ontology and takes its imports closure from ontologies that have already been
+     * loaded, such as the ontologies of another commit in which the documents of the imports closure
+     * are the same. Only the root ontology document is parsed, and the returned imported ontologies
+     * are the given instances, which must not be modified.
+     *
+     * <p>An import is resolved to the loaded ontology whose ontology IRI or version IRI is the IRI of
+     * the import declaration. If an import cannot be resolved this way, nothing is returned and the
+     * ontology has to be loaded with {@link #loadOntologyWithImports(Path, ImportMonitor)} instead.
+     *
+     * @param rootOntology the path to the root ontology file to load.
+     * @param loadedOntologies the loaded ontologies that the imports closure is taken from
+     * @param monitor the monitor of the import that requested the ontology
+     * @return a list containing the root ontology and its imported ontologies, or an empty optional if
+     *     the root ontology imports an ontology that is not among the loaded ontologies
+     * @throws OntologyLoadException if {@code rootOntology} doesn't exist or failed to load.
+     */
+    @Nonnull
+    public Optional<List<OWLOntology>> loadOntologyReusingImports(
+            @Nonnull Path rootOntology, @Nonnull List<OWLOntology> loadedOntologies, @Nonnull ImportMonitor monitor)
+            throws OntologyLoadException {
+        Objects.requireNonNull(loadedOntologies, "loadedOntologies cannot be null");
+        var ontology = loadOntologyWithoutImports(rootOntology, monitor).get(0);
+
+        var importsClosure = Sets.<OWLOntology>newIdentityHashSet();
+        for (var importsDeclaration : ontology.getImportsDeclarations()) {
+            var importedOntology = loadedOntologies.stream()
+                    .filter(loadedOntology -> hasIri(loadedOntology, importsDeclaration.getIRI()))
+                    .findFirst();
+            if (importedOntology.isEmpty()) {
+                logger.debug("Import {} of {} is not loaded yet", importsDeclaration.getIRI(), rootOntology);
+                return Optional.empty();
+            }
+            importsClosure.addAll(importedOntology.get().getImportsClosure());
+        }
+
+        // Keep the order of the loaded ontologies
+        return Optional.of(ImmutableList.<OWLOntology>builder()
+                .add(ontology)
+                .addAll(loadedOntologies.stream()
+                        .filter(importsClosure::contains)
+                        .toList())
+                .build());
+    }
+
+    private static boolean hasIri(@Nonnull OWLOntology ontology, @Nonnull IRI iri) {
+        var ontologyId = ontology.getOntologyID();
+        return iri.equals(ontologyId.getOntologyIRI().orNull())
+                || iri.equals(ontologyId.getVersionIRI().orNull());
+    }
+
     /**
      * Loads an OWL ontology from the specified file path along with all its imported ontologies.
      *
@@ -167,6 +277,25 @@ public class OntologyLoader {
         return includeImports ? loadOntologyWithImports(filePath) : loadOntologyWithoutImports(filePath);
     }
 
+    /**
+     * OWL-API parsers cannot be interrupted, so the monitor is checked whenever the manager starts
+     * loading an ontology document, which stops a cancelled import between the documents of a large
+     * imports closure.
+     */
+    private static void addCheckpointListener(OWLOntologyManager ontologyManager, ImportMonitor monitor) {
+        if (monitor != ImportMonitor.NONE) {
+            ontologyManager.addOntologyLoaderListener(new OWLOntologyLoaderListener() {
+                @Override
+                public void startedLoadingOntology(OWLOntologyLoaderListener.LoadingStartedEvent event) {
+                    monitor.checkpoint();
+                }
+
+                @Override
+                public void finishedLoadingOntology(OWLOntologyLoaderListener.LoadingFinishedEvent event) {}
+            });
+        }
+    }
+
     private File getOntologyFile(@NotNull Path filePath) throws FileNotFoundException {
         var ontologyFile = filePath.toFile();
         if (!ontologyFile.exists()) {
@@ -177,6 +306,11 @@ public class OntologyLoader {
         return ontologyFile;
     }
 
+    /** Returns {@code true} if a file with the given name is used as catalog (catalog-*.xml) */
+    static boolean isCatalogFile(@Nonnull String fileName) {
+        return fileName.startsWith("catalog-") && fileName.endsWith(".xml");
+    }
+
     /**
      * Finds a catalog file in the directory (catalog-v001.xml or catalog-*.xml)
      *
@@ -188,11 +322,7 @@ public class OntologyLoader {
         Objects.requireNonNull(directory, "directory cannot be null");
 
         try (Stream<Path> files = Files.list(directory)) {
-            return files.filter(file -> {
-                        var fileName = file.getFileName().toString();
-                        return fileName.equals("catalog-v001.xml")
-                                || (fileName.startsWith("catalog-") && fileName.endsWith(".xml"));
-                    })
+            return files.filter(file -> isCatalogFile(file.getFileName().toString()))
                     .findFirst();
         } catch (IOException e) {
             logger.warn("Failed to list files in directory: {}", directory, e);
@@ -0,0 +1,140 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+/**
+ * Pairs the ontologies of the import closure of a commit with their previous versions in the import
+ * closure of its parent commit.
+ *
+ * <p>An ontology is matched by its {@link OWLOntologyID} first. An ontology that has no parent with
+ * an equal ID is matched by its ontology IRI, ignoring the version IRI, so that a new release of an
+ * ontology is diffed against the previous release rather than removed and re-added in full.
+ * Anonymous ontologies are matched by their document IRI, i.e. the file they were loaded from. Each
+ * parent ontology is matched at most once. All lookups are hash-indexed, so matching is linear in
+ * the closure size.
+ */
+final class OntologyMatcher {
+
+    private OntologyMatcher() {}
+
+    /**
+     * Matches the ontologies of a child commit with the ontologies of its parent commit
+     *
+     * @param childCommitOntologies ontologies from the child commit
+     * @param parentCommitOntologies ontologies from the parent commit
+     * @return the matches of the child ontologies, in the order of the child ontologies, and the
+     *     parent ontologies that were not matched, in the order of the parent ontologies
+     */
+    @Nonnull
+    static OntologyMatching match(
+            @Nonnull List<OWLOntology> childCommitOntologies, @Nonnull List<OWLOntology> parentCommitOntologies) {
+        Objects.requireNonNull(childCommitOntologies, "childCommitOntologies cannot be null");
+        Objects.requireNonNull(parentCommitOntologies, "parentCommitOntologies cannot be null");
+
+        var parentsById = new HashMap<OWLOntologyID, OWLOntology>();
+        var parentsByOntologyIri = new HashMap<IRI, OWLOntology>();
+        var parentsByDocument = new HashMap<IRI, OWLOntology>();
+        for (var parentCommitOntology : parentCommitOntologies) {
+            parentsById.putIfAbsent(parentCommitOntology.getOntologyID(), parentCommitOntology);
+            if (!parentCommitOntology.isAnonymous()) {
+                parentsByOntologyIri.putIfAbsent(getOntologyIri(parentCommitOntology), parentCommitOntology);
+            }
+            parentsByDocument.putIfAbsent(getDocumentIri(parentCommitOntology), parentCommitOntology);
+        }
+
+        var matchedParents = Sets.<OWLOntology>newIdentityHashSet();
+        var parentMatches = new OWLOntology[childCommitOntologies.size()];
+
+        // Match the equal IDs first, so that a looser match cannot take the parent of another ontology
+        for (var i = 0; i < parentMatches.length; i++) {
+            var childCommitOntology = childCommitOntologies.get(i);
+            if (childCommitOntology.isAnonymous()) {
+                continue;
+            }
+            var parentCommitOntology = parentsById.get(childCommitOntology.getOntologyID());
+            if (parentCommitOntology != null && matchedParents.add(parentCommitOntology)) {
+                parentMatches[i] = parentCommitOntology;
+            }
+        }
+
+        // Then match the new versions of ontologies
+        for (var i = 0; i < parentMatches.length; i++) {
+            var childCommitOntology = childCommitOntologies.get(i);
+            if (parentMatches[i] != null || childCommitOntology.isAnonymous()) {
+                continue;
+            }
+            var parentCommitOntology = parentsByOntologyIri.get(getOntologyIri(childCommitOntology));
+            if (parentCommitOntology != null && matchedParents.add(parentCommitOntology)) {
+                parentMatches[i] = parentCommitOntology;
+            }
+        }
+
+        for (var i = 0; i < parentMatches.length; i++) {
+            if (parentMatches[i] != null) {
+                continue;
+            }
+            var childCommitOntology = childCommitOntologies.get(i);
+            var parentCommitOntology = parentsByDocument.get(getDocumentIri(childCommitOntology));
+            if (parentCommitOntology != null
+                    && isSameDocumentOntology(childCommitOntology, parentCommitOntology)
+                    && matchedParents.add(parentCommitOntology)) {
+                parentMatches[i] = parentCommitOntology;
+            }
+        }
+
+        var matches = ImmutableList.<OntologyMatch>builderWithExpectedSize(parentMatches.length);
+        for (var i = 0; i < parentMatches.length; i++) {
+            matches.add(new OntologyMatch(childCommitOntologies.get(i), Optional.ofNullable(parentMatches[i])));
+        }
+        var removedOntologies = parentCommitOntologies.stream()
+                .filter(parentCommitOntology -> !matchedParents.contains(parentCommitOntology))
+                .collect(ImmutableList.toImmutableList());
+        return new OntologyMatching(matches.build(), removedOntologies);
+    }
+
+    /**
+     * Returns {@code true} if two ontologies loaded from the same document can be considered versions
+     * of each other, i.e. either is anonymous or they only differ in their version IRI
+     */
+    private static boolean isSameDocumentOntology(
+            @Nonnull OWLOntology childCommitOntology, @Nonnull OWLOntology parentCommitOntology) {
+        if (childCommitOntology.isAnonymous() || parentCommitOntology.isAnonymous()) {
+            return true;
+        }
+        return childCommitOntology
+                .getOntologyID()
+                .getOntologyIRI()
+                .equals(parentCommitOntology.getOntologyID().getOntologyIRI());
+    }
+
+    @Nonnull
+    private static IRI getOntologyIri(@Nonnull OWLOntology ontology) {
+        return ontology.getOntologyID().getOntologyIRI().get();
+    }
+
+    @Nonnull
+    private static IRI getDocumentIri(@Nonnull OWLOntology ontology) {
+        return ontology.getOWLOntologyManager().getOntologyDocumentIRI(ontology);
+    }
+
+    /** The previous version of an ontology of a child commit, if it has one */
+    record OntologyMatch(
+            @Nonnull OWLOntology childCommitOntology, @Nonnull Optional<OWLOntology> parentCommitOntology) {}
+
+    /**
+     * The result of matching two import closures
+     *
+     * @param matches the matches of the child commit ontologies
+     * @param removedOntologies the parent commit ontologies that no longer exist in the child commit
+     */
+    record OntologyMatching(@Nonnull List<OntologyMatch> matches, @Nonnull List<OWLOntology> removedOntologies) {}
+}
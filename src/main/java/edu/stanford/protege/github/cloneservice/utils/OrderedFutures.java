@@ -0,0 +1,85 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+
+/**
+ * Waits for the tasks that a shared pool runs for a single caller, in the order in which the tasks
+ * were submitted, and rethrows the failure of a task as it was thrown by the task.
+ */
+public final class OrderedFutures {
+
+    private OrderedFutures() {}
+
+    /**
+     * Waits for the result of a task
+     *
+     * @param future the future of the task
+     * @param taskName the name of the task in the messages of the exceptions, such as "Ontology diff"
+     * @return the result of the task
+     * @throws RuntimeException the failure of the task
+     * @throws CancellationException if the calling thread is interrupted while waiting for the task.
+     *     The interrupt status of the thread is restored.
+     */
+    public static <T> T await(@Nonnull Future<T> future, @Nonnull String taskName) {
+        Objects.requireNonNull(future, "future cannot be null");
+        Objects.requireNonNull(taskName, "taskName cannot be null");
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for " + taskName.toLowerCase(Locale.ROOT));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(taskName + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the results of tasks in order. The tasks that are still running when a task fails or
+     * the calling thread is interrupted are cancelled.
+     *
+     * @param futures the futures of the tasks, in the order of the tasks
+     * @param taskName the name of the tasks in the messages of the exceptions
+     * @return the results of the tasks, in the order of the tasks
+     * @throws RuntimeException the first failure of a task, in the order of the tasks
+     * @throws CancellationException if the calling thread is interrupted while waiting for the tasks.
+     *     The interrupt status of the thread is restored.
+     */
+    @Nonnull
+    public static <T> List<T> awaitAll(@Nonnull List<Future<T>> futures, @Nonnull String taskName) {
+        Objects.requireNonNull(futures, "futures cannot be null");
+        try {
+            var results = new ArrayList<T>(futures.size());
+            for (var future : futures) {
+                results.add(await(future, taskName));
+            }
+            return results;
+        } finally {
+            cancelAll(futures);
+        }
+    }
+
+    /**
+     * Cancels the tasks that have not completed yet, so that the shared pool does not keep working
+     * for a caller that has failed or been interrupted
+     *
+     * @param futures the futures of the tasks
+     */
+    public static void cancelAll(@Nonnull Collection<? extends Future<?>> futures) {
+        Objects.requireNonNull(futures, "futures cannot be null");
+        futures.forEach(future -> future.cancel(true));
+    }
+}
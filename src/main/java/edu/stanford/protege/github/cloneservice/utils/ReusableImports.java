@@ -0,0 +1,125 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the imported ontologies of a loaded commit that can be reused to load another commit of the
+ * walk, so that only the root ontology document of that commit is parsed (see {@link
+ * OntologyLoader#loadOntologyReusingImports}). The imports closure of the loaded commit can be
+ * reused if none of the documents it was loaded from and no catalog of the ontology file differ
+ * between the two commits, whatever the format of the ontology file.
+ */
+final class ReusableImports implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReusableImports.class);
+
+    private final Git git;
+
+    private final RevWalk revWalk;
+
+    private final Path workingDirectory;
+
+    private ReusableImports(@Nonnull Git git, @Nonnull Path workingDirectory) {
+        this.git = git;
+        this.revWalk = new RevWalk(git.getRepository());
+        this.workingDirectory = workingDirectory;
+    }
+
+    /**
+     * Opens the repository in the given working directory to compare its commits
+     *
+     * @param workingDirectory the working directory of the cloned repository, where the documents of
+     *     the loaded ontologies are located
+     * @throws IOException if the repository cannot be opened
+     */
+    @Nonnull
+    static ReusableImports open(@Nonnull Path workingDirectory) throws IOException {
+        Objects.requireNonNull(workingDirectory, "workingDirectory cannot be null");
+        return new ReusableImports(
+                Git.open(workingDirectory.toFile()),
+                workingDirectory.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Returns the imported ontologies of a loaded commit if they can be reused to load another commit
+     *
+     * @param commitHash the hash of the commit to load
+     * @param trackedFiles the tracked files of the commit to load
+     * @param loadedCommitHash the hash of the loaded commit
+     * @param loadedTrackedFiles the tracked files of the loaded commit
+     * @param loadedOntologies the ontologies of the loaded commit, root ontology first
+     * @return the imported ontologies of the loaded commit, or an empty optional if they cannot be
+     *     reused
+     */
+    @Nonnull
+    Optional<List<OWLOntology>> find(
+            @Nonnull String commitHash,
+            @Nonnull TrackedFiles trackedFiles,
+            @Nonnull String loadedCommitHash,
+            @Nonnull TrackedFiles loadedTrackedFiles,
+            @Nonnull List<OWLOntology> loadedOntologies) {
+        var importedOntologies = loadedOntologies.subList(1, loadedOntologies.size());
+        var importFiles = importedOntologies.stream()
+                .map(ontology -> ontology.getOWLOntologyManager().getOntologyDocumentIRI(ontology))
+                .filter(documentIri -> "file".equals(documentIri.getScheme()))
+                .map(documentIri -> Path.of(documentIri.toURI()).normalize())
+                .collect(ImmutableSet.toImmutableSet());
+        try {
+            for (var path : findChangedPaths(loadedCommitHash, commitHash)) {
+                if (trackedFiles.isCatalog(path)
+                        || loadedTrackedFiles.isCatalog(path)
+                        || importFiles.contains(workingDirectory.resolve(trackedFiles.headPath(path)))
+                        || importFiles.contains(workingDirectory.resolve(loadedTrackedFiles.headPath(path)))) {
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(importedOntologies);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug(
+                    "Unable to compare commit {} with commit {}: {}", commitHash, loadedCommitHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the paths of the files that differ between two commits, including both paths of the
+     * renamed files
+     */
+    @Nonnull
+    ImmutableSet<String> findChangedPaths(@Nonnull String commitHash, @Nonnull String otherCommitHash)
+            throws IOException {
+        var commit = revWalk.parseCommit(ObjectId.fromString(commitHash));
+        var otherCommit = revWalk.parseCommit(ObjectId.fromString(otherCommitHash));
+        try (var treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.addTree(commit.getTree());
+            treeWalk.addTree(otherCommit.getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(TreeFilter.ANY_DIFF);
+            var changedPaths = ImmutableSet.<String>builder();
+            while (treeWalk.next()) {
+                changedPaths.add(treeWalk.getPathString());
+            }
+            return changedPaths.build();
+        }
+    }
+
+    @Override
+    public void close() {
+        revWalk.close();
+        git.close();
+    }
+}
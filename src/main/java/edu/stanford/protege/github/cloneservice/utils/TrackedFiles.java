@@ -0,0 +1,152 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * The files of a repository that the ontologies of a commit are loaded from: the ontology file, the
+ * files of its imports closure, and the catalog files next to the ontology file. Paths are relative
+ * to the root of the repository and use {@code /} as separator, like git paths.
+ *
+ * <p>The paths are those of a particular commit. Files that were renamed between that commit and
+ * HEAD are mapped to their paths at HEAD, so that the documents of all commits can be located under
+ * the same paths.
+ *
+ * @param ontologyPath the path of the ontology file
+ * @param importPaths the paths of the files of the imports closure of the ontology
+ * @param headPaths the paths at HEAD of the files that were renamed since the commit, by their paths
+ *     at the commit
+ */
+public record TrackedFiles(
+        @Nonnull String ontologyPath,
+        @Nonnull ImmutableSet<String> importPaths,
+        @Nonnull ImmutableMap<String, String> headPaths) {
+
+    public TrackedFiles {
+        Objects.requireNonNull(ontologyPath, "ontologyPath cannot be null");
+        Objects.requireNonNull(importPaths, "importPaths cannot be null");
+        Objects.requireNonNull(headPaths, "headPaths cannot be null");
+    }
+
+    /** Creates the tracked files of HEAD, where no file has been renamed */
+    public TrackedFiles(@Nonnull String ontologyPath, @Nonnull ImmutableSet<String> importPaths) {
+        this(ontologyPath, importPaths, ImmutableMap.of());
+    }
+
+    /**
+     * Creates the tracked files of an ontology file and its imports closure in a working directory.
+     * Files outside the working directory are left out.
+     *
+     * @param workingDirectory the working directory of the repository
+     * @param ontologyFile the ontology file, in the working directory
+     * @param importFiles the document files of the imports closure of the ontology
+     */
+    @Nonnull
+    public static TrackedFiles of(
+            @Nonnull Path workingDirectory, @Nonnull Path ontologyFile, @Nonnull Collection<Path> importFiles) {
+        var root = workingDirectory.toAbsolutePath().normalize();
+        var ontologyPath = toRepositoryPath(root, ontologyFile.toAbsolutePath().normalize());
+        var importPaths = importFiles.stream()
+                .map(importFile -> importFile.toAbsolutePath().normalize())
+                .filter(importFile -> importFile.startsWith(root))
+                .map(importFile -> toRepositoryPath(root, importFile))
+                .filter(importPath -> !importPath.equals(ontologyPath))
+                .collect(ImmutableSet.toImmutableSet());
+        return new TrackedFiles(ontologyPath, importPaths);
+    }
+
+    private static String toRepositoryPath(Path root, Path file) {
+        return toRepositoryPath(root.relativize(file));
+    }
+
+    /** Converts a path relative to the root of a repository into a repository path */
+    @Nonnull
+    static String toRepositoryPath(@Nonnull Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    /** Returns the path at HEAD of the file with the given path */
+    @Nonnull
+    public String headPath(@Nonnull String path) {
+        return headPaths.getOrDefault(path, path);
+    }
+
+    /** Returns the path of the directory that holds the ontology file and its catalogs */
+    @Nonnull
+    public String ontologyDirectory() {
+        var separator = ontologyPath.lastIndexOf('/');
+        return separator < 0 ? "" : ontologyPath.substring(0, separator);
+    }
+
+    /** Returns the paths of the ontology file and its imports closure */
+    @Nonnull
+    public ImmutableSet<String> paths() {
+        return ImmutableSet.<String>builder()
+                .add(ontologyPath)
+                .addAll(importPaths)
+                .build();
+    }
+
+    /** Returns the glob patterns that match the tracked files, for the file filters of a navigator */
+    @Nonnull
+    public ImmutableList<String> filePatterns() {
+        var ontologyDirectory = ontologyDirectory();
+        var catalogPattern = OntologyLoader.CATALOG_FILE_PATTERN;
+        return ImmutableList.<String>builder()
+                .addAll(paths())
+                .add(ontologyDirectory.isEmpty() ? catalogPattern : ontologyDirectory + "/" + catalogPattern)
+                .build();
+    }
+
+    /** Returns {@code true} if the file with the given repository path is tracked */
+    public boolean matches(@Nonnull String path) {
+        return path.equals(ontologyPath) || importPaths.contains(path) || isCatalog(path);
+    }
+
+    /** Returns {@code true} if the file with the given repository path is a catalog of the ontology file */
+    public boolean isCatalog(@Nonnull String path) {
+        var separator = path.lastIndexOf('/');
+        var directory = separator < 0 ? "" : path.substring(0, separator);
+        return directory.equals(ontologyDirectory()) && OntologyLoader.isCatalogFile(path.substring(separator + 1));
+    }
+
+    /** Returns {@code true} if the directory with the given repository path contains tracked files */
+    public boolean containsTrackedFiles(@Nonnull String directory) {
+        var prefix = directory + "/";
+        var ontologyDirectory = ontologyDirectory();
+        return ontologyDirectory.equals(directory)
+                || ontologyDirectory.startsWith(prefix)
+                || paths().stream().anyMatch(path -> path.startsWith(prefix));
+    }
+
+    /**
+     * Returns the tracked files as they were named before the given renames, to follow the files
+     * backwards through the history. The renamed files keep their paths at HEAD.
+     *
+     * @param renames the previous paths of renamed files, by their current paths
+     */
+    @Nonnull
+    public TrackedFiles renamed(@Nonnull Map<String, String> renames) {
+        if (renames.isEmpty()) {
+            return this;
+        }
+        var renamedHeadPaths = new LinkedHashMap<String, String>(headPaths);
+        renames.keySet().forEach(renamedHeadPaths::remove);
+        renames.forEach((path, previousPath) -> renamedHeadPaths.put(previousPath, headPath(path)));
+        renamedHeadPaths.entrySet().removeIf(entry -> entry.getKey().equals(entry.getValue()));
+        return new TrackedFiles(
+                renames.getOrDefault(ontologyPath, ontologyPath),
+                importPaths.stream()
+                        .map(importPath -> renames.getOrDefault(importPath, importPath))
+                        .collect(ImmutableSet.toImmutableSet()),
+                ImmutableMap.copyOf(renamedHeadPaths));
+    }
+}
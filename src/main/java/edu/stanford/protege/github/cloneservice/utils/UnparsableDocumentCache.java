@@ -0,0 +1,117 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.semanticweb.owlapi.io.UnparsableOntologyException;
+import org.semanticweb.owlapi.model.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the ontology documents that failed to parse during a commit walk, by the hash of their
+ * git blob. A broken ontology file often stays unchanged across many commits until it is fixed,
+ * while the other tracked files keep changing, and each of these commits would otherwise be parsed
+ * again just to fail in the same way.
+ *
+ * <p>Only the failures of the root ontology document are remembered. The root document is parsed
+ * before its imports are resolved, and missing imports are ignored, so a commit with the same root
+ * blob fails in the same way whatever its imports and catalogs are.
+ */
+final class UnparsableDocumentCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnparsableDocumentCache.class);
+
+    private final Git git;
+
+    private final RevWalk revWalk;
+
+    /** The failure reasons of the unparsable root documents, by the hash of their blob */
+    private final Map<ObjectId, String> failures = new HashMap<>();
+
+    private UnparsableDocumentCache(@Nonnull Git git) {
+        this.git = git;
+        this.revWalk = new RevWalk(git.getRepository());
+    }
+
+    /**
+     * Opens a cache for the commits of the repository in the given working directory
+     *
+     * @param workingDirectory the working directory of the cloned repository
+     * @throws IOException if the repository cannot be opened
+     */
+    @Nonnull
+    static UnparsableDocumentCache open(@Nonnull Path workingDirectory) throws IOException {
+        Objects.requireNonNull(workingDirectory, "workingDirectory cannot be null");
+        return new UnparsableDocumentCache(Git.open(workingDirectory.toFile()));
+    }
+
+    /**
+     * Returns the hash of the blob of the ontology file in a commit
+     *
+     * @param commitHash the hash of the commit
+     * @param trackedFiles the tracked files of the commit
+     * @return the hash of the blob, or an empty optional if the commit has no such file or cannot be
+     *     read
+     */
+    @Nonnull
+    Optional<ObjectId> findOntologyBlob(@Nonnull String commitHash, @Nonnull TrackedFiles trackedFiles) {
+        try {
+            var commit = revWalk.parseCommit(ObjectId.fromString(commitHash));
+            try (var treeWalk = TreeWalk.forPath(git.getRepository(), trackedFiles.ontologyPath(), commit.getTree())) {
+                return treeWalk == null ? Optional.empty() : Optional.of(treeWalk.getObjectId(0));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Unable to resolve the ontology blob of commit {}: {}", commitHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Returns the reason why the document with the given blob failed to parse, if it did */
+    @Nonnull
+    Optional<String> findFailure(@Nonnull ObjectId blobId) {
+        return Optional.ofNullable(failures.get(blobId));
+    }
+
+    /**
+     * Returns {@code true} if a failure to load ontologies was caused by a root ontology document that
+     * cannot be parsed, rather than by its imports, its catalog or the file system
+     *
+     * @param ontologyFile the file the root ontology document was loaded from
+     * @param failure the failure to load the ontologies
+     */
+    static boolean isUnparsable(@Nonnull Path ontologyFile, @Nonnull Throwable failure) {
+        var documentIri = IRI.create(ontologyFile.toAbsolutePath().toFile());
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnparsableOntologyException unparsable
+                    && documentIri.equals(unparsable.getDocumentIRI())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remembers that a root ontology document cannot be parsed
+     *
+     * @param blobId the hash of the blob of the document
+     * @param reason the reason to report for the commits with the same document
+     */
+    void recordFailure(@Nonnull ObjectId blobId, @Nonnull String reason) {
+        failures.put(blobId.copy(), reason);
+    }
+
+    @Override
+    public void close() {
+        revWalk.close();
+        git.close();
+    }
+}
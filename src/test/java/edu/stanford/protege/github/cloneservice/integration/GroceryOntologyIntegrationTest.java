@@ -5,15 +5,23 @@ import static org.junit.jupiter.api.Assertions.*;
 import edu.stanford.protege.commitnavigator.GitHubRepository;
 import edu.stanford.protege.commitnavigator.GitHubRepositoryBuilderFactory;
 import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
 import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
 import edu.stanford.protege.github.cloneservice.service.ChangeCommitToRevisionConverter;
 import edu.stanford.protege.github.cloneservice.service.ProjectHistoryConverter;
+import edu.stanford.protege.github.cloneservice.utils.CommitChangeSpillProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitChangeSpiller;
+import edu.stanford.protege.github.cloneservice.utils.CommitHistoryProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitPrefetchProperties;
+import edu.stanford.protege.github.cloneservice.utils.CommitPrefetcher;
+import edu.stanford.protege.github.cloneservice.utils.OntologyDiffExecutor;
 import edu.stanford.protege.github.cloneservice.utils.OntologyDifferenceCalculator;
 import edu.stanford.protege.github.cloneservice.utils.OntologyHistoryAnalyzer;
 import edu.stanford.protege.github.cloneservice.utils.OntologyLoader;
 import edu.stanford.protege.github.cloneservice.utils.OntologyManagerProvider;
 import edu.stanford.protege.webprotege.common.UserId;
 import edu.stanford.protege.webprotege.revision.Revision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -51,6 +59,7 @@ class GroceryOntologyIntegrationTest {
     private static final RelativeFilePath ONTOLOGY_FILE_PATH = new RelativeFilePath("grocery.owl");
 
     private OntologyHistoryAnalyzer historyAnalyzer;
+    private CommitPrefetcher commitPrefetcher;
     private ProjectHistoryConverter projectHistoryConverter;
     private String cloneDirectory;
 
@@ -59,7 +68,16 @@ class GroceryOntologyIntegrationTest {
         var ontologyManagerProvider = new OntologyManagerProvider();
         var ontologyLoader = new OntologyLoader(ontologyManagerProvider);
         var differenceCalculator = new OntologyDifferenceCalculator();
-        historyAnalyzer = new OntologyHistoryAnalyzer(ontologyLoader, differenceCalculator);
+        var pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+        commitPrefetcher =
+                new CommitPrefetcher(new CommitPrefetchProperties(), new CommitHistoryProperties(), pipelineMetrics);
+        historyAnalyzer = new OntologyHistoryAnalyzer(
+                ontologyLoader,
+                differenceCalculator,
+                pipelineMetrics,
+                OntologyDiffExecutor.sequential(),
+                commitPrefetcher,
+                new CommitChangeSpiller(new CommitChangeSpillProperties()));
 
         // Use the new ProjectHistoryConverter which includes the ordering logic
         var changeCommitToRevisionConverter = new ChangeCommitToRevisionConverter();
@@ -69,6 +87,8 @@ class GroceryOntologyIntegrationTest {
 
     @AfterEach
     void tearDown() throws IOException {
+        commitPrefetcher.shutdown();
+
         // Clean up current test's directory
         if (cloneDirectory != null) {
             var path = Path.of(cloneDirectory);
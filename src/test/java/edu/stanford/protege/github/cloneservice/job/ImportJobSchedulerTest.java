@@ -0,0 +1,295 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+/** Unit tests for {@link ImportJobScheduler} */
+@DisplayName("ImportJobScheduler Tests")
+class ImportJobSchedulerTest {
+
+    private ImportJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ImportSchedulerProperties();
+        properties.setClonePoolSize(1);
+        properties.setExtractPoolSize(1);
+        properties.setStorePoolSize(1);
+        scheduler = new ImportJobScheduler(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when properties are null")
+    void throwExceptionWhenPropertiesNull() {
+        assertThrows(NullPointerException.class, () -> new ImportJobScheduler(null));
+    }
+
+    @Test
+    @DisplayName("Complete the future with the result of the task")
+    void completeFutureWithTaskResult() throws Exception {
+        var job = newJob("user");
+
+        var result = scheduler.submit(job, ImportStage.EXTRACT, () -> "done");
+
+        assertEquals("done", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Complete the future exceptionally when the task fails")
+    void completeFutureExceptionallyWhenTaskFails() {
+        var job = newJob("user");
+
+        var result = scheduler.submit(job, ImportStage.STORE, () -> {
+            throw new IllegalStateException("Task failed");
+        });
+
+        var exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Run queued tasks of smaller repositories first")
+    void runQueuedTasksOfSmallerRepositoriesFirst() throws Exception {
+        var executionOrder = new CopyOnWriteArrayList<String>();
+        var release = blockStage(ImportStage.EXTRACT);
+
+        var largeJob = newJob("user-a");
+        largeJob.setEstimatedRepositorySize(1_000_000);
+        var smallJob = newJob("user-b");
+        smallJob.setEstimatedRepositorySize(1_000);
+        var unknownJob = newJob("user-c");
+
+        var futures = List.of(
+                scheduler.submit(unknownJob, ImportStage.EXTRACT, () -> executionOrder.add("unknown")),
+                scheduler.submit(largeJob, ImportStage.EXTRACT, () -> executionOrder.add("large")),
+                scheduler.submit(smallJob, ImportStage.EXTRACT, () -> executionOrder.add("small")));
+        assertEquals(3, scheduler.getQueueDepth(ImportStage.EXTRACT));
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("small", "large", "unknown"), executionOrder);
+    }
+
+    @Test
+    @DisplayName("Run queued tasks of tenants with fewer active jobs first")
+    void runQueuedTasksOfTenantsWithFewerActiveJobsFirst() throws Exception {
+        var executionOrder = new CopyOnWriteArrayList<String>();
+        var release = blockStage(ImportStage.CLONE);
+
+        var busyTenantJobs = List.of(newJob("busy"), newJob("busy"), newJob("busy"));
+        busyTenantJobs.forEach(scheduler::begin);
+        var quietTenantJob = newJob("quiet");
+        scheduler.begin(quietTenantJob);
+
+        var futures = List.of(
+                scheduler.submit(busyTenantJobs.get(0), ImportStage.CLONE, () -> executionOrder.add("busy")),
+                scheduler.submit(quietTenantJob, ImportStage.CLONE, () -> executionOrder.add("quiet")));
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("quiet", "busy"), executionOrder);
+    }
+
+    @Test
+    @DisplayName("Run stages on independent pools")
+    void runStagesOnIndependentPools() throws Exception {
+        var release = blockStage(ImportStage.EXTRACT);
+        try {
+            var result = scheduler.submit(newJob("user"), ImportStage.STORE, () -> "stored");
+
+            assertEquals("stored", result.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Track active jobs between begin and finish")
+    void trackActiveJobsBetweenBeginAndFinish() {
+        var job = newJob("user");
+
+        scheduler.begin(job);
+        scheduler.begin(job);
+        assertEquals(1, scheduler.getActiveJobCount());
+
+        scheduler.finish(job);
+        scheduler.finish(job);
+        assertEquals(0, scheduler.getActiveJobCount());
+    }
+
+    @Test
+    @DisplayName("Find active jobs by operation id")
+    void findActiveJobsByOperationId() {
+        var job = newJob("user");
+
+        scheduler.begin(job);
+        assertEquals(job, scheduler.findActiveJob(job.operationId()).orElseThrow());
+
+        scheduler.finish(job);
+        assertTrue(scheduler.findActiveJob(job.operationId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Interrupt the running task of a cancelled job")
+    void interruptRunningTaskOfCancelledJob() throws Exception {
+        var job = newJob("user");
+        var started = new CountDownLatch(1);
+        var result = scheduler.submit(job, ImportStage.EXTRACT, () -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+                return "not interrupted";
+            } catch (InterruptedException e) {
+                return "interrupted";
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(job.cancel("test"));
+        assertFalse(job.cancel("test again"));
+
+        assertEquals("interrupted", result.get(5, TimeUnit.SECONDS));
+        var nextResult = scheduler.submit(newJob("user"), ImportStage.EXTRACT, () -> Thread.interrupted());
+        assertFalse(nextResult.get(5, TimeUnit.SECONDS), "Interrupt must not leak into the next task");
+    }
+
+    @Test
+    @DisplayName("Fail the queued tasks of a cancelled job without running them")
+    void failQueuedTasksOfCancelledJob() {
+        var job = newJob("user");
+        job.cancel("test");
+
+        var result = scheduler.submit(job, ImportStage.CLONE, () -> "never");
+
+        var exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ImportCancelledException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Cancel a job when its deadline passes")
+    void cancelJobWhenDeadlinePasses() throws Exception {
+        var job = new ImportJob(
+                CreateProjectHistoryFromGitHubRepoOperationId.generate(),
+                ProjectId.generate(),
+                UserId.valueOf("user"),
+                Instant.now().plusMillis(100));
+        scheduler.begin(job);
+
+        var result = scheduler.submit(job, ImportStage.EXTRACT, () -> {
+            try {
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+                return "deadline ignored";
+            } catch (InterruptedException e) {
+                job.checkpoint();
+                return "interrupted";
+            }
+        });
+
+        var exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ImportCancelledException.class, exception.getCause());
+        assertTrue(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Complete the future exceptionally after shutdown")
+    void completeFutureExceptionallyAfterShutdown() {
+        scheduler.shutdown();
+
+        var result = scheduler.submit(newJob("user"), ImportStage.CLONE, () -> "never");
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Run I/O-bound stages on virtual threads when enabled")
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void runIoBoundStagesOnVirtualThreadsWhenEnabled() throws Exception {
+        var virtualScheduler = newVirtualThreadScheduler();
+        try {
+            assertTrue(virtualScheduler.isRunningOnVirtualThreads(ImportStage.CLONE));
+            assertTrue(virtualScheduler.isRunningOnVirtualThreads(ImportStage.UPLOAD));
+            assertFalse(virtualScheduler.isRunningOnVirtualThreads(ImportStage.EXTRACT));
+            assertFalse(virtualScheduler.isRunningOnVirtualThreads(ImportStage.STORE));
+
+            var isVirtual = Thread.class.getMethod("isVirtual");
+            var cloneThreadIsVirtual = virtualScheduler.submit(newJob("user"), ImportStage.CLONE, () -> {
+                try {
+                    return (Boolean) isVirtual.invoke(Thread.currentThread());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(cloneThreadIsVirtual.get(5, TimeUnit.SECONDS));
+        } finally {
+            virtualScheduler.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Fall back to platform threads when virtual threads are not supported")
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void fallBackToPlatformThreadsWhenVirtualThreadsNotSupported() throws Exception {
+        var virtualScheduler = newVirtualThreadScheduler();
+        try {
+            assertFalse(virtualScheduler.isRunningOnVirtualThreads(ImportStage.CLONE));
+            assertFalse(virtualScheduler.isRunningOnVirtualThreads(ImportStage.UPLOAD));
+
+            var result = virtualScheduler.submit(newJob("user"), ImportStage.CLONE, () -> "cloned");
+            assertEquals("cloned", result.get(5, TimeUnit.SECONDS));
+        } finally {
+            virtualScheduler.shutdown();
+        }
+    }
+
+    private static ImportJobScheduler newVirtualThreadScheduler() {
+        var properties = new ImportSchedulerProperties();
+        properties.setVirtualThreadsForIo(true);
+        return new ImportJobScheduler(properties);
+    }
+
+    /** Occupies the single worker of a stage until the returned latch is released */
+    private CountDownLatch blockStage(ImportStage stage) throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        scheduler.submit(newJob("blocker"), stage, () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private static ImportJob newJob(String tenant) {
+        return new ImportJob(
+                CreateProjectHistoryFromGitHubRepoOperationId.generate(), ProjectId.generate(), UserId.valueOf(tenant));
+    }
+}
@@ -0,0 +1,175 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ImportJob} */
+@DisplayName("ImportJob Tests")
+class ImportJobTest {
+
+    @Test
+    @DisplayName("Pass the checkpoint while the job is not cancelled")
+    void passCheckpointWhileNotCancelled() {
+        var job = newJob(null);
+
+        assertDoesNotThrow(job::checkpoint);
+        assertFalse(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Fail the checkpoint once the job is cancelled")
+    void failCheckpointOnceCancelled() {
+        var job = newJob(null);
+
+        job.cancel("Stopped by test");
+
+        var exception = assertThrows(ImportCancelledException.class, job::checkpoint);
+        assertTrue(exception.getMessage().contains("Stopped by test"));
+    }
+
+    @Test
+    @DisplayName("Fail the checkpoint once the deadline has passed")
+    void failCheckpointOnceDeadlinePassed() {
+        var job = newJob(Instant.now().minusSeconds(1));
+
+        assertThrows(ImportCancelledException.class, job::checkpoint);
+        assertTrue(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Notify the cancellation listeners once, and right away after the job was cancelled")
+    void notifyCancellationListeners() {
+        var job = newJob(null);
+        var cancellations = new ArrayList<ImportCancelledException>();
+        job.onCancel(cancellations::add);
+
+        job.cancel("Stopped by test");
+        job.cancel("Stopped again");
+        job.onCancel(cancellations::add);
+
+        assertEquals(2, cancellations.size());
+        assertTrue(cancellations.stream().allMatch(e -> e.getMessage().contains("Stopped by test")));
+    }
+
+    @Test
+    @DisplayName("Record progress reported by the stages")
+    void recordProgressReportedByStages() {
+        var job = newJob(null);
+
+        job.extractionStarted(3);
+        job.commitProcessed("c1", 10);
+        job.commitProcessed("c2", 5);
+        job.bytesSerialized(1024);
+
+        assertEquals(new ImportProgress(2, 3, 15, "c2", 1024), job.progress());
+    }
+
+    @Test
+    @DisplayName("Record the skipped commits in the order in which they were skipped")
+    void recordSkippedCommitsInOrder() {
+        var job = newJob(null);
+
+        job.commitSkipped("c2", "Unable to parse ontology document ontology.owl");
+        job.commitSkipped("c1", "Ontology file does not exist");
+
+        assertEquals(
+                List.of(
+                        new SkippedCommit("c2", "Unable to parse ontology document ontology.owl"),
+                        new SkippedCommit("c1", "Ontology file does not exist")),
+                job.skippedCommits());
+    }
+
+    @Test
+    @DisplayName("Report progress at most once per interval")
+    void reportProgressAtMostOncePerInterval() {
+        var job = newJob(null);
+        var reports = new ArrayList<ImportProgress>();
+        job.reportProgressTo(reports::add, Duration.ofHours(1));
+
+        job.extractionStarted(100);
+        for (int i = 0; i < 50; i++) {
+            job.commitProcessed("c" + i, 1);
+        }
+
+        assertEquals(1, reports.size(), "Only the start of the extraction is reported within the interval");
+        assertEquals(100, reports.get(0).totalCommits());
+    }
+
+    @Test
+    @DisplayName("Report every progress update when the interval is zero")
+    void reportEveryProgressUpdateWhenIntervalZero() {
+        var job = newJob(null);
+        var reports = new ArrayList<ImportProgress>();
+        job.reportProgressTo(reports::add, Duration.ZERO);
+
+        job.commitProcessed("c1", 1);
+        job.commitProcessed("c2", 1);
+
+        assertEquals(2, reports.size());
+        assertEquals("c2", reports.get(1).currentCommitHash());
+    }
+
+    @Test
+    @DisplayName("Count the commits processed on several threads at the same time")
+    void countCommitsProcessedConcurrently() throws Exception {
+        var job = newJob(null);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int thread = 0; thread < 4; thread++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        job.commitProcessed("c" + i, 2);
+                    }
+                    return null;
+                });
+            }
+            for (var task : executor.invokeAll(tasks)) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(40_000, job.progress().commitsProcessed());
+        assertEquals(80_000, job.progress().axiomChanges());
+    }
+
+    @Test
+    @DisplayName("Report the completion of the job with the processed commits as the total")
+    void reportCompletionWithProcessedCommitsAsTotal() {
+        var job = newJob(null);
+        var reports = new ArrayList<ImportProgress>();
+        job.reportProgressTo(reports::add, Duration.ofHours(1));
+        job.extractionStarted(10);
+        job.commitProcessed("c1", 1);
+        job.commitProcessed("c2", 1);
+        job.bytesSerialized(2048);
+
+        assertFalse(job.isProgressReportDue());
+        job.reportCompletion();
+
+        assertEquals(2, reports.size());
+        assertEquals(new ImportProgress(2, 2, 2, "c2", 2048), reports.get(1));
+    }
+
+    private static ImportJob newJob(Instant deadline) {
+        return new ImportJob(
+                CreateProjectHistoryFromGitHubRepoOperationId.generate(),
+                ProjectId.generate(),
+                UserId.valueOf("user"),
+                deadline);
+    }
+}
@@ -0,0 +1,191 @@
+package edu.stanford.protege.github.cloneservice.job;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ImportRequestCoalescer} */
+@DisplayName("ImportRequestCoalescer Tests")
+class ImportRequestCoalescerTest {
+
+    private static final String HEAD_COMMIT = "abc123";
+
+    private MutableClock clock;
+    private ImportRequestCoalescer coalescer;
+    private ImportRequestKey requestKey;
+    private BlobLocation documentLocation;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        var properties = new ImportCoalescingProperties();
+        properties.setResultReuseWindow(Duration.ofMinutes(10));
+        coalescer = new ImportRequestCoalescer(properties, clock);
+        requestKey = new ImportRequestKey(
+                ProjectId.generate(),
+                mock(RepositoryCoordinates.class),
+                new RelativeFilePath("ontology.owl"),
+                HEAD_COMMIT);
+        documentLocation = new BlobLocation("bucket", "project-history.bin");
+    }
+
+    @Test
+    @DisplayName("Register the first request as the running import")
+    void registerFirstRequestAsRunningImport() {
+        var result = coalescer.attachOrRegister(requestKey, newJob(), new CompletableFuture<>());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Attach identical requests to the running import")
+    void attachIdenticalRequestsToRunningImport() {
+        var runningJob = newJob();
+        var runningImport = new CompletableFuture<BlobLocation>();
+        coalescer.attachOrRegister(requestKey, runningJob, runningImport);
+
+        var result = coalescer.attachOrRegister(requestKey, newJob(), new CompletableFuture<>());
+
+        assertTrue(result.isPresent());
+        assertSame(runningJob, result.get().job());
+        assertSame(runningImport, result.get().result());
+    }
+
+    @Test
+    @DisplayName("Register a new running import after the previous one has completed")
+    void registerNewRunningImportAfterPreviousCompleted() {
+        var runningImport = new CompletableFuture<BlobLocation>();
+        coalescer.attachOrRegister(requestKey, newJob(), runningImport);
+        runningImport.completeExceptionally(new IllegalStateException("Import failed"));
+
+        var result = coalescer.attachOrRegister(requestKey, newJob(), new CompletableFuture<>());
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Attach only requests of the same project and HEAD commit to the running import")
+    void attachOnlyRequestsOfSameProjectAndHeadCommit() {
+        coalescer.attachOrRegister(requestKey, newJob(), new CompletableFuture<>());
+        var otherProjectKey = new ImportRequestKey(
+                ProjectId.generate(),
+                requestKey.repositoryCoordinates(),
+                requestKey.targetOntologyFile(),
+                requestKey.headCommit());
+
+        assertTrue(coalescer
+                .attachOrRegister(otherProjectKey, newJob(), new CompletableFuture<>())
+                .isEmpty());
+        assertTrue(coalescer
+                .attachOrRegister(requestKey.withHeadCommit("def456"), newJob(), new CompletableFuture<>())
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reuse a completed import at the same HEAD commit")
+    void reuseCompletedImportAtSameHeadCommit() {
+        coalescer.recordCompletedImport(requestKey, documentLocation);
+        clock.advance(Duration.ofMinutes(5));
+
+        assertEquals(Optional.of(documentLocation), coalescer.findCompletedImport(requestKey));
+    }
+
+    @Test
+    @DisplayName("Do not reuse a completed import at a different HEAD commit")
+    void doNotReuseCompletedImportAtDifferentHeadCommit() {
+        coalescer.recordCompletedImport(requestKey, documentLocation);
+
+        assertTrue(coalescer
+                .findCompletedImport(requestKey.withHeadCommit("def456"))
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Do not reuse a completed import of another project")
+    void doNotReuseCompletedImportOfAnotherProject() {
+        coalescer.recordCompletedImport(requestKey, documentLocation);
+        var otherProjectKey = new ImportRequestKey(
+                ProjectId.generate(),
+                requestKey.repositoryCoordinates(),
+                requestKey.targetOntologyFile(),
+                requestKey.headCommit());
+
+        assertTrue(coalescer.findCompletedImport(otherProjectKey).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Do not reuse a completed import after the reuse window")
+    void doNotReuseCompletedImportAfterReuseWindow() {
+        coalescer.recordCompletedImport(requestKey, documentLocation);
+        clock.advance(Duration.ofMinutes(11));
+
+        assertTrue(coalescer.findCompletedImport(requestKey).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Remove the expired completed imports when an import is recorded")
+    void removeExpiredCompletedImportsWhenImportRecorded() {
+        coalescer.recordCompletedImport(requestKey, documentLocation);
+        clock.advance(Duration.ofMinutes(11));
+
+        coalescer.recordCompletedImport(requestKey.withHeadCommit("def456"), documentLocation);
+
+        assertEquals(1, coalescer.getCompletedImportCount());
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when properties are null")
+    void throwExceptionWhenPropertiesNull() {
+        assertThrows(NullPointerException.class, () -> new ImportRequestCoalescer(null, clock));
+    }
+
+    private static ImportJob newJob() {
+        return new ImportJob(
+                CreateProjectHistoryFromGitHubRepoOperationId.generate(), ProjectId.generate(), UserId.valueOf("user"));
+    }
+
+    /** A clock that only moves when told to */
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
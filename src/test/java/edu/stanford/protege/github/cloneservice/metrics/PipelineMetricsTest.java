@@ -0,0 +1,105 @@
+package edu.stanford.protege.github.cloneservice.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.github.cloneservice.job.ImportSchedulerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link PipelineMetrics} */
+@DisplayName("PipelineMetrics Tests")
+class PipelineMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PipelineMetrics pipelineMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipelineMetrics = new PipelineMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Record the outcome of timed stages")
+    void recordOutcomeOfTimedStages() {
+        assertEquals("result", pipelineMetrics.timeConversion(() -> "result"));
+        assertThrows(
+                IllegalStateException.class,
+                () -> pipelineMetrics.timeUpload(() -> {
+                    throw new IllegalStateException("Upload failed");
+                }));
+
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(PipelineMetrics.CONVERSION_TIMER)
+                        .tag("outcome", "success")
+                        .timer()
+                        .count());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get(PipelineMetrics.UPLOAD_TIMER)
+                        .tag("outcome", "failure")
+                        .timer()
+                        .count());
+    }
+
+    @Test
+    @DisplayName("Tag ontology loads by format and imports")
+    void tagOntologyLoadsByFormatAndImports() {
+        var sample = pipelineMetrics.startOntologyLoad();
+        pipelineMetrics.stopOntologyLoad(sample, "OBO Format", false, true);
+
+        var timer = meterRegistry
+                .get(PipelineMetrics.ONTOLOGY_LOAD_TIMER)
+                .tags("format", "OBO Format", "imports", "without", "outcome", "success")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    @DisplayName("Record the number of axiom changes of each diff")
+    void recordAxiomChangesOfEachDiff() {
+        pipelineMetrics.timeDiff(() -> List.of("a", "b", "c"));
+
+        var summary = meterRegistry.get(PipelineMetrics.DIFF_AXIOM_CHANGES).summary();
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Count skipped commits")
+    void countSkippedCommits() {
+        pipelineMetrics.countSkippedCommit();
+        pipelineMetrics.countSkippedCommit();
+
+        assertEquals(
+                2, meterRegistry.get(PipelineMetrics.SKIPPED_COMMITS).counter().count());
+    }
+
+    @Test
+    @DisplayName("Expose scheduler state as gauges")
+    void exposeSchedulerStateAsGauges() {
+        var scheduler = new ImportJobScheduler(new ImportSchedulerProperties());
+        try {
+            pipelineMetrics.bindTo(scheduler);
+
+            assertEquals(
+                    0, meterRegistry.get(PipelineMetrics.ACTIVE_JOBS).gauge().value());
+            assertEquals(
+                    0,
+                    meterRegistry
+                            .get(PipelineMetrics.QUEUE_DEPTH)
+                            .tag("stage", "extract")
+                            .gauge()
+                            .value());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
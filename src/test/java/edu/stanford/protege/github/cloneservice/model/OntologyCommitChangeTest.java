@@ -4,10 +4,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 
 import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /** Unit tests for {@link OntologyCommitChange} record */
 @DisplayName("OntologyCommitChange Tests")
@@ -71,4 +75,20 @@ class OntologyCommitChangeTest {
         assertEquals(emptyAxiomChanges, ontologyCommitChange.axiomChanges());
         assertTrue(ontologyCommitChange.axiomChanges().isEmpty());
     }
+
+    @Test
+    @DisplayName("Should keep spilled axiom changes without copying them onto the heap")
+    void keepSpilledAxiomChangesWithoutCopying(@TempDir Path directory) throws Exception {
+        try (var scratchFile = new SpillFile(FileChannel.open(
+                directory.resolve("changes.spill"),
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE))) {
+            var spilledChanges = SpilledAxiomChanges.write(scratchFile, SpilledAxiomChangesTest.createAxiomChanges(3));
+
+            var ontologyCommitChange = new OntologyCommitChange(spilledChanges, mockCommitMetadata, mockRepositoryUrl);
+
+            assertSame(spilledChanges, ontologyCommitChange.axiomChanges());
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package edu.stanford.protege.github.cloneservice.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/** Unit tests for {@link SpilledAxiomChanges} */
+@DisplayName("SpilledAxiomChanges Tests")
+class SpilledAxiomChangesTest {
+
+    @TempDir
+    Path directory;
+
+    private SpillFile scratchFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        scratchFile = new SpillFile(FileChannel.open(
+                directory.resolve("changes.spill"),
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        scratchFile.close();
+    }
+
+    @Test
+    @DisplayName("Read back the written changes in order")
+    void readBackWrittenChanges() throws Exception {
+        var axiomChanges = createAxiomChanges(SpilledAxiomChanges.CHUNK_SIZE * 2 + 10);
+
+        var spilledChanges = SpilledAxiomChanges.write(scratchFile, axiomChanges);
+
+        assertEquals(axiomChanges.size(), spilledChanges.size());
+        assertEquals(axiomChanges, new ArrayList<>(spilledChanges));
+        assertEquals(axiomChanges, spilledChanges.stream().toList());
+        assertEquals(
+                axiomChanges.get(SpilledAxiomChanges.CHUNK_SIZE + 3),
+                spilledChanges.get(SpilledAxiomChanges.CHUNK_SIZE + 3));
+    }
+
+    @Test
+    @DisplayName("Keep the changes of several lists apart in the same scratch file")
+    void keepListsApartInSameScratchFile() throws Exception {
+        var firstChanges = createAxiomChanges(5);
+        var secondChanges = createAxiomChanges(7).subList(2, 7);
+
+        var firstSpilledChanges = SpilledAxiomChanges.write(scratchFile, firstChanges);
+        var secondSpilledChanges = SpilledAxiomChanges.write(scratchFile, secondChanges);
+
+        assertEquals(firstChanges, firstSpilledChanges);
+        assertEquals(secondChanges, secondSpilledChanges);
+    }
+
+    @Test
+    @DisplayName("Append the chunks of several lists to one mapped region")
+    void appendChunksToOneMappedRegion() throws Exception {
+        var axiomChanges = createAxiomChanges(10);
+
+        var spilledChanges = new ArrayList<SpilledAxiomChanges>();
+        for (int i = 0; i < 100; i++) {
+            spilledChanges.add(SpilledAxiomChanges.write(scratchFile, axiomChanges));
+        }
+
+        assertEquals(1, scratchFile.mappedRegions());
+        spilledChanges.forEach(changes -> assertEquals(axiomChanges, changes));
+    }
+
+    @Test
+    @DisplayName("Map regions that double in size as the scratch file grows")
+    void mapGrowingRegions() throws Exception {
+        // A chunk of changes takes about as much as the first region
+        var axiomChanges = createAxiomChanges(SpilledAxiomChanges.CHUNK_SIZE);
+
+        var spilledChanges = new ArrayList<SpilledAxiomChanges>();
+        for (int i = 0; i < 30; i++) {
+            spilledChanges.add(SpilledAxiomChanges.write(scratchFile, axiomChanges));
+        }
+
+        // A mapping per chunk would take 30 mappings, and doubling regions take about log2(30)
+        assertTrue(scratchFile.mappedRegions() <= 6, "Mapped regions: " + scratchFile.mappedRegions());
+        spilledChanges.forEach(changes -> assertEquals(axiomChanges, changes));
+    }
+
+    @Test
+    @DisplayName("Read the changes after the scratch file is closed and deleted")
+    void readChangesAfterScratchFileClosedAndDeleted() throws Exception {
+        var axiomChanges = createAxiomChanges(20);
+        var spilledChanges = SpilledAxiomChanges.write(scratchFile, axiomChanges);
+
+        scratchFile.close();
+        Files.delete(directory.resolve("changes.spill"));
+
+        assertEquals(axiomChanges, spilledChanges);
+    }
+
+    @Test
+    @DisplayName("Read the changes from several threads at the same time")
+    void readChangesConcurrently() throws Exception {
+        var axiomChanges = createAxiomChanges(SpilledAxiomChanges.CHUNK_SIZE + 100);
+        var spilledChanges = SpilledAxiomChanges.write(scratchFile, axiomChanges);
+
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var reads = new ArrayList<Callable<List<AxiomChange>>>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(() -> spilledChanges.stream().toList());
+            }
+            for (var read : executor.invokeAll(reads)) {
+                assertEquals(axiomChanges, read.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Write an empty list of changes")
+    void writeEmptyList() throws Exception {
+        var spilledChanges = SpilledAxiomChanges.write(scratchFile, List.of());
+
+        assertTrue(spilledChanges.isEmpty());
+        assertFalse(spilledChanges.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> spilledChanges.get(0));
+    }
+
+    @Test
+    @DisplayName("Reject modifications")
+    void rejectModifications() throws Exception {
+        var axiomChanges = createAxiomChanges(3);
+        var spilledChanges = SpilledAxiomChanges.write(scratchFile, axiomChanges);
+
+        assertThrows(UnsupportedOperationException.class, () -> spilledChanges.add(axiomChanges.get(0)));
+        assertThrows(UnsupportedOperationException.class, () -> spilledChanges.remove(0));
+    }
+
+    static List<AxiomChange> createAxiomChanges(int count) {
+        var dataFactory = new OWLDataFactoryImpl();
+        var ontologyId = new OWLOntologyID(IRI.create("http://example.org/ontology.owl"));
+        return IntStream.range(0, count)
+                .mapToObj(index -> {
+                    var axiom = dataFactory.getOWLSubClassOfAxiom(
+                            dataFactory.getOWLClass(IRI.create("http://example.org/C" + index)),
+                            dataFactory.getOWLClass(IRI.create("http://example.org/D" + index)));
+                    return index % 3 == 0
+                            ? AxiomChange.removeAxiom(axiom, ontologyId)
+                            : AxiomChange.addAxiom(axiom, ontologyId);
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,61 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link ImportProfileRegistry} */
+@DisplayName("ImportProfileRegistry Tests")
+class ImportProfileRegistryTest {
+
+    @Test
+    @DisplayName("Do not profile imports when profiling is disabled")
+    void doNotProfileWhenDisabled() {
+        var registry = new ImportProfileRegistry(new ImportProfilingProperties());
+        var operationId = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+
+        var profiler = registry.startProfiling(operationId, ProjectId.generate(), UserId.valueOf("user"));
+
+        assertSame(ImportProfiler.NONE, profiler);
+        assertTrue(registry.findProfiler(operationId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Find the profiler of a profiled import")
+    void findProfilerOfProfiledImport() {
+        var registry = new ImportProfileRegistry(enabledProperties(10));
+        var operationId = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+
+        var profiler = registry.startProfiling(operationId, ProjectId.generate(), UserId.valueOf("user"));
+
+        assertSame(profiler, registry.findProfiler(operationId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Only keep the profilers of the most recent imports")
+    void keepOnlyMostRecentProfilers() {
+        var registry = new ImportProfileRegistry(enabledProperties(2));
+        var first = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+        var second = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+        var third = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+
+        registry.startProfiling(first, ProjectId.generate(), UserId.valueOf("user"));
+        registry.startProfiling(second, ProjectId.generate(), UserId.valueOf("user"));
+        registry.startProfiling(third, ProjectId.generate(), UserId.valueOf("user"));
+
+        assertTrue(registry.findProfiler(first).isEmpty());
+        assertTrue(registry.findProfiler(second).isPresent());
+        assertTrue(registry.findProfiler(third).isPresent());
+    }
+
+    private static ImportProfilingProperties enabledProperties(int retainedReports) {
+        var properties = new ImportProfilingProperties();
+        properties.setEnabled(true);
+        properties.setRetainedReports(retainedReports);
+        return properties;
+    }
+}
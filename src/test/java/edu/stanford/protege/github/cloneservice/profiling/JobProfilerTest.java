@@ -0,0 +1,126 @@
+package edu.stanford.protege.github.cloneservice.profiling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.stanford.protege.github.cloneservice.service.CreateProjectHistoryFromGitHubRepoOperationId;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link JobProfiler} */
+@DisplayName("JobProfiler Tests")
+class JobProfilerTest {
+
+    private JobProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        profiler = new JobProfiler(
+                CreateProjectHistoryFromGitHubRepoOperationId.generate(), ProjectId.generate(), UserId.valueOf("user"));
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when operation id is null")
+    void throwExceptionWhenOperationIdNull() {
+        assertThrows(
+                NullPointerException.class, () -> new JobProfiler(null, ProjectId.generate(), UserId.valueOf("user")));
+    }
+
+    @Test
+    @DisplayName("Aggregate the runs of each stage")
+    void aggregateRunsOfEachStage() {
+        profiler.start(ProfiledStage.LOAD, "commit-1").stop(100);
+        profiler.start(ProfiledStage.LOAD, "commit-2").stop(150);
+        profiler.start(ProfiledStage.DIFF, "commit-1").stop(7);
+
+        var report = profiler.report();
+
+        assertEquals(2, report.stages().size());
+        var load = report.stages().get(0);
+        assertEquals(ProfiledStage.LOAD, load.stage());
+        assertEquals(2, load.count());
+        assertEquals(250, load.axiomCount());
+        assertTrue(load.maxTime().compareTo(load.totalTime()) <= 0);
+        assertTrue(load.slowestCommitHash().startsWith("commit-"));
+        var diff = report.stages().get(1);
+        assertEquals(ProfiledStage.DIFF, diff.stage());
+        assertEquals(1, diff.count());
+        assertEquals(7, diff.axiomCount());
+    }
+
+    @Test
+    @DisplayName("Attribute the allocations of the current thread to the running stage")
+    void attributeAllocationsToRunningStage() {
+        var sample = profiler.start(ProfiledStage.SERIALIZE, "commit-1");
+        var allocations = new ArrayList<byte[]>();
+        for (int i = 0; i < 16; i++) {
+            allocations.add(new byte[64 * 1024]);
+        }
+        sample.stop(allocations.size());
+
+        var serialize = profiler.report().stages().get(0);
+
+        // The HotSpot thread allocation counter is available on all supported JVMs
+        assertTrue(serialize.allocatedBytes() >= 16 * 64 * 1024, "Allocated " + serialize.allocatedBytes());
+    }
+
+    @Test
+    @DisplayName("Emit a JFR event for each stage run")
+    void emitJfrEventForEachStageRun() throws Exception {
+        var recordingFile = Files.createTempFile("job-profiler-", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("webprotege.import.OntologyDiff");
+            recording.start();
+            profiler.start(ProfiledStage.DIFF, "commit-1").stop(42);
+            recording.stop();
+            recording.dump(recordingFile);
+
+            var events = RecordingFile.readAllEvents(recordingFile);
+
+            assertEquals(1, events.size());
+            var event = events.get(0);
+            assertEquals(profiler.operationId().operationId(), event.getString("operationId"));
+            assertEquals("commit-1", event.getString("commitHash"));
+            assertEquals(42, event.getLong("axiomCount"));
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    @Test
+    @DisplayName("Freeze the report and keep the document location when the import finishes")
+    void freezeReportWhenImportFinishes() throws Exception {
+        var location = new BlobLocation("bucket", "history.bin");
+        assertFalse(profiler.report().finished());
+
+        profiler.finish(location);
+        var elapsed = profiler.report().elapsed();
+        Thread.sleep(20);
+
+        assertTrue(profiler.report().finished());
+        assertEquals(elapsed, profiler.report().elapsed());
+        assertEquals(location, profiler.historyDocumentLocation().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Format the report as a table with one row per stage")
+    void formatReportAsTable() {
+        profiler.start(ProfiledStage.CLONE, null).stop(0);
+        profiler.start(ProfiledStage.LOAD, "abc123").stop(10);
+
+        var formatted = profiler.report().format();
+
+        assertTrue(formatted.contains(profiler.operationId().operationId()));
+        assertTrue(formatted.contains("CLONE"));
+        assertTrue(formatted.contains("LOAD"));
+        assertTrue(formatted.contains("abc123"));
+        assertTrue(formatted.contains("GC"));
+    }
+}
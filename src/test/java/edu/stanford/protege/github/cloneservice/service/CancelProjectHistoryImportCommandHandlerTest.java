@@ -0,0 +1,169 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import edu.stanford.protege.webprotege.ipc.CommandExecutionException;
+import edu.stanford.protege.webprotege.ipc.ExecutionContext;
+import java.util.ArrayList;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+/** Unit tests for {@link CancelProjectHistoryImportCommandHandler} */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CancelProjectHistoryImportCommandHandler Tests")
+class CancelProjectHistoryImportCommandHandlerTest {
+
+    private static final UserId REQUESTER = UserId.valueOf("test-user");
+
+    private CancelProjectHistoryImportCommandHandler commandHandler;
+
+    @Mock
+    private ImportJobScheduler importJobScheduler;
+
+    @Mock
+    private ExecutionContext executionContext;
+
+    private ProjectId projectId;
+
+    private CreateProjectHistoryFromGitHubRepoOperationId operationId;
+
+    @BeforeEach
+    void setUp() {
+        commandHandler = new CancelProjectHistoryImportCommandHandler(importJobScheduler);
+        projectId = ProjectId.generate();
+        operationId = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+        lenient().when(executionContext.userId()).thenReturn(REQUESTER);
+    }
+
+    @Test
+    @DisplayName("handleRequest should cancel the running import")
+    void handleRequestShouldCancelRunningImport() {
+        // Arrange
+        var job = new ImportJob(operationId, projectId, REQUESTER);
+        when(importJobScheduler.findActiveJob(operationId)).thenReturn(Optional.of(job));
+
+        // Act
+        var response = commandHandler
+                .handleRequest(new CancelProjectHistoryImportRequest(projectId, operationId), executionContext)
+                .block();
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(operationId, response.operationId());
+        assertTrue(response.cancelled());
+        assertTrue(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("handleRequest should report that no import was cancelled for an unknown operation")
+    void handleRequestShouldReportNoCancellationForUnknownOperation() {
+        // Arrange
+        when(importJobScheduler.findActiveJob(operationId)).thenReturn(Optional.empty());
+
+        // Act
+        var response = commandHandler
+                .handleRequest(new CancelProjectHistoryImportRequest(projectId, operationId), executionContext)
+                .block();
+
+        // Assert
+        assertNotNull(response);
+        assertFalse(response.cancelled());
+    }
+
+    @Test
+    @DisplayName("handleRequest should reject the cancellation of the import of another user")
+    void handleRequestShouldRejectCancellationOfImportOfAnotherUser() {
+        // Arrange
+        var job = new ImportJob(operationId, projectId, UserId.valueOf("other-user"));
+        when(importJobScheduler.findActiveJob(operationId)).thenReturn(Optional.of(job));
+
+        // Act
+        var result = commandHandler.handleRequest(
+                new CancelProjectHistoryImportRequest(projectId, operationId), executionContext);
+
+        // Assert
+        var exception = assertThrows(CommandExecutionException.class, result::block);
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
+        assertFalse(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("handleRequest should reject the cancellation of an import of another project")
+    void handleRequestShouldRejectCancellationOfImportOfAnotherProject() {
+        // Arrange
+        var job = new ImportJob(operationId, projectId, REQUESTER);
+        when(importJobScheduler.findActiveJob(operationId)).thenReturn(Optional.of(job));
+
+        // Act
+        var result = commandHandler.handleRequest(
+                new CancelProjectHistoryImportRequest(ProjectId.generate(), operationId), executionContext);
+
+        // Assert
+        assertThrows(CommandExecutionException.class, result::block);
+        assertFalse(job.isCancelled());
+    }
+
+    @Test
+    @DisplayName("handleRequest should cancel only the attached request and not the shared import")
+    void handleRequestShouldCancelOnlyAttachedRequest() {
+        // Arrange
+        var sharedJob = new ImportJob(operationId, projectId, REQUESTER);
+        var attachedJob = new ImportJob(CreateProjectHistoryFromGitHubRepoOperationId.generate(), projectId, REQUESTER);
+        sharedJob.attachRequest();
+        when(importJobScheduler.findActiveJob(attachedJob.operationId())).thenReturn(Optional.of(attachedJob));
+
+        // Act
+        var response = commandHandler
+                .handleRequest(
+                        new CancelProjectHistoryImportRequest(projectId, attachedJob.operationId()), executionContext)
+                .block();
+
+        // Assert
+        assertNotNull(response);
+        assertTrue(response.cancelled());
+        assertTrue(attachedJob.isCancelled());
+        assertFalse(sharedJob.isCancelled());
+    }
+
+    @Test
+    @DisplayName("handleRequest should detach the request that started a shared import without cancelling it")
+    void handleRequestShouldDetachRequestThatStartedSharedImport() {
+        // Arrange
+        var sharedJob = new ImportJob(operationId, projectId, REQUESTER);
+        var cancellations = new ArrayList<ImportCancelledException>();
+        sharedJob.onCancel(cancellations::add);
+        sharedJob.attachRequest();
+        when(importJobScheduler.findActiveJob(operationId)).thenReturn(Optional.of(sharedJob));
+
+        // Act
+        var response = commandHandler
+                .handleRequest(new CancelProjectHistoryImportRequest(projectId, operationId), executionContext)
+                .block();
+
+        // Assert - the import keeps running for the attached request, until it is detached as well
+        assertNotNull(response);
+        assertTrue(response.cancelled());
+        assertEquals(1, cancellations.size());
+        assertFalse(sharedJob.isCancelled());
+        sharedJob.detachRequest();
+        assertTrue(sharedJob.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Constructor should throw NullPointerException when scheduler is null")
+    void constructorShouldThrowExceptionWhenSchedulerNull() {
+        assertThrows(NullPointerException.class, () -> new CancelProjectHistoryImportCommandHandler(null));
+    }
+}
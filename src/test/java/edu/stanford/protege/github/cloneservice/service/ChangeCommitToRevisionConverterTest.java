@@ -65,7 +65,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         assertNotNull(result);
@@ -96,7 +96,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         var ontologyChanges = result.getChanges();
@@ -125,7 +125,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         var ontologyChanges = result.getChanges();
@@ -153,7 +153,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         assertNotNull(result);
@@ -162,8 +162,8 @@ class ChangeCommitToRevisionConverterTest {
     }
 
     @Test
-    @DisplayName("Generate sequential revision numbers")
-    void generateSequentialRevisionNumbers() {
+    @DisplayName("Use the given revision number")
+    void useGivenRevisionNumber() {
         // Arrange
         var username = "testuser";
         var commitMessage = "Test commit";
@@ -176,20 +176,15 @@ class ChangeCommitToRevisionConverterTest {
 
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
-        // Act
-        var result1 = converter.convert(ontologyCommitChange);
-        var result2 = converter.convert(ontologyCommitChange);
-        var result3 = converter.convert(ontologyCommitChange);
+        // Act - convert out of order, as parallel or concurrent conversions would
+        var result1 = converter.convert(ontologyCommitChange, 3);
+        var result2 = converter.convert(ontologyCommitChange, 1);
+        var result3 = converter.convert(ontologyCommitChange, 2);
 
-        // Assert
-        var revisionNumber1 = result1.getRevisionNumber().getValue();
-        var revisionNumber2 = result2.getRevisionNumber().getValue();
-        var revisionNumber3 = result3.getRevisionNumber().getValue();
-
-        assertTrue(revisionNumber2 > revisionNumber1);
-        assertTrue(revisionNumber3 > revisionNumber2);
-        assertEquals(2, revisionNumber2);
-        assertEquals(3, revisionNumber3);
+        // Assert - the numbering is not shared between conversions
+        assertEquals(3, result1.getRevisionNumber().getValue());
+        assertEquals(1, result2.getRevisionNumber().getValue());
+        assertEquals(2, result3.getRevisionNumber().getValue());
     }
 
     @Test
@@ -208,7 +203,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         assertEquals(commitDate.toEpochMilli(), result.getTimestamp());
@@ -234,7 +229,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         var ontologyChanges = result.getChanges();
@@ -261,7 +256,7 @@ class ChangeCommitToRevisionConverterTest {
         var ontologyCommitChange = new OntologyCommitChange(axiomChanges, commitMetadata, REPOSITORY_URL);
 
         // Act
-        var result = converter.convert(ontologyCommitChange);
+        var result = converter.convert(ontologyCommitChange, 1);
 
         // Assert
         assertEquals(UserId.valueOf(username), result.getUserId());
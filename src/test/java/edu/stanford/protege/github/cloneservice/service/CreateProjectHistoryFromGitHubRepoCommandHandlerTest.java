@@ -4,18 +4,40 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.event.CreateProjectHistoryFromGitHubRepoFailedEvent;
+import edu.stanford.protege.github.cloneservice.event.CreateProjectHistoryFromGitHubRepoSucceededEvent;
+import edu.stanford.protege.github.cloneservice.event.GitHubCloneRepositoryFailedEvent;
+import edu.stanford.protege.github.cloneservice.event.GitHubProjectHistoryImportFailedEvent;
+import edu.stanford.protege.github.cloneservice.event.GitHubProjectHistoryImportRejectedEvent;
+import edu.stanford.protege.github.cloneservice.event.GitHubProjectHistoryImportSizeWarningEvent;
+import edu.stanford.protege.github.cloneservice.event.GitHubProjectHistoryStoreFailedEvent;
+import edu.stanford.protege.github.cloneservice.job.ImportCoalescingProperties;
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import edu.stanford.protege.github.cloneservice.job.ImportJobScheduler;
+import edu.stanford.protege.github.cloneservice.job.ImportProgressProperties;
+import edu.stanford.protege.github.cloneservice.job.ImportRequestCoalescer;
+import edu.stanford.protege.github.cloneservice.job.ImportRequestKey;
+import edu.stanford.protege.github.cloneservice.job.ImportStage;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
 import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfileRegistry;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfilingProperties;
 import edu.stanford.protege.github.cloneservice.utils.OntologyHistoryAnalyzer;
 import edu.stanford.protege.webprotege.common.BlobLocation;
 import edu.stanford.protege.webprotege.common.ProjectId;
 import edu.stanford.protege.webprotege.common.UserId;
 import edu.stanford.protege.webprotege.ipc.EventDispatcher;
 import edu.stanford.protege.webprotege.ipc.ExecutionContext;
-import java.util.concurrent.Executor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
@@ -37,14 +59,19 @@ class CreateProjectHistoryFromGitHubRepoCommandHandlerTest {
     private EventDispatcher eventDispatcher;
 
     @Mock
-    private Executor executor;
+    private ImportJobScheduler importJobScheduler;
 
     @Mock
     private ExecutionContext executionContext;
 
+    @Mock
+    private ImportPreflight importPreflight;
+
     @Mock
     private RepositoryCoordinates repositoryCoordinates;
 
+    private ImportRequestCoalescer importRequestCoalescer;
+
     private ProjectId testProjectId;
     private UserId testUserId;
     private BlobLocation testBlobLocation;
@@ -53,8 +80,17 @@ class CreateProjectHistoryFromGitHubRepoCommandHandlerTest {
 
     @BeforeEach
     void setUp() {
+        importRequestCoalescer = new ImportRequestCoalescer(new ImportCoalescingProperties(), Clock.systemUTC());
         commandHandler = new CreateProjectHistoryFromGitHubRepoCommandHandler(
-                ontologyHistoryAnalyzer, projectHistoryStorer, eventDispatcher, executor);
+                ontologyHistoryAnalyzer,
+                projectHistoryStorer,
+                eventDispatcher,
+                importJobScheduler,
+                importRequestCoalescer,
+                new ImportProgressProperties(),
+                new PipelineMetrics(new SimpleMeterRegistry()),
+                new ImportProfileRegistry(new ImportProfilingProperties()),
+                ImportPreflight.disabled());
         testProjectId = ProjectId.valueOf("12345678-1234-1234-1234-123456789012");
         testUserId = UserId.valueOf("test-user");
         testBlobLocation = new BlobLocation("test-bucket", "test/path/document.json");
@@ -62,6 +98,9 @@ class CreateProjectHistoryFromGitHubRepoCommandHandlerTest {
 
         testRequest = new CreateProjectHistoryFromGitHubRepoRequest(
                 testProjectId, repositoryCoordinates, testTargetOntologyFile);
+
+        // Keep the asynchronous stages pending so that no repository is cloned
+        lenient().when(importJobScheduler.submit(any(), any(), any())).thenReturn(new CompletableFuture<>());
     }
 
     @Test
@@ -131,4 +170,322 @@ class CreateProjectHistoryFromGitHubRepoCommandHandlerTest {
         assertEquals(response1.projectId(), response2.projectId());
         assertEquals(response1.repositoryCoordinates(), response2.repositoryCoordinates());
     }
+
+    @Test
+    @DisplayName("handleRequest should register the import job and schedule the clone stage")
+    void handleRequestShouldRegisterImportJobAndScheduleCloneStage() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+
+        // Act
+        var response =
+                commandHandler.handleRequest(testRequest, executionContext).block();
+
+        // Assert
+        assertNotNull(response);
+        verify(importJobScheduler)
+                .begin(argThat((ImportJob job) -> job.operationId().equals(response.operationId())
+                        && job.tenantId().equals(testUserId)
+                        && job.projectId().equals(testProjectId)));
+        verify(importJobScheduler).submit(any(), eq(ImportStage.CLONE), any());
+        verify(importJobScheduler, never()).finish(any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should attach identical requests to the running import")
+    void handleRequestShouldAttachIdenticalRequestsToRunningImport() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("head");
+        var handler = commandHandler();
+
+        // Act
+        handler.handleRequest(testRequest, executionContext).block();
+        var attachedResponse =
+                handler.handleRequest(testRequest, executionContext).block();
+
+        // Assert - only the first request clones the repository, and the attached one stays active
+        // until the running import completes
+        assertNotNull(attachedResponse);
+        verify(importJobScheduler, times(1)).submit(any(), eq(ImportStage.CLONE), any());
+        verify(importJobScheduler, never()).finish(any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should fail an attached request past its deadline without cancelling the import")
+    void handleRequestShouldFailAttachedRequestPastItsDeadline() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("head");
+        var handler = commandHandler();
+        var timedRequest = new CreateProjectHistoryFromGitHubRepoRequest(
+                testProjectId, repositoryCoordinates, testTargetOntologyFile, 60L);
+        var jobs = ArgumentCaptor.forClass(ImportJob.class);
+
+        // Act - the deadline timer of the scheduler cancels the attached job
+        var runningResponse =
+                handler.handleRequest(testRequest, executionContext).block();
+        var attachedResponse =
+                handler.handleRequest(timedRequest, executionContext).block();
+        verify(importJobScheduler, times(2)).begin(jobs.capture());
+        var runningJob = jobs.getAllValues().get(0);
+        var attachedJob = jobs.getAllValues().get(1);
+        attachedJob.cancel("Deadline exceeded");
+
+        // Assert
+        assertNotNull(runningResponse);
+        assertNotNull(attachedResponse);
+        assertFalse(runningJob.isCancelled());
+        verify(importJobScheduler).finish(attachedJob);
+        verify(importJobScheduler, never()).finish(runningJob);
+        verify(eventDispatcher)
+                .dispatchEvent(argThat(event -> event instanceof CreateProjectHistoryFromGitHubRepoFailedEvent failed
+                        && failed.operationId().equals(attachedResponse.operationId())));
+        verify(eventDispatcher, never())
+                .dispatchEvent(argThat(event -> event instanceof CreateProjectHistoryFromGitHubRepoFailedEvent failed
+                        && failed.operationId().equals(runningResponse.operationId())));
+    }
+
+    @Test
+    @DisplayName("handleRequest should fail only the request that started a shared import when it is cancelled")
+    void handleRequestShouldFailOnlyCancelledRequestOfSharedImport() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("head");
+        var handler = commandHandler();
+        var jobs = ArgumentCaptor.forClass(ImportJob.class);
+
+        // Act
+        var runningResponse =
+                handler.handleRequest(testRequest, executionContext).block();
+        var attachedResponse =
+                handler.handleRequest(testRequest, executionContext).block();
+        verify(importJobScheduler, times(2)).begin(jobs.capture());
+        var runningJob = jobs.getAllValues().get(0);
+        var cancelled = runningJob.cancelRequest("Cancelled by test");
+
+        // Assert - the import keeps running for the attached request
+        assertNotNull(runningResponse);
+        assertNotNull(attachedResponse);
+        assertTrue(cancelled);
+        assertFalse(runningJob.isCancelled());
+        verify(eventDispatcher)
+                .dispatchEvent(argThat(event -> event instanceof CreateProjectHistoryFromGitHubRepoFailedEvent failed
+                        && failed.operationId().equals(runningResponse.operationId())));
+        verify(eventDispatcher, never())
+                .dispatchEvent(argThat(event -> event instanceof CreateProjectHistoryFromGitHubRepoFailedEvent failed
+                        && failed.operationId().equals(attachedResponse.operationId())));
+    }
+
+    @Test
+    @DisplayName("handleRequest should start separate imports for identical requests of different projects")
+    void handleRequestShouldStartSeparateImportsForDifferentProjects() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("head");
+        var handler = commandHandler();
+        var otherProjectRequest = new CreateProjectHistoryFromGitHubRepoRequest(
+                ProjectId.valueOf("87654321-4321-4321-4321-210987654321"),
+                repositoryCoordinates,
+                testTargetOntologyFile);
+
+        // Act
+        handler.handleRequest(testRequest, executionContext).block();
+        handler.handleRequest(otherProjectRequest, executionContext).block();
+
+        // Assert
+        verify(importJobScheduler, times(2)).submit(any(), eq(ImportStage.CLONE), any());
+        verify(importJobScheduler, never()).finish(any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should start separate imports for different target files")
+    void handleRequestShouldStartSeparateImportsForDifferentTargetFiles() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("head");
+        var handler = commandHandler();
+        var otherFileRequest = new CreateProjectHistoryFromGitHubRepoRequest(
+                testProjectId, repositoryCoordinates, new RelativeFilePath("other-ontology.owl"));
+
+        // Act
+        handler.handleRequest(testRequest, executionContext).block();
+        handler.handleRequest(otherFileRequest, executionContext).block();
+
+        // Assert
+        verify(importJobScheduler, times(2)).begin(any());
+        verify(importJobScheduler, times(2)).submit(any(), eq(ImportStage.CLONE), any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should reuse a completed import at the same HEAD commit without cloning")
+    void handleRequestShouldReuseCompletedImportWithoutCloning() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("head");
+        importRequestCoalescer.recordCompletedImport(
+                new ImportRequestKey(testProjectId, repositoryCoordinates, testTargetOntologyFile, "head"),
+                testBlobLocation);
+
+        // Act
+        var response =
+                commandHandler().handleRequest(testRequest, executionContext).block();
+
+        // Assert
+        assertNotNull(response);
+        verify(importJobScheduler, never()).submit(any(), eq(ImportStage.CLONE), any());
+        verify(importJobScheduler).finish(any());
+        verify(eventDispatcher)
+                .dispatchEvent(
+                        argThat(event -> event instanceof CreateProjectHistoryFromGitHubRepoSucceededEvent succeeded
+                                && succeeded.operationId().equals(response.operationId())
+                                && succeeded.documentLocation().equals(testBlobLocation)));
+    }
+
+    @Test
+    @DisplayName("handleRequest should not reuse a completed import at another HEAD commit")
+    void handleRequestShouldNotReuseCompletedImportAtAnotherHeadCommit() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenHeadCommit("moved");
+        importRequestCoalescer.recordCompletedImport(
+                new ImportRequestKey(testProjectId, repositoryCoordinates, testTargetOntologyFile, "head"),
+                testBlobLocation);
+
+        // Act
+        commandHandler().handleRequest(testRequest, executionContext).block();
+
+        // Assert
+        verify(importJobScheduler).submit(any(), eq(ImportStage.CLONE), any());
+        verify(eventDispatcher, never()).dispatchEvent(any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should give the import job a deadline when the request has a timeout")
+    void handleRequestShouldGiveImportJobDeadlineWhenRequestHasTimeout() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        var timedRequest = new CreateProjectHistoryFromGitHubRepoRequest(
+                testProjectId, repositoryCoordinates, testTargetOntologyFile, 60L);
+
+        // Act
+        commandHandler.handleRequest(timedRequest, executionContext).block();
+
+        // Assert
+        verify(importJobScheduler)
+                .begin(argThat((ImportJob job) -> job.deadline().isPresent()));
+    }
+
+    @Test
+    @DisplayName("handleRequest should estimate the import size before scheduling the clone stage")
+    void handleRequestShouldEstimateImportSizeBeforeSchedulingCloneStage() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        var estimate = new ImportEstimate("head", 1_000, 20);
+        givenPreflight(estimate, new ImportPreflight.Assessment(ImportPreflight.Verdict.ACCEPT, ""));
+
+        // Act
+        commandHandler().handleRequest(testRequest, executionContext).block();
+
+        // Assert - the HEAD commit is resolved and the size estimated before the clone stage, which is
+        // ordered by the estimated size of the import
+        var inOrder = inOrder(importJobScheduler);
+        inOrder.verify(importJobScheduler, times(2)).submit(any(), eq(ImportStage.PREFLIGHT), any());
+        inOrder.verify(importJobScheduler)
+                .submit(
+                        argThat((ImportJob job) -> job.estimatedRepositorySize() == 20_000),
+                        eq(ImportStage.CLONE),
+                        any());
+        // The requested branch is estimated, at no particular commit since none was resolved
+        verify(importPreflight)
+                .estimate(eq(repositoryCoordinates), eq(Optional.empty()), eq(testTargetOntologyFile), any());
+        verify(eventDispatcher, never()).dispatchEvent(any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should warn about an import that may run out of memory and still clone it")
+    void handleRequestShouldWarnAboutImportThatMayRunOutOfMemory() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenPreflight(
+                new ImportEstimate("head", 1_000, 20),
+                new ImportPreflight.Assessment(ImportPreflight.Verdict.WARN, "Large ontology"));
+
+        // Act
+        commandHandler().handleRequest(testRequest, executionContext).block();
+
+        // Assert
+        verify(eventDispatcher)
+                .dispatchEvent(argThat(event -> event instanceof GitHubProjectHistoryImportSizeWarningEvent warning
+                        && warning.warning().equals("Large ontology")
+                        && warning.ontologyFileSize() == 1_000
+                        && warning.commitCount() == 20));
+        verify(importJobScheduler).submit(any(), eq(ImportStage.CLONE), any());
+    }
+
+    @Test
+    @DisplayName("handleRequest should reject an import that is not expected to succeed without cloning it")
+    void handleRequestShouldRejectImportWithoutCloningIt() {
+        // Arrange
+        when(executionContext.userId()).thenReturn(testUserId);
+        givenPreflight(
+                new ImportEstimate("head", 1_000, 20),
+                new ImportPreflight.Assessment(ImportPreflight.Verdict.REJECT, "Too large"));
+
+        // Act
+        commandHandler().handleRequest(testRequest, executionContext).block();
+
+        // Assert
+        verify(importJobScheduler, never()).submit(any(), eq(ImportStage.CLONE), any());
+        verify(importJobScheduler).finish(any());
+        verify(eventDispatcher)
+                .dispatchEvent(argThat(event -> event instanceof GitHubProjectHistoryImportRejectedEvent rejected
+                        && rejected.reason().equals("Too large")));
+        verify(eventDispatcher)
+                .dispatchEvent(argThat(event -> event instanceof CreateProjectHistoryFromGitHubRepoFailedEvent));
+        verify(eventDispatcher, never())
+                .dispatchEvent(argThat(event -> event instanceof GitHubCloneRepositoryFailedEvent
+                        || event instanceof GitHubProjectHistoryImportFailedEvent
+                        || event instanceof GitHubProjectHistoryStoreFailedEvent));
+    }
+
+    private CreateProjectHistoryFromGitHubRepoCommandHandler commandHandler() {
+        return new CreateProjectHistoryFromGitHubRepoCommandHandler(
+                ontologyHistoryAnalyzer,
+                projectHistoryStorer,
+                eventDispatcher,
+                importJobScheduler,
+                importRequestCoalescer,
+                new ImportProgressProperties(),
+                new PipelineMetrics(new SimpleMeterRegistry()),
+                new ImportProfileRegistry(new ImportProfilingProperties()),
+                importPreflight);
+    }
+
+    /** Makes the preflight stage run in place with the given estimate and assessment */
+    private void givenPreflight(ImportEstimate estimate, ImportPreflight.Assessment assessment) {
+        when(importPreflight.isEnabled()).thenReturn(true);
+        when(importPreflight.estimate(any(), any(), eq(testTargetOntologyFile), any()))
+                .thenReturn(Optional.of(estimate));
+        when(importPreflight.assess(estimate)).thenReturn(assessment);
+        runPreflightStageInPlace();
+    }
+
+    /** Makes the preflight stage run in place and resolve the given HEAD commit */
+    private void givenHeadCommit(String headCommit) {
+        when(importPreflight.isEnabled()).thenReturn(true);
+        when(importPreflight.resolveHeadCommit(repositoryCoordinates)).thenReturn(Optional.of(headCommit));
+        runPreflightStageInPlace();
+    }
+
+    private void runPreflightStageInPlace() {
+        when(importJobScheduler.submit(any(), eq(ImportStage.PREFLIGHT), any())).thenAnswer(invocation -> {
+            try {
+                return CompletableFuture.completedFuture(
+                        invocation.<Supplier<?>>getArgument(2).get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
 }
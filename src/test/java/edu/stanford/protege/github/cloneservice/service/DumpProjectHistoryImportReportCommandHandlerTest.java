@@ -0,0 +1,163 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfileRegistry;
+import edu.stanford.protege.github.cloneservice.profiling.ImportProfilingProperties;
+import edu.stanford.protege.github.cloneservice.profiling.ProfiledStage;
+import edu.stanford.protege.webprotege.common.BlobLocation;
+import edu.stanford.protege.webprotege.common.ProjectId;
+import edu.stanford.protege.webprotege.common.UserId;
+import edu.stanford.protege.webprotege.ipc.CommandExecutionException;
+import edu.stanford.protege.webprotege.ipc.ExecutionContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+/** Unit tests for {@link DumpProjectHistoryImportReportCommandHandler} */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DumpProjectHistoryImportReportCommandHandler Tests")
+class DumpProjectHistoryImportReportCommandHandlerTest {
+
+    private static final UserId REQUESTER = UserId.valueOf("requester");
+
+    private DumpProjectHistoryImportReportCommandHandler commandHandler;
+
+    private ImportProfileRegistry importProfileRegistry;
+
+    @Mock
+    private MinioProjectHistoryDocumentStorer minioProjectHistoryDocumentStorer;
+
+    @Mock
+    private ExecutionContext executionContext;
+
+    private ProjectId projectId;
+
+    private CreateProjectHistoryFromGitHubRepoOperationId operationId;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ImportProfilingProperties();
+        properties.setEnabled(true);
+        importProfileRegistry = new ImportProfileRegistry(properties);
+        commandHandler = new DumpProjectHistoryImportReportCommandHandler(
+                importProfileRegistry, minioProjectHistoryDocumentStorer);
+        projectId = ProjectId.generate();
+        operationId = CreateProjectHistoryFromGitHubRepoOperationId.generate();
+        lenient().when(executionContext.userId()).thenReturn(REQUESTER);
+    }
+
+    @Test
+    @DisplayName("handleRequest should report that an unprofiled import has no report")
+    void handleRequestShouldReportMissingProfile() {
+        var response = commandHandler
+                .handleRequest(
+                        new DumpProjectHistoryImportReportRequest(
+                                projectId, operationId, DumpProjectHistoryImportReportRequest.Destination.LOG),
+                        executionContext)
+                .block();
+
+        assertNotNull(response);
+        assertFalse(response.found());
+        assertNull(response.reportLocation());
+    }
+
+    @Test
+    @DisplayName("handleRequest should write the report to the log")
+    void handleRequestShouldWriteReportToLog() {
+        importProfileRegistry
+                .startProfiling(operationId, projectId, REQUESTER)
+                .start(ProfiledStage.CLONE, null)
+                .stop(0);
+
+        var response = commandHandler
+                .handleRequest(
+                        new DumpProjectHistoryImportReportRequest(
+                                projectId, operationId, DumpProjectHistoryImportReportRequest.Destination.LOG),
+                        executionContext)
+                .block();
+
+        assertNotNull(response);
+        assertTrue(response.found());
+        assertNull(response.reportLocation());
+        verifyNoInteractions(minioProjectHistoryDocumentStorer);
+    }
+
+    @Test
+    @DisplayName("handleRequest should store the report next to the project history document")
+    void handleRequestShouldStoreReportNextToHistoryDocument() {
+        var historyLocation = new BlobLocation("bucket", "project-history.bin");
+        var reportLocation = new BlobLocation("bucket", "project-history.bin.performance-report.txt");
+        importProfileRegistry.startProfiling(operationId, projectId, REQUESTER);
+        importProfileRegistry.findProfiler(operationId).orElseThrow().finish(historyLocation);
+        when(minioProjectHistoryDocumentStorer.storeSidecarDocument(
+                        eq(historyLocation),
+                        eq(DumpProjectHistoryImportReportCommandHandler.REPORT_SUFFIX),
+                        contains(operationId.operationId())))
+                .thenReturn(reportLocation);
+
+        var response = commandHandler
+                .handleRequest(
+                        new DumpProjectHistoryImportReportRequest(
+                                projectId, operationId, DumpProjectHistoryImportReportRequest.Destination.SIDECAR),
+                        executionContext)
+                .block();
+
+        assertNotNull(response);
+        assertTrue(response.found());
+        assertEquals(reportLocation, response.reportLocation());
+    }
+
+    @Test
+    @DisplayName("handleRequest should fall back to the log when no project history document is stored")
+    void handleRequestShouldFallBackToLogWithoutHistoryDocument() {
+        importProfileRegistry.startProfiling(operationId, projectId, REQUESTER);
+
+        var response = commandHandler
+                .handleRequest(
+                        new DumpProjectHistoryImportReportRequest(
+                                projectId, operationId, DumpProjectHistoryImportReportRequest.Destination.SIDECAR),
+                        executionContext)
+                .block();
+
+        assertNotNull(response);
+        assertTrue(response.found());
+        assertNull(response.reportLocation());
+        verifyNoInteractions(minioProjectHistoryDocumentStorer);
+    }
+
+    @Test
+    @DisplayName("handleRequest should reject the report of the import of another user")
+    void handleRequestShouldRejectReportOfImportOfAnotherUser() {
+        importProfileRegistry.startProfiling(operationId, projectId, UserId.valueOf("other-user"));
+
+        var result = commandHandler.handleRequest(
+                new DumpProjectHistoryImportReportRequest(
+                        projectId, operationId, DumpProjectHistoryImportReportRequest.Destination.LOG),
+                executionContext);
+
+        var exception = assertThrows(CommandExecutionException.class, result::block);
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
+    }
+
+    @Test
+    @DisplayName("handleRequest should reject the report of an import of another project")
+    void handleRequestShouldRejectReportOfImportOfAnotherProject() {
+        importProfileRegistry.startProfiling(operationId, projectId, REQUESTER);
+
+        var result = commandHandler.handleRequest(
+                new DumpProjectHistoryImportReportRequest(
+                        ProjectId.generate(), operationId, DumpProjectHistoryImportReportRequest.Destination.LOG),
+                executionContext);
+
+        var exception = assertThrows(CommandExecutionException.class, result::block);
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
+        verifyNoInteractions(minioProjectHistoryDocumentStorer);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link GitHubCommitCounter} */
+@DisplayName("GitHubCommitCounter Tests")
+class GitHubCommitCounterTest {
+
+    private static final String REPOSITORY_URL = "https://github.com/owner/repo.git";
+
+    private HttpServer server;
+
+    private ImportPreflightProperties properties;
+
+    /** The status, Link header and body of the next response of the API */
+    private int status;
+
+    private String link;
+
+    private String body;
+
+    private final AtomicReference<String> requestedUri = new AtomicReference<>();
+
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestedUri.set(exchange.getRequestURI().toString());
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            if (link != null) {
+                exchange.getResponseHeaders().add("Link", link);
+            }
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (var output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        server.start();
+        properties = new ImportPreflightProperties();
+        properties.setGithubApiUrl("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Count the commits from the last page of a page of one commit")
+    void countCommitsFromLastPage() throws Exception {
+        respond(
+                200,
+                "<https://api.github.com/repositories/1/commits?sha=head&per_page=1&page=2>; rel=\"next\", "
+                        + "<https://api.github.com/repositories/1/commits?sha=head&per_page=1&page=57>; rel=\"last\"",
+                "[{}]");
+
+        var commitCount =
+                new GitHubCommitCounter(properties).countCommits(REPOSITORY_URL, "head", "ontologies/a b.owl");
+
+        assertEquals(OptionalInt.of(57), commitCount);
+        assertEquals("/repos/owner/repo/commits?sha=head&path=ontologies%2Fa+b.owl&per_page=1", requestedUri.get());
+        assertNull(authorization.get());
+    }
+
+    @Test
+    @DisplayName("Count a single page of commits without a Link header")
+    void countSinglePage() throws Exception {
+        var commitCounter = new GitHubCommitCounter(properties);
+
+        respond(200, null, "[{}]");
+        assertEquals(OptionalInt.of(1), commitCounter.countCommits(REPOSITORY_URL, "head", "ontology.owl"));
+        respond(200, null, "[]");
+        assertEquals(OptionalInt.of(0), commitCounter.countCommits(REPOSITORY_URL, "head", "ontology.owl"));
+    }
+
+    @Test
+    @DisplayName("Send the configured token to the API")
+    void sendConfiguredToken() throws Exception {
+        properties.setGithubToken("secret");
+        respond(200, null, "[{}]");
+
+        new GitHubCommitCounter(properties).countCommits("git@github.com:owner/repo.git", "head", "ontology.owl");
+
+        assertEquals("Bearer secret", authorization.get());
+    }
+
+    @Test
+    @DisplayName("Yield no count for a repository that the API does not show")
+    void yieldNoCountForHiddenRepository() throws Exception {
+        respond(404, null, "{\"message\":\"Not Found\"}");
+
+        var commitCount = new GitHubCommitCounter(properties).countCommits(REPOSITORY_URL, "head", "ontology.owl");
+
+        assertTrue(commitCount.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Yield no count for a repository that is not hosted on GitHub")
+    void yieldNoCountOutsideGitHub() throws Exception {
+        var commitCount = new GitHubCommitCounter(properties)
+                .countCommits("https://gitlab.com/owner/repo.git", "head", "ontology.owl");
+
+        assertTrue(commitCount.isEmpty());
+        assertNull(requestedUri.get());
+    }
+
+    private void respond(int status, String link, String body) {
+        this.status = status;
+        this.link = link;
+        this.body = body;
+    }
+}
@@ -0,0 +1,244 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+import edu.stanford.protege.commitnavigator.model.RepositoryCoordinates;
+import edu.stanford.protege.github.cloneservice.job.ImportJob;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+/** Unit tests for {@link ImportPreflight} */
+@DisplayName("ImportPreflight Tests")
+class ImportPreflightTest {
+
+    private static final RelativeFilePath ONTOLOGY_FILE = new RelativeFilePath("ontologies/ontology.owl");
+
+    private static final long MAX_HEAP = 1024L * 1024 * 1024;
+
+    @TempDir
+    Path sourceDirectory;
+
+    private Git source;
+
+    private ImportPreflightProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        source = Git.init()
+                .setDirectory(sourceDirectory.toFile())
+                .setInitialBranch("main")
+                .call();
+        properties = new ImportPreflightProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        source.close();
+    }
+
+    @Test
+    @DisplayName("Estimate the ontology file size of a remote repository without fetching its history")
+    void estimateRemoteRepository() throws Exception {
+        allowPartialFetches();
+        commit(ONTOLOGY_FILE.asString(), "A");
+        commit("README.md", "B");
+        commit(ONTOLOGY_FILE.asString(), "CC");
+        var headCommit = commit(ONTOLOGY_FILE.asString(), "DDDD");
+
+        var estimate = new ImportPreflight(properties)
+                .estimate(coordinates("main"), Optional.empty(), ONTOLOGY_FILE, ImportMonitor.NONE);
+
+        // The commits of repositories that are not hosted on GitHub are not counted
+        assertEquals(new ImportEstimate(headCommit, 4, ImportEstimate.UNKNOWN_COMMIT_COUNT), estimate.orElseThrow());
+        assertEquals(ImportJob.UNKNOWN_SIZE, estimate.get().historySize());
+    }
+
+    @Test
+    @DisplayName("Estimate the ontology file of the requested branch rather than of the default one")
+    void estimateRequestedBranch() throws Exception {
+        allowPartialFetches();
+        commit(ONTOLOGY_FILE.asString(), "A");
+        source.branchCreate().setName("develop").call();
+        source.checkout().setName("develop").call();
+        commit("develop.owl", "D");
+        var developCommit = commit(ONTOLOGY_FILE.asString(), "DDDDDD");
+        source.checkout().setName("main").call();
+        commit(ONTOLOGY_FILE.asString(), "AAAAAAAAAA");
+
+        var estimate = new ImportPreflight(properties)
+                .estimate(coordinates("develop"), Optional.empty(), ONTOLOGY_FILE, ImportMonitor.NONE);
+
+        assertEquals(new ImportEstimate(developCommit, 6, ImportEstimate.UNKNOWN_COMMIT_COUNT), estimate.orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Estimate the ontology file of a file that only exists on the requested branch")
+    void estimateFileOnlyOnRequestedBranch() throws Exception {
+        allowPartialFetches();
+        commit("other.owl", "A");
+        source.branchCreate().setName("develop").call();
+        source.checkout().setName("develop").call();
+        var developCommit = commit(ONTOLOGY_FILE.asString(), "DD");
+        source.checkout().setName("main").call();
+        var preflight = new ImportPreflight(properties);
+
+        assertTrue(preflight
+                .estimate(coordinates("main"), Optional.empty(), ONTOLOGY_FILE, ImportMonitor.NONE)
+                .isEmpty());
+        assertEquals(
+                Optional.of(new ImportEstimate(developCommit, 2, ImportEstimate.UNKNOWN_COMMIT_COUNT)),
+                preflight.estimate(coordinates("develop"), Optional.empty(), ONTOLOGY_FILE, ImportMonitor.NONE));
+    }
+
+    @Test
+    @DisplayName("Estimate the resolved head commit even if the branch has moved since")
+    void estimateResolvedHeadCommit() throws Exception {
+        allowPartialFetches();
+        var preflight = new ImportPreflight(properties);
+        commit(ONTOLOGY_FILE.asString(), "A");
+        var resolvedCommit = commit(ONTOLOGY_FILE.asString(), "BBB");
+        assertEquals(Optional.of(resolvedCommit), preflight.resolveHeadCommit(coordinates("main")));
+        commit(ONTOLOGY_FILE.asString(), "CCCCC");
+
+        var estimate =
+                preflight.estimate(coordinates("main"), Optional.of(resolvedCommit), ONTOLOGY_FILE, ImportMonitor.NONE);
+
+        assertEquals(
+                new ImportEstimate(resolvedCommit, 3, ImportEstimate.UNKNOWN_COMMIT_COUNT), estimate.orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Yield no estimate when the remote repository does not support partial fetches")
+    void yieldNoEstimateWithoutPartialFetches() throws Exception {
+        commit(ONTOLOGY_FILE.asString(), "A");
+
+        var estimate = new ImportPreflight(properties)
+                .estimate(coordinates("main"), Optional.empty(), ONTOLOGY_FILE, ImportMonitor.NONE);
+
+        assertTrue(estimate.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Yield no estimate when the ontology file is not found at HEAD")
+    void yieldNoEstimateWhenOntologyFileNotFound() throws Exception {
+        allowPartialFetches();
+        commit("other.owl", "A");
+
+        var estimate = new ImportPreflight(properties)
+                .estimate(coordinates("main"), Optional.empty(), ONTOLOGY_FILE, ImportMonitor.NONE);
+
+        assertTrue(estimate.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Resolve the head commit of the requested branch without fetching it")
+    void resolveHeadCommitOfRequestedBranch() throws Exception {
+        var mainCommit = commit(ONTOLOGY_FILE.asString(), "A");
+        source.branchCreate().setName("develop").call();
+        source.checkout().setName("develop").call();
+        var developCommit = commit(ONTOLOGY_FILE.asString(), "B");
+        var preflight = new ImportPreflight(properties);
+
+        assertEquals(Optional.of(mainCommit), preflight.resolveHeadCommit(coordinates("main")));
+        assertEquals(Optional.of(developCommit), preflight.resolveHeadCommit(coordinates("develop")));
+        assertTrue(preflight.resolveHeadCommit(coordinates("missing")).isEmpty());
+        assertTrue(ImportPreflight.disabled()
+                .resolveHeadCommit(coordinates("main"))
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Accept an import that fits in the heap")
+    void acceptImportThatFitsInHeap() {
+        var assessment = new ImportPreflight(properties).assess(new ImportEstimate("head", 1024 * 1024, 500), MAX_HEAP);
+
+        assertEquals(ImportPreflight.Verdict.ACCEPT, assessment.verdict());
+    }
+
+    @Test
+    @DisplayName("Warn about an import that needs most of the heap")
+    void warnAboutImportThatNeedsMostOfHeap() {
+        // Two versions of 15 MB at 20 bytes of heap per byte need 600 MB
+        var assessment =
+                new ImportPreflight(properties).assess(new ImportEstimate("head", 15 * 1024 * 1024, 10), MAX_HEAP);
+
+        assertEquals(ImportPreflight.Verdict.WARN, assessment.verdict());
+        assertEquals("The extraction needs an estimated 600 MB of the maximum heap of 1024 MB", assessment.reason());
+    }
+
+    @Test
+    @DisplayName("Warn about an import that does not fit in the heap by default")
+    void warnAboutImportThatDoesNotFitInHeapByDefault() {
+        var assessment =
+                new ImportPreflight(properties).assess(new ImportEstimate("head", 30 * 1024 * 1024, 10), MAX_HEAP);
+
+        assertEquals(ImportPreflight.Verdict.WARN, assessment.verdict());
+        assertEquals(
+                "The extraction needs an estimated 1200 MB of heap, more than the maximum heap of 1024 MB",
+                assessment.reason());
+    }
+
+    @Test
+    @DisplayName("Reject an import that does not fit in the heap when configured to")
+    void rejectImportThatDoesNotFitInHeap() {
+        properties.setRejectAboveMaxHeap(true);
+        var assessment =
+                new ImportPreflight(properties).assess(new ImportEstimate("head", 30 * 1024 * 1024, 10), MAX_HEAP);
+
+        assertEquals(ImportPreflight.Verdict.REJECT, assessment.verdict());
+    }
+
+    @Test
+    @DisplayName("Reject an import above the configured limits")
+    void rejectImportAboveConfiguredLimits() {
+        properties.setMaxCommits(100);
+        properties.setMaxOntologyFileSize(DataSize.ofKilobytes(1));
+        var preflight = new ImportPreflight(properties);
+
+        var tooManyCommits = preflight.assess(new ImportEstimate("head", 100, 101), MAX_HEAP);
+        var tooLarge = preflight.assess(new ImportEstimate("head", 1025, 100), MAX_HEAP);
+
+        assertEquals(ImportPreflight.Verdict.REJECT, tooManyCommits.verdict());
+        assertEquals(
+                "The ontology file is modified by 101 commits, more than the limit of 100", tooManyCommits.reason());
+        assertEquals(ImportPreflight.Verdict.REJECT, tooLarge.verdict());
+        assertEquals("The ontology file has 1025 bytes, more than the limit of 1024", tooLarge.reason());
+    }
+
+    /** Lets the source repository serve the partial fetches of the preflight, like GitHub does */
+    private void allowPartialFetches() throws Exception {
+        var config = source.getRepository().getConfig();
+        config.setBoolean("uploadpack", null, "allowfilter", true);
+        config.setBoolean("uploadpack", null, "allowanysha1inwant", true);
+        config.save();
+    }
+
+    private RepositoryCoordinates coordinates(String branchName) {
+        var coordinates = mock(RepositoryCoordinates.class);
+        lenient()
+                .when(coordinates.repositoryUrl())
+                .thenReturn(sourceDirectory.toUri().toString());
+        lenient().when(coordinates.branchName()).thenReturn(branchName);
+        return coordinates;
+    }
+
+    private String commit(String relativePath, String content) throws Exception {
+        var file = sourceDirectory.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        source.add().addFilepattern(relativePath).call();
+        return source.commit().setMessage(content).call().name();
+    }
+}
@@ -2,6 +2,8 @@ package edu.stanford.protege.github.cloneservice.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import edu.stanford.protege.commitnavigator.model.CommitMetadata;
@@ -58,7 +60,7 @@ class ProjectHistoryConverterTest {
 
         // Then
         assertTrue(result.isEmpty());
-        verify(changeCommitToRevisionConverter, never()).convert(any());
+        verify(changeCommitToRevisionConverter, never()).convert(any(), anyLong());
     }
 
     @Test
@@ -68,7 +70,7 @@ class ProjectHistoryConverterTest {
         var projectHistory = List.of(commitChange1);
         var mockRevision = mock(Revision.class);
         when(mockRevision.getRevisionNumber()).thenReturn(RevisionNumber.getRevisionNumber(1));
-        when(changeCommitToRevisionConverter.convert(commitChange1)).thenReturn(mockRevision);
+        when(changeCommitToRevisionConverter.convert(commitChange1, 1)).thenReturn(mockRevision);
 
         // When
         var result = projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory);
@@ -76,7 +78,7 @@ class ProjectHistoryConverterTest {
         // Then
         assertEquals(1, result.size());
         assertEquals(1, result.get(0).getRevisionNumber().getValue());
-        verify(changeCommitToRevisionConverter).convert(commitChange1);
+        verify(changeCommitToRevisionConverter).convert(commitChange1, 1);
     }
 
     @Test
@@ -93,9 +95,9 @@ class ProjectHistoryConverterTest {
         var revision2 = mock(Revision.class);
         var revision3 = mock(Revision.class);
 
-        when(changeCommitToRevisionConverter.convert(oldestCommit)).thenReturn(revision1);
-        when(changeCommitToRevisionConverter.convert(middleCommit)).thenReturn(revision2);
-        when(changeCommitToRevisionConverter.convert(newestCommit)).thenReturn(revision3);
+        when(changeCommitToRevisionConverter.convert(oldestCommit, 1)).thenReturn(revision1);
+        when(changeCommitToRevisionConverter.convert(middleCommit, 2)).thenReturn(revision2);
+        when(changeCommitToRevisionConverter.convert(newestCommit, 3)).thenReturn(revision3);
 
         // When
         var result = projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory);
@@ -105,9 +107,62 @@ class ProjectHistoryConverterTest {
 
         // Verify conversion order: oldest first, newest last
         var inOrder = inOrder(changeCommitToRevisionConverter);
-        inOrder.verify(changeCommitToRevisionConverter).convert(oldestCommit);
-        inOrder.verify(changeCommitToRevisionConverter).convert(middleCommit);
-        inOrder.verify(changeCommitToRevisionConverter).convert(newestCommit);
+        inOrder.verify(changeCommitToRevisionConverter).convert(oldestCommit, 1);
+        inOrder.verify(changeCommitToRevisionConverter).convert(middleCommit, 2);
+        inOrder.verify(changeCommitToRevisionConverter).convert(newestCommit, 3);
+    }
+
+    @Test
+    @DisplayName("Convert each commit change only when its revision is consumed")
+    void convertEachCommitChangeOnlyWhenItsRevisionIsConsumed() {
+        // Given
+        var projectHistory = List.of(commitChange1, commitChange2);
+        var revision1 = mock(Revision.class);
+        var revision2 = mock(Revision.class);
+        when(changeCommitToRevisionConverter.convert(commitChange2, 1)).thenReturn(revision1);
+        when(changeCommitToRevisionConverter.convert(commitChange1, 2)).thenReturn(revision2);
+
+        // When
+        var revisions = projectHistoryConverter.iterateRevisions(projectHistory);
+
+        // Then
+        verify(changeCommitToRevisionConverter, never()).convert(any(), anyLong());
+        assertTrue(revisions.hasNext());
+        verify(changeCommitToRevisionConverter, never()).convert(any(), anyLong());
+
+        assertSame(revision1, revisions.next());
+        verify(changeCommitToRevisionConverter).convert(commitChange2, 1);
+        verify(changeCommitToRevisionConverter, never()).convert(commitChange1, 2);
+
+        assertSame(revision2, revisions.next());
+        verify(changeCommitToRevisionConverter).convert(commitChange1, 2);
+        assertFalse(revisions.hasNext());
+    }
+
+    @Test
+    @DisplayName("Number lazily converted revisions like eagerly converted ones")
+    void numberLazilyConvertedRevisionsLikeEagerlyConvertedOnes() {
+        // Given
+        var projectHistory = List.of(
+                createRealCommitChange("user1", "hash1"),
+                createRealCommitChange("user2", "hash2"),
+                createRealCommitChange("user3", "hash3"));
+
+        // When
+        var revisionNumbers = new java.util.ArrayList<Long>();
+        new ProjectHistoryConverter(new ChangeCommitToRevisionConverter())
+                .iterateRevisions(projectHistory)
+                .forEachRemaining(revision ->
+                        revisionNumbers.add(revision.getRevisionNumber().getValue()));
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), revisionNumbers);
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when iterating a null project history")
+    void throwExceptionWhenIteratingNullProjectHistory() {
+        assertThrows(NullPointerException.class, () -> projectHistoryConverter.iterateRevisions(null));
     }
 
     @Test
@@ -120,7 +175,7 @@ class ProjectHistoryConverterTest {
         assertThrows(
                 NullPointerException.class,
                 () -> projectHistoryConverter.convertProjectHistoryToRevisions(nullProjectHistory));
-        verify(changeCommitToRevisionConverter, never()).convert(any());
+        verify(changeCommitToRevisionConverter, never()).convert(any(), anyLong());
     }
 
     @Test
@@ -134,7 +189,7 @@ class ProjectHistoryConverterTest {
         var originalSecondElement = mutableProjectHistory.get(1);
 
         var mockRevision = mock(Revision.class);
-        when(changeCommitToRevisionConverter.convert(any())).thenReturn(mockRevision);
+        when(changeCommitToRevisionConverter.convert(any(), anyLong())).thenReturn(mockRevision);
 
         // When
         projectHistoryConverter.convertProjectHistoryToRevisions(mutableProjectHistory);
@@ -155,14 +210,15 @@ class ProjectHistoryConverterTest {
         var revision2 = mock(Revision.class);
         var revision3 = mock(Revision.class);
 
-        when(changeCommitToRevisionConverter.convert(commitChange1)).thenReturn(revision1, revision2, revision3);
+        when(changeCommitToRevisionConverter.convert(eq(commitChange1), anyLong()))
+                .thenReturn(revision1, revision2, revision3);
 
         // When
         var result = projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory);
 
         // Then
         assertEquals(3, result.size());
-        verify(changeCommitToRevisionConverter, times(3)).convert(commitChange1);
+        verify(changeCommitToRevisionConverter, times(3)).convert(eq(commitChange1), anyLong());
     }
 
     @Test
@@ -197,6 +253,25 @@ class ProjectHistoryConverterTest {
         assertEquals(3, result.get(2).getRevisionNumber().getValue()); // Newest commit -> revision 3
     }
 
+    @Test
+    @DisplayName("Number the revisions of each project history from 1")
+    void numberRevisionsOfEachProjectHistoryFromOne() {
+        // Given: a single converter shared by two imports
+        var converterWithRealImplementation = new ProjectHistoryConverter(new ChangeCommitToRevisionConverter());
+        var firstProjectHistory =
+                List.of(createRealCommitChange("user1", "hash1"), createRealCommitChange("user2", "hash2"));
+        var secondProjectHistory = List.of(createRealCommitChange("user3", "hash3"));
+
+        // When
+        var firstRevisions = converterWithRealImplementation.convertProjectHistoryToRevisions(firstProjectHistory);
+        var secondRevisions = converterWithRealImplementation.convertProjectHistoryToRevisions(secondProjectHistory);
+
+        // Then
+        assertEquals(1, firstRevisions.get(0).getRevisionNumber().getValue());
+        assertEquals(2, firstRevisions.get(1).getRevisionNumber().getValue());
+        assertEquals(1, secondRevisions.get(0).getRevisionNumber().getValue());
+    }
+
     private OntologyCommitChange createMockCommitChange(String username, String commitHash) {
         var commitMetadata = mock(CommitMetadata.class);
         lenient().when(commitMetadata.committerUsername()).thenReturn(username);
@@ -2,19 +2,33 @@ package edu.stanford.protege.github.cloneservice.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
+import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
+import edu.stanford.protege.github.cloneservice.model.AxiomChange;
 import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
 import edu.stanford.protege.webprotege.common.BlobLocation;
 import edu.stanford.protege.webprotege.common.ProjectId;
 import edu.stanford.protege.webprotege.revision.Revision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 /** Unit tests for {@link ProjectHistoryStorer} */
 @ExtendWith(MockitoExtension.class)
@@ -35,12 +49,18 @@ class ProjectHistoryStorerTest {
     @Mock
     private Revision revision1;
 
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
     private BlobLocation testBlobLocation;
     private ProjectId projectId;
 
     @BeforeEach
     void setUp() {
-        projectHistoryStorer = new ProjectHistoryStorer(projectHistoryConverter, projectHistoryDocumentStorer);
+        projectHistoryStorer = new ProjectHistoryStorer(
+                projectHistoryConverter,
+                projectHistoryDocumentStorer,
+                pipelineMetrics,
+                RevisionSerializationExecutor.sequential());
         testBlobLocation = new BlobLocation("test-bucket", "test-object");
         projectId = ProjectId.generate();
     }
@@ -52,8 +72,7 @@ class ProjectHistoryStorerTest {
         var projectHistory = List.of(commitChange1);
         var revisions = List.of(revision1);
 
-        when(projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory))
-                .thenReturn(revisions);
+        when(projectHistoryConverter.iterateRevisions(projectHistory)).thenReturn(revisions.iterator());
         lenient().when(projectHistoryDocumentStorer.storeDocument(any())).thenReturn(testBlobLocation);
 
         // Act
@@ -62,11 +81,11 @@ class ProjectHistoryStorerTest {
 
             // Assert
             assertEquals(testBlobLocation, result);
-            verify(projectHistoryConverter).convertProjectHistoryToRevisions(projectHistory);
+            verify(projectHistoryConverter).iterateRevisions(projectHistory);
         } catch (Exception e) {
             // Expected due to serialization complexities in test environment
             // The important part is that conversion was called
-            verify(projectHistoryConverter).convertProjectHistoryToRevisions(projectHistory);
+            verify(projectHistoryConverter).iterateRevisions(projectHistory);
         }
     }
 
@@ -77,8 +96,7 @@ class ProjectHistoryStorerTest {
         var emptyProjectHistory = List.<OntologyCommitChange>of();
         var emptyRevisions = List.<Revision>of();
 
-        when(projectHistoryConverter.convertProjectHistoryToRevisions(emptyProjectHistory))
-                .thenReturn(emptyRevisions);
+        when(projectHistoryConverter.iterateRevisions(emptyProjectHistory)).thenReturn(emptyRevisions.iterator());
         when(projectHistoryDocumentStorer.storeDocument(any())).thenReturn(testBlobLocation);
 
         // Act
@@ -87,11 +105,11 @@ class ProjectHistoryStorerTest {
 
             // Assert
             assertEquals(testBlobLocation, result);
-            verify(projectHistoryConverter).convertProjectHistoryToRevisions(emptyProjectHistory);
+            verify(projectHistoryConverter).iterateRevisions(emptyProjectHistory);
         } catch (Exception e) {
             // Expected due to serialization complexities in test environment
             // The important part is that conversion was called for empty list
-            verify(projectHistoryConverter).convertProjectHistoryToRevisions(emptyProjectHistory);
+            verify(projectHistoryConverter).iterateRevisions(emptyProjectHistory);
         }
     }
 
@@ -102,8 +120,7 @@ class ProjectHistoryStorerTest {
         var projectHistory = List.of(commitChange1);
         var revisions = List.of(revision1);
 
-        when(projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory))
-                .thenReturn(revisions);
+        when(projectHistoryConverter.iterateRevisions(projectHistory)).thenReturn(revisions.iterator());
         lenient().when(projectHistoryDocumentStorer.storeDocument(any())).thenReturn(testBlobLocation);
 
         // Act
@@ -112,11 +129,11 @@ class ProjectHistoryStorerTest {
 
             // Assert
             assertEquals(testBlobLocation, result);
-            verify(projectHistoryConverter, times(1)).convertProjectHistoryToRevisions(projectHistory);
+            verify(projectHistoryConverter, times(1)).iterateRevisions(projectHistory);
         } catch (Exception e) {
             // Expected due to serialization complexities in test environment
             // The important part is that conversion was called once
-            verify(projectHistoryConverter, times(1)).convertProjectHistoryToRevisions(projectHistory);
+            verify(projectHistoryConverter, times(1)).iterateRevisions(projectHistory);
         }
     }
 
@@ -127,8 +144,7 @@ class ProjectHistoryStorerTest {
         var projectHistory = List.of(commitChange1);
         var revisions = List.of(revision1);
 
-        when(projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory))
-                .thenReturn(revisions);
+        when(projectHistoryConverter.iterateRevisions(projectHistory)).thenReturn(revisions.iterator());
         lenient().when(projectHistoryDocumentStorer.storeDocument(any())).thenReturn(testBlobLocation);
 
         // Act
@@ -151,8 +167,7 @@ class ProjectHistoryStorerTest {
         var projectHistory = List.of(commitChange1);
         var revisions = List.of(revision1);
 
-        when(projectHistoryConverter.convertProjectHistoryToRevisions(projectHistory))
-                .thenReturn(revisions);
+        when(projectHistoryConverter.iterateRevisions(projectHistory)).thenReturn(revisions.iterator());
         lenient().when(projectHistoryDocumentStorer.storeDocument(any())).thenReturn(testBlobLocation);
 
         // Act
@@ -160,11 +175,11 @@ class ProjectHistoryStorerTest {
             projectHistoryStorer.storeProjectHistory(projectId, projectHistory);
 
             // Assert
-            verify(projectHistoryConverter).convertProjectHistoryToRevisions(projectHistory);
+            verify(projectHistoryConverter).iterateRevisions(projectHistory);
         } catch (Exception e) {
             // Expected due to serialization complexities in test environment
             // The important part is that conversion was delegated
-            verify(projectHistoryConverter).convertProjectHistoryToRevisions(projectHistory);
+            verify(projectHistoryConverter).iterateRevisions(projectHistory);
         }
     }
 
@@ -177,7 +192,11 @@ class ProjectHistoryStorerTest {
         // When & Then
         assertThrows(
                 NullPointerException.class,
-                () -> new ProjectHistoryStorer(nullConverter, projectHistoryDocumentStorer));
+                () -> new ProjectHistoryStorer(
+                        nullConverter,
+                        projectHistoryDocumentStorer,
+                        pipelineMetrics,
+                        RevisionSerializationExecutor.sequential()));
     }
 
     @Test
@@ -187,6 +206,164 @@ class ProjectHistoryStorerTest {
         MinioProjectHistoryDocumentStorer nullStorer = null;
 
         // When & Then
-        assertThrows(NullPointerException.class, () -> new ProjectHistoryStorer(projectHistoryConverter, nullStorer));
+        assertThrows(
+                NullPointerException.class,
+                () -> new ProjectHistoryStorer(
+                        projectHistoryConverter,
+                        nullStorer,
+                        pipelineMetrics,
+                        RevisionSerializationExecutor.sequential()));
+    }
+
+    @Test
+    @DisplayName("Handle null RevisionSerializationExecutor in constructor")
+    void handleNullRevisionSerializationExecutorInConstructor() {
+        assertThrows(
+                NullPointerException.class,
+                () -> new ProjectHistoryStorer(
+                        projectHistoryConverter, projectHistoryDocumentStorer, pipelineMetrics, null));
+    }
+
+    @Test
+    @DisplayName("Write the same document when serializing revisions in parallel")
+    void writeSameDocumentWhenSerializingRevisionsInParallel() throws Exception {
+        // Arrange
+        var projectHistory = IntStream.range(0, 40)
+                .mapToObj(ProjectHistoryStorerTest::createRealCommitChange)
+                .toList();
+        var properties = new RevisionSerializationProperties();
+        properties.setParallelism(4);
+        properties.setReorderWindow(3);
+        var parallelExecutor = new RevisionSerializationExecutor(properties);
+
+        // Act
+        try {
+            var sequentialDocument = storeAndReadDocument(projectHistory, RevisionSerializationExecutor.sequential());
+            var parallelDocument = storeAndReadDocument(projectHistory, parallelExecutor);
+
+            // Assert
+            assertTrue(sequentialDocument.length > 0);
+            assertArrayEquals(sequentialDocument, parallelDocument);
+        } finally {
+            parallelExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Write the same document when later revisions are converted before earlier ones")
+    void writeSameDocumentWhenLaterRevisionsConvertedFirst() throws Exception {
+        // Arrange
+        var projectHistory = IntStream.range(0, 12)
+                .mapToObj(ProjectHistoryStorerTest::createRealCommitChange)
+                .toList();
+        var properties = new RevisionSerializationProperties();
+        properties.setParallelism(4);
+        properties.setReorderWindow(4);
+        var parallelExecutor = new RevisionSerializationExecutor(properties);
+        // Every fourth revision is converted last within its window
+        var slowConverter = spy(new ProjectHistoryConverter(new ChangeCommitToRevisionConverter()));
+        doAnswer(invocation -> {
+                    if (invocation.<Integer>getArgument(1) % 4 == 0) {
+                        Thread.sleep(50);
+                    }
+                    return invocation.callRealMethod();
+                })
+                .when(slowConverter)
+                .convertRevision(any(), anyInt());
+
+        // Act
+        try {
+            var sequentialDocument = storeAndReadDocument(
+                    projectHistory,
+                    new ProjectHistoryConverter(new ChangeCommitToRevisionConverter()),
+                    RevisionSerializationExecutor.sequential());
+            var parallelDocument = storeAndReadDocument(projectHistory, slowConverter, parallelExecutor);
+
+            // Assert
+            assertArrayEquals(sequentialDocument, parallelDocument);
+            verify(slowConverter, times(projectHistory.size())).convertRevision(any(), anyInt());
+        } finally {
+            parallelExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Do not upload project history when the import has been cancelled")
+    void doNotUploadProjectHistoryWhenImportCancelled() {
+        // Arrange
+        var emptyProjectHistory = List.<OntologyCommitChange>of();
+        when(projectHistoryConverter.iterateRevisions(emptyProjectHistory))
+                .thenReturn(List.<Revision>of().iterator());
+
+        // Act & Assert
+        assertThrows(
+                ImportCancelledException.class,
+                () -> projectHistoryStorer.storeProjectHistory(projectId, emptyProjectHistory, () -> {
+                    throw new ImportCancelledException("cancelled");
+                }));
+        verify(projectHistoryDocumentStorer, never()).storeDocument(any());
+    }
+
+    @Test
+    @DisplayName("Keep the serialized document until it is uploaded")
+    void keepSerializedDocumentUntilUploaded() {
+        // Arrange
+        var emptyProjectHistory = List.<OntologyCommitChange>of();
+        when(projectHistoryConverter.iterateRevisions(emptyProjectHistory))
+                .thenReturn(List.<Revision>of().iterator());
+        when(projectHistoryDocumentStorer.storeDocument(any())).thenReturn(testBlobLocation);
+
+        // Act
+        var document = projectHistoryStorer.serializeProjectHistory(projectId, emptyProjectHistory, ImportMonitor.NONE);
+
+        // Assert
+        assertTrue(Files.exists(document));
+        verify(projectHistoryDocumentStorer, never()).storeDocument(any());
+        assertEquals(
+                testBlobLocation, projectHistoryStorer.uploadProjectHistory(projectId, document, ImportMonitor.NONE));
+        verify(projectHistoryDocumentStorer).storeDocument(document);
+        assertFalse(Files.exists(document));
+    }
+
+    private byte[] storeAndReadDocument(
+            List<OntologyCommitChange> projectHistory, RevisionSerializationExecutor serializationExecutor) {
+        return storeAndReadDocument(
+                projectHistory,
+                new ProjectHistoryConverter(new ChangeCommitToRevisionConverter()),
+                serializationExecutor);
+    }
+
+    private byte[] storeAndReadDocument(
+            List<OntologyCommitChange> projectHistory,
+            ProjectHistoryConverter converter,
+            RevisionSerializationExecutor serializationExecutor) {
+        var documentStorer = mock(MinioProjectHistoryDocumentStorer.class);
+        var document = new AtomicReference<byte[]>();
+        when(documentStorer.storeDocument(any())).thenAnswer(invocation -> {
+            document.set(Files.readAllBytes(invocation.getArgument(0)));
+            return testBlobLocation;
+        });
+        var storer = new ProjectHistoryStorer(converter, documentStorer, pipelineMetrics, serializationExecutor);
+
+        assertEquals(testBlobLocation, storer.storeProjectHistory(projectId, projectHistory));
+        return document.get();
+    }
+
+    private static OntologyCommitChange createRealCommitChange(int index) {
+        var commitMetadata = mock(CommitMetadata.class);
+        lenient().when(commitMetadata.committerUsername()).thenReturn("user" + index % 3);
+        lenient().when(commitMetadata.commitHash()).thenReturn("hash" + index);
+        lenient().when(commitMetadata.commitMessage()).thenReturn("Commit " + index);
+        lenient().when(commitMetadata.commitDate()).thenReturn(Instant.ofEpochSecond(1_700_000_000L + index));
+
+        var dataFactory = new OWLDataFactoryImpl();
+        var ontologyId = new OWLOntologyID(IRI.create("http://example.org/ontology.owl"));
+        var axiomChanges = IntStream.range(0, index % 5 + 1)
+                .mapToObj(axiomIndex -> AxiomChange.addAxiom(
+                        dataFactory.getOWLDeclarationAxiom(
+                                dataFactory.getOWLClass(IRI.create("http://example.org/C" + index + "_" + axiomIndex))),
+                        ontologyId))
+                .toList();
+        return new OntologyCommitChange(axiomChanges, commitMetadata, "https://github.com/test/repo");
     }
 }
@@ -0,0 +1,123 @@
+package edu.stanford.protege.github.cloneservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link RevisionSerializationExecutor} */
+@DisplayName("RevisionSerializationExecutor Tests")
+class RevisionSerializationExecutorTest {
+
+    private static final int REORDER_WINDOW = 4;
+
+    private RevisionSerializationExecutor serializationExecutor;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new RevisionSerializationProperties();
+        properties.setParallelism(4);
+        properties.setReorderWindow(REORDER_WINDOW);
+        serializationExecutor = new RevisionSerializationExecutor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serializationExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when properties are null")
+    void throwExceptionWhenPropertiesNull() {
+        assertThrows(NullPointerException.class, () -> new RevisionSerializationExecutor(null));
+    }
+
+    @Test
+    @DisplayName("Write the results in revision order")
+    void writeResultsInRevisionOrder() {
+        var written = new ArrayList<Integer>();
+
+        serializationExecutor.runOrdered(
+                32,
+                revisionIndex -> {
+                    // Let the earlier revisions finish last
+                    sleepQuietly(revisionIndex % REORDER_WINDOW == 0 ? 10 : 0);
+                    return revisionIndex;
+                },
+                written::add);
+
+        assertEquals(IntStream.range(0, 32).boxed().toList(), written);
+    }
+
+    @Test
+    @DisplayName("Keep at most the reorder window of revisions in flight")
+    void keepAtMostReorderWindowOfRevisionsInFlight() {
+        var started = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        var writtenCount = new AtomicInteger();
+
+        serializationExecutor.runOrdered(
+                64,
+                revisionIndex -> {
+                    var inFlight = started.incrementAndGet() - writtenCount.get();
+                    maxInFlight.accumulateAndGet(inFlight, Math::max);
+                    return revisionIndex;
+                },
+                revisionIndex -> writtenCount.incrementAndGet());
+
+        assertEquals(64, writtenCount.get());
+        assertTrue(maxInFlight.get() <= REORDER_WINDOW, "In flight: " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("Run the tasks and the writer on the calling thread when sequential")
+    void runOnCallingThreadWhenSequential() {
+        var callingThread = Thread.currentThread();
+        var taskThreads = new ArrayList<Thread>();
+        var writerThreads = new ArrayList<Thread>();
+
+        RevisionSerializationExecutor.sequential()
+                .runOrdered(
+                        3,
+                        revisionIndex -> taskThreads.add(Thread.currentThread()),
+                        added -> writerThreads.add(Thread.currentThread()));
+
+        assertEquals(List.of(callingThread, callingThread, callingThread), taskThreads);
+        assertEquals(List.of(callingThread, callingThread, callingThread), writerThreads);
+    }
+
+    @Test
+    @DisplayName("Rethrow the failure of a task without writing the later revisions")
+    void rethrowFailureOfTask() {
+        var written = new ArrayList<Integer>();
+
+        var exception = assertThrows(
+                IllegalStateException.class,
+                () -> serializationExecutor.runOrdered(
+                        16,
+                        revisionIndex -> {
+                            if (revisionIndex == 5) {
+                                throw new IllegalStateException("Serialization failed");
+                            }
+                            return revisionIndex;
+                        },
+                        written::add));
+
+        assertEquals("Serialization failed", exception.getMessage());
+        assertEquals(List.of(0, 1, 2, 3, 4), written);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import edu.stanford.protege.github.cloneservice.model.AxiomChange;
+import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
+import edu.stanford.protege.github.cloneservice.model.SpilledAxiomChanges;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/** Unit tests for {@link CommitChangeSpiller} */
+@DisplayName("CommitChangeSpiller Tests")
+class CommitChangeSpillerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Keep the commit changes on the heap below the heap threshold")
+    void keepChangesOnHeapBelowThreshold() throws Exception {
+        var changes = List.of(createCommitChange("A", 3), createCommitChange("B", 2));
+
+        List<OntologyCommitChange> collectedChanges;
+        try (var commitChanges = CommitChangeSpiller.onHeap().open()) {
+            var first = commitChanges.reserve();
+            var second = commitChanges.reserve();
+            commitChanges.set(second, changes.get(1));
+            commitChanges.set(first, changes.get(0));
+            collectedChanges = commitChanges.toList();
+        }
+
+        assertEquals(changes, collectedChanges);
+        collectedChanges.forEach(change -> assertFalse(change.axiomChanges() instanceof SpilledAxiomChanges));
+    }
+
+    @Test
+    @DisplayName("Spill the large commit changes above the heap threshold")
+    void spillLargeChangesAboveThreshold() throws Exception {
+        var smallChange = createCommitChange("A", 1);
+        var largeChange = createCommitChange("B", 3);
+
+        List<OntologyCommitChange> collectedChanges;
+        try (var commitChanges = createSpiller(0, 2).open()) {
+            commitChanges.set(commitChanges.reserve(), largeChange);
+            commitChanges.set(commitChanges.reserve(), smallChange);
+            collectedChanges = commitChanges.toList();
+        }
+
+        assertEquals(List.of(largeChange, smallChange), collectedChanges);
+        assertInstanceOf(SpilledAxiomChanges.class, collectedChanges.get(0).axiomChanges());
+        assertFalse(collectedChanges.get(1).axiomChanges() instanceof SpilledAxiomChanges);
+    }
+
+    @Test
+    @DisplayName("Delete the scratch file as soon as it is created")
+    void deleteScratchFileWhenCreated() throws Exception {
+        var change = createCommitChange("A", 5);
+
+        try (var commitChanges = createSpiller(0, 1).open()) {
+            commitChanges.set(commitChanges.reserve(), change);
+
+            try (var files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+            assertEquals(List.of(change), commitChanges.toList());
+        }
+    }
+
+    private CommitChangeSpiller createSpiller(double heapThreshold, int minAxiomChanges) {
+        var properties = new CommitChangeSpillProperties();
+        properties.setHeapThreshold(heapThreshold);
+        properties.setMinAxiomChanges(minAxiomChanges);
+        properties.setDirectory(directory.toString());
+        return new CommitChangeSpiller(properties);
+    }
+
+    private static OntologyCommitChange createCommitChange(String commitHash, int axiomCount) {
+        var commitMetadata = mock(CommitMetadata.class);
+        when(commitMetadata.commitHash()).thenReturn(commitHash);
+        var dataFactory = new OWLDataFactoryImpl();
+        var ontologyId = new OWLOntologyID(IRI.create("http://example.org/ontology.owl"));
+        var axiomChanges = IntStream.range(0, axiomCount)
+                .mapToObj(index -> AxiomChange.addAxiom(
+                        dataFactory.getOWLDeclarationAxiom(
+                                dataFactory.getOWLClass(IRI.create("http://example.org/" + commitHash + index))),
+                        ontologyId))
+                .toList();
+        return new OntologyCommitChange(axiomChanges, commitMetadata, "https://github.com/example/repo");
+    }
+}
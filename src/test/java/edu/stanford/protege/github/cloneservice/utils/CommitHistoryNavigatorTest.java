@@ -0,0 +1,275 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link CommitHistoryNavigator} */
+@DisplayName("CommitHistoryNavigator Tests")
+class CommitHistoryNavigatorTest {
+
+    private static final String MAIN_FILE = "main.owl";
+
+    private static final String SIDE_FILE = "side.owl";
+
+    @TempDir
+    Path workingDirectory;
+
+    private TestGitRepository repository;
+
+    /** The names of the commits by their hashes */
+    private final Map<String, String> commitNames = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = TestGitRepository.create(workingDirectory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Walk the first parents and diff merge commits against their first parent")
+    void walkFirstParents() throws Exception {
+        createMergedHistory();
+
+        var walkedCommits = walk(HistoryMode.FIRST_PARENT);
+
+        assertEquals(List.of("M <- E", "E <- B", "B <- A", "A"), walkedCommits);
+    }
+
+    @Test
+    @DisplayName("Walk the commits of merged branches right after their merge commit")
+    void walkMergedBranchesTopologically() throws Exception {
+        createMergedHistory();
+
+        var walkedCommits = walk(HistoryMode.TOPOLOGICAL);
+
+        // Each commit is diffed against the commit walked after it, not against its git parent
+        assertEquals(List.of("M <- D", "D <- C", "C <- E", "E <- B", "B <- A", "A"), walkedCommits);
+    }
+
+    @Test
+    @DisplayName("Check out the files of each walked commit")
+    void checkOutFilesOfEachWalkedCommit() throws Exception {
+        createMergedHistory();
+
+        var mainContents = new ArrayList<String>();
+        var sideContents = new ArrayList<String>();
+        try (var navigator = createNavigator(HistoryMode.TOPOLOGICAL)) {
+            while (navigator.next(ImportMonitor.NONE).isPresent()) {
+                mainContents.add(readFile(MAIN_FILE));
+                sideContents.add(readFile(SIDE_FILE));
+            }
+        }
+
+        assertEquals(List.of("E", "B", "B", "E", "B", "A"), mainContents);
+        assertEquals(List.of("D", "D", "C", "", "", ""), sideContents);
+    }
+
+    @Test
+    @DisplayName("Walk the commits of a branch that is merged twice only once")
+    void walkBranchMergedTwiceOnlyOnce() throws Exception {
+        commit(MAIN_FILE, "A");
+        repository.createBranch("side");
+        commit(SIDE_FILE, "B");
+        repository.checkout("main");
+        merge("side", "M1");
+        repository.checkout("side");
+        commit(SIDE_FILE, "C");
+        repository.checkout("main");
+        commit(MAIN_FILE, "D");
+        merge("side", "M2");
+
+        var walkedCommits = walk(HistoryMode.TOPOLOGICAL);
+
+        assertEquals(List.of("M2 <- C", "C <- D", "D <- M1", "M1 <- B", "B <- A", "A"), walkedCommits);
+    }
+
+    @Test
+    @DisplayName("Jump over the commits that do not modify the tracked files")
+    void jumpOverCommitsThatDoNotModifyTrackedFiles() throws Exception {
+        commit(MAIN_FILE, "A");
+        commit("README.md", "B");
+        commit(MAIN_FILE, "C");
+        commit("README.md", "D");
+        commit("README.md", "E");
+
+        var walkedCommits = walk(HistoryMode.FIRST_PARENT);
+
+        assertEquals(List.of("C <- A", "A"), walkedCommits);
+        // Both commits were reached by jumps rather than by checking out parents
+        assertEquals(0, repository.checkouts());
+    }
+
+    @Test
+    @DisplayName("Close the navigator of the previous commit when jumping to the next one")
+    void closePreviousNavigatorWhenJumping() throws Exception {
+        commit(MAIN_FILE, "A");
+        commit("README.md", "B");
+        commit(MAIN_FILE, "C");
+        commit("README.md", "D");
+        commit(MAIN_FILE, "E");
+
+        var openNavigators = new ArrayList<Integer>();
+        try (var navigator = createNavigator(HistoryMode.FIRST_PARENT)) {
+            while (navigator.next(ImportMonitor.NONE).isPresent()) {
+                openNavigators.add(repository.openNavigators());
+            }
+        }
+
+        assertEquals(List.of(1, 1, 1), openNavigators);
+        assertEquals(0, repository.openNavigators());
+    }
+
+    @Test
+    @DisplayName("Walk the commits that modify a catalog next to the ontology file")
+    void walkCommitsThatModifyCatalog() throws Exception {
+        commit("ontologies/ontology.owl", "A");
+        commit("ontologies/catalog-v001.xml", "B");
+        commit("catalog-v001.xml", "C");
+        var trackedFiles =
+                TrackedFiles.of(workingDirectory, workingDirectory.resolve("ontologies/ontology.owl"), List.of());
+
+        var walkedCommits = walk(createNavigator(HistoryMode.FIRST_PARENT, trackedFiles));
+
+        assertEquals(List.of("B <- A", "A"), walkedCommits);
+    }
+
+    @Test
+    @DisplayName("Follow the tracked files through renames")
+    void followTrackedFilesThroughRenames() throws Exception {
+        commit("old/ontology.owl", "A", ontologyContent("A"));
+        commit("old/ontology.owl", "B", ontologyContent("B"));
+        commitNames.put(repository.move("old/ontology.owl", "new/ontology.owl", "C"), "C");
+        commit("old/ontology.owl", "D", ontologyContent("D"));
+        commit("new/ontology.owl", "E", ontologyContent("E"));
+        var trackedFiles = TrackedFiles.of(workingDirectory, workingDirectory.resolve("new/ontology.owl"), List.of());
+
+        var walkedCommits = new ArrayList<String>();
+        var ontologyPaths = new ArrayList<String>();
+        var headPaths = new ArrayList<String>();
+        try (var navigator = createNavigator(HistoryMode.FIRST_PARENT, trackedFiles)) {
+            for (var commit = navigator.next(ImportMonitor.NONE);
+                    commit.isPresent();
+                    commit = navigator.next(ImportMonitor.NONE)) {
+                walkedCommits.add(describe(commit.get()));
+                var commitTrackedFiles = commit.get().trackedFiles();
+                ontologyPaths.add(commitTrackedFiles.ontologyPath());
+                headPaths.add(commitTrackedFiles.headPath(commitTrackedFiles.ontologyPath()));
+                assertTrue(Files.exists(workingDirectory.resolve(commitTrackedFiles.ontologyPath())));
+            }
+        }
+
+        assertEquals(List.of("E <- C", "C <- B", "B <- A", "A"), walkedCommits);
+        assertEquals(
+                List.of("new/ontology.owl", "new/ontology.owl", "old/ontology.owl", "old/ontology.owl"), ontologyPaths);
+        assertEquals(
+                List.of("new/ontology.owl", "new/ontology.owl", "new/ontology.owl", "new/ontology.owl"), headPaths);
+    }
+
+    @Test
+    @DisplayName("End the walk at the commit that created the ontology file")
+    void endWalkAtCommitThatCreatedOntologyFile() throws Exception {
+        commit("catalog-v001.xml", "A");
+        commit("ontology.owl", "B");
+        commit("catalog-v001.xml", "C");
+        commit("ontology.owl", "D");
+        var trackedFiles = TrackedFiles.of(workingDirectory, workingDirectory.resolve("ontology.owl"), List.of());
+
+        var walkedCommits = walk(createNavigator(HistoryMode.FIRST_PARENT, trackedFiles));
+
+        assertEquals(List.of("D <- C", "C <- B", "B"), walkedCommits);
+    }
+
+    /**
+     * Creates the history {@code A - B - E - M} on main, where {@code M} merges the branch {@code C -
+     * D} that starts at {@code B}
+     */
+    private void createMergedHistory() throws Exception {
+        commit(MAIN_FILE, "A");
+        commit(MAIN_FILE, "B");
+        repository.createBranch("side");
+        commit(SIDE_FILE, "C");
+        commit(SIDE_FILE, "D");
+        repository.checkout("main");
+        commit(MAIN_FILE, "E");
+        merge("side", "M");
+    }
+
+    private void commit(String file, String name) throws Exception {
+        commitNames.put(repository.commit(file, name), name);
+    }
+
+    private void commit(String file, String name, String content) throws Exception {
+        commitNames.put(repository.commit(file, content, name), name);
+    }
+
+    /** Returns an ontology document that differs only slightly between commits, like most edits */
+    private static String ontologyContent(String name) {
+        var content = new StringBuilder("Prefix(:=<http://example.org/>)\nOntology(<http://example.org/ontology>\n");
+        for (int i = 0; i < 20; i++) {
+            content.append("Declaration(Class(:Class").append(i).append("))\n");
+        }
+        return content.append("Declaration(Class(:")
+                .append(name)
+                .append("))\n)\n")
+                .toString();
+    }
+
+    private void merge(String branch, String name) throws Exception {
+        commitNames.put(repository.merge(branch, name), name);
+    }
+
+    private CommitHistoryNavigator createNavigator(HistoryMode mode) throws Exception {
+        var trackedFiles = TrackedFiles.of(
+                workingDirectory, workingDirectory.resolve(MAIN_FILE), List.of(workingDirectory.resolve(SIDE_FILE)));
+        return createNavigator(mode, trackedFiles);
+    }
+
+    private CommitHistoryNavigator createNavigator(HistoryMode mode, TrackedFiles trackedFiles) throws Exception {
+        return new CommitHistoryNavigator(mode, repository::createNavigator, workingDirectory, trackedFiles);
+    }
+
+    /** Walks the history and returns each commit as {@code "commit <- base"} */
+    private List<String> walk(HistoryMode mode) throws Exception {
+        return walk(createNavigator(mode));
+    }
+
+    private List<String> walk(CommitHistoryNavigator historyNavigator) throws Exception {
+        var walkedCommits = new ArrayList<String>();
+        try (var navigator = historyNavigator) {
+            for (var commit = navigator.next(ImportMonitor.NONE);
+                    commit.isPresent();
+                    commit = navigator.next(ImportMonitor.NONE)) {
+                walkedCommits.add(describe(commit.get()));
+            }
+        }
+        return walkedCommits;
+    }
+
+    private String describe(CommitHistoryNavigator.NavigatedCommit commit) {
+        var name = commitNames.get(commit.commitMetadata().commitHash());
+        return commit.baseCommitHash()
+                .map(baseCommitHash -> name + " <- " + commitNames.get(baseCommitHash))
+                .orElse(name);
+    }
+
+    private String readFile(String file) throws Exception {
+        var path = workingDirectory.resolve(file);
+        return Files.exists(path) ? Files.readString(path) : "";
+    }
+}
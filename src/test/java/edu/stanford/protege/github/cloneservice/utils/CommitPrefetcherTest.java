@@ -0,0 +1,269 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+
+/** Unit tests for {@link CommitPrefetcher} */
+@DisplayName("CommitPrefetcher Tests")
+class CommitPrefetcherTest {
+
+    private static final int LOOK_AHEAD = 2;
+
+    private static final String ONTOLOGY_FILE = "ontologies/ontology.owl";
+
+    @TempDir
+    Path workingDirectory;
+
+    private TestGitRepository repository;
+
+    private Path ontologyFile;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CommitPrefetcher commitPrefetcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = TestGitRepository.create(workingDirectory);
+        ontologyFile = workingDirectory.resolve(ONTOLOGY_FILE);
+        meterRegistry = new SimpleMeterRegistry();
+        var properties = new CommitPrefetchProperties();
+        properties.setLookAhead(LOOK_AHEAD);
+        commitPrefetcher =
+                new CommitPrefetcher(properties, new CommitHistoryProperties(), new PipelineMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        commitPrefetcher.shutdown();
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when properties are null")
+    void throwExceptionWhenPropertiesNull() {
+        var pipelineMetrics = new PipelineMetrics(meterRegistry);
+        var historyProperties = new CommitHistoryProperties();
+        assertThrows(NullPointerException.class, () -> new CommitPrefetcher(null, historyProperties, pipelineMetrics));
+    }
+
+    @Test
+    @DisplayName("Walk the commits from HEAD with a snapshot of the ontology documents of each commit")
+    void walkCommitsWithSnapshotOfEachCommit() throws Exception {
+        createHistory(5);
+
+        var contents = new ArrayList<String>();
+        var commitMessages = new ArrayList<String>();
+        try (var commitWalk = open(commitPrefetcher, repository::createNavigator)) {
+            for (var commit = commitWalk.next(); commit.isPresent(); commit = commitWalk.next()) {
+                // Give the producer time to check out the next commits
+                Thread.sleep(20);
+                assertNotEquals(workingDirectory, commit.get().documentDirectory());
+                assertEquals(
+                        commit.get().documentDirectory().resolve("ontologies").resolve("ontology.owl"),
+                        commit.get().ontologyFile());
+                contents.add(Files.readString(commit.get().ontologyFile()));
+                commitMessages.add(commit.get().commitMetadata().commitMessage());
+            }
+        }
+
+        assertEquals(List.of("commit-4", "commit-3", "commit-2", "commit-1", "commit-0"), contents);
+        assertEquals(List.of("commit-4", "commit-3", "commit-2", "commit-1", "commit-0"), commitMessages);
+        assertEquals(
+                5,
+                meterRegistry
+                        .get(PipelineMetrics.PREFETCH_TIMER)
+                        .tag("outcome", "success")
+                        .timer()
+                        .count());
+        assertTrue(meterRegistry
+                        .get(PipelineMetrics.PREFETCH_STALL_TIMER)
+                        .tag("side", "consumer")
+                        .timer()
+                        .count()
+                > 0);
+    }
+
+    @Test
+    @DisplayName("Check out at most the look-ahead of commits ahead of the walk")
+    void checkOutAtMostLookAheadOfCommits() throws Exception {
+        createHistory(50);
+
+        try (var commitWalk = open(commitPrefetcher, repository::createNavigator)) {
+            assertTrue(commitWalk.next().isPresent());
+            Thread.sleep(200);
+
+            // The queued commits and the one waiting to be queued
+            assertTrue(repository.checkouts() <= LOOK_AHEAD + 1, "Checkouts: " + repository.checkouts());
+        }
+    }
+
+    @Test
+    @DisplayName("Delete the snapshots when the walk is closed")
+    void deleteSnapshotsWhenWalkClosed() throws Exception {
+        createHistory(10);
+        var snapshotsBefore = listSnapshotDirectories();
+
+        Path documentDirectory;
+        try (var commitWalk = open(commitPrefetcher, repository::createNavigator)) {
+            documentDirectory = commitWalk.next().orElseThrow().documentDirectory();
+            assertTrue(Files.exists(documentDirectory));
+            // Let the producer fill the queue
+            Thread.sleep(100);
+        }
+
+        assertFalse(Files.exists(documentDirectory));
+        assertEquals(snapshotsBefore, listSnapshotDirectories());
+    }
+
+    @Test
+    @DisplayName("Rethrow the failure of a checkout")
+    void rethrowFailureOfCheckout() throws Exception {
+        createHistory(3);
+        var commitNavigator = repository.createNavigator();
+        doThrow(new IllegalStateException("Checkout failed"))
+                .when(commitNavigator)
+                .checkoutParent();
+
+        try (var commitWalk = open(commitPrefetcher, () -> commitNavigator)) {
+            assertTrue(commitWalk.next().isPresent());
+            var exception = assertThrows(IllegalStateException.class, commitWalk::next);
+            assertEquals("Checkout failed", exception.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Check out each commit on the calling thread without look-ahead")
+    void checkOutOnCallingThreadWithoutLookAhead() throws Exception {
+        createHistory(3);
+        var inPlacePrefetcher = CommitPrefetcher.inPlace(new PipelineMetrics(meterRegistry));
+
+        try (var commitWalk = open(inPlacePrefetcher, repository::createNavigator)) {
+            var head = commitWalk.next().orElseThrow();
+            assertEquals(0, repository.checkouts());
+            assertEquals(ontologyFile, head.ontologyFile());
+            assertEquals(workingDirectory, head.documentDirectory());
+
+            assertTrue(commitWalk.next().isPresent());
+            assertEquals(1, repository.checkouts());
+            assertEquals("commit-1", Files.readString(ontologyFile));
+        }
+    }
+
+    @Test
+    @DisplayName("Relocate the documents of ontologies loaded from a snapshot to the working directory")
+    void relocateDocumentsLoadedFromSnapshot() throws Exception {
+        repository.commit(
+                ONTOLOGY_FILE,
+                "Prefix(:=<http://example.org/>) Ontology(<http://example.org/ontology> Declaration(Class(:A)))");
+
+        try (var commitWalk = open(commitPrefetcher, repository::createNavigator)) {
+            var commit = commitWalk.next().orElseThrow();
+            var ontologyManager = OWLManager.createOWLOntologyManager();
+            var ontology = ontologyManager.loadOntologyFromOntologyDocument(
+                    commit.ontologyFile().toFile());
+
+            commit.relocateDocuments(List.of(ontology));
+
+            assertEquals(IRI.create(ontologyFile.toFile()), ontologyManager.getOntologyDocumentIRI(ontology));
+        }
+    }
+
+    @Test
+    @DisplayName("Load each commit from the path of the ontology file in that commit")
+    void loadEachCommitFromPathOfOntologyFileInThatCommit() throws Exception {
+        var content = "Prefix(:=<http://example.org/>) Ontology(Declaration(Class(<http://example.org/%s>)))";
+        repository.commit("old/ontology.owl", content.formatted("A"));
+        repository.move("old/ontology.owl", ONTOLOGY_FILE, "move");
+        repository.commit(ONTOLOGY_FILE, content.formatted("B"));
+
+        var documentIris = new ArrayList<IRI>();
+        var ontologyFiles = new ArrayList<Path>();
+        try (var commitWalk = open(commitPrefetcher, repository::createNavigator)) {
+            for (var commit = commitWalk.next(); commit.isPresent(); commit = commitWalk.next()) {
+                ontologyFiles.add(
+                        commit.get().documentDirectory().relativize(commit.get().ontologyFile()));
+                var ontologyManager = OWLManager.createOWLOntologyManager();
+                var ontology = ontologyManager.loadOntologyFromOntologyDocument(
+                        commit.get().ontologyFile().toFile());
+                commit.get().relocateDocuments(List.of(ontology));
+                documentIris.add(ontologyManager.getOntologyDocumentIRI(ontology));
+            }
+        }
+
+        assertEquals(
+                List.of(Path.of(ONTOLOGY_FILE), Path.of(ONTOLOGY_FILE), Path.of("old/ontology.owl")), ontologyFiles);
+        // The anonymous ontologies of all commits are located at the path of the file at HEAD
+        var headDocumentIri = IRI.create(ontologyFile.toFile());
+        assertEquals(List.of(headDocumentIri, headDocumentIri, headDocumentIri), documentIris);
+    }
+
+    @Test
+    @DisplayName("Copy only the tracked files and catalogs into the snapshots, whatever their extension")
+    void copyOnlyTrackedFilesAndCatalogsIntoSnapshots() throws Exception {
+        var importFile = "imports/shared.json";
+        var catalogFile = "ontologies/catalog-v001.xml";
+        repository.commit(importFile, "{}");
+        repository.commit(catalogFile, "<catalog/>");
+        repository.commit("release/ontology-full.owl", "release");
+        repository.commit("ontologies/notes.owl", "notes");
+        repository.commit(ONTOLOGY_FILE, "ontology");
+        var trackedFiles =
+                TrackedFiles.of(workingDirectory, ontologyFile, List.of(workingDirectory.resolve(importFile)));
+
+        try (var commitWalk = commitPrefetcher.open(
+                repository::createNavigator, workingDirectory, trackedFiles, ImportMonitor.NONE)) {
+            var snapshotDirectory = commitWalk.next().orElseThrow().documentDirectory();
+
+            try (var files = Files.walk(snapshotDirectory)) {
+                assertEquals(
+                        List.of(Path.of(importFile), Path.of(catalogFile), Path.of(ONTOLOGY_FILE)),
+                        files.filter(Files::isRegularFile)
+                                .map(snapshotDirectory::relativize)
+                                .sorted()
+                                .toList());
+            }
+            assertEquals("{}", Files.readString(snapshotDirectory.resolve(importFile)));
+        }
+    }
+
+    private static List<Path> listSnapshotDirectories() throws Exception {
+        try (var paths = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return paths.filter(path -> path.getFileName().toString().startsWith("webprotege-commit-snapshot-"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private CommitPrefetcher.CommitWalk open(
+            CommitPrefetcher prefetcher, CommitPrefetcher.CommitNavigatorFactory commitNavigatorFactory)
+            throws Exception {
+        return prefetcher.open(
+                commitNavigatorFactory,
+                workingDirectory,
+                TrackedFiles.of(workingDirectory, ontologyFile, List.of()),
+                ImportMonitor.NONE);
+    }
+
+    /** Creates a linear history of the given number of commits, each writing its name to the ontology file */
+    private void createHistory(int commitCount) throws Exception {
+        for (int commit = 0; commit < commitCount; commit++) {
+            repository.commit(ONTOLOGY_FILE, "commit-" + commit);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link OntologyDiffExecutor} */
+@DisplayName("OntologyDiffExecutor Tests")
+class OntologyDiffExecutorTest {
+
+    private OntologyDiffExecutor diffExecutor;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new OntologyDiffProperties();
+        properties.setParallelism(4);
+        properties.setParallelThreshold(4);
+        diffExecutor = new OntologyDiffExecutor(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        diffExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Throw NullPointerException when properties are null")
+    void throwExceptionWhenPropertiesNull() {
+        assertThrows(NullPointerException.class, () -> new OntologyDiffExecutor(null));
+    }
+
+    @Test
+    @DisplayName("Run small closures on the calling thread")
+    void runSmallClosuresOnCallingThread() {
+        var callingThread = Thread.currentThread();
+
+        var results = diffExecutor.runAll(List.<Supplier<Thread>>of(Thread::currentThread, Thread::currentThread));
+
+        assertEquals(List.of(callingThread, callingThread), results);
+    }
+
+    @Test
+    @DisplayName("Run large closures on the diff threads")
+    void runLargeClosuresOnDiffThreads() {
+        var results =
+                diffExecutor.runAll(diffs(8, index -> Thread.currentThread().getName()));
+
+        assertTrue(results.stream().allMatch(name -> name.startsWith("ontology-diff-")));
+    }
+
+    @Test
+    @DisplayName("Return the results in the order of the diffs")
+    void returnResultsInOrderOfDiffs() {
+        var results = diffExecutor.runAll(diffs(16, index -> {
+            // Let the earlier diffs finish last
+            sleepQuietly(16 - index);
+            return index;
+        }));
+
+        assertEquals(IntStream.range(0, 16).boxed().toList(), results);
+    }
+
+    @Test
+    @DisplayName("Run all diffs on the calling thread when sequential")
+    void runAllDiffsOnCallingThreadWhenSequential() {
+        var callingThread = Thread.currentThread();
+
+        var results = OntologyDiffExecutor.sequential().runAll(diffs(16, index -> Thread.currentThread()));
+
+        assertTrue(results.stream().allMatch(callingThread::equals));
+    }
+
+    @Test
+    @DisplayName("Rethrow the failure of a diff")
+    void rethrowFailureOfDiff() {
+        var exception = assertThrows(
+                IllegalStateException.class,
+                () -> diffExecutor.runAll(diffs(8, index -> {
+                    if (index == 5) {
+                        throw new IllegalStateException("Diff failed");
+                    }
+                    return index;
+                })));
+
+        assertEquals("Diff failed", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Throw CancellationException when interrupted while waiting for the diffs")
+    void throwCancellationExceptionWhenInterrupted() throws Exception {
+        var started = new CountDownLatch(1);
+        var failure = new AtomicReference<Throwable>();
+        var interruptRestored = new AtomicReference<Boolean>();
+        var caller = Executors.newSingleThreadExecutor();
+        try {
+            var run = caller.submit(() -> {
+                try {
+                    diffExecutor.runAll(diffs(8, index -> {
+                        started.countDown();
+                        sleepQuietly(5_000);
+                        return index;
+                    }));
+                } catch (Throwable t) {
+                    failure.set(t);
+                    interruptRestored.set(Thread.currentThread().isInterrupted());
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            run.cancel(true);
+            caller.shutdown();
+            assertTrue(caller.awaitTermination(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(CancellationException.class, failure.get());
+            assertTrue(interruptRestored.get());
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    private static <T> List<Supplier<T>> diffs(int count, IntFunction<T> diff) {
+        return IntStream.range(0, count)
+                .<Supplier<T>>mapToObj(index -> () -> diff.apply(index))
+                .toList();
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
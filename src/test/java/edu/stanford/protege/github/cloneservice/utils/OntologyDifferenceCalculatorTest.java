@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import edu.stanford.protege.github.cloneservice.model.AxiomChange;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -178,6 +180,39 @@ class OntologyDifferenceCalculatorTest {
         assertTrue(result.stream().allMatch(change -> change.operationType() == AxiomChange.OperationType.ADD));
     }
 
+    @Test
+    @DisplayName("Should add the axioms of a new ontology in their order")
+    void addAxiomsOfNewOntologyInTheirOrder() {
+        var currentAxioms = new LinkedHashSet<>(List.of(axiom3, axiom1, axiom2));
+
+        when(currentOntology.getAxioms()).thenReturn(currentAxioms);
+        when(previousOntology.getAxioms()).thenReturn(Set.of());
+
+        var result = differenceCalculator.calculateAxiomChanges(currentOntology, previousOntology, ontologyId);
+
+        assertEquals(
+                List.of(
+                        AxiomChange.addAxiom(axiom3, ontologyId),
+                        AxiomChange.addAxiom(axiom1, ontologyId),
+                        AxiomChange.addAxiom(axiom2, ontologyId)),
+                result);
+    }
+
+    @Test
+    @DisplayName("Should remove the axioms of a removed ontology in their order")
+    void removeAxiomsOfRemovedOntologyInTheirOrder() {
+        var previousAxioms = new LinkedHashSet<>(List.of(axiom2, axiom3));
+
+        when(currentOntology.getAxioms()).thenReturn(Set.of());
+        when(previousOntology.getAxioms()).thenReturn(previousAxioms);
+
+        var result = differenceCalculator.calculateAxiomChanges(currentOntology, previousOntology, ontologyId);
+
+        assertEquals(
+                List.of(AxiomChange.removeAxiom(axiom2, ontologyId), AxiomChange.removeAxiom(axiom3, ontologyId)),
+                result);
+    }
+
     @Test
     @DisplayName("Should handle both ontologies being empty")
     void handleBothOntologiesEmpty() {
@@ -4,22 +4,45 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import com.google.common.collect.Lists;
+import edu.stanford.protege.commitnavigator.CommitNavigatorBuilder;
 import edu.stanford.protege.commitnavigator.GitHubRepository;
 import edu.stanford.protege.commitnavigator.config.RepositoryConfig;
 import edu.stanford.protege.github.cloneservice.exception.OntologyComparisonException;
+import edu.stanford.protege.github.cloneservice.metrics.PipelineMetrics;
+import edu.stanford.protege.github.cloneservice.model.AxiomChange;
+import edu.stanford.protege.github.cloneservice.model.OntologyCommitChange;
 import edu.stanford.protege.github.cloneservice.model.RelativeFilePath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
 
 /** Unit tests for {@link OntologyHistoryAnalyzer} */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("OntologyHistoryAnalyzer Tests")
 class OntologyHistoryAnalyzerTest {
 
+    private static final String ONTOLOGY_FILE = "ontologies/ontology.ofn";
+
+    private static final String IMPORTED_FILE = "ontologies/imported.owl";
+
+    private static final String REPOSITORY_URL = "https://github.com/test/repo.git";
+
+    @TempDir
+    Path workingDirectory;
+
     private OntologyHistoryAnalyzer historyAnalyzer;
 
     @Mock
@@ -34,16 +57,33 @@ class OntologyHistoryAnalyzerTest {
     @Mock
     private RepositoryConfig repositoryConfig;
 
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
+    private final CommitPrefetcher commitPrefetcher = CommitPrefetcher.inPlace(pipelineMetrics);
+
     @BeforeEach
     void setUp() {
-        historyAnalyzer = new OntologyHistoryAnalyzer(ontologyLoader, differenceCalculator);
+        historyAnalyzer = new OntologyHistoryAnalyzer(
+                ontologyLoader,
+                differenceCalculator,
+                pipelineMetrics,
+                OntologyDiffExecutor.sequential(),
+                commitPrefetcher,
+                CommitChangeSpiller.onHeap());
     }
 
     @Test
     @DisplayName("Should throw NullPointerException when ontologyLoader is null")
     void throwExceptionWhenOntologyLoaderNull() {
-        var exception =
-                assertThrows(NullPointerException.class, () -> new OntologyHistoryAnalyzer(null, differenceCalculator));
+        var exception = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        null,
+                        differenceCalculator,
+                        pipelineMetrics,
+                        OntologyDiffExecutor.sequential(),
+                        commitPrefetcher,
+                        CommitChangeSpiller.onHeap()));
 
         assertEquals("OntologyLoader cannot be null", exception.getMessage());
     }
@@ -51,12 +91,67 @@ class OntologyHistoryAnalyzerTest {
     @Test
     @DisplayName("Should throw NullPointerException when differenceCalculator is null")
     void throwExceptionWhenDifferenceCalculatorNull() {
-        var exception =
-                assertThrows(NullPointerException.class, () -> new OntologyHistoryAnalyzer(ontologyLoader, null));
+        var exception = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        ontologyLoader,
+                        null,
+                        pipelineMetrics,
+                        OntologyDiffExecutor.sequential(),
+                        commitPrefetcher,
+                        CommitChangeSpiller.onHeap()));
 
         assertEquals("OntologyDifferenceCalculator cannot be null", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Should throw NullPointerException when diffExecutor is null")
+    void throwExceptionWhenDiffExecutorNull() {
+        var exception = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        ontologyLoader,
+                        differenceCalculator,
+                        pipelineMetrics,
+                        null,
+                        commitPrefetcher,
+                        CommitChangeSpiller.onHeap()));
+
+        assertEquals("OntologyDiffExecutor cannot be null", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw NullPointerException when commitPrefetcher is null")
+    void throwExceptionWhenCommitPrefetcherNull() {
+        var exception = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        ontologyLoader,
+                        differenceCalculator,
+                        pipelineMetrics,
+                        OntologyDiffExecutor.sequential(),
+                        null,
+                        CommitChangeSpiller.onHeap()));
+
+        assertEquals("CommitPrefetcher cannot be null", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw NullPointerException when commitChangeSpiller is null")
+    void throwExceptionWhenCommitChangeSpillerNull() {
+        var exception = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        ontologyLoader,
+                        differenceCalculator,
+                        pipelineMetrics,
+                        OntologyDiffExecutor.sequential(),
+                        commitPrefetcher,
+                        null));
+
+        assertEquals("CommitChangeSpiller cannot be null", exception.getMessage());
+    }
+
     @Test
     @DisplayName("Should throw NullPointerException when ontologyFilePath is null")
     void throwExceptionWhenOntologyFilePathNull() {
@@ -103,13 +198,27 @@ class OntologyHistoryAnalyzerTest {
     @DisplayName("Should validate constructor parameters using Objects.requireNonNull")
     void validateConstructorParametersUsingObjectsRequireNonNull() {
         // Test first parameter validation
-        var exception1 =
-                assertThrows(NullPointerException.class, () -> new OntologyHistoryAnalyzer(null, differenceCalculator));
+        var exception1 = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        null,
+                        differenceCalculator,
+                        pipelineMetrics,
+                        OntologyDiffExecutor.sequential(),
+                        commitPrefetcher,
+                        CommitChangeSpiller.onHeap()));
         assertEquals("OntologyLoader cannot be null", exception1.getMessage());
 
         // Test second parameter validation
-        var exception2 =
-                assertThrows(NullPointerException.class, () -> new OntologyHistoryAnalyzer(ontologyLoader, null));
+        var exception2 = assertThrows(
+                NullPointerException.class,
+                () -> new OntologyHistoryAnalyzer(
+                        ontologyLoader,
+                        null,
+                        pipelineMetrics,
+                        OntologyDiffExecutor.sequential(),
+                        commitPrefetcher,
+                        CommitChangeSpiller.onHeap()));
         assertEquals("OntologyDifferenceCalculator cannot be null", exception2.getMessage());
     }
 
@@ -127,4 +236,223 @@ class OntologyHistoryAnalyzerTest {
                 assertThrows(NullPointerException.class, () -> historyAnalyzer.getCommitHistory(ontologyFile, null));
         assertEquals("gitHubRepository cannot be null", exception2.getMessage());
     }
+
+    @Test
+    @DisplayName("Record the changes of every release of an ontology under the ID of its latest release")
+    void recordChangesOfEveryReleaseUnderLatestId() throws Exception {
+        try (var repository = TestGitRepository.create(workingDirectory)) {
+            repository.commit(IMPORTED_FILE, importedOntology("X"), "imported");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("1", "A"), "1");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("2", "A", "B"), "2");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("3", "B", "C"), "3");
+
+            var history = getCommitHistory(repository);
+
+            var latestId = new OWLOntologyID(
+                    IRI.create("http://example.org/release"), IRI.create("http://example.org/release/3"));
+            var importedId = new OWLOntologyID(IRI.create("http://example.org/imported"));
+            assertEquals(List.of("3", "2", "1"), getCommitMessages(history));
+            assertEquals(
+                    Set.of(
+                            "REMOVE Declaration(Class(<http://example.org/release#A>)) " + latestId,
+                            "ADD Declaration(Class(<http://example.org/release#C>)) " + latestId),
+                    describeChanges(history.get(0)));
+            assertEquals(
+                    Set.of("ADD Declaration(Class(<http://example.org/release#B>)) " + latestId),
+                    describeChanges(history.get(1)));
+            // The imported ontology has kept its ID, and the release its first version was loaded with
+            // is recorded under the latest one
+            assertEquals(
+                    Set.of(
+                            "ADD Declaration(Class(<http://example.org/release#A>)) " + latestId,
+                            "ADD Declaration(Class(<http://example.org/imported#X>)) " + importedId),
+                    describeChanges(history.get(2)));
+        }
+    }
+
+    @Test
+    @DisplayName("Reuse the imported ontologies of the next commit when the imports closure is unchanged")
+    void reuseImportedOntologiesWhenImportsClosureUnchanged() throws Exception {
+        try (var repository = TestGitRepository.create(workingDirectory)) {
+            repository.commit(IMPORTED_FILE, importedOntology("X"), "imported");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("1", "A"), "1");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("2", "A", "B"), "2");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("3", "B", "C"), "3");
+            var loader = spy(new OntologyLoader(new OntologyManagerProvider()));
+
+            var history = getCommitHistory(repository, commitPrefetcher, loader);
+
+            assertEquals(List.of("3", "2", "1"), getCommitMessages(history));
+            // The imports closure is only parsed at HEAD, and the older commits only parse their root
+            // ontology document
+            verify(loader, times(1)).loadOntologyWithImports(any(), any());
+            verify(loader, times(2)).loadOntologyReusingImports(any(), any(), any());
+            verify(loader, times(2)).loadOntologyWithoutImports(eq(workingDirectory.resolve(ONTOLOGY_FILE)), any());
+            verify(loader, never()).loadOntologyWithoutImports(eq(workingDirectory.resolve(IMPORTED_FILE)), any());
+            var importedId = new OWLOntologyID(IRI.create("http://example.org/imported"));
+            assertTrue(describeChanges(history.get(2))
+                    .contains("ADD Declaration(Class(<http://example.org/imported#X>)) " + importedId));
+        }
+    }
+
+    @Test
+    @DisplayName("Credit the changes of an import that only older commits track to the next walked commit")
+    void creditChangesOfImportOfOlderCommitsToNextWalkedCommit() throws Exception {
+        try (var repository = TestGitRepository.create(workingDirectory)) {
+            repository.commit(IMPORTED_FILE, importedOntology("X"), "imported");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("1", "A"), "1");
+            // The import is not tracked at HEAD, so this commit is not walked
+            repository.commit(IMPORTED_FILE, importedOntology("Y"), "imported-2");
+            repository.commit(ONTOLOGY_FILE, releaseOntology("2", "A", "B"), "2");
+            repository.commit(
+                    ONTOLOGY_FILE,
+                    "Ontology(<http://example.org/release> <http://example.org/release/3>"
+                            + " Declaration(Class(<http://example.org/release#A>))"
+                            + " Declaration(Class(<http://example.org/release#B>)))",
+                    "3");
+
+            var history = getCommitHistory(repository);
+
+            var latestId = new OWLOntologyID(
+                    IRI.create("http://example.org/release"), IRI.create("http://example.org/release/3"));
+            var importedId = new OWLOntologyID(IRI.create("http://example.org/imported"));
+            assertEquals(List.of("3", "2", "1"), getCommitMessages(history));
+            assertEquals(
+                    Set.of("REMOVE Declaration(Class(<http://example.org/imported#Y>)) " + importedId),
+                    describeChanges(history.get(0)));
+            // The change of the import between the walked commits is part of the diff of the next one
+            assertEquals(
+                    Set.of(
+                            "ADD Declaration(Class(<http://example.org/release#B>)) " + latestId,
+                            "REMOVE Declaration(Class(<http://example.org/imported#X>)) " + importedId,
+                            "ADD Declaration(Class(<http://example.org/imported#Y>)) " + importedId),
+                    describeChanges(history.get(1)));
+        }
+    }
+
+    @Test
+    @DisplayName("Replay the topological history of a merge with diverging sides up to HEAD")
+    void replayTopologicalHistoryOfMergeWithDivergingSides() throws Exception {
+        try (var repository = TestGitRepository.create(workingDirectory)) {
+            repository.commit(ONTOLOGY_FILE, ontology("X"), "A");
+            repository.createBranch("side");
+            repository.commit(ONTOLOGY_FILE, ontology("X", "Y"), "B1");
+            repository.commit(ONTOLOGY_FILE, ontology("X", "Y", "Z"), "B2");
+            repository.checkout("main");
+            repository.commit(ONTOLOGY_FILE, ontology("X", "W"), "P1");
+            // The merge keeps the side branch and drops the class that P1 added
+            repository.merge("side", ONTOLOGY_FILE, ontology("X", "Y", "Z"), "M");
+
+            var history = getCommitHistory(repository, createCommitPrefetcher(HistoryMode.TOPOLOGICAL));
+
+            assertEquals(List.of("M", "B2", "B1", "P1", "A"), getCommitMessages(history));
+            // Every change applies to the replayed state of the previous revision
+            var replayedAxioms = new HashSet<String>();
+            for (var commitChange : Lists.reverse(history)) {
+                for (var axiomChange : commitChange.axiomChanges()) {
+                    var axiom = axiomChange.axiom().toString();
+                    if (axiomChange.operationType() == AxiomChange.OperationType.ADD) {
+                        assertTrue(replayedAxioms.add(axiom), "Added twice: " + axiom);
+                    } else {
+                        assertTrue(replayedAxioms.remove(axiom), "Removed while absent: " + axiom);
+                    }
+                }
+            }
+            assertEquals(
+                    Set.of(
+                            "Declaration(Class(<http://example.org/merged#X>))",
+                            "Declaration(Class(<http://example.org/merged#Y>))",
+                            "Declaration(Class(<http://example.org/merged#Z>))"),
+                    replayedAxioms);
+        }
+    }
+
+    /** Analyzes the history of the ontology file in the given repository from its current HEAD */
+    private List<OntologyCommitChange> getCommitHistory(TestGitRepository repository) throws Exception {
+        return getCommitHistory(repository, commitPrefetcher);
+    }
+
+    /** Creates a prefetcher that walks the history in the given mode on the calling thread */
+    private CommitPrefetcher createCommitPrefetcher(HistoryMode historyMode) {
+        var properties = new CommitPrefetchProperties();
+        properties.setLookAhead(0);
+        var historyProperties = new CommitHistoryProperties();
+        historyProperties.setMode(historyMode);
+        return new CommitPrefetcher(properties, historyProperties, pipelineMetrics);
+    }
+
+    private List<OntologyCommitChange> getCommitHistory(TestGitRepository repository, CommitPrefetcher commitPrefetcher)
+            throws Exception {
+        return getCommitHistory(repository, commitPrefetcher, new OntologyLoader(new OntologyManagerProvider()));
+    }
+
+    private List<OntologyCommitChange> getCommitHistory(
+            TestGitRepository repository, CommitPrefetcher commitPrefetcher, OntologyLoader ontologyLoader)
+            throws Exception {
+        when(repositoryConfig.getRepositoryUrl()).thenReturn(REPOSITORY_URL);
+        when(gitHubRepository.getConfig()).thenReturn(repositoryConfig);
+        when(gitHubRepository.getWorkingDirectory()).thenReturn(repository.workingDirectory());
+        var analyzer = new OntologyHistoryAnalyzer(
+                ontologyLoader,
+                new OntologyDifferenceCalculator(),
+                pipelineMetrics,
+                OntologyDiffExecutor.sequential(),
+                commitPrefetcher,
+                CommitChangeSpiller.onHeap());
+        // The navigators of the analyzer walk the test repository
+        var commitNavigatorBuilder = mock(CommitNavigatorBuilder.class, RETURNS_SELF);
+        when(commitNavigatorBuilder.build()).thenAnswer(invocation -> repository.createNavigator());
+        try (var commitNavigatorBuilders = mockStatic(CommitNavigatorBuilder.class)) {
+            commitNavigatorBuilders
+                    .when(() -> CommitNavigatorBuilder.forWorkingDirectory(any()))
+                    .thenReturn(commitNavigatorBuilder);
+            return analyzer.getCommitHistory(new RelativeFilePath(ONTOLOGY_FILE), gitHubRepository);
+        }
+    }
+
+    private static List<String> getCommitMessages(List<OntologyCommitChange> history) {
+        return history.stream()
+                .map(commitChange -> commitChange.commitMetadata().commitMessage())
+                .toList();
+    }
+
+    /** Describes each axiom change of a commit with its operation, axiom and recorded ontology ID */
+    private static Set<String> describeChanges(OntologyCommitChange commitChange) {
+        return commitChange.axiomChanges().stream()
+                .map(OntologyHistoryAnalyzerTest::describeChange)
+                .collect(Collectors.toSet());
+    }
+
+    private static String describeChange(AxiomChange axiomChange) {
+        return axiomChange.operationType() + " " + axiomChange.axiom() + " " + axiomChange.ontologyID();
+    }
+
+    private static String ontology(String... classNames) {
+        var declarations = new StringBuilder();
+        for (var className : classNames) {
+            declarations.append(" Declaration(Class(<http://example.org/merged#" + className + ">))");
+        }
+        return "Ontology(<http://example.org/merged>" + declarations + ")";
+    }
+
+    private static String releaseOntology(String version, String... classNames) {
+        var declarations = new StringBuilder();
+        for (var className : classNames) {
+            declarations.append(" Declaration(Class(<http://example.org/release#" + className + ">))");
+        }
+        return "Ontology(<http://example.org/release> <http://example.org/release/" + version + ">"
+                + " Import(<http://example.org/imported>)" + declarations + ")";
+    }
+
+    private static String importedOntology(String className) {
+        return """
+                <?xml version="1.0"?>
+                <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#"
+                         xmlns:owl="http://www.w3.org/2002/07/owl#">
+                    <owl:Ontology rdf:about="http://example.org/imported"/>
+                    <owl:Class rdf:about="http://example.org/imported#%s"/>
+                </rdf:RDF>
+                """
+                .formatted(className);
+    }
 }
@@ -2,7 +2,9 @@ package edu.stanford.protege.github.cloneservice.utils;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import edu.stanford.protege.github.cloneservice.exception.ImportCancelledException;
 import edu.stanford.protege.github.cloneservice.exception.OntologyLoadException;
+import edu.stanford.protege.github.cloneservice.job.ImportMonitor;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -37,6 +39,15 @@ class OntologyLoaderTest {
         assertNotNull(ontology.getOntologyID());
     }
 
+    @Test
+    @DisplayName("Should return the same empty ontology on every call")
+    void returnSameEmptyOntologyOnEveryCall() {
+        var ontology = ontologyLoader.getEmptyOntology();
+
+        assertTrue(ontology.getAxioms().isEmpty());
+        assertSame(ontology, ontologyLoader.getEmptyOntology());
+    }
+
     @Test
     @DisplayName("Should throw OntologyLoadException when ontology file does not exist")
     void throwExceptionWhenFileDoesNotExist() {
@@ -274,6 +285,55 @@ class OntologyLoaderTest {
         assertTrue(mainOntology.getOntologyID().getOntologyIRI().isPresent());
     }
 
+    @Test
+    @DisplayName("Should parse only the root ontology when reusing loaded imports")
+    void parseOnlyRootOntologyWhenReusingLoadedImports() throws IOException {
+        var mainFile = tempDir.resolve("main.ofn");
+        Files.writeString(
+                tempDir.resolve("imported.owl"),
+                """
+                <?xml version="1.0"?>
+                <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#"
+                         xmlns:owl="http://www.w3.org/2002/07/owl#">
+                    <owl:Ontology rdf:about="http://example.org/imported"/>
+                    <owl:Class rdf:about="http://example.org/imported#%s"/>
+                </rdf:RDF>
+                """
+                        .formatted("A"));
+        Files.writeString(mainFile, mainOntologyImporting("Import(<http://example.org/imported>)", "B"));
+        var loadedOntologies = ontologyLoader.loadOntologyWithImports(mainFile);
+
+        // The imported document is not parsed again, even if it can no longer be parsed
+        Files.writeString(tempDir.resolve("imported.owl"), "This is not a valid OWL file");
+        Files.writeString(mainFile, mainOntologyImporting("Import(<http://example.org/imported>)", "C"));
+        var result = ontologyLoader.loadOntologyReusingImports(mainFile, loadedOntologies, ImportMonitor.NONE);
+
+        assertTrue(result.isPresent());
+        assertEquals(2, result.get().size());
+        assertNotSame(loadedOntologies.get(0), result.get().get(0));
+        assertEquals(2, result.get().get(0).getAxiomCount());
+        assertSame(loadedOntologies.get(1), result.get().get(1));
+    }
+
+    @Test
+    @DisplayName("Should not reuse loaded imports when the root ontology has a new import")
+    void notReuseLoadedImportsWhenRootOntologyHasNewImport() throws IOException {
+        var mainFile = tempDir.resolve("main.ofn");
+        Files.writeString(mainFile, mainOntologyImporting("", "B"));
+        var loadedOntologies = ontologyLoader.loadOntologyWithImports(mainFile);
+
+        Files.writeString(mainFile, mainOntologyImporting("Import(<http://example.org/imported>)", "B"));
+        var result = ontologyLoader.loadOntologyReusingImports(mainFile, loadedOntologies, ImportMonitor.NONE);
+
+        assertTrue(result.isEmpty());
+    }
+
+    private static String mainOntologyImporting(String imports, String className) {
+        return "Ontology(<http://example.org/main> " + imports + " Declaration(Class(<http://example.org/main#"
+                + className + ">)) SubClassOf(<http://example.org/main#" + className
+                + "> <http://example.org/imported#A>))";
+    }
+
     @Test
     @DisplayName("Should load ontology with boolean parameter - includeImports=true")
     void loadOntologyFromFileWithImportsTrue() throws IOException {
@@ -341,4 +401,30 @@ class OntologyLoaderTest {
 
         assertEquals("targetOntology cannot be null", exception.getMessage());
     }
+
+    @Test
+    @DisplayName("Should stop loading when the import monitor reports a cancellation")
+    void stopLoadingWhenImportMonitorReportsCancellation() throws IOException {
+        var owlFile = tempDir.resolve("cancelled.owl");
+        Files.writeString(
+                owlFile,
+                """
+                <?xml version="1.0"?>
+                <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#"
+                         xmlns:owl="http://www.w3.org/2002/07/owl#">
+                    <owl:Ontology rdf:about="http://example.org/cancelled"/>
+                </rdf:RDF>
+                """);
+
+        assertThrows(
+                ImportCancelledException.class,
+                () -> ontologyLoader.loadOntologyWithImports(owlFile, () -> {
+                    throw new ImportCancelledException("cancelled");
+                }));
+        assertThrows(
+                ImportCancelledException.class,
+                () -> ontologyLoader.loadOntologyWithoutImports(owlFile, () -> {
+                    throw new ImportCancelledException("cancelled");
+                }));
+    }
 }
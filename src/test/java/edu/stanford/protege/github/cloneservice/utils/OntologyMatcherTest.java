@@ -0,0 +1,135 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** Unit tests for {@link OntologyMatcher} */
+@DisplayName("OntologyMatcher Tests")
+class OntologyMatcherTest {
+
+    private static final String ROOT_IRI = "http://example.org/root.owl";
+    private static final String MODULE_IRI = "http://example.org/module.owl";
+
+    private final OWLOntologyManager childCommitManager = OWLManager.createOWLOntologyManager();
+    private final OWLOntologyManager parentCommitManager = OWLManager.createOWLOntologyManager();
+
+    @Test
+    @DisplayName("Match ontologies with equal IDs regardless of their order")
+    void matchOntologiesWithEqualIds() throws Exception {
+        var childRoot = createOntology(childCommitManager, "root.owl", ROOT_IRI, null);
+        var childModule = createOntology(childCommitManager, "module.owl", MODULE_IRI, null);
+        var parentModule = createOntology(parentCommitManager, "module.owl", MODULE_IRI, null);
+        var parentRoot = createOntology(parentCommitManager, "root.owl", ROOT_IRI, null);
+
+        var matching = OntologyMatcher.match(List.of(childRoot, childModule), List.of(parentModule, parentRoot));
+
+        assertEquals(
+                List.of(
+                        new OntologyMatcher.OntologyMatch(childRoot, Optional.of(parentRoot)),
+                        new OntologyMatcher.OntologyMatch(childModule, Optional.of(parentModule))),
+                matching.matches());
+        assertTrue(matching.removedOntologies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Match ontologies whose version IRI changed by their document")
+    void matchOntologiesWithChangedVersionIriByDocument() throws Exception {
+        var child = createOntology(childCommitManager, "root.owl", ROOT_IRI, "http://example.org/2024/root.owl");
+        var parent = createOntology(parentCommitManager, "root.owl", ROOT_IRI, "http://example.org/2023/root.owl");
+
+        var matching = OntologyMatcher.match(List.of(child), List.of(parent));
+
+        assertEquals(Optional.of(parent), matching.matches().get(0).parentCommitOntology());
+        assertTrue(matching.removedOntologies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Match anonymous ontologies by their document")
+    void matchAnonymousOntologiesByDocument() throws Exception {
+        var child = createOntology(childCommitManager, "root.owl", null, null);
+        var parent = createOntology(parentCommitManager, "root.owl", null, null);
+
+        var matching = OntologyMatcher.match(List.of(child), List.of(parent));
+
+        assertEquals(Optional.of(parent), matching.matches().get(0).parentCommitOntology());
+        assertTrue(matching.removedOntologies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Do not match ontologies with different IRIs loaded from the same document")
+    void doNotMatchOntologiesWithDifferentIrisFromSameDocument() throws Exception {
+        var child = createOntology(childCommitManager, "root.owl", ROOT_IRI, null);
+        var parent = createOntology(parentCommitManager, "root.owl", MODULE_IRI, null);
+
+        var matching = OntologyMatcher.match(List.of(child), List.of(parent));
+
+        assertEquals(Optional.empty(), matching.matches().get(0).parentCommitOntology());
+        assertEquals(List.of(parent), matching.removedOntologies());
+    }
+
+    @Test
+    @DisplayName("Match ontologies whose version IRI changed by their ontology IRI")
+    void matchOntologiesWithChangedVersionIriByOntologyIri() throws Exception {
+        // The new release of the module was moved to a new file
+        var childRoot = createOntology(childCommitManager, "root.owl", ROOT_IRI, null);
+        var childModule = createOntology(childCommitManager, "v2/module.owl", MODULE_IRI, MODULE_IRI + "/2");
+        var parentRoot = createOntology(parentCommitManager, "root.owl", ROOT_IRI, null);
+        var parentModule = createOntology(parentCommitManager, "v1/module.owl", MODULE_IRI, MODULE_IRI + "/1");
+
+        var matching = OntologyMatcher.match(List.of(childRoot, childModule), List.of(parentModule, parentRoot));
+
+        assertEquals(Optional.of(parentRoot), matching.matches().get(0).parentCommitOntology());
+        assertEquals(Optional.of(parentModule), matching.matches().get(1).parentCommitOntology());
+        assertTrue(matching.removedOntologies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Prefer a match by ID over a match by document")
+    void preferMatchByIdOverMatchByDocument() throws Exception {
+        // The module was moved to a new file, and an anonymous ontology took over its old file
+        var childAnonymous = createOntology(childCommitManager, "module.owl", null, null);
+        var childModule = createOntology(childCommitManager, "moved-module.owl", MODULE_IRI, null);
+        var parentModule = createOntology(parentCommitManager, "module.owl", MODULE_IRI, null);
+
+        var matching = OntologyMatcher.match(List.of(childAnonymous, childModule), List.of(parentModule));
+
+        assertEquals(Optional.empty(), matching.matches().get(0).parentCommitOntology());
+        assertEquals(Optional.of(parentModule), matching.matches().get(1).parentCommitOntology());
+        assertTrue(matching.removedOntologies().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Report the unmatched parent ontologies as removed in their order")
+    void reportUnmatchedParentOntologiesAsRemoved() throws Exception {
+        var child = createOntology(childCommitManager, "root.owl", ROOT_IRI, null);
+        var parentRoot = createOntology(parentCommitManager, "root.owl", ROOT_IRI, null);
+        var parentModule = createOntology(parentCommitManager, "module.owl", MODULE_IRI, null);
+        var parentOther = createOntology(parentCommitManager, "other.owl", "http://example.org/other.owl", null);
+
+        var matching = OntologyMatcher.match(List.of(child), List.of(parentModule, parentRoot, parentOther));
+
+        assertEquals(List.of(parentModule, parentOther), matching.removedOntologies());
+    }
+
+    private static OWLOntology createOntology(
+            OWLOntologyManager manager, String document, @Nullable String ontologyIri, @Nullable String versionIri)
+            throws OWLOntologyCreationException {
+        var ontologyId = ontologyIri == null
+                ? new OWLOntologyID()
+                : new OWLOntologyID(IRI.create(ontologyIri), versionIri == null ? null : IRI.create(versionIri));
+        var ontology = manager.createOntology(ontologyId);
+        manager.setOntologyDocumentIRI(ontology, IRI.create("file:/repository/" + document));
+        return ontology;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link OrderedFutures} */
+@DisplayName("OrderedFutures Tests")
+class OrderedFuturesTest {
+
+    @Test
+    @DisplayName("Return the results of the tasks in order")
+    void returnResultsInOrder() {
+        var futures = List.<Future<String>>of(
+                CompletableFuture.completedFuture("first"), CompletableFuture.completedFuture("second"));
+
+        assertEquals(List.of("first", "second"), OrderedFutures.awaitAll(futures, "Test task"));
+    }
+
+    @Test
+    @DisplayName("Rethrow the unchecked failure of a task and cancel the remaining tasks")
+    void rethrowUncheckedFailureAndCancelRemainingTasks() {
+        var failure = new IllegalArgumentException("Task failed");
+        var pending = new CompletableFuture<String>();
+        var futures = List.<Future<String>>of(CompletableFuture.failedFuture(failure), pending);
+
+        var exception =
+                assertThrows(IllegalArgumentException.class, () -> OrderedFutures.awaitAll(futures, "Test task"));
+
+        assertSame(failure, exception);
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Wrap the checked failure of a task")
+    void wrapCheckedFailure() {
+        var failure = new IOException("Unreadable");
+
+        var exception = assertThrows(
+                IllegalStateException.class,
+                () -> OrderedFutures.await(CompletableFuture.failedFuture(failure), "Test task"));
+
+        assertEquals("Test task failed", exception.getMessage());
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Fail with a cancellation and restore the interrupt status when interrupted")
+    void failWithCancellationWhenInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(
+                    CancellationException.class, () -> OrderedFutures.await(new CompletableFuture<>(), "Test task"));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
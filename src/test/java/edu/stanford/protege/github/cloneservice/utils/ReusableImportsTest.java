@@ -0,0 +1,132 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+/** Unit tests for {@link ReusableImports} */
+@DisplayName("ReusableImports Tests")
+class ReusableImportsTest {
+
+    private static final String MAIN_FILE = "ontologies/main.ofn";
+
+    private static final String IMPORTED_FILE = "ontologies/imported.owl";
+
+    @TempDir
+    Path workingDirectory;
+
+    private TestGitRepository repository;
+
+    private TrackedFiles trackedFiles;
+
+    private OntologyLoader ontologyLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = TestGitRepository.create(workingDirectory);
+        trackedFiles = TrackedFiles.of(
+                workingDirectory,
+                workingDirectory.resolve(MAIN_FILE),
+                List.of(workingDirectory.resolve(IMPORTED_FILE)));
+        ontologyLoader = new OntologyLoader(new OntologyManagerProvider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Reuse the imports of a commit that only modifies the root ontology")
+    void reuseImportsOfCommitThatOnlyModifiesRootOntology() throws Exception {
+        repository.commit(IMPORTED_FILE, importedOntology("A"), "imported");
+        var baseCommit = repository.commit(MAIN_FILE, mainOntology("B"), "B");
+        var loadedCommit = repository.commit(MAIN_FILE, mainOntology("C"), "C");
+        var loadedOntologies = loadOntologies();
+
+        try (var reusableImports = ReusableImports.open(workingDirectory)) {
+            var importedOntologies =
+                    reusableImports.find(baseCommit, trackedFiles, loadedCommit, trackedFiles, loadedOntologies);
+
+            assertTrue(importedOntologies.isPresent());
+            assertEquals(1, importedOntologies.get().size());
+            assertSame(loadedOntologies.get(1), importedOntologies.get().get(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Do not reuse the imports of a commit that modifies an imported document")
+    void doNotReuseImportsOfCommitThatModifiesImportedDocument() throws Exception {
+        repository.commit(MAIN_FILE, mainOntology("B"), "B");
+        var baseCommit = repository.commit(IMPORTED_FILE, importedOntology("A"), "A");
+        var loadedCommit = repository.commit(IMPORTED_FILE, importedOntology("C"), "C");
+        var loadedOntologies = loadOntologies();
+
+        try (var reusableImports = ReusableImports.open(workingDirectory)) {
+            assertTrue(reusableImports
+                    .find(baseCommit, trackedFiles, loadedCommit, trackedFiles, loadedOntologies)
+                    .isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Do not reuse the imports of a commit that modifies a catalog of the ontology file")
+    void doNotReuseImportsOfCommitThatModifiesCatalog() throws Exception {
+        repository.commit(IMPORTED_FILE, importedOntology("A"), "A");
+        var baseCommit = repository.commit(MAIN_FILE, mainOntology("B"), "B");
+        var loadedCommit = repository.commit("ontologies/catalog-v001.xml", "<catalog/>", "catalog");
+        var loadedOntologies = List.of(ontologyLoader
+                .loadOntologyWithImports(workingDirectory.resolve(MAIN_FILE))
+                .get(0));
+
+        try (var reusableImports = ReusableImports.open(workingDirectory)) {
+            assertTrue(reusableImports
+                    .find(baseCommit, trackedFiles, loadedCommit, trackedFiles, loadedOntologies)
+                    .isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Find the paths of the files that differ between two commits")
+    void findPathsOfFilesThatDifferBetweenCommits() throws Exception {
+        var firstCommit = repository.commit(IMPORTED_FILE, importedOntology("A"), "A");
+        repository.commit("docs/README.md", "readme", "readme");
+        var lastCommit = repository.move(IMPORTED_FILE, "imports/imported.owl", "move");
+
+        try (var reusableImports = ReusableImports.open(workingDirectory)) {
+            assertEquals(
+                    Set.of("docs/README.md", IMPORTED_FILE, "imports/imported.owl"),
+                    reusableImports.findChangedPaths(lastCommit, firstCommit));
+            assertEquals(Set.of(), reusableImports.findChangedPaths(lastCommit, lastCommit));
+        }
+    }
+
+    private List<OWLOntology> loadOntologies() {
+        return ontologyLoader.loadOntologyWithImports(workingDirectory.resolve(MAIN_FILE));
+    }
+
+    private static String mainOntology(String className) {
+        return "Ontology(<http://example.org/main> Import(<http://example.org/imported>)"
+                + " Declaration(Class(<http://example.org/main#" + className + ">)))";
+    }
+
+    private static String importedOntology(String className) {
+        return """
+                <?xml version="1.0"?>
+                <rdf:RDF xmlns:rdf="http://www.w3.org/1999/02/22-rdf-syntax-ns#"
+                         xmlns:owl="http://www.w3.org/2002/07/owl#">
+                    <owl:Ontology rdf:about="http://example.org/imported"/>
+                    <owl:Class rdf:about="http://example.org/imported#%s"/>
+                </rdf:RDF>
+                """
+                .formatted(className);
+    }
+}
@@ -0,0 +1,187 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import edu.stanford.protege.commitnavigator.CommitNavigator;
+import edu.stanford.protege.commitnavigator.exceptions.GitHubNavigatorException;
+import edu.stanford.protege.commitnavigator.model.CommitMetadata;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * A git repository for the tests of the commit walk, with commit navigators that walk its first
+ * parents the way the navigators of the commit navigator library do
+ */
+final class TestGitRepository implements AutoCloseable {
+
+    private final Git git;
+
+    private final Path workingDirectory;
+
+    private final AtomicInteger checkouts = new AtomicInteger();
+
+    private final AtomicInteger openNavigators = new AtomicInteger();
+
+    private TestGitRepository(Git git, Path workingDirectory) {
+        this.git = git;
+        this.workingDirectory = workingDirectory;
+    }
+
+    static TestGitRepository create(Path workingDirectory) throws Exception {
+        var git = Git.init()
+                .setDirectory(workingDirectory.toFile())
+                .setInitialBranch("main")
+                .call();
+        return new TestGitRepository(git, workingDirectory);
+    }
+
+    Path workingDirectory() {
+        return workingDirectory;
+    }
+
+    /** Writes the given content to the given file and commits it with the content as message */
+    String commit(String relativePath, String content) throws Exception {
+        return commit(relativePath, content, content);
+    }
+
+    /** Writes the given content to the given file and commits it with the given message */
+    String commit(String relativePath, String content, String message) throws Exception {
+        var file = workingDirectory.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        git.add().addFilepattern(relativePath).call();
+        return git.commit().setMessage(message).call().name();
+    }
+
+    /** Moves the given file to the given path and commits the move with the given message */
+    String move(String relativePath, String newRelativePath, String message) throws Exception {
+        var newFile = workingDirectory.resolve(newRelativePath);
+        Files.createDirectories(newFile.getParent());
+        Files.move(workingDirectory.resolve(relativePath), newFile);
+        git.rm().addFilepattern(relativePath).call();
+        git.add().addFilepattern(newRelativePath).call();
+        return git.commit().setMessage(message).call().name();
+    }
+
+    void createBranch(String name) throws Exception {
+        git.checkout().setCreateBranch(true).setName(name).call();
+    }
+
+    void checkout(String name) throws Exception {
+        git.checkout().setName(name).call();
+    }
+
+    /** Merges the given branch into the current branch with a merge commit */
+    String merge(String branch, String message) throws Exception {
+        var result = git.merge()
+                .include(git.getRepository().resolve(branch))
+                .setFastForward(MergeCommand.FastForwardMode.NO_FF)
+                .setMessage(message)
+                .call();
+        return result.getNewHead().name();
+    }
+
+    /**
+     * Merges the given branch into the current branch with a merge commit in which the given file has
+     * the given content, whether or not the branches conflict
+     */
+    String merge(String branch, String relativePath, String content, String message) throws Exception {
+        git.merge()
+                .include(git.getRepository().resolve(branch))
+                .setFastForward(MergeCommand.FastForwardMode.NO_FF)
+                .setCommit(false)
+                .call();
+        Files.writeString(workingDirectory.resolve(relativePath), content);
+        git.add().addFilepattern(relativePath).call();
+        return git.commit().setMessage(message).call().name();
+    }
+
+    /** Returns the number of parents that the navigators have checked out */
+    int checkouts() {
+        return checkouts.get();
+    }
+
+    /** Returns the number of navigators that have been created and not closed yet */
+    int openNavigators() {
+        return openNavigators.get();
+    }
+
+    /**
+     * Creates a navigator positioned at the commit that is currently checked out. Like the navigators
+     * of the commit navigator library, it holds a handle on the repository until it is closed.
+     */
+    CommitNavigator createNavigator() throws GitHubNavigatorException {
+        AtomicReference<RevCommit> currentCommit;
+        try {
+            currentCommit =
+                    new AtomicReference<>(parseCommit(git.getRepository().resolve(Constants.HEAD)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var commitNavigator = mock(CommitNavigator.class, withSettings().extraInterfaces(AutoCloseable.class));
+        openNavigators.incrementAndGet();
+        var closed = new AtomicBoolean();
+        try {
+            lenient()
+                    .doAnswer(invocation -> {
+                        if (closed.compareAndSet(false, true)) {
+                            openNavigators.decrementAndGet();
+                        }
+                        return null;
+                    })
+                    .when((AutoCloseable) commitNavigator)
+                    .close();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        lenient()
+                .when(commitNavigator.resolveFilePath(anyString()))
+                .thenAnswer(invocation -> workingDirectory.resolve(invocation.<String>getArgument(0)));
+        lenient()
+                .when(commitNavigator.getCurrentCommit())
+                .thenAnswer(invocation -> createCommitMetadata(currentCommit.get()));
+        lenient()
+                .when(commitNavigator.hasParent())
+                .thenAnswer(invocation -> currentCommit.get().getParentCount() > 0);
+        lenient().when(commitNavigator.checkoutParent()).thenAnswer(invocation -> {
+            var parent = parseCommit(currentCommit.get().getParent(0));
+            git.checkout().setName(parent.name()).setForced(true).call();
+            currentCommit.set(parent);
+            checkouts.incrementAndGet();
+            return createCommitMetadata(parent);
+        });
+        return commitNavigator;
+    }
+
+    private RevCommit parseCommit(ObjectId commitId) throws IOException {
+        try (var revWalk = new RevWalk(git.getRepository())) {
+            return revWalk.parseCommit(commitId);
+        }
+    }
+
+    private static CommitMetadata createCommitMetadata(RevCommit commit) {
+        var commitMetadata = mock(CommitMetadata.class);
+        lenient().when(commitMetadata.commitHash()).thenReturn(commit.name());
+        lenient().when(commitMetadata.commitMessage()).thenReturn(commit.getFullMessage());
+        lenient().when(commitMetadata.getChangedFiles()).thenReturn(List.of());
+        return commitMetadata;
+    }
+
+    @Override
+    public void close() {
+        git.close();
+    }
+}
@@ -0,0 +1,108 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TrackedFiles} */
+@DisplayName("TrackedFiles Tests")
+class TrackedFilesTest {
+
+    private static final Path WORKING_DIRECTORY = Path.of("/tmp/repository");
+
+    @Test
+    @DisplayName("Create repository paths of the files in the working directory")
+    void createRepositoryPathsOfFilesInWorkingDirectory() {
+        var trackedFiles = TrackedFiles.of(
+                WORKING_DIRECTORY,
+                WORKING_DIRECTORY.resolve("src/ontology.owl"),
+                List.of(
+                        WORKING_DIRECTORY.resolve("src/ontology.owl"),
+                        WORKING_DIRECTORY.resolve("imports/../src/imports/import.owl"),
+                        Path.of("/tmp/elsewhere/import.owl")));
+
+        assertEquals("src/ontology.owl", trackedFiles.ontologyPath());
+        assertEquals(ImmutableSet.of("src/imports/import.owl"), trackedFiles.importPaths());
+        assertEquals("src", trackedFiles.ontologyDirectory());
+        assertEquals(
+                List.of("src/ontology.owl", "src/imports/import.owl", "src/catalog-*.xml"),
+                trackedFiles.filePatterns());
+    }
+
+    @Test
+    @DisplayName("Match the tracked files and the catalogs next to the ontology file")
+    void matchTrackedFilesAndCatalogs() {
+        var trackedFiles = new TrackedFiles("src/ontology.owl", ImmutableSet.of("imports/import.owl"));
+
+        assertTrue(trackedFiles.matches("src/ontology.owl"));
+        assertTrue(trackedFiles.matches("imports/import.owl"));
+        assertTrue(trackedFiles.matches("src/catalog-v001.xml"));
+        assertFalse(trackedFiles.matches("catalog-v001.xml"));
+        assertFalse(trackedFiles.matches("src/other.owl"));
+        assertFalse(trackedFiles.matches("src/nested/catalog-v001.xml"));
+    }
+
+    @Test
+    @DisplayName("Match the catalogs in the root directory for an ontology file in the root directory")
+    void matchCatalogsInRootDirectory() {
+        var trackedFiles = new TrackedFiles("ontology.owl", ImmutableSet.of());
+
+        assertEquals("", trackedFiles.ontologyDirectory());
+        assertTrue(trackedFiles.matches("catalog-v001.xml"));
+        assertFalse(trackedFiles.matches("src/catalog-v001.xml"));
+    }
+
+    @Test
+    @DisplayName("Find the directories that contain tracked files")
+    void findDirectoriesThatContainTrackedFiles() {
+        var trackedFiles = new TrackedFiles("src/main/ontology.owl", ImmutableSet.of("imports/import.owl"));
+
+        assertTrue(trackedFiles.containsTrackedFiles("src"));
+        assertTrue(trackedFiles.containsTrackedFiles("src/main"));
+        assertTrue(trackedFiles.containsTrackedFiles("imports"));
+        assertFalse(trackedFiles.containsTrackedFiles("src/test"));
+        assertFalse(trackedFiles.containsTrackedFiles("docs"));
+    }
+
+    @Test
+    @DisplayName("Rename the tracked files to their previous paths and keep their paths at HEAD")
+    void renameTrackedFilesToPreviousPaths() {
+        var trackedFiles = new TrackedFiles("new/ontology.owl", ImmutableSet.of("new/import.owl", "other.owl"));
+
+        var renamed = trackedFiles.renamed(
+                Map.of("new/ontology.owl", "old/ontology.owl", "new/import.owl", "old/import.owl"));
+
+        assertEquals("old/ontology.owl", renamed.ontologyPath());
+        assertEquals(ImmutableSet.of("old/import.owl", "other.owl"), renamed.importPaths());
+        assertEquals("new/ontology.owl", renamed.headPath("old/ontology.owl"));
+        assertEquals("new/import.owl", renamed.headPath("old/import.owl"));
+        assertEquals("other.owl", renamed.headPath("other.owl"));
+        assertSame(trackedFiles, trackedFiles.renamed(Map.of()));
+    }
+
+    @Test
+    @DisplayName("Keep the paths at HEAD of files that were renamed several times")
+    void keepHeadPathsOfFilesRenamedSeveralTimes() {
+        var trackedFiles = new TrackedFiles("c.owl", ImmutableSet.of());
+
+        var renamed = trackedFiles.renamed(Map.of("c.owl", "b.owl")).renamed(Map.of("b.owl", "a.owl"));
+
+        assertEquals("a.owl", renamed.ontologyPath());
+        assertEquals(Map.of("a.owl", "c.owl"), renamed.headPaths());
+    }
+
+    @Test
+    @DisplayName("Forget the paths at HEAD of files that are renamed back")
+    void forgetHeadPathsOfFilesRenamedBack() {
+        var trackedFiles = new TrackedFiles("a.owl", ImmutableSet.of());
+
+        var renamed = trackedFiles.renamed(Map.of("a.owl", "b.owl")).renamed(Map.of("b.owl", "a.owl"));
+
+        assertEquals(trackedFiles, renamed);
+    }
+}
@@ -0,0 +1,99 @@
+package edu.stanford.protege.github.cloneservice.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for {@link UnparsableDocumentCache} */
+@DisplayName("UnparsableDocumentCache Tests")
+class UnparsableDocumentCacheTest {
+
+    private static final String ONTOLOGY_FILE = "ontology.owl";
+
+    private static final String BROKEN_CONTENT = "This is not a valid OWL file";
+
+    @TempDir
+    Path workingDirectory;
+
+    private TestGitRepository repository;
+
+    private TrackedFiles trackedFiles;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = TestGitRepository.create(workingDirectory);
+        trackedFiles = TrackedFiles.of(workingDirectory, workingDirectory.resolve(ONTOLOGY_FILE), List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Find the failure of a document with the same blob in a later commit")
+    void findFailureOfDocumentWithSameBlob() throws Exception {
+        var brokenCommit = repository.commit(ONTOLOGY_FILE, BROKEN_CONTENT, "broken");
+        var catalogCommit = repository.commit("catalog-v001.xml", "<catalog/>", "catalog");
+        var fixedCommit = repository.commit(ONTOLOGY_FILE, "Ontology()", "fixed");
+
+        try (var cache = UnparsableDocumentCache.open(workingDirectory)) {
+            var brokenBlob = cache.findOntologyBlob(brokenCommit, trackedFiles);
+            assertTrue(brokenBlob.isPresent());
+            cache.recordFailure(brokenBlob.get(), "Unable to parse ontology document " + ONTOLOGY_FILE);
+
+            assertEquals(brokenBlob, cache.findOntologyBlob(catalogCommit, trackedFiles));
+            assertEquals(
+                    Optional.of("Unable to parse ontology document " + ONTOLOGY_FILE),
+                    cache.findFailure(
+                            cache.findOntologyBlob(catalogCommit, trackedFiles).orElseThrow()));
+            assertEquals(
+                    Optional.empty(),
+                    cache.findFailure(
+                            cache.findOntologyBlob(fixedCommit, trackedFiles).orElseThrow()));
+        }
+    }
+
+    @Test
+    @DisplayName("Find no blob for a commit without the ontology file")
+    void findNoBlobForCommitWithoutOntologyFile() throws Exception {
+        var commit = repository.commit("README.md", "readme", "readme");
+
+        try (var cache = UnparsableDocumentCache.open(workingDirectory)) {
+            assertEquals(Optional.empty(), cache.findOntologyBlob(commit, trackedFiles));
+            assertEquals(Optional.empty(), cache.findOntologyBlob("not a commit hash", trackedFiles));
+        }
+    }
+
+    @Test
+    @DisplayName("Recognize failures caused by an unparsable root ontology document")
+    void recognizeFailuresCausedByUnparsableRootDocument() throws Exception {
+        var ontologyFile = workingDirectory.resolve(ONTOLOGY_FILE);
+        Files.writeString(ontologyFile, BROKEN_CONTENT);
+        var ontologyLoader = new OntologyLoader(new OntologyManagerProvider());
+
+        var failure = assertThrows(Exception.class, () -> ontologyLoader.loadOntologyWithImports(ontologyFile));
+
+        assertTrue(UnparsableDocumentCache.isUnparsable(ontologyFile, failure));
+        assertFalse(UnparsableDocumentCache.isUnparsable(workingDirectory.resolve("other.owl"), failure));
+    }
+
+    @Test
+    @DisplayName("Do not recognize failures that are not caused by parsing")
+    void doNotRecognizeFailuresNotCausedByParsing() {
+        var ontologyFile = workingDirectory.resolve(ONTOLOGY_FILE);
+        var ontologyLoader = new OntologyLoader(new OntologyManagerProvider());
+
+        var failure = assertThrows(Exception.class, () -> ontologyLoader.loadOntologyWithImports(ontologyFile));
+
+        assertFalse(UnparsableDocumentCache.isUnparsable(ontologyFile, failure));
+    }
+}